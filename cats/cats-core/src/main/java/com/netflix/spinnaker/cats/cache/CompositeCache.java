@@ -17,6 +17,7 @@
 package com.netflix.spinnaker.cats.cache;
 
 import java.util.*;
+import java.util.stream.Stream;
 
 /** A cache that provides a unified view of multiples, merging items from each cache together. */
 public class CompositeCache implements Cache {
@@ -66,6 +67,16 @@ public class CompositeCache implements Cache {
     return allItems.values();
   }
 
+  @Override
+  public Stream<CacheData> streamAll(String type, CacheFilter cacheFilter) {
+    if (caches.size() == 1) {
+      return caches.iterator().next().streamAll(type, cacheFilter);
+    }
+
+    // items have to be merged by id across caches, so there is nothing to gain from streaming
+    return getAll(type, cacheFilter).stream();
+  }
+
   @Override
   public Collection<String> existingIdentifiers(String type, Collection<String> ids) {
     HashSet<String> identifiers = new HashSet<>(ids.size());
@@ -0,0 +1,31 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.cats.cluster;
+
+/**
+ * Notified by caches that can tell changed items from unchanged ones when an agent's results are
+ * stored, so that schedulers can adapt to how often an agent's data actually changes.
+ */
+public interface AgentChangeListener {
+  /**
+   * @param agentType the type of the agent whose results were stored
+   * @param type the cache type the items were stored as
+   * @param itemsChanged items that were added, updated or removed
+   * @param itemsUnchanged items that were identical to the stored ones
+   */
+  void itemsStored(String agentType, String type, int itemsChanged, int itemsUnchanged);
+}
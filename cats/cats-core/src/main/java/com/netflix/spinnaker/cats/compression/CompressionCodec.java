@@ -0,0 +1,91 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.spinnaker.cats.compression;
+
+import com.github.luben.zstd.Zstd;
+import net.jpountz.lz4.LZ4Factory;
+
+/**
+ * Block codecs usable by {@link FramedCompression}. The id of a codec is written in the header of
+ * every value it compresses, so ids must never be reused.
+ */
+public enum CompressionCodec {
+  /** Fast compression and very fast decompression, with a lower ratio than zstd. */
+  LZ4((byte) 1, false) {
+    @Override
+    byte[] compress(byte[] data, byte[] dictionary, int level) {
+      return LZ4_FACTORY.fastCompressor().compress(data);
+    }
+
+    @Override
+    byte[] decompress(byte[] data, byte[] dictionary, int originalLength) {
+      return LZ4_FACTORY.fastDecompressor().decompress(data, originalLength);
+    }
+  },
+
+  /** Zstandard, optionally with a dictionary trained on values of the same cache type. */
+  ZSTD((byte) 2, true) {
+    @Override
+    byte[] compress(byte[] data, byte[] dictionary, int level) {
+      return dictionary == null
+          ? Zstd.compress(data, level)
+          : Zstd.compressUsingDict(data, dictionary, level);
+    }
+
+    @Override
+    byte[] decompress(byte[] data, byte[] dictionary, int originalLength) {
+      return dictionary == null
+          ? Zstd.decompress(data, originalLength)
+          : Zstd.decompress(data, dictionary, originalLength);
+    }
+  };
+
+  private static final LZ4Factory LZ4_FACTORY = LZ4Factory.fastestInstance();
+
+  private final byte id;
+  private final boolean supportsDictionaries;
+
+  CompressionCodec(byte id, boolean supportsDictionaries) {
+    this.id = id;
+    this.supportsDictionaries = supportsDictionaries;
+  }
+
+  public byte getId() {
+    return id;
+  }
+
+  public boolean supportsDictionaries() {
+    return supportsDictionaries;
+  }
+
+  abstract byte[] compress(byte[] data, byte[] dictionary, int level);
+
+  abstract byte[] decompress(byte[] data, byte[] dictionary, int originalLength);
+
+  static CompressionCodec fromId(byte id) {
+    for (CompressionCodec codec : values()) {
+      if (codec.id == id) {
+        return codec;
+      }
+    }
+    return null;
+  }
+
+  /** @return the codec named by a config value such as {@code lz4} or {@code zstd} */
+  public static CompressionCodec fromConfig(String value) {
+    return valueOf(value.trim().toUpperCase());
+  }
+}
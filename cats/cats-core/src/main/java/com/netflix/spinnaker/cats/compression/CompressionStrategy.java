@@ -18,5 +18,12 @@ package com.netflix.spinnaker.cats.compression;
 public interface CompressionStrategy {
   String compress(final String str);
 
+  /**
+   * Compresses a value of the given cache type, allowing strategies to tune compression per type.
+   */
+  default String compress(final String type, final String str) {
+    return compress(str);
+  }
+
   String decompress(final String compressed);
 }
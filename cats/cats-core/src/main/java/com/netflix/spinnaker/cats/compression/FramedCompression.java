@@ -0,0 +1,213 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.spinnaker.cats.compression;
+
+import com.github.luben.zstd.ZstdDictTrainer;
+import com.google.common.hash.Hashing;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compresses values with a {@link CompressionCodec}, prefixing them with a header that names the
+ * codec, the dictionary and the uncompressed length.
+ *
+ * <p>Because values describe how they were compressed, the codec, thresholds and dictionaries can
+ * be changed without flushing existing values: any value written by a FramedCompression is read
+ * back as long as its dictionary is still configured, and values written by {@link
+ * GZipCompression} or stored uncompressed are read as before.
+ *
+ * <p>Values smaller than the threshold of their cache type are stored uncompressed.
+ */
+public class FramedCompression implements CompressionStrategy {
+
+  private static final Logger log = LoggerFactory.getLogger(FramedCompression.class);
+
+  private static final byte MAGIC_0 = (byte) 0xCA;
+  private static final byte MAGIC_1 = (byte) 0x75;
+  private static final int HEADER_SIZE = 11;
+  private static final int NO_DICTIONARY = 0;
+
+  // Lets plain values be recognized without attempting to decode them
+  private static final String FRAMED_PREFIX =
+      Base64.getEncoder().encodeToString(new byte[] {MAGIC_0, MAGIC_1, 0}).substring(0, 2);
+  private static final String GZIP_PREFIX =
+      Base64.getEncoder().encodeToString(new byte[] {(byte) 0x1f, (byte) 0x8b, 8});
+
+  private final CompressionCodec codec;
+  private final int level;
+  private final long thresholdBytesSize;
+  private final Map<String, Long> thresholdBytesSizeByType;
+  private final Map<String, Integer> dictionaryIdsByType = new HashMap<>();
+  private final Map<Integer, byte[]> dictionariesById = new HashMap<>();
+
+  public FramedCompression(CompressionCodec codec, int level, long thresholdBytesSize) {
+    this(codec, level, thresholdBytesSize, Collections.emptyMap(), Collections.emptyMap());
+  }
+
+  /**
+   * @param level the compression level, ignored by codecs without levels
+   * @param thresholdBytesSizeByType thresholds overriding {@code thresholdBytesSize} per type
+   * @param dictionariesByType dictionaries to compress values of each type with, ignored by codecs
+   *     without dictionary support. Dictionaries are also used to read values written with them.
+   */
+  public FramedCompression(
+      CompressionCodec codec,
+      int level,
+      long thresholdBytesSize,
+      Map<String, Long> thresholdBytesSizeByType,
+      Map<String, byte[]> dictionariesByType) {
+    log.info(
+        "Cats using {} compression: {} bytes threshold, {} type thresholds, {} dictionaries",
+        codec,
+        thresholdBytesSize,
+        thresholdBytesSizeByType.size(),
+        dictionariesByType.size());
+    this.codec = codec;
+    this.level = level;
+    this.thresholdBytesSize = thresholdBytesSize;
+    this.thresholdBytesSizeByType = new HashMap<>(thresholdBytesSizeByType);
+
+    dictionariesByType.forEach(
+        (type, dictionary) -> {
+          int id = dictionaryId(dictionary);
+          dictionariesById.put(id, dictionary);
+          dictionaryIdsByType.put(type, id);
+        });
+  }
+
+  @Override
+  public String compress(final String str) {
+    return compress(null, str);
+  }
+
+  @Override
+  public String compress(final String type, final String str) {
+    if (str == null) {
+      return null;
+    }
+
+    byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+    if (bytes.length < thresholdFor(type)) {
+      return str;
+    }
+
+    int dictionaryId = NO_DICTIONARY;
+    if (codec.supportsDictionaries() && type != null) {
+      dictionaryId = dictionaryIdsByType.getOrDefault(type, NO_DICTIONARY);
+    }
+
+    byte[] compressed;
+    try {
+      compressed = codec.compress(bytes, dictionariesById.get(dictionaryId), level);
+    } catch (RuntimeException e) {
+      log.error("Failed to compress string of type {}", type, e);
+      return str;
+    }
+
+    ByteBuffer framed = ByteBuffer.allocate(HEADER_SIZE + compressed.length);
+    framed.put(MAGIC_0).put(MAGIC_1).put(codec.getId());
+    framed.putInt(dictionaryId).putInt(bytes.length).put(compressed);
+    return Base64.getEncoder().encodeToString(framed.array());
+  }
+
+  @Override
+  public String decompress(final String compressed) {
+    if (compressed == null) {
+      return null;
+    }
+
+    if (!compressed.startsWith(FRAMED_PREFIX)) {
+      return compressed.startsWith(GZIP_PREFIX)
+          ? GZipCompression.decompressGZip(compressed)
+          : compressed;
+    }
+
+    byte[] bytes;
+    try {
+      bytes = Base64.getDecoder().decode(compressed);
+    } catch (IllegalArgumentException e) {
+      return compressed;
+    }
+
+    if (!isFramed(bytes)) {
+      return compressed;
+    }
+
+    ByteBuffer framed = ByteBuffer.wrap(bytes);
+    framed.position(2);
+    CompressionCodec valueCodec = CompressionCodec.fromId(framed.get());
+    int dictionaryId = framed.getInt();
+    int originalLength = framed.getInt();
+    byte[] dictionary = dictionariesById.get(dictionaryId);
+
+    if (valueCodec == null || (dictionaryId != NO_DICTIONARY && dictionary == null)) {
+      log.error(
+          "Failed to decompress string: unknown codec {} or dictionary {}", bytes[2], dictionaryId);
+      return compressed;
+    }
+
+    byte[] payload = new byte[framed.remaining()];
+    framed.get(payload);
+    try {
+      return new String(
+          valueCodec.decompress(payload, dictionary, originalLength), StandardCharsets.UTF_8);
+    } catch (RuntimeException e) {
+      log.error("Failed to decompress string: {}", compressed, e);
+      return compressed;
+    }
+  }
+
+  private long thresholdFor(String type) {
+    if (type == null) {
+      return thresholdBytesSize;
+    }
+    return thresholdBytesSizeByType.getOrDefault(type, thresholdBytesSize);
+  }
+
+  private static boolean isFramed(byte[] bytes) {
+    return bytes.length >= HEADER_SIZE && bytes[0] == MAGIC_0 && bytes[1] == MAGIC_1;
+  }
+
+  private static int dictionaryId(byte[] dictionary) {
+    int id = Hashing.murmur3_32().hashBytes(dictionary).asInt();
+    return id == NO_DICTIONARY ? 1 : id;
+  }
+
+  /**
+   * Trains a zstd dictionary on sample values of a single cache type.
+   *
+   * @param dictionarySize the maximum size of the dictionary in bytes
+   */
+  public static byte[] trainDictionary(Collection<String> samples, int dictionarySize) {
+    int samplesSize = 0;
+    for (String sample : samples) {
+      samplesSize += sample.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    ZstdDictTrainer trainer = new ZstdDictTrainer(samplesSize, dictionarySize);
+    for (String sample : samples) {
+      trainer.addSample(sample.getBytes(StandardCharsets.UTF_8));
+    }
+    return trainer.trainSamples();
+  }
+}
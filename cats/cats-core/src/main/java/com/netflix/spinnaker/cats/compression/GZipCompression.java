@@ -84,6 +84,14 @@ public class GZipCompression implements CompressionStrategy {
 
   @Override
   public String decompress(final String compressed) {
+    return decompressGZip(compressed);
+  }
+
+  /**
+   * Decompresses a value written by {@link #compress(String)}, returning values that were not
+   * compressed unchanged.
+   */
+  static String decompressGZip(final String compressed) {
     if (compressed == null) {
       return null;
     }
@@ -34,10 +34,25 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.regex.Pattern;
 
-/** A WriteableCache that stores objects in an in-memory map. */
+/**
+ * A WriteableCache that stores objects in an in-memory map.
+ *
+ * <p>Items are added to and removed from the map under a per-id lock stripe, together with their
+ * type's {@link KeyIndex}, so the index always holds the ids in the map.
+ */
 public class InMemoryCache implements WriteableCache {
+  private static final int LOCK_STRIPES = 64;
+
   private ConcurrentMap<String, ConcurrentMap<String, CacheData>> typeMap =
       new ConcurrentHashMap<>();
+  private ConcurrentMap<String, KeyIndex> keyIndexes = new ConcurrentHashMap<>();
+  private final Object[] locks = new Object[LOCK_STRIPES];
+
+  public InMemoryCache() {
+    for (int i = 0; i < locks.length; i++) {
+      locks[i] = new Object();
+    }
+  }
 
   @Override
   public void merge(String type, CacheData cacheData) {
@@ -53,14 +68,22 @@ public class InMemoryCache implements WriteableCache {
 
   @Override
   public void evict(String type, String id) {
-    getTypeMap(type).remove(id);
+    evict(getTypeMap(type), getKeyIndex(type), id);
   }
 
   @Override
   public void evictAll(String type, Collection<String> ids) {
     ConcurrentMap<String, CacheData> map = getTypeMap(type);
+    KeyIndex keyIndex = getKeyIndex(type);
     for (String id : ids) {
+      evict(map, keyIndex, id);
+    }
+  }
+
+  private void evict(ConcurrentMap<String, CacheData> map, KeyIndex keyIndex, String id) {
+    synchronized (lockFor(id)) {
       map.remove(id);
+      keyIndex.remove(id);
     }
   }
 
@@ -132,18 +155,16 @@ public class InMemoryCache implements WriteableCache {
   }
 
   public Collection<String> filterIdentifiers(String type, String glob) {
-    final Pattern pattern = new Glob(glob).toPattern();
-    final HashSet<String> matches = new HashSet<>();
-    for (String key : getTypeMap(type).keySet()) {
-      if (pattern.matcher(key).matches()) {
-        matches.add(key);
-      }
-    }
-    return matches;
+    ConcurrentMap<String, CacheData> map = getTypeMap(type);
+    return getKeyIndex(type).filter(glob, map::containsKey);
   }
 
   private CacheData getOrCreate(String type, String id) {
-    return getCacheData(getTypeMap(type), id);
+    return getCacheData(getTypeMap(type), getKeyIndex(type), id);
+  }
+
+  private KeyIndex getKeyIndex(String type) {
+    return keyIndexes.computeIfAbsent(type, t -> new KeyIndex());
   }
 
   private ConcurrentMap<String, CacheData> getTypeMap(String type) {
@@ -173,14 +194,27 @@ public class InMemoryCache implements WriteableCache {
     return new DefaultCacheData(data.getId(), data.getAttributes(), relationships);
   }
 
-  private CacheData getCacheData(ConcurrentMap<String, CacheData> map, String id) {
-    CacheData newValue = new BackingData(id);
-    CacheData existing = map.putIfAbsent(id, newValue);
-    if (existing == null) {
-      return newValue;
+  private CacheData getCacheData(
+      ConcurrentMap<String, CacheData> map, KeyIndex keyIndex, String id) {
+    CacheData existing = map.get(id);
+    if (existing != null) {
+      return existing;
     }
 
-    return existing;
+    synchronized (lockFor(id)) {
+      CacheData newValue = new BackingData(id);
+      existing = map.putIfAbsent(id, newValue);
+      if (existing == null) {
+        keyIndex.add(id);
+        return newValue;
+      }
+
+      return existing;
+    }
+  }
+
+  private Object lockFor(String id) {
+    return locks[(id.hashCode() & Integer.MAX_VALUE) % locks.length];
   }
 
   private void merge(CacheData existing, CacheData update) {
@@ -20,14 +20,25 @@ import com.netflix.spinnaker.cats.cache.NamedCacheFactory;
 import com.netflix.spinnaker.cats.cache.WriteableCache;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
 
 /** Produces InMemoryCaches. */
 public class InMemoryNamedCacheFactory implements NamedCacheFactory {
   private final ConcurrentMap<String, WriteableCache> caches = new ConcurrentHashMap<>();
+  private final Supplier<WriteableCache> cacheSupplier;
+
+  public InMemoryNamedCacheFactory() {
+    this(InMemoryCache::new);
+  }
+
+  /** @param cacheSupplier creates the cache backing each name, e.g. {@link CompactInMemoryCache} */
+  public InMemoryNamedCacheFactory(Supplier<WriteableCache> cacheSupplier) {
+    this.cacheSupplier = cacheSupplier;
+  }
 
   @Override
   public WriteableCache getCache(String name) {
-    WriteableCache cache = new InMemoryCache();
+    WriteableCache cache = cacheSupplier.get();
     WriteableCache existing = caches.putIfAbsent(name, cache);
     if (existing == null) {
       return cache;
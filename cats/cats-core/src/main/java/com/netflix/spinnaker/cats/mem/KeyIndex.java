@@ -0,0 +1,279 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.cats.mem;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * An index of the keys of one type, used to evaluate {@link InMemoryCache.Glob} filters without
+ * matching every key.
+ *
+ * <p>Keys are kept sorted, so a glob with a literal prefix (e.g. {@code aws:instances:prod:*}) only
+ * visits the keys in that prefix range. Other globs visit every key, unless trigram postings are
+ * enabled: globs with a literal run of at least {@link #GRAM_LENGTH} characters (e.g. {@code
+ * *myapp-prod*}) then only visit the keys sharing the rarest trigram of that run. Postings hold an
+ * entry for every trigram of every key, so they are only worth their memory where such globs are
+ * common, and they are bounded: once adding a key would take them past their maximum size, they are
+ * dropped and globs go back to visiting every key. Candidates are always verified against the
+ * glob's pattern.
+ *
+ * <p>Adding and removing a key update the sorted keys and the postings together under a lock for
+ * that key.
+ */
+public class KeyIndex {
+  static final int GRAM_LENGTH = 3;
+  private static final int LOCK_STRIPES = 64;
+
+  private final ConcurrentSkipListSet<String> keys = new ConcurrentSkipListSet<>();
+  private final ConcurrentMap<String, Set<String>> grams = new ConcurrentHashMap<>();
+  private final AtomicLong postingsSize = new AtomicLong();
+  private final long maxPostingsSize;
+  private volatile boolean indexGrams;
+  private final Object[] locks = new Object[LOCK_STRIPES];
+
+  public KeyIndex() {
+    this(false);
+  }
+
+  /** @param indexGrams whether to maintain trigram postings for globs without a literal prefix */
+  public KeyIndex(boolean indexGrams) {
+    this(indexGrams ? Long.MAX_VALUE : 0);
+  }
+
+  /**
+   * @param maxPostingsSize the number of posting entries past which trigram postings are dropped, or
+   *     0 not to maintain them
+   */
+  public KeyIndex(long maxPostingsSize) {
+    this.maxPostingsSize = maxPostingsSize;
+    this.indexGrams = maxPostingsSize > 0;
+    for (int i = 0; i < locks.length; i++) {
+      locks[i] = new Object();
+    }
+  }
+
+  public void add(String key) {
+    boolean overflowed = false;
+    synchronized (lockFor(key)) {
+      if (!keys.add(key) || !indexGrams) {
+        return;
+      }
+      Set<String> keyGrams = grams(key);
+      if (postingsSize.addAndGet(keyGrams.size()) > maxPostingsSize) {
+        indexGrams = false;
+        overflowed = true;
+      } else {
+        for (String gram : keyGrams) {
+          grams.compute(
+              gram,
+              (g, postings) -> {
+                Set<String> updated = postings == null ? ConcurrentHashMap.newKeySet() : postings;
+                updated.add(key);
+                return updated;
+              });
+        }
+      }
+    }
+    if (overflowed) {
+      dropGrams();
+    }
+  }
+
+  public void remove(String key) {
+    synchronized (lockFor(key)) {
+      if (!keys.remove(key) || !indexGrams) {
+        return;
+      }
+      for (String gram : grams(key)) {
+        grams.computeIfPresent(
+            gram,
+            (g, postings) -> {
+              if (postings.remove(key)) {
+                postingsSize.decrementAndGet();
+              }
+              return postings.isEmpty() ? null : postings;
+            });
+      }
+    }
+  }
+
+  /** @return the number of posting entries held for trigrams, 0 once they have been dropped */
+  public long getPostingsSize() {
+    return indexGrams ? postingsSize.get() : 0;
+  }
+
+  /**
+   * Releases the postings once no add or remove that saw them enabled is still updating them. Must
+   * not be called while holding a key's lock.
+   */
+  private void dropGrams() {
+    for (Object lock : locks) {
+      synchronized (lock) {
+        // waits for updates in progress under this lock
+      }
+    }
+    grams.clear();
+    postingsSize.set(0);
+  }
+
+  /** @return a sorted, read-only view of the indexed keys */
+  public Set<String> keys() {
+    return Collections.unmodifiableSet(keys);
+  }
+
+  /**
+   * @param glob a glob as understood by {@link InMemoryCache.Glob}
+   * @param exists verifies candidates still exist in the backing store
+   * @return the matching keys
+   */
+  public Set<String> filter(String glob, Predicate<String> exists) {
+    Pattern pattern = new InMemoryCache.Glob(glob).toPattern();
+    Literals literals = Literals.of(glob);
+    Set<String> matches = new HashSet<>();
+
+    if (!literals.getPrefix().isEmpty()) {
+      String prefix = literals.getPrefix();
+      for (String key : keys.tailSet(prefix)) {
+        if (!key.startsWith(prefix)) {
+          break;
+        }
+        if (pattern.matcher(key).matches() && exists.test(key)) {
+          matches.add(key);
+        }
+      }
+      return matches;
+    }
+
+    Iterable<String> candidates = keys;
+    if (indexGrams && literals.getLongest().length() >= GRAM_LENGTH) {
+      Set<String> rarest = null;
+      for (String gram : grams(literals.getLongest())) {
+        Set<String> postings = grams.getOrDefault(gram, Collections.emptySet());
+        if (rarest == null || postings.size() < rarest.size()) {
+          rarest = postings;
+        }
+      }
+      candidates = rarest;
+    }
+
+    for (String key : candidates) {
+      if (pattern.matcher(key).matches() && keys.contains(key) && exists.test(key)) {
+        matches.add(key);
+      }
+    }
+    return matches;
+  }
+
+  private Object lockFor(String key) {
+    return locks[(key.hashCode() & Integer.MAX_VALUE) % locks.length];
+  }
+
+  private static Set<String> grams(String value) {
+    Set<String> grams = new HashSet<>();
+    for (int i = 0; i + GRAM_LENGTH <= value.length(); i++) {
+      grams.add(value.substring(i, i + GRAM_LENGTH));
+    }
+    return grams;
+  }
+
+  /**
+   * Literal text any key matching a glob must contain. Character classes and unterminated
+   * constructs are treated as wildcards, which only makes the literals shorter.
+   */
+  public static class Literals {
+    private final String prefix;
+    private final String longest;
+
+    private Literals(String prefix, String longest) {
+      this.prefix = prefix;
+      this.longest = longest;
+    }
+
+    /** @return the literal text every match starts with, possibly empty */
+    public String getPrefix() {
+      return prefix;
+    }
+
+    /** @return the longest literal run every match contains, possibly empty */
+    public String getLongest() {
+      return longest;
+    }
+
+    public static Literals of(String glob) {
+      String prefix = null;
+      String longest = "";
+      StringBuilder run = new StringBuilder();
+
+      int i = 0;
+      while (i < glob.length()) {
+        char c = glob.charAt(i);
+        if (c == '\\' && i + 1 < glob.length()) {
+          run.append(glob.charAt(i + 1));
+          i += 2;
+          continue;
+        }
+        if (c == '\\' || c == '*' || c == '?' || c == '[') {
+          if (prefix == null) {
+            prefix = run.toString();
+          }
+          if (run.length() > longest.length()) {
+            longest = run.toString();
+          }
+          run.setLength(0);
+          if (c == '[') {
+            i = skipClass(glob, i + 1);
+            continue;
+          }
+        } else {
+          run.append(c);
+        }
+        i++;
+      }
+
+      if (prefix == null) {
+        prefix = run.toString();
+      }
+      if (run.length() > longest.length()) {
+        longest = run.toString();
+      }
+      return new Literals(prefix, longest);
+    }
+
+    private static int skipClass(String glob, int start) {
+      int i = start;
+      while (i < glob.length()) {
+        char c = glob.charAt(i);
+        if (c == '\\') {
+          i += 2;
+        } else if (c == ']') {
+          return i + 1;
+        } else {
+          i++;
+        }
+      }
+      return glob.length();
+    }
+  }
+}
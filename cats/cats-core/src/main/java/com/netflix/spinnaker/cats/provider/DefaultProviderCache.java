@@ -30,6 +30,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * An implementation of ProviderCache that writes through to a provided backing WriteableCache.
@@ -85,6 +86,14 @@ public class DefaultProviderCache implements ProviderCache {
     return buildResponse(all);
   }
 
+  @Override
+  public Stream<CacheData> streamAll(String type, CacheFilter cacheFilter) {
+    validateTypes(type);
+    return backingStore.streamAll(type, cacheFilter)
+        .filter(item -> !ALL_ID.equals(item.getId()))
+        .map(this::mergeRelationships);
+  }
+
   @Override
   public Collection<CacheData> getAll(String type, Collection<String> identifiers) {
     return getAll(type, identifiers, null);
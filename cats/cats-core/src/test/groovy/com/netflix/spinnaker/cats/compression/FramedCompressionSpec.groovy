@@ -0,0 +1,94 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.spinnaker.cats.compression
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class FramedCompressionSpec extends Specification {
+
+  static String manifest(int i) {
+    """{"kind":"Deployment","metadata":{"name":"app-$i","namespace":"default","labels":{"app":"app-$i"}},"spec":{"replicas":$i}}"""
+  }
+
+  @Unroll
+  def 'should compress and decompress values with #codec'() {
+    given:
+    def subject = new FramedCompression(codec, 3, 16)
+
+    when:
+    def result = subject.compress(data)
+
+    then:
+    if (shouldCompress) {
+      result != data
+    } else {
+      result == data
+    }
+    subject.decompress(result) == data
+
+    where:
+    codec                  | data                       || shouldCompress
+    CompressionCodec.LZ4   | 'hello world hello world'  || true
+    CompressionCodec.ZSTD  | 'hello world hello world'  || true
+    CompressionCodec.LZ4   | 'a'                        || false
+    CompressionCodec.ZSTD  | 'żółw żółw żółw żółw żółw'  || true
+  }
+
+  def 'should apply thresholds by type'() {
+    given:
+    def subject = new FramedCompression(CompressionCodec.LZ4, 0, 16, [manifests: 1024L], [:])
+    def data = 'hello world hello world'
+
+    expect:
+    subject.compress('instances', data) != data
+    subject.compress('manifests', data) == data
+    subject.compress(data) != data
+  }
+
+  def 'should read values written with another codec, gzip or without compression'() {
+    given:
+    def lz4 = new FramedCompression(CompressionCodec.LZ4, 0, 16)
+    def zstd = new FramedCompression(CompressionCodec.ZSTD, 3, 16)
+    def gzip = new GZipCompression(16, true)
+    def data = manifest(1)
+
+    expect:
+    zstd.decompress(lz4.compress(data)) == data
+    lz4.decompress(zstd.compress(data)) == data
+    lz4.decompress(gzip.compress(data)) == data
+    lz4.decompress(data) == data
+  }
+
+  def 'should compress with the dictionary of a type'() {
+    given:
+    def samples = (1..1000).collect { manifest(it) }
+    def dictionary = FramedCompression.trainDictionary(samples, 4096)
+    def withDictionary = new FramedCompression(CompressionCodec.ZSTD, 3, 16, [:], [manifests: dictionary])
+    def withoutDictionary = new FramedCompression(CompressionCodec.ZSTD, 3, 16)
+    def data = manifest(1001)
+
+    when:
+    def compressed = withDictionary.compress('manifests', data)
+
+    then:
+    compressed.length() < withoutDictionary.compress('manifests', data).length()
+    withDictionary.decompress(compressed) == data
+
+    and: 'values cannot be read once their dictionary is removed'
+    withoutDictionary.decompress(compressed) == compressed
+  }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.cats.mem
+
+import com.netflix.spinnaker.cats.cache.WriteableCacheSpec
+
+class CompactInMemoryCacheSpec extends WriteableCacheSpec {
+
+    @Override
+    CompactInMemoryCache getSubject() {
+        new CompactInMemoryCache(4)
+    }
+
+    def 'mutating a returned item does not affect the cache'() {
+        setup:
+        populateOne('foo', 'bar', createData('bar', [a: 'b'], [rel1: ['abc']]))
+
+        when:
+        def retrieved = cache.get('foo', 'bar')
+        retrieved.attributes.a = 'c'
+        retrieved.relationships.rel1.add('def')
+
+        then:
+        cache.get('foo', 'bar').attributes == [a: 'b']
+        cache.get('foo', 'bar').relationships.rel1 == ['abc']
+    }
+
+    def 'merging relationships keeps relationship types missing from the update'() {
+        setup:
+        populateOne('foo', 'bar', createData('bar', [a: 'b'], [rel1: ['abc'], rel2: ['def']]))
+
+        when:
+        populateOne('foo', 'bar', createData('bar', [a: 'c'], [rel2: ['ghi'], rel1: null]))
+
+        then:
+        cache.get('foo', 'bar').attributes == [a: 'c']
+        cache.get('foo', 'bar').relationships == [rel2: ['ghi']]
+    }
+}
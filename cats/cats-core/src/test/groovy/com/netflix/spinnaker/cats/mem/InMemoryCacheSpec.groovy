@@ -16,10 +16,43 @@
 
 package com.netflix.spinnaker.cats.mem
 
+import com.netflix.spinnaker.cats.cache.DefaultCacheData
 import com.netflix.spinnaker.cats.cache.WriteableCacheSpec
 
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
 class InMemoryCacheSpec extends WriteableCacheSpec {
 
+    def 'concurrent merges and evictions keep the key index in sync'() {
+        setup:
+        def cache = new InMemoryCache()
+        def ids = (1..20).collect { "aws:instances:prod:i-${it}".toString() }
+        def executor = Executors.newFixedThreadPool(8)
+
+        when:
+        def futures = (1..8).collect { worker ->
+            executor.submit {
+                def random = new Random(worker)
+                5000.times {
+                    def id = ids[random.nextInt(ids.size())]
+                    if (random.nextBoolean()) {
+                        cache.merge('instances', new DefaultCacheData(id, [a: 'b'], [:]))
+                    } else {
+                        cache.evict('instances', id)
+                    }
+                }
+            }
+        }
+        futures*.get(30, TimeUnit.SECONDS)
+
+        then:
+        cache.filterIdentifiers('instances', 'aws:instances:*') as Set == cache.getIdentifiers('instances') as Set
+
+        cleanup:
+        executor.shutdownNow()
+    }
+
     @Override
     InMemoryCache getSubject() {
         new InMemoryCache()
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.cats.mem
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class KeyIndexSpec extends Specification {
+
+    static final List<String> KEYS = [
+        'aws:instances:prod:us-east-1:i-1234',
+        'aws:instances:prod:us-west-2:i-5678',
+        'aws:instances:test:us-east-1:i-9abc',
+        'aws:serverGroups:myapp-prod:prod:us-east-1:myapp-prod-v001',
+        'aws:serverGroups:myapp-test:test:us-east-1:myapp-test-v001',
+        'aws:serverGroups:other-prod:prod:us-east-1:other-prod-v002',
+        'titus:serverGroups:myapp-prod:prod:us-east-1:myapp-prod-v003'
+    ]
+
+    @Unroll
+    def 'filter matches the same keys as a full scan for #glob with indexGrams #indexGrams'() {
+        setup:
+        def index = new KeyIndex(indexGrams)
+        KEYS.each { index.add(it) }
+        def pattern = new InMemoryCache.Glob(glob).toPattern()
+
+        expect:
+        index.filter(glob, { true }) == KEYS.findAll { pattern.matcher(it).matches() } as Set
+
+        where:
+        [glob, indexGrams] << [
+            [
+                'aws:instances:prod:*',
+                'aws:instances:*:us-east-1:*',
+                '*myapp-prod*',
+                '*:serverGroups:*-prod-v00?',
+                '*us-[ew]*',
+                '*',
+                'aws:instances:prod:us-east-1:i-1234',
+                '*i-9abc',
+                '*nothing*'
+            ],
+            [true, false]
+        ].combinations()
+    }
+
+    def 'removed keys are no longer matched'() {
+        setup:
+        def index = new KeyIndex(true)
+        KEYS.each { index.add(it) }
+
+        when:
+        index.remove('aws:serverGroups:myapp-prod:prod:us-east-1:myapp-prod-v001')
+
+        then:
+        index.filter('*myapp-prod*', { true }) == ['titus:serverGroups:myapp-prod:prod:us-east-1:myapp-prod-v003'] as Set
+        index.filter('aws:serverGroups:*', { true }).size() == 2
+    }
+
+    def 'postings are dropped once they would exceed their maximum size'() {
+        setup:
+        def index = new KeyIndex(100)
+
+        when:
+        KEYS.take(2).each { index.add(it) }
+
+        then:
+        index.postingsSize > 0
+
+        when:
+        KEYS.drop(2).each { index.add(it) }
+
+        then:
+        index.postingsSize == 0
+        index.filter('*myapp-prod*', { true }) == KEYS.findAll { it.contains('myapp-prod') } as Set
+
+        when:
+        index.remove(KEYS[0])
+        index.add(KEYS[0])
+
+        then:
+        index.postingsSize == 0
+    }
+
+    def 'candidates are verified against the backing store'() {
+        setup:
+        def index = new KeyIndex()
+        KEYS.each { index.add(it) }
+
+        expect:
+        index.filter('aws:instances:*', { it.endsWith('i-1234') }) == ['aws:instances:prod:us-east-1:i-1234'] as Set
+    }
+
+    @Unroll
+    def 'literals of #glob'() {
+        when:
+        def literals = KeyIndex.Literals.of(glob)
+
+        then:
+        literals.prefix == prefix
+        literals.longest == longest
+
+        where:
+        glob               || prefix       | longest
+        'foo'              || 'foo'        | 'foo'
+        'foo*bar'          || 'foo'        | 'foo'
+        '*foobar*'         || ''           | 'foobar'
+        'ab?cdef'          || 'ab'         | 'cdef'
+        'a[bc]defg*'       || 'a'          | 'defg'
+        'a\\*b*'           || 'a*b'        | 'a*b'
+        'ab]c*'            || 'ab]c'       | 'ab]c'
+        'x[unterminated'   || 'x'          | 'x'
+    }
+}
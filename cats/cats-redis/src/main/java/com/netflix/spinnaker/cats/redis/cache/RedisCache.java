@@ -22,6 +22,8 @@ import com.google.common.collect.Lists;
 import com.google.common.hash.Hashing;
 import com.netflix.spinnaker.cats.cache.CacheData;
 import com.netflix.spinnaker.cats.cache.DefaultCacheData;
+import com.netflix.spinnaker.cats.compression.CompressionStrategy;
+import com.netflix.spinnaker.cats.compression.NoopCompression;
 import com.netflix.spinnaker.kork.jedis.RedisClientDelegate;
 import java.io.IOException;
 import java.util.ArrayList;
@@ -39,6 +41,7 @@ import java.util.NavigableMap;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 public class RedisCache extends AbstractRedisCache {
 
@@ -86,6 +89,7 @@ public class RedisCache extends AbstractRedisCache {
   }
 
   private final CacheMetrics cacheMetrics;
+  private final CompressionStrategy compressionStrategy;
 
   public RedisCache(
       String prefix,
@@ -93,8 +97,24 @@ public class RedisCache extends AbstractRedisCache {
       ObjectMapper objectMapper,
       RedisCacheOptions options,
       CacheMetrics cacheMetrics) {
+    this(prefix, redisClientDelegate, objectMapper, options, cacheMetrics, null);
+  }
+
+  /**
+   * @param compressionStrategy compresses serialized attributes before they are written. Hashes are
+   *     computed on uncompressed values, so changing strategies does not rewrite unchanged items.
+   */
+  public RedisCache(
+      String prefix,
+      RedisClientDelegate redisClientDelegate,
+      ObjectMapper objectMapper,
+      RedisCacheOptions options,
+      CacheMetrics cacheMetrics,
+      CompressionStrategy compressionStrategy) {
     super(prefix, redisClientDelegate, objectMapper, options);
     this.cacheMetrics = cacheMetrics == null ? new CacheMetrics.NOOP() : cacheMetrics;
+    this.compressionStrategy =
+        compressionStrategy == null ? new NoopCompression() : compressionStrategy;
   }
 
   @Override
@@ -299,7 +319,8 @@ public class RedisCache extends AbstractRedisCache {
     }
 
     try {
-      final Map<String, Object> attributes = objectMapper.readValue(keyResult.get(0), ATTRIBUTES);
+      final Map<String, Object> attributes =
+          objectMapper.readValue(compressionStrategy.decompress(keyResult.get(0)), ATTRIBUTES);
       final Map<String, Collection<String>> relationships = new HashMap<>(keyResult.size() - 1);
       for (int relIdx = 1; relIdx < keyResult.size(); relIdx++) {
         String rel = keyResult.get(relIdx);
@@ -357,6 +378,7 @@ public class RedisCache extends AbstractRedisCache {
             hashes,
             attributesId(type, cacheData.getId()),
             serializedAttributes,
+            () -> compressionStrategy.compress(type, serializedAttributes),
             keysToSet,
             hashesToSet,
             hasTtl)) {
@@ -377,6 +399,7 @@ public class RedisCache extends AbstractRedisCache {
             hashes,
             relationshipId(type, cacheData.getId(), relationship.getKey()),
             relationshipValue,
+            () -> relationshipValue,
             keysToSet,
             hashesToSet,
             hasTtl)) {
@@ -435,6 +458,7 @@ public class RedisCache extends AbstractRedisCache {
       Map<String, String> hashes,
       String id,
       String serializedValue,
+      Supplier<String> storedValue,
       List<String> keys,
       Map<String, String> updatedHashes,
       boolean hasTtl) {
@@ -449,7 +473,7 @@ public class RedisCache extends AbstractRedisCache {
     }
 
     keys.add(id);
-    keys.add(serializedValue);
+    keys.add(storedValue.get());
     return false;
   }
 
@@ -22,6 +22,8 @@ import com.netflix.spinnaker.cats.cache.Cache
 import com.netflix.spinnaker.cats.cache.DefaultCacheData
 import com.netflix.spinnaker.cats.cache.WriteableCache
 import com.netflix.spinnaker.cats.cache.WriteableCacheSpec
+import com.netflix.spinnaker.cats.compression.CompressionCodec
+import com.netflix.spinnaker.cats.compression.FramedCompression
 import com.netflix.spinnaker.cats.redis.cache.RedisCache.CacheMetrics
 import com.netflix.spinnaker.kork.jedis.EmbeddedRedis
 import com.netflix.spinnaker.kork.jedis.JedisClientDelegate
@@ -208,6 +210,30 @@ class RedisCacheSpec extends WriteableCacheSpec {
     finalMergeCount = finalMerge > 0 ? 1 : 0
   }
 
+  def 'should store compressed attributes and read them back'() {
+    setup:
+    def mapper = new ObjectMapper();
+    def options = RedisCacheOptions.builder().maxMset(MAX_MSET_SIZE).build()
+    def compressed = new RedisCache(
+      'test', new JedisClientDelegate(pool), mapper, options, cacheMetrics, new FramedCompression(CompressionCodec.LZ4, 0, 16))
+    def uncompressed = new RedisCache('test', new JedisClientDelegate(pool), mapper, options, cacheMetrics)
+    def data = createData('blerp', [manifest: 'x' * 1024])
+
+    when:
+    compressed.merge('foo', data)
+    String stored = pool.resource.withCloseable { it.get('test:foo:attributes:blerp') }
+
+    then:
+    stored.length() < 1024
+    compressed.get('foo', 'blerp').attributes == data.attributes
+
+    when: 'unchanged attributes are merged again without compression'
+    uncompressed.merge('foo', data)
+
+    then: 'the write is skipped because hashes are computed before compression'
+    1 * cacheMetrics.merge('test', 'foo', 1, 0, 0, 1, 0, 0, 0, 0, 0, 0)
+  }
+
   private static class Bean {
     String key
     Integer key2
@@ -10,6 +10,7 @@ import com.netflix.spinnaker.cats.sql.cache.SqlCache
 import com.netflix.spinnaker.clouddriver.core.provider.agent.Namespace.CLUSTERS
 import com.netflix.spinnaker.clouddriver.core.provider.agent.Namespace.NAMED_IMAGES
 import com.netflix.spinnaker.clouddriver.core.provider.agent.Namespace.ON_DEMAND
+import java.util.stream.Stream
 import kotlin.contracts.ExperimentalContracts
 import org.slf4j.LoggerFactory
 import org.slf4j.MDC
@@ -79,6 +80,11 @@ class SqlProviderCache(private val backingStore: WriteableCache) : ProviderCache
     return backingStore.getAll(type, identifiers, cacheFilter)
   }
 
+  override fun streamAll(type: String, cacheFilter: CacheFilter?): Stream<CacheData> {
+    validateTypes(type)
+    return backingStore.streamAll(type, cacheFilter)
+  }
+
   override fun supportsGetAllByApplication(): Boolean {
     return true
   }
@@ -18,6 +18,7 @@ package com.netflix.spinnaker.cats.sql.cache
 import com.netflix.spectator.api.BasicTag
 import com.netflix.spectator.api.Registry
 import com.netflix.spectator.api.Tag
+import java.util.concurrent.TimeUnit
 
 class SpectatorSqlCacheMetrics(
   private val registry: Registry
@@ -44,6 +45,43 @@ class SpectatorSqlCacheMetrics(
     registry.counter(id("cats.sqlCache.merge", "deleteOperations", tags)).increment(deleteOperations.toLong())
   }
 
+  override fun hashDiff(
+    prefix: String,
+    type: String,
+    snapshotUsed: Boolean,
+    itemsSkipped: Int,
+    itemsWritten: Int,
+    itemsRehashed: Int
+  ) {
+    val tags = tags(prefix, type) + BasicTag("snapshot", snapshotUsed.toString())
+    registry.counter(id("cats.sqlCache.hashDiff", "itemsSkipped", tags)).increment(itemsSkipped.toLong())
+    registry.counter(id("cats.sqlCache.hashDiff", "itemsWritten", tags)).increment(itemsWritten.toLong())
+    registry.counter(id("cats.sqlCache.hashDiff", "itemsRehashed", tags)).increment(itemsRehashed.toLong())
+  }
+
+  override fun bodyHash(
+    prefix: String,
+    type: String,
+    agent: String,
+    itemCount: Int,
+    durationNanos: Long
+  ) {
+    val tags = tags(prefix, type) + BasicTag("agent", agent)
+    registry.counter(id("cats.sqlCache.bodyHash", "itemCount", tags)).increment(itemCount.toLong())
+    registry.timer(id("cats.sqlCache.bodyHash", "duration", tags)).record(durationNanos, TimeUnit.NANOSECONDS)
+  }
+
+  override fun nearCache(
+    prefix: String,
+    type: String,
+    hits: Int,
+    misses: Int
+  ) {
+    val tags = tags(prefix, type)
+    registry.counter(id("cats.sqlCache.nearCache", "hits", tags)).increment(hits.toLong())
+    registry.counter(id("cats.sqlCache.nearCache", "misses", tags)).increment(misses.toLong())
+  }
+
   override fun evict(
     prefix: String,
     type: String,
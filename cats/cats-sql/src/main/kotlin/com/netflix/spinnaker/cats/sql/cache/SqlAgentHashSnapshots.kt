@@ -0,0 +1,63 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.spinnaker.cats.sql.cache
+
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Tracks the `(id, body_hash)` rows last written by each caching agent, per type.
+ *
+ * A snapshot is only trusted while the agent's rows still match its [Fingerprint]. Rows written by
+ * another node (e.g. after the agent lock moved) or deleted out-of-band change the fingerprint, which
+ * forces the next authoritative store to fall back to a full hash read.
+ */
+class SqlAgentHashSnapshots {
+
+  private val snapshots: MutableMap<Key, Snapshot> = ConcurrentHashMap()
+
+  fun get(type: String, agent: String): Snapshot? = snapshots[Key(type, agent)]
+
+  fun put(type: String, agent: String, snapshot: Snapshot) {
+    snapshots[Key(type, agent)] = snapshot
+  }
+
+  fun invalidate(type: String, agent: String) {
+    snapshots.remove(Key(type, agent))
+  }
+
+  fun invalidateAll() {
+    snapshots.clear()
+  }
+
+  data class Snapshot(
+    val hashes: Map<String, String>,
+    val fingerprint: Fingerprint,
+    val refreshedAt: Long
+  )
+
+  /**
+   * Cheap summary of an agent's rows, comparable without reading every row back.
+   */
+  data class Fingerprint(
+    val rowCount: Int,
+    val maxLastUpdated: Long
+  )
+
+  private data class Key(
+    val type: String,
+    val agent: String
+  )
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.spinnaker.cats.sql.cache
+
+import com.google.common.hash.HashFunction
+import com.google.common.hash.Hashing
+
+/**
+ * Hash functions supported for the `body_hash` column (`sql.cache.body-hash`).
+ *
+ * Hashes are only used to detect changed bodies, so a non-cryptographic function is sufficient.
+ * Each strategy produces a hex digest of a distinct length, which is how a stored hash written by
+ * a previously configured strategy is recognized (see [isPreviousHashOf]).
+ */
+enum class SqlBodyHashStrategy(private val hashFunction: HashFunction) {
+  SHA256(Hashing.sha256()),
+  MURMUR3_128(Hashing.murmur3_128());
+
+  private val hexLength = hashFunction.bits() / 4
+
+  fun hash(body: ByteArray): String = hashFunction.hashBytes(body).toString()
+
+  /**
+   * @return true if [storedHash] was computed over [body] by another strategy, meaning the body
+   * is unchanged and only its hash needs to be rewritten
+   */
+  fun isPreviousHashOf(storedHash: String, body: ByteArray): Boolean {
+    if (storedHash.length == hexLength) {
+      return false
+    }
+    val previous = values().firstOrNull { it.hexLength == storedHash.length } ?: return false
+    return previous.hash(body) == storedHash
+  }
+
+  companion object {
+    fun fromConfig(value: String?): SqlBodyHashStrategy =
+      values().firstOrNull { it.name.replace("_", "").equals(value?.replace("-", ""), ignoreCase = true) }
+        ?: throw IllegalArgumentException("Unsupported sql.cache.body-hash: $value")
+  }
+}
@@ -1,11 +1,13 @@
 package com.netflix.spinnaker.cats.sql.cache
 
 import com.fasterxml.jackson.databind.ObjectMapper
+import com.google.common.util.concurrent.ThreadFactoryBuilder
 import com.netflix.spinnaker.cats.cache.CacheData
 import com.netflix.spinnaker.cats.cache.CacheFilter
-import com.netflix.spinnaker.cats.cache.DefaultJsonCacheData
 import com.netflix.spinnaker.cats.cache.RelationshipCacheFilter
 import com.netflix.spinnaker.cats.cache.WriteableCache
+import com.netflix.spinnaker.cats.cluster.AgentChangeListener
+import com.netflix.spinnaker.cats.mem.KeyIndex
 import com.netflix.spinnaker.clouddriver.core.provider.agent.Namespace.ON_DEMAND
 import com.netflix.spinnaker.config.SqlConstraints
 import com.netflix.spinnaker.config.coroutineThreadPrefix
@@ -15,15 +17,22 @@ import de.huxhorn.sulky.ulid.ULID
 import io.github.resilience4j.retry.Retry
 import io.github.resilience4j.retry.RetryConfig
 import io.vavr.control.Try
-import java.security.MessageDigest
 import java.sql.ResultSet
 import java.sql.SQLException
 import java.sql.SQLSyntaxErrorException
 import java.time.Clock
 import java.time.Duration
 import java.util.Arrays
+import java.util.Spliterator
+import java.util.Spliterators
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CompletionException
+import java.util.concurrent.ConcurrentHashMap
 import java.util.concurrent.ConcurrentSkipListSet
+import java.util.concurrent.Executors
 import java.util.concurrent.atomic.AtomicInteger
+import java.util.stream.Stream
+import java.util.stream.StreamSupport
 import javax.annotation.PreDestroy
 import kotlin.contracts.ExperimentalContracts
 import kotlin.contracts.contract
@@ -37,7 +46,9 @@ import org.jooq.Condition
 import org.jooq.DSLContext
 import org.jooq.exception.DataAccessException
 import org.jooq.exception.SQLDialectNotSupportedException
+import org.jooq.impl.DSL.count
 import org.jooq.impl.DSL.field
+import org.jooq.impl.DSL.max
 import org.jooq.impl.DSL.noCondition
 import org.jooq.impl.DSL.sql
 import org.jooq.impl.DSL.table
@@ -56,13 +67,16 @@ class SqlCache(
   tableNamespace: String?,
   private val cacheMetrics: SqlCacheMetrics,
   private val dynamicConfigService: DynamicConfigService,
-  private val sqlConstraints: SqlConstraints
+  private val sqlConstraints: SqlConstraints,
+  bodyEncoding: SqlBodyEncoding,
+  private val bodyHashStrategy: SqlBodyHashStrategy,
+  private val nearCache: SqlNearCache?,
+  private val agentChangeListener: AgentChangeListener?
 ) : WriteableCache {
 
   companion object {
     private const val onDemandType = "onDemand"
 
-    private val schemaVersion = SqlSchemaVersion.current()
     private val useRegexp =
       """.*[\?\[].*""".toRegex()
     private val cleanRegexp =
@@ -71,10 +85,38 @@ class SqlCache(
     private val log = LoggerFactory.getLogger(SqlCache::class.java)
   }
 
-  private val sqlNames = SqlNames(tableNamespace, sqlConstraints)
+  private val schemaVersion = SqlSchemaVersion.forEncoding(bodyEncoding).version
+
+  private val sqlNames = SqlNames(tableNamespace, sqlConstraints, schemaVersion)
+
+  /**
+   * Names of the V1 tables to seed V2 tables from, if this cache uses V2 tables.
+   */
+  private val previousSqlNames = if (schemaVersion == SqlSchemaVersion.V2.version) {
+    SqlNames(tableNamespace, sqlConstraints, SqlSchemaVersion.V1.version)
+  } else {
+    null
+  }
+
+  private val bodyCodec = SqlBodyCodec(mapper, bodyEncoding)
 
   private var createdTables = ConcurrentSkipListSet<String>()
 
+  private val seededTypes = ConcurrentSkipListSet<String>()
+
+  /**
+   * Seeding of the types whose V2 tables are being copied from their V1 tables, one per type.
+   */
+  private val seeding = ConcurrentHashMap<String, CompletableFuture<Void>>()
+
+  private val seedExecutor by lazy {
+    Executors.newSingleThreadExecutor(
+      ThreadFactoryBuilder().setNameFormat("$name-sql-cache-seed-%d").setDaemon(true).build()
+    )
+  }
+
+  private val hashSnapshots = SqlAgentHashSnapshots()
+
   init {
     log.info("Configured for $name")
   }
@@ -83,10 +125,19 @@ class SqlCache(
    * Only evicts cache records but not relationship rows
    */
   override fun evictAll(type: String, ids: Collection<String>) {
+    evictIds(type, ids)
+  }
+
+  /**
+   * @return true if every requested id was deleted without error
+   */
+  private fun evictIds(type: String, ids: Collection<String>): Boolean {
     if (ids.isEmpty()) {
-      return
+      return true
     }
 
+    awaitSeeding(type)
+
     log.info("evicting ${ids.size} $type records")
 
     var deletedCount = 0
@@ -112,6 +163,12 @@ class SqlCache(
       itemsDeleted = deletedCount,
       deleteOperations = opCount
     )
+
+    if (opCount > 0) {
+      nearCache?.generations?.bump(listOf(sqlNames.resourceTableName(type)))
+    }
+
+    return deletedCount == ids.size
   }
 
   fun mergeAll(
@@ -153,6 +210,19 @@ class SqlCache(
       storeInformative(type, items, cleanup)
     }
 
+    if (nearCache != null && storeResult.writeQueries.get() + storeResult.deleteQueries.get() > 0) {
+      // Informative writes also add and remove reverse relationships of the related types
+      val changedTypes = if (authoritative) {
+        setOf(type)
+      } else {
+        items.flatMap { it.relationships.keys }
+          .map { it.substringBefore(delimiter = ":", missingDelimiterValue = "") }
+          .filter { it.isNotEmpty() }
+          .toSet() + type
+      }
+      nearCache.generations.bump(changedTypes.map { sqlNames.resourceTableName(it) })
+    }
+
     cacheMetrics.merge(
       prefix = name,
       type = type,
@@ -204,6 +274,25 @@ class SqlCache(
     return mergeDataAndRelationships(result.data, result.relPointers, relationshipPrefixes)
   }
 
+  /**
+   * Streams all the items for the specified type. Ids are read in keyset-paginated pages of
+   * `sql.cache.read-batch-size` as the stream is consumed, and each page is loaded and merged
+   * with its relationships before the next one is fetched.
+   */
+  override fun streamAll(type: String, cacheFilter: CacheFilter?): Stream<CacheData> {
+    val pageSize = dynamicConfigService.getConfig(Int::class.java, "sql.cache.read-batch-size", 500)
+    val relationshipPrefixes = getRelationshipFilterPrefixes(cacheFilter)
+
+    val items = generateSequence({ selectIdPage(type, null, pageSize) }) { previous ->
+      if (previous.size < pageSize) null else selectIdPage(type, previous.last(), pageSize)
+    }
+      .takeWhile { it.isNotEmpty() }
+      // Bypasses the near cache, full scans would only evict hot entries
+      .flatMap { ids -> selectAll(type, ids, relationshipPrefixes).asSequence() }
+
+    return StreamSupport.stream(Spliterators.spliteratorUnknownSize(items.iterator(), Spliterator.ORDERED), false)
+  }
+
   /**
    * Retrieves the items for the specified type matching the provided ids
    *
@@ -234,6 +323,24 @@ class SqlCache(
 
     val relationshipPrefixes = getRelationshipFilterPrefixes(cacheFilter)
 
+    // Items read from V1 tables while the type is being seeded are not kept in the near cache
+    if (nearCache == null || readNames(type) !== sqlNames) {
+      return selectAll(type, ids, relationshipPrefixes)
+    }
+
+    val lookup = nearCache.getAll(sqlNames.resourceTableName(type), ids, relationshipPrefixes) { missing ->
+      selectAll(type, missing, relationshipPrefixes)
+    }
+    cacheMetrics.nearCache(prefix = name, type = type, hits = lookup.hits, misses = lookup.misses)
+
+    return lookup.items
+  }
+
+  private fun selectAll(
+    type: String,
+    ids: Collection<String>,
+    relationshipPrefixes: List<String>
+  ): MutableCollection<CacheData> {
     val result = if (relationshipPrefixes.isEmpty()) {
       getDataWithoutRelationships(type, ids)
     } else {
@@ -279,6 +386,23 @@ class SqlCache(
   ): Map<String, MutableCollection<CacheData>> {
     val relationshipPrefixes = getRelationshipFilterPrefixes(cacheFilter)
 
+    if (nearCache == null || readNames(type) !== sqlNames) {
+      return mapOf(type to selectAllByApplication(type, application, relationshipPrefixes))
+    }
+
+    val lookup = nearCache.getAllByApplication(sqlNames.resourceTableName(type), application, relationshipPrefixes) {
+      selectAllByApplication(type, application, relationshipPrefixes)
+    }
+    cacheMetrics.nearCache(prefix = name, type = type, hits = lookup.hits, misses = lookup.misses)
+
+    return mapOf(type to lookup.items)
+  }
+
+  private fun selectAllByApplication(
+    type: String,
+    application: String,
+    relationshipPrefixes: List<String>
+  ): MutableCollection<CacheData> {
     val result = if (relationshipPrefixes.isEmpty()) {
       getDataWithoutRelationshipsByApp(type, application)
     } else {
@@ -297,7 +421,7 @@ class SqlCache(
       )
     }
 
-    return mapOf(type to mergeDataAndRelationships(result.data, result.relPointers, relationshipPrefixes))
+    return mergeDataAndRelationships(result.data, result.relPointers, relationshipPrefixes)
   }
 
   override fun getAllByApplication(
@@ -342,7 +466,7 @@ class SqlCache(
     val ids = try {
       withRetry(RetryCategory.READ) {
         jooq.select(field("id"))
-          .from(table(sqlNames.resourceTableName(type)))
+          .from(table(readNames(type).resourceTableName(type)))
           .fetch()
           .intoSet(field("id"), String::class.java)
       }
@@ -427,14 +551,20 @@ class SqlCache(
 
     val sql = if (glob.matches(useRegexp)) {
       val filter = glob.replace("?", ".", true).replace("*", ".*").replace(cleanRegexp, ".*")
+      // A literal prefix narrows the regexp scan to a range of the primary key. Escapes are passed
+      // through to the regexp as is, so their globs are not narrowed.
+      val prefix = if (glob.contains('\\')) "" else KeyIndex.Literals.of(glob).prefix
       jooq
         .select(field("id"))
-        .from(table(sqlNames.resourceTableName(type)))
-        .where(field("id").likeRegex("^$filter$"))
+        .from(table(readNames(type).resourceTableName(type)))
+        .where(
+          if (prefix.isEmpty()) noCondition() else field("id").like(escapeLike(prefix) + "%", '\\'),
+          field("id").likeRegex("^$filter$")
+        )
     } else {
       jooq
         .select(field("id"))
-        .from(table(sqlNames.resourceTableName(type)))
+        .from(table(readNames(type).resourceTableName(type)))
         .where(field("id").like(glob.replace('*', '%')))
     }
 
@@ -513,22 +643,33 @@ class SqlCache(
       agentHint ?: "unknown"
     }
 
-    val existingHashIds = getHashIds(type, agent)
-    result.selectQueries.incrementAndGet()
+    // Only full authoritative cycles replace an agent's rows, so only they can maintain a hash snapshot
+    val useSnapshot = cleanup && type != ON_DEMAND.ns &&
+      dynamicConfigService.isEnabled("sql.cache.hash-snapshot", false)
 
-    val existingHashes = existingHashIds // ids previously store by the calling caching agent
-      .asSequence()
-      .map { it.body_hash }
-      .toSet()
-    val existingIds = existingHashIds
-      .asSequence()
-      .map { it.id }
-      .toSet()
+    // Removed up front so that any failure below leaves no snapshot behind
+    val snapshot = if (useSnapshot) takeSnapshot(type, agent, result) else null
+    hashSnapshots.invalidate(type, agent)
+
+    var fingerprint = snapshot?.fingerprint
+    val existingHashIds: Map<String, String> = if (snapshot != null) {
+      snapshot.hashes
+    } else {
+      val hashIds = getHashIds(type, agent)
+      result.selectQueries.incrementAndGet()
+      fingerprint = SqlAgentHashSnapshots.Fingerprint(hashIds.size, hashIds.map { it.last_updated }.maxOrNull() ?: 0L)
+      hashIds.associate { it.id to it.body_hash } // ids previously store by the calling caching agent
+    }
+
+    val existingIds = existingHashIds.keys
     val currentIds = mutableSetOf<String>() // current ids from the caching agent
     val toStore = mutableListOf<String>() // ids that are new or changed
-    val bodies = mutableMapOf<String, String>() // id to body
-    val hashes = mutableMapOf<String, String>() // id to sha256(body)
+    val toRehash = mutableListOf<String>() // unchanged ids whose stored hash came from another hash strategy
+    val bodies = mutableMapOf<String, ByteArray>() // id to encoded body
+    val hashes = mutableMapOf<String, String>() // id to hash(body)
+    var hashNanos = 0L
     val apps = mutableMapOf<String, String>()
+    var writeFailed = false
 
     items.filter { it.id.length > sqlConstraints.maxIdLength }
       .forEach {
@@ -555,16 +696,33 @@ class SqlCache(
           it.relationships.putAll(normalized)
         }
 
-        val body: String? = mapper.writeValueAsString(it)
+        val body: ByteArray? = bodyCodec.encode(it)
+        val hashStart = System.nanoTime()
         val bodyHash = getHash(body)
+        hashNanos += System.nanoTime() - hashStart
 
-        if (body != null && bodyHash != null && !existingHashes.contains(bodyHash)) {
-          toStore.add(it.id)
-          bodies[it.id] = body
+        if (body != null && bodyHash != null) {
           hashes[it.id] = bodyHash
+          val existingHash = existingHashIds[it.id]
+          if (existingHash != bodyHash) {
+            if (existingHash != null && bodyHashStrategy.isPreviousHashOf(existingHash, body)) {
+              toRehash.add(it.id)
+            } else {
+              toStore.add(it.id)
+              bodies[it.id] = body
+            }
+          }
         }
       }
 
+    cacheMetrics.bodyHash(
+      prefix = name,
+      type = type,
+      agent = agent,
+      itemCount = hashes.size,
+      durationNanos = hashNanos
+    )
+
     val now = clock.millis()
 
     toStore.chunked(dynamicConfigService.getConfig(Int::class.java, "sql.cache.write-batch-size", 100)) { chunk ->
@@ -597,6 +755,7 @@ class SqlCache(
         result.itemsStored.addAndGet(chunk.size)
         result.writeQueries.incrementAndGet()
       } catch (e: DataAccessException) {
+        writeFailed = true
         log.error("Error inserting ids: $chunk", e)
       } catch (e: SQLDialectNotSupportedException) {
         chunk.forEach {
@@ -647,7 +806,22 @@ class SqlCache(
       }
     }
 
+    if (toRehash.isNotEmpty() && !rehash(type, agent, toRehash, hashes, result)) {
+      writeFailed = true
+    }
+
+    cacheMetrics.hashDiff(
+      prefix = name,
+      type = type,
+      snapshotUsed = snapshot != null,
+      itemsSkipped = currentIds.size - toStore.size - toRehash.size,
+      itemsWritten = result.itemsStored.get(),
+      itemsRehashed = toRehash.size
+    )
+
+    val itemsUnchanged = currentIds.size - toStore.size
     if (!cleanup) {
+      reportChanges(type, agent, toStore.size, itemsUnchanged)
       return result
     }
 
@@ -656,11 +830,91 @@ class SqlCache(
       .filter { !currentIds.contains(it) }
       .toSet()
 
-    evictAll(type, toDelete)
+    val evicted = evictIds(type, toDelete)
+    reportChanges(type, agent, toStore.size + toDelete.size, itemsUnchanged)
+
+    if (useSnapshot && evicted && !writeFailed) {
+      if (toStore.isNotEmpty() || toDelete.isNotEmpty()) {
+        fingerprint = getAgentFingerprint(type, agent)
+        result.selectQueries.incrementAndGet()
+      }
+      hashSnapshots.put(
+        type,
+        agent,
+        SqlAgentHashSnapshots.Snapshot(hashes, fingerprint!!, snapshot?.refreshedAt ?: clock.millis())
+      )
+    }
 
     return result
   }
 
+  private fun reportChanges(type: String, agent: String, itemsChanged: Int, itemsUnchanged: Int) {
+    if (agentChangeListener == null || type == ON_DEMAND.ns) {
+      return
+    }
+    try {
+      agentChangeListener.itemsStored(agent, type, itemsChanged, itemsUnchanged)
+    } catch (e: Exception) {
+      log.warn("Failed to report changes of $agent for $type", e)
+    }
+  }
+
+  /**
+   * Rewrites only the `body_hash` of rows whose body is unchanged but whose hash was computed by a
+   * previously configured [SqlBodyHashStrategy]. `last_updated` is left untouched.
+   *
+   * @return true if every hash was rewritten without error
+   */
+  private fun rehash(
+    type: String,
+    agent: String,
+    ids: List<String>,
+    hashes: Map<String, String>,
+    result: StoreResult
+  ): Boolean {
+    var failed = false
+    ids.chunked(dynamicConfigService.getConfig(Int::class.java, "sql.cache.write-batch-size", 100)) { chunk ->
+      try {
+        withRetry(RetryCategory.WRITE) {
+          jooq.batch(
+            chunk.map {
+              jooq.update(table(sqlNames.resourceTableName(type)))
+                .set(field("body_hash"), hashes[it])
+                .where(field("id").eq(it), field("agent").eq(sqlNames.checkAgentName(agent)))
+            }
+          ).execute()
+        }
+        result.writeQueries.incrementAndGet()
+      } catch (e: DataAccessException) {
+        failed = true
+        log.error("Error rehashing ids: $chunk", e)
+      }
+    }
+    return !failed
+  }
+
+  /**
+   * Returns the agent's hash snapshot if it is still known to match the stored rows, otherwise null.
+   */
+  private fun takeSnapshot(type: String, agent: String, result: StoreResult): SqlAgentHashSnapshots.Snapshot? {
+    val snapshot = hashSnapshots.get(type, agent) ?: return null
+
+    val maxAgeMs = dynamicConfigService.getConfig(Long::class.java, "sql.cache.hash-snapshot.max-age-ms", 3_600_000L)
+    if (clock.millis() - snapshot.refreshedAt > maxAgeMs) {
+      return null
+    }
+
+    val fingerprint = getAgentFingerprint(type, agent)
+    result.selectQueries.incrementAndGet()
+
+    if (fingerprint != snapshot.fingerprint) {
+      log.debug("Hash snapshot for $type/$agent is stale (expected: ${snapshot.fingerprint}, found: $fingerprint)")
+      return null
+    }
+
+    return snapshot
+  }
+
   private fun storeInformative(type: String, items: MutableCollection<CacheData>, cleanup: Boolean): StoreResult {
     val result = StoreResult()
 
@@ -853,6 +1107,8 @@ class SqlCache(
   private fun createTables(type: String) {
     if (!createdTables.contains(type)) {
       try {
+        awaitSeeding(type)
+
         withRetry(RetryCategory.WRITE) {
           jooq.execute(
             "CREATE TABLE IF NOT EXISTS ${sqlNames.resourceTableName(type)} " +
@@ -872,6 +1128,8 @@ class SqlCache(
     if (!createdTables.contains(onDemandType)) {
       // TODO not sure if best schema for onDemand
       try {
+        awaitSeeding(onDemandType)
+
         withRetry(RetryCategory.WRITE) {
           jooq.execute(
             "CREATE TABLE IF NOT EXISTS ${sqlNames.resourceTableName(onDemandType)} " +
@@ -890,6 +1148,137 @@ class SqlCache(
     }
   }
 
+  /**
+   * When this cache uses V2 tables, a type's rows are copied from its V1 tables the first time the type is read or
+   * written, if its V2 tables don't exist yet. The copy runs in the background, once per type, and reads of the type
+   * are served from its V1 tables until it completes.
+   *
+   * @return the names of the tables to read [type] from
+   */
+  private fun readNames(type: String): SqlNames {
+    if (previousSqlNames == null || seededTypes.contains(type)) {
+      return sqlNames
+    }
+    startSeeding(type)
+    return if (seededTypes.contains(type)) sqlNames else previousSqlNames
+  }
+
+  /**
+   * Waits for [type] to be seeded before writing to it, so that the V2 tables aren't created ahead of the copy.
+   * Seeding failures are thrown; the next call retries.
+   */
+  private fun awaitSeeding(type: String) {
+    if (previousSqlNames == null || seededTypes.contains(type)) {
+      return
+    }
+    try {
+      startSeeding(type).join()
+    } catch (e: CompletionException) {
+      throw e.cause ?: e
+    }
+  }
+
+  private fun startSeeding(type: String): CompletableFuture<Void> =
+    seeding.computeIfAbsent(type) {
+      if (needsSeeding(type)) {
+        CompletableFuture.runAsync(
+          Runnable {
+            try {
+              seedFromPreviousSchema(type)
+              seededTypes.add(type)
+            } catch (e: Exception) {
+              log.error("Failed seeding $type from schema v${SqlSchemaVersion.V1.version}", e)
+              seeding.remove(type)
+              throw e
+            }
+          },
+          seedExecutor
+        )
+      } else {
+        seededTypes.add(type)
+        CompletableFuture.completedFuture(null)
+      }
+    }
+
+  private fun needsSeeding(type: String): Boolean =
+    previousSqlNames != null &&
+      !tableExists(sqlNames.resourceTableName(type)) &&
+      tableExists(previousSqlNames.resourceTableName(type)) &&
+      dynamicConfigService.isEnabled("sql.cache.seed-from-previous-schema", true)
+
+  /**
+   * Copies a type's rows from its V1 tables. Bodies are copied as-is; the body decoder handles both encodings and
+   * rows are re-encoded as agents rewrite them.
+   *
+   * Rows are copied into staging tables that are renamed into place together once complete, so the V2 tables never
+   * exist partially seeded. Staging tables left by an instance that stopped mid-copy are completed by the next one.
+   *
+   * Seeding happens once per type. Rows written to the V1 tables afterwards, e.g. by instances that haven't been
+   * switched to Smile encoding yet, are not carried over.
+   */
+  private fun seedFromPreviousSchema(type: String) {
+    val previousNames = previousSqlNames ?: return
+    val resourceTable = sqlNames.resourceTableName(type)
+    val relTable = sqlNames.relTableName(type)
+    val stagingResourceTable = stagingTableName(resourceTable)
+    val stagingRelTable = stagingTableName(relTable)
+
+    try {
+      val resourceColumns = "id, agent, application, body_hash, body, last_updated"
+      val relColumns = "uuid, id, rel_id, rel_agent, rel_type, last_updated"
+
+      jooq.execute(
+        "CREATE TABLE IF NOT EXISTS $stagingResourceTable LIKE cats_v${schemaVersion}_resource_template"
+      )
+      jooq.execute("CREATE TABLE IF NOT EXISTS $stagingRelTable LIKE cats_v${schemaVersion}_rel_template")
+
+      val resources = jooq.execute(
+        "INSERT IGNORE INTO $stagingResourceTable ($resourceColumns) " +
+          "SELECT $resourceColumns FROM ${previousNames.resourceTableName(type)}"
+      )
+      val relationships = if (tableExists(previousNames.relTableName(type))) {
+        jooq.execute(
+          "INSERT IGNORE INTO $stagingRelTable ($relColumns) " +
+            "SELECT $relColumns FROM ${previousNames.relTableName(type)}"
+        )
+      } else {
+        0
+      }
+
+      jooq.execute("RENAME TABLE $stagingResourceTable TO $resourceTable, $stagingRelTable TO $relTable")
+
+      log.info(
+        "Seeded $resources $type records and $relationships relationships from schema v${SqlSchemaVersion.V1.version}"
+      )
+    } catch (e: Exception) {
+      if (tableExists(resourceTable)) {
+        // Another instance finished seeding first
+        jooq.execute("DROP TABLE IF EXISTS $stagingResourceTable, $stagingRelTable")
+      } else {
+        throw e
+      }
+    }
+  }
+
+  /**
+   * Staging tables have the same length as the table they are for, so they fit the same constraints.
+   */
+  private fun stagingTableName(tableName: String): String =
+    "cats_s" + tableName.removePrefix("cats_v")
+
+  private fun tableExists(tableName: String): Boolean {
+    return withRetry(RetryCategory.READ) {
+      jooq.fetchExists(
+        jooq.select(field("table_name"))
+          .from(table("information_schema.tables"))
+          .where(
+            field("table_schema").eq(field(sql("database()"))),
+            field("table_name").eq(tableName)
+          )
+      )
+    }
+  }
+
   private fun getRelationshipFilterPrefixes(cacheFilter: CacheFilter?): List<String> {
     return if (cacheFilter == null) {
       listOf("ALL")
@@ -903,18 +1292,17 @@ class SqlCache(
     }
   }
 
-  private fun getHash(body: String?): String? {
-    if (body.isNullOrBlank()) {
+  private fun escapeLike(value: String): String =
+    value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_")
+
+  private fun getHash(body: ByteArray?): String? {
+    if (body == null || body.isEmpty()) {
       return null
     }
     return try {
-      val digest = MessageDigest.getInstance("SHA-256")
-        .digest(body.toByteArray())
-      digest.fold("") { str, it ->
-        str + "%02x".format(it)
-      }
+      bodyHashStrategy.hash(body)
     } catch (e: Exception) {
-      log.error("error calculating hash for body: $body", e)
+      log.error("error calculating hash for body of ${body.size} bytes", e)
       null
     }
   }
@@ -922,7 +1310,7 @@ class SqlCache(
   private fun getHashIds(type: String, agent: String?): List<HashId> {
     return withRetry(RetryCategory.READ) {
       jooq
-        .select(field("body_hash"), field("id"))
+        .select(field("body_hash"), field("id"), field("last_updated"))
         .from(table(sqlNames.resourceTableName(type)))
         .where(
           field("agent").eq(sqlNames.checkAgentName(agent))
@@ -932,6 +1320,19 @@ class SqlCache(
     }
   }
 
+  private fun getAgentFingerprint(type: String, agent: String): SqlAgentHashSnapshots.Fingerprint {
+    return withRetry(RetryCategory.READ) {
+      val record = jooq
+        .select(count(), max(field("last_updated", Long::class.javaObjectType)))
+        .from(table(sqlNames.resourceTableName(type)))
+        .where(
+          field("agent").eq(sqlNames.checkAgentName(agent))
+        )
+        .fetchOne()
+      SqlAgentHashSnapshots.Fingerprint(record.value1(), record.value2() ?: 0L)
+    }
+  }
+
   private fun getRelationshipKeys(type: String, sourceAgent: String): MutableList<RelId> {
     return withRetry(RetryCategory.READ) {
       jooq
@@ -976,11 +1377,11 @@ class SqlCache(
         withRetry(RetryCategory.READ) {
           cacheData.addAll(
             jooq.select(field("body"))
-              .from(table(sqlNames.resourceTableName(type)))
+              .from(table(readNames(type).resourceTableName(type)))
               .fetch()
               .getValues(0)
               .asSequence()
-              .map { mapper.readValue(it as String, DefaultJsonCacheData::class.java) }
+              .map { bodyCodec.decode(it!!) }
               .toList()
           )
         }
@@ -1038,12 +1439,12 @@ class SqlCache(
       withRetry(RetryCategory.READ) {
         cacheData.addAll(
           jooq.select(field("body"))
-            .from(table(sqlNames.resourceTableName(type)))
+            .from(table(readNames(type).resourceTableName(type)))
             .where(field("application").eq(application))
             .fetch()
             .getValues(0)
             .asSequence()
-            .map { mapper.readValue(it as String, DefaultJsonCacheData::class.java) }
+            .map { bodyCodec.decode(it!!) }
             .toList()
         )
       }
@@ -1097,7 +1498,7 @@ class SqlCache(
             field(sql("null")).`as`("rel_id"),
             field(sql("null")).`as`("rel_type")
           )
-          .from(table(sqlNames.resourceTableName(type)))
+          .from(table(readNames(type).resourceTableName(type)))
           .where(field("application").eq(application))
           .unionAll(
             jooq.select(
@@ -1106,8 +1507,8 @@ class SqlCache(
               field("rel.rel_id").`as`("rel_id"),
               field("rel.rel_type").`as`("rel_type")
             )
-              .from(table(sqlNames.resourceTableName(type)).`as`("r"))
-              .innerJoin(table(sqlNames.relTableName(type)).`as`("rel"))
+              .from(table(readNames(type).resourceTableName(type)).`as`("r"))
+              .innerJoin(table(readNames(type).relTableName(type)).`as`("rel"))
               .on(sql("rel.id=r.id"))
               .where(relWhere)
               .groupBy(
@@ -1182,7 +1583,7 @@ class SqlCache(
               field(sql("null")).`as`("rel_id"),
               field(sql("null")).`as`("rel_type")
             )
-            .from(table(sqlNames.resourceTableName(type)))
+            .from(table(readNames(type).resourceTableName(type)))
             .unionAll(
               jooq.select(
                 field(sql("null")).`as`("body"),
@@ -1190,7 +1591,7 @@ class SqlCache(
                 field("rel_id").`as`("rel_id"),
                 field("rel_type").`as`("rel_type")
               )
-                .from(table(sqlNames.relTableName(type)))
+                .from(table(readNames(type).relTableName(type)))
                 .where(relWhere)
             )
             .fetch()
@@ -1253,11 +1654,11 @@ class SqlCache(
   private fun selectBodies(type: String, ids: List<String>): Collection<CacheData> {
     return withRetry(RetryCategory.READ) {
       jooq.select(field("body"))
-        .from(table(sqlNames.resourceTableName(type)))
+        .from(table(readNames(type).resourceTableName(type)))
         .where(field("ID").`in`(*ids.toTypedArray()))
         .fetch()
         .getValues(0)
-        .map { mapper.readValue(it as String, DefaultJsonCacheData::class.java) }
+        .map { bodyCodec.decode(it!!) }
         .toList()
     }
   }
@@ -1279,7 +1680,7 @@ class SqlCache(
           field(sql("null")).`as`("rel_id"),
           field(sql("null")).`as`("rel_type")
         )
-        .from(table(sqlNames.resourceTableName(type)))
+        .from(table(readNames(type).resourceTableName(type)))
         .where(where)
         .unionAll(
           jooq.select(
@@ -1288,7 +1689,7 @@ class SqlCache(
             field("rel_id").`as`("rel_id"),
             field("rel_type").`as`("rel_type")
           )
-            .from(table(sqlNames.relTableName(type)))
+            .from(table(readNames(type).relTableName(type)))
             .where(relWhere)
         )
         .fetch()
@@ -1296,10 +1697,31 @@ class SqlCache(
     }
   }
 
+  /**
+   * Unlike the other reads, failures are not swallowed: callers page until they get a short page, so an empty
+   * page on error would silently truncate the stream. Only a missing table, i.e. a type that has not been
+   * written yet, reads as empty.
+   */
+  private fun selectIdPage(type: String, after: String?, limit: Int): List<String> {
+    return try {
+      withRetry(RetryCategory.READ) {
+        jooq.selectDistinct(field("id"))
+          .from(table(readNames(type).resourceTableName(type)))
+          .where(if (after == null) noCondition() else field("id").gt(after))
+          .orderBy(field("id"))
+          .limit(limit)
+          .fetch(field("id"), String::class.java)
+      }
+    } catch (e: Exception) {
+      suppressTableNotExistsException(e)?.let { throw it }
+      emptyList()
+    }
+  }
+
   private fun selectIdentifiers(type: String, ids: List<String>): MutableCollection<String> {
     return withRetry(RetryCategory.READ) {
       jooq.select(field("id"))
-        .from(table(sqlNames.resourceTableName(type)))
+        .from(table(readNames(type).resourceTableName(type)))
         .where(field("id").`in`(*ids.toTypedArray()))
         .fetch()
         .intoSet(field("id"), String::class.java)
@@ -1313,11 +1735,12 @@ class SqlCache(
     relPointers: MutableSet<RelPointer>
   ) {
     while (resultSet.next()) {
-      if (!resultSet.getString(1).isNullOrBlank()) {
+      val body = resultSet.getObject(1)
+      if (!bodyCodec.isEmpty(body)) {
         try {
-          cacheData.add(mapper.readValue(resultSet.getString(1), DefaultJsonCacheData::class.java))
+          cacheData.add(bodyCodec.decode(body))
         } catch (e: Exception) {
-          log.error("Failed to deserialize cached value: type $type, body ${resultSet.getString(1)}", e)
+          log.error("Failed to deserialize cached value: type $type", e)
         }
       } else {
         try {
@@ -1526,11 +1949,16 @@ class SqlCache(
   fun clearCreatedTables() {
     val tables = createdTables.toList()
     createdTables.removeAll(tables)
+    seededTypes.clear()
+    seeding.clear()
+    hashSnapshots.invalidateAll()
+    nearCache?.invalidateAll()
   }
 
   data class HashId(
     val body_hash: String,
-    val id: String
+    val id: String,
+    val last_updated: Long
   )
 
   data class RelId(
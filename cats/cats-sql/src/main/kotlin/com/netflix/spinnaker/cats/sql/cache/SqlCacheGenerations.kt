@@ -0,0 +1,124 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.spinnaker.cats.sql.cache
+
+import java.time.Clock
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicLong
+import org.jooq.DSLContext
+import org.jooq.impl.DSL.field
+import org.jooq.impl.DSL.table
+import org.slf4j.LoggerFactory
+
+/**
+ * Write generations of cats tables, shared between nodes through the `cats_generations` table.
+ *
+ * Writers [bump] the generation of every table they changed. Readers compare the [current] generation
+ * of a table with the one their cached reads were loaded at. Generations written by other nodes are
+ * re-read at most once every [maxStalenessMs], which bounds how long their writes can go unnoticed;
+ * writes made by this node are visible immediately.
+ */
+class SqlCacheGenerations(
+  private val jooq: DSLContext,
+  private val clock: Clock,
+  private val maxStalenessMs: Long
+) {
+
+  companion object {
+    private const val generationsTable = "cats_generations"
+
+    private val log = LoggerFactory.getLogger(SqlCacheGenerations::class.java)
+  }
+
+  @Volatile
+  private var remote: Map<String, Long> = emptyMap()
+
+  @Volatile
+  private var refreshedAt: Long? = null
+
+  @Volatile
+  private var healthy = false
+
+  private val local: MutableMap<String, AtomicLong> = ConcurrentHashMap()
+
+  private val refreshLock = Any()
+
+  /**
+   * @return the current generation of [tableName], or null if generations could not be read recently
+   * enough to honor [maxStalenessMs]
+   */
+  fun current(tableName: String): Generation? {
+    refreshIfStale()
+    if (!healthy) {
+      return null
+    }
+    return Generation(remote[tableName] ?: 0L, local[tableName]?.get() ?: 0L)
+  }
+
+  fun bump(tableNames: Collection<String>) {
+    tableNames.forEach { tableName ->
+      // Local readers must stop trusting their entries even if the shared generation can't be written
+      local.computeIfAbsent(tableName) { AtomicLong() }.incrementAndGet()
+
+      try {
+        val now = clock.millis()
+        jooq.insertInto(table(generationsTable), field("table_name"), field("generation"), field("last_updated"))
+          .values(tableName, 1L, now)
+          .onDuplicateKeyUpdate()
+          .set(field("generation", Long::class.javaObjectType), field("generation", Long::class.javaObjectType).plus(1))
+          .set(field("last_updated"), now as Any)
+          .execute()
+      } catch (e: Exception) {
+        log.error("Unable to bump the generation of $tableName", e)
+      }
+    }
+  }
+
+  private fun refreshIfStale() {
+    if (isFresh()) {
+      return
+    }
+
+    synchronized(refreshLock) {
+      if (isFresh()) {
+        return
+      }
+
+      try {
+        remote = jooq
+          .select(field("table_name", String::class.java), field("generation", Long::class.javaObjectType))
+          .from(table(generationsTable))
+          .fetch()
+          .associate { it.value1() to it.value2() }
+        healthy = true
+      } catch (e: Exception) {
+        healthy = false
+        log.warn("Unable to read cache generations, bypassing near cache", e)
+      }
+      refreshedAt = clock.millis()
+    }
+  }
+
+  private fun isFresh(): Boolean {
+    val last = refreshedAt ?: return false
+    return clock.millis() - last < maxStalenessMs
+  }
+
+  data class Generation(
+    val remote: Long,
+    val local: Long
+  )
+}
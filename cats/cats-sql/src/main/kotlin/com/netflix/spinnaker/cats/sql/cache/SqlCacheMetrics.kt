@@ -28,6 +28,30 @@ interface SqlCacheMetrics {
     deleteOperations: Int
   ) {}
 
+  fun hashDiff(
+    prefix: String,
+    type: String,
+    snapshotUsed: Boolean,
+    itemsSkipped: Int,
+    itemsWritten: Int,
+    itemsRehashed: Int
+  ) {}
+
+  fun bodyHash(
+    prefix: String,
+    type: String,
+    agent: String,
+    itemCount: Int,
+    durationNanos: Long
+  ) {}
+
+  fun nearCache(
+    prefix: String,
+    type: String,
+    hits: Int,
+    misses: Int
+  ) {}
+
   fun evict(
     prefix: String,
     type: String,
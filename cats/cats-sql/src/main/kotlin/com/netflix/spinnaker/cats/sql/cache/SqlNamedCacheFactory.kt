@@ -3,6 +3,7 @@ package com.netflix.spinnaker.cats.sql.cache
 import com.fasterxml.jackson.databind.ObjectMapper
 import com.netflix.spinnaker.cats.cache.NamedCacheFactory
 import com.netflix.spinnaker.cats.cache.WriteableCache
+import com.netflix.spinnaker.cats.cluster.AgentChangeListener
 import com.netflix.spinnaker.config.SqlConstraints
 import com.netflix.spinnaker.kork.dynamicconfig.DynamicConfigService
 import com.netflix.spinnaker.kork.sql.config.SqlRetryProperties
@@ -20,7 +21,11 @@ class SqlNamedCacheFactory(
   private val prefix: String?,
   private val cacheMetrics: SqlCacheMetrics,
   private val dynamicConfigService: DynamicConfigService,
-  private val sqlConstraints: SqlConstraints
+  private val sqlConstraints: SqlConstraints,
+  private val bodyEncoding: SqlBodyEncoding = SqlBodyEncoding.JSON,
+  private val bodyHashStrategy: SqlBodyHashStrategy = SqlBodyHashStrategy.SHA256,
+  private val nearCache: SqlNearCache? = null,
+  private val agentChangeListener: AgentChangeListener? = null
 ) : NamedCacheFactory {
 
   @ExperimentalContracts
@@ -35,7 +40,11 @@ class SqlNamedCacheFactory(
       prefix,
       cacheMetrics,
       dynamicConfigService,
-      sqlConstraints
+      sqlConstraints,
+      bodyEncoding,
+      bodyHashStrategy,
+      nearCache,
+      agentChangeListener
     )
   }
 }
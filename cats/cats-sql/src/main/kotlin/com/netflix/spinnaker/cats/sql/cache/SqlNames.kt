@@ -24,7 +24,8 @@ import com.netflix.spinnaker.kork.annotations.VisibleForTesting
  */
 class SqlNames(
   private val tableNamespace: String? = null,
-  private val sqlConstraints: SqlConstraints = SqlConstraints()
+  private val sqlConstraints: SqlConstraints = SqlConstraints(),
+  private val schemaVersion: Int = SqlSchemaVersion.V1.version
 ) {
 
   /**
@@ -104,7 +105,6 @@ class SqlNames(
   }
 
   companion object {
-    private val schemaVersion = SqlSchemaVersion.current()
     private val typeSanitization =
       """[^A-Za-z0-9_]""".toRegex()
   }
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.spinnaker.cats.sql.cache
+
+import com.github.benmanes.caffeine.cache.Cache
+import com.github.benmanes.caffeine.cache.Caffeine
+import com.netflix.spinnaker.cats.cache.CacheData
+import com.netflix.spinnaker.cats.cache.DefaultCacheData
+import java.util.concurrent.TimeUnit
+
+/**
+ * Bounded in-process cache of [SqlCache] reads by id and by application.
+ *
+ * Entries are keyed by table, lookup and relationship filter, and remember the table generation they
+ * were loaded at. An entry is only served while its table's generation is unchanged (see
+ * [SqlCacheGenerations]), and never past [expireAfterWriteMs] even if a generation bump was lost.
+ * Entries are weighted by the number of attributes and relationships they hold.
+ *
+ * Entries hold deep copies of the loaded items and callers always receive deep copies, so mutating a
+ * returned item, including its nested attributes, never affects cached entries.
+ */
+class SqlNearCache(
+  val generations: SqlCacheGenerations,
+  maximumWeight: Long,
+  expireAfterWriteMs: Long
+) {
+
+  private val entries: Cache<Key, Entry> = Caffeine.newBuilder()
+    .maximumWeight(maximumWeight)
+    .weigher<Key, Entry> { _, entry -> entry.weight }
+    .expireAfterWrite(expireAfterWriteMs, TimeUnit.MILLISECONDS)
+    .build()
+
+  /**
+   * Returns the items of [ids], loading only the ids that have no current entry through [loader].
+   */
+  fun getAll(
+    tableName: String,
+    ids: Collection<String>,
+    relationshipPrefixes: List<String>,
+    loader: (List<String>) -> Collection<CacheData>
+  ): Lookup {
+    val generation = generations.current(tableName)
+      ?: return Lookup(loader(ids.toList()).toMutableList(), 0, ids.size)
+
+    val relationshipFilter = relationshipFilterKey(relationshipPrefixes)
+    val result = mutableListOf<CacheData>()
+    val missing = mutableListOf<String>()
+
+    ids.forEach { id ->
+      val entry = entries.getIfPresent(Key(tableName, id, null, relationshipFilter))
+      if (entry != null && entry.generation == generation) {
+        entry.items.mapTo(result) { copy(it) }
+      } else {
+        missing.add(id)
+      }
+    }
+
+    if (missing.isNotEmpty()) {
+      loader(missing).forEach {
+        entries.put(Key(tableName, it.id, null, relationshipFilter), Entry(generation, listOf(copy(it))))
+        result.add(it)
+      }
+    }
+
+    return Lookup(result, ids.size - missing.size, missing.size)
+  }
+
+  /**
+   * Returns all the items of [application], loading them through [loader] if there is no current entry.
+   */
+  fun getAllByApplication(
+    tableName: String,
+    application: String,
+    relationshipPrefixes: List<String>,
+    loader: () -> Collection<CacheData>
+  ): Lookup {
+    val generation = generations.current(tableName)
+      ?: return Lookup(loader().toMutableList(), 0, 1)
+
+    val key = Key(tableName, null, application, relationshipFilterKey(relationshipPrefixes))
+    val entry = entries.getIfPresent(key)
+    if (entry != null && entry.generation == generation) {
+      return Lookup(entry.items.mapTo(mutableListOf()) { copy(it) }, 1, 0)
+    }
+
+    val items = loader()
+    entries.put(key, Entry(generation, items.map { copy(it) }))
+    return Lookup(items.toMutableList(), 0, 1)
+  }
+
+  fun invalidateAll() {
+    entries.invalidateAll()
+  }
+
+  private fun relationshipFilterKey(relationshipPrefixes: List<String>): String =
+    relationshipPrefixes.sorted().joinToString(",")
+
+  @Suppress("UNCHECKED_CAST")
+  private fun copy(cacheData: CacheData): CacheData =
+    DefaultCacheData(
+      cacheData.id,
+      -1,
+      deepCopy(cacheData.attributes) as Map<String, Any?>,
+      cacheData.relationships.mapValuesTo(mutableMapOf<String, Collection<String>>()) { it.value.toMutableList() }
+    )
+
+  /**
+   * Copies the maps and collections of a deserialized body; other values (strings, numbers, booleans) are
+   * immutable and shared.
+   */
+  private fun deepCopy(value: Any?): Any? =
+    when (value) {
+      is Map<*, *> -> value.entries.associateTo(LinkedHashMap(value.size)) { it.key to deepCopy(it.value) }
+      is Set<*> -> value.mapTo(LinkedHashSet(value.size)) { deepCopy(it) }
+      is Collection<*> -> value.mapTo(ArrayList(value.size)) { deepCopy(it) }
+      else -> value
+    }
+
+  class Lookup(
+    val items: MutableCollection<CacheData>,
+    val hits: Int,
+    val misses: Int
+  )
+
+  private data class Key(
+    val tableName: String,
+    val id: String?,
+    val application: String?,
+    val relationshipFilter: String
+  )
+
+  private class Entry(
+    val generation: SqlCacheGenerations.Generation,
+    val items: List<CacheData>
+  ) {
+    val weight: Int = items.sumBy { 1 + it.attributes.size + it.relationships.values.sumBy { r -> r.size } }
+  }
+}
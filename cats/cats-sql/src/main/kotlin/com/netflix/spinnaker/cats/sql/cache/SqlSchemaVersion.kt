@@ -1,9 +1,21 @@
 package com.netflix.spinnaker.cats.sql.cache
 
 enum class SqlSchemaVersion(val version: Int) {
-  V1(1);
+  V1(1),
+
+  /**
+   * Resource bodies are stored as binary (`longblob`) so that they can be written as
+   * [SqlBodyEncoding.SMILE]. Only used when Smile encoding is configured; tables are seeded from
+   * their V1 counterparts before they are first read or written.
+   */
+  V2(2);
 
   companion object {
-    fun current(): Int = V1.version
+    /**
+     * The schema version that tables are read from and written to with the given body [encoding].
+     */
+    @JvmStatic
+    fun forEncoding(encoding: SqlBodyEncoding): SqlSchemaVersion =
+      if (encoding == SqlBodyEncoding.SMILE) V2 else V1
   }
 }
@@ -35,24 +35,30 @@ class SqlTableMetricsAgent(
     val start = clock.millis()
     var tableCount = 0
 
-    val baseName = if (namespace == null) {
-      "cats_v${SqlSchemaVersion.current()}_"
-    } else {
-      "cats_v${SqlSchemaVersion.current()}_${namespace}_"
-    }
+    // Tables of every schema version are counted, not only the one in use, so that tables left behind by a
+    // change of body encoding are still visible.
+    SqlSchemaVersion.values().forEach { schemaVersion ->
+      val baseName = if (namespace == null) {
+        "cats_v${schemaVersion.version}_"
+      } else {
+        "cats_v${schemaVersion.version}_${namespace}_"
+      }
 
-    val rs = jooq.fetch("show tables like '$baseName%'").intoResultSet()
+      val rs = jooq.fetch("show tables like '$baseName%'").intoResultSet()
 
-    while (rs.next()) {
-      val tableName = rs.getString(1)
-      val type = tableName.replace(baseName, "")
+      while (rs.next()) {
+        val tableName = rs.getString(1)
+        val type = tableName.replace(baseName, "")
 
-      val count = jooq.selectCount()
-        .from(table(tableName))
-        .fetchOne(0, Int::class.java)
+        val count = jooq.selectCount()
+          .from(table(tableName))
+          .fetchOne(0, Int::class.java)
 
-      registry.gauge(countId.withTag("type", type)).set(count.toDouble())
-      tableCount++
+        registry.gauge(
+          countId.withTag("type", type).withTag("schemaVersion", schemaVersion.version.toString())
+        ).set(count.toDouble())
+        tableCount++
+      }
     }
 
     val runTime = clock.millis() - start
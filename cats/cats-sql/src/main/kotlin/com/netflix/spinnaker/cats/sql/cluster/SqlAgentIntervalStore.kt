@@ -0,0 +1,91 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.spinnaker.cats.sql.cluster
+
+import com.netflix.spinnaker.clouddriver.cache.AgentIntervalStore
+import com.netflix.spinnaker.config.ConnectionPools
+import com.netflix.spinnaker.kork.sql.routing.withPool
+import org.jooq.DSLContext
+import org.jooq.impl.DSL.field
+import org.jooq.impl.DSL.table
+import org.slf4j.LoggerFactory
+
+/**
+ * Interval multipliers shared between the nodes of a [SqlClusteredAgentScheduler], next to its agent locks.
+ *
+ * Failures are logged rather than thrown: agents whose state can't be read run at their configured
+ * interval, and a state that can't be written is recomputed on the agent's next cycle.
+ */
+class SqlAgentIntervalStore(
+  private val jooq: DSLContext,
+  tableNamespace: String? = null
+) : AgentIntervalStore {
+
+  companion object {
+    private const val referenceTable = "cats_agent_intervals"
+    private val POOL_NAME = ConnectionPools.CACHE_WRITER.value
+
+    private val log = LoggerFactory.getLogger(SqlAgentIntervalStore::class.java)
+  }
+
+  private val intervalTable = if (tableNamespace.isNullOrBlank()) {
+    referenceTable
+  } else {
+    "${referenceTable}_$tableNamespace"
+  }
+
+  init {
+    if (!tableNamespace.isNullOrBlank()) {
+      withPool(POOL_NAME) {
+        jooq.execute("CREATE TABLE IF NOT EXISTS $intervalTable LIKE $referenceTable")
+      }
+    }
+  }
+
+  override fun get(agentType: String): AgentIntervalStore.State? {
+    return try {
+      withPool(POOL_NAME) {
+        jooq
+          .select(
+            field("multiplier", Double::class.javaObjectType),
+            field("last_elapsed_ms", Long::class.javaObjectType)
+          )
+          .from(table(intervalTable))
+          .where(field("agent_name").eq(agentType))
+          .fetchOne()
+          ?.let { AgentIntervalStore.State(it.value1(), it.value2()) }
+      }
+    } catch (e: Exception) {
+      log.error("Unable to read the interval of agent $agentType", e)
+      null
+    }
+  }
+
+  override fun put(agentType: String, state: AgentIntervalStore.State) {
+    try {
+      withPool(POOL_NAME) {
+        jooq.insertInto(table(intervalTable), field("agent_name"), field("multiplier"), field("last_elapsed_ms"))
+          .values(agentType, state.multiplier, state.lastElapsedMs)
+          .onDuplicateKeyUpdate()
+          .set(field("multiplier"), state.multiplier as Any)
+          .set(field("last_elapsed_ms"), state.lastElapsedMs as Any)
+          .execute()
+      }
+    } catch (e: Exception) {
+      log.error("Unable to store the interval of agent $agentType", e)
+    }
+  }
+}
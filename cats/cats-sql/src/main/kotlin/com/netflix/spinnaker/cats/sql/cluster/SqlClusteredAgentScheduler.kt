@@ -139,7 +139,7 @@ class SqlClusteredAgentScheduler(
 
         val currentTime = System.currentTimeMillis()
         if (tryAcquireSingle(agentType, currentTime, interval.timeout)) {
-          Pair(agentType, NextAttempt(currentTime, interval.interval, interval.errorInterval))
+          Pair(agentType, NextAttempt(currentTime))
         } else {
           null
         }
@@ -268,11 +268,15 @@ class SqlClusteredAgentScheduler(
     }
   }
 
-  private fun agentCompleted(agentType: String, nextExecutionTime: Long) {
+  /**
+   * The interval is read once the execution completed, so that intervals adapted to the execution (see
+   * [AgentIntervalProvider]) apply to the lock it releases rather than to the next one.
+   */
+  private fun agentCompleted(agent: Agent, lockAcquired: NextAttempt, status: Status) {
     try {
-      releaseLock(agentType, nextExecutionTime)
+      releaseLock(agent.agentType, lockAcquired.getNextTime(status, intervalProvider.getInterval(agent)))
     } finally {
-      activeAgents.remove(agentType)
+      activeAgents.remove(agent.agentType)
     }
   }
 
@@ -308,7 +312,7 @@ private class AgentExecutionAction(
 private class AgentJob(
   private val lockReleaseTime: NextAttempt,
   private val action: AgentExecutionAction,
-  private val schedulerCallback: (agentType: String, nextExecutionTime: Long) -> Unit
+  private val schedulerCallback: (agent: Agent, lockAcquired: NextAttempt, status: Status) -> Unit
 ) : Runnable {
 
   override fun run() {
@@ -316,20 +320,18 @@ private class AgentJob(
     try {
       status = action.execute()
     } finally {
-      schedulerCallback(action.agent.agentType, lockReleaseTime.getNextTime(status))
+      schedulerCallback(action.agent, lockReleaseTime, status)
     }
   }
 }
 
 private data class NextAttempt(
-  val currentTime: Long,
-  val successInterval: Long,
-  val errorInterval: Long
+  val currentTime: Long
 ) {
-  fun getNextTime(status: Status): Long =
+  fun getNextTime(status: Status, interval: AgentIntervalProvider.Interval): Long =
     if (status == Status.SUCCESS) {
-      currentTime + successInterval
+      currentTime + interval.interval
     } else {
-      currentTime + errorInterval
+      currentTime + interval.errorInterval
     }
 }
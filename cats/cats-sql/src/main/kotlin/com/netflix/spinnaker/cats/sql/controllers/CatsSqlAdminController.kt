@@ -5,6 +5,7 @@ import com.netflix.spinnaker.fiat.shared.FiatPermissionEvaluator
 import com.netflix.spinnaker.kork.sql.config.SqlProperties
 import com.netflix.spinnaker.security.AuthenticatedRequest
 import java.sql.DriverManager
+import org.jooq.DSLContext
 import org.jooq.SQLDialect
 import org.jooq.impl.DSL
 import org.slf4j.LoggerFactory
@@ -48,14 +49,10 @@ class CatsSqlAdminController(
     )
 
     val tablesTruncated = mutableListOf<String>()
-    val sql = "show tables like 'cats_v${SqlSchemaVersion.current()}_${truncateNamespace}_%'"
 
     conn.use { c ->
       val jooq = DSL.using(c, SQLDialect.MYSQL)
-      val rs = jooq.fetch(sql).intoResultSet()
-
-      while (rs.next()) {
-        val table = rs.getString(1)
+      namespaceTables(jooq, truncateNamespace).forEach { table ->
         val truncateSql = "truncate table `$table`"
         log.info("Truncating $table")
 
@@ -83,14 +80,10 @@ class CatsSqlAdminController(
     )
 
     val tablesDropped = mutableListOf<String>()
-    val sql = "show tables like 'cats_v${SqlSchemaVersion.current()}_${dropNamespace}_%'"
 
     conn.use { c ->
       val jooq = DSL.using(c, SQLDialect.MYSQL)
-      val rs = jooq.fetch(sql).intoResultSet()
-
-      while (rs.next()) {
-        val table = rs.getString(1)
+      namespaceTables(jooq, dropNamespace).forEach { table ->
         val dropSql = "drop table `$table`"
         log.info("Dropping $table")
 
@@ -102,6 +95,15 @@ class CatsSqlAdminController(
     return CleanTablesResult(tableCount = tablesDropped.size, tables = tablesDropped)
   }
 
+  /**
+   * Lists the namespace's tables of every schema version, so that tables left behind by a change of body
+   * encoding are cleaned up as well.
+   */
+  private fun namespaceTables(jooq: DSLContext, namespace: String): List<String> =
+    SqlSchemaVersion.values().flatMap { schemaVersion ->
+      jooq.fetch("show tables like 'cats_v${schemaVersion.version}_${namespace}_%'").getValues(0, String::class.java)
+    }
+
   private fun validateParams(currentNamespace: String?, targetNamespace: String) {
     if (currentNamespace == null) {
       throw IllegalStateException("truncate can only be called when sql.tableNamespace is set")
@@ -19,7 +19,9 @@ import com.netflix.spinnaker.cats.agent.AgentScheduler
 import com.netflix.spinnaker.cats.cluster.AgentIntervalProvider
 import com.netflix.spinnaker.cats.cluster.DefaultNodeIdentity
 import com.netflix.spinnaker.cats.cluster.NodeStatusProvider
+import com.netflix.spinnaker.cats.sql.cluster.SqlAgentIntervalStore
 import com.netflix.spinnaker.cats.sql.cluster.SqlClusteredAgentScheduler
+import com.netflix.spinnaker.clouddriver.cache.AgentIntervalStore
 import com.netflix.spinnaker.kork.dynamicconfig.DynamicConfigService
 import org.jooq.DSLContext
 import org.springframework.beans.factory.annotation.Value
@@ -58,4 +60,23 @@ class SqlAgentSchedulerConfiguration {
       agentLockAcquisitionIntervalSeconds = sqlAgentProperties.agentLockAcquisitionIntervalSeconds
     )
   }
+
+  /**
+   * Shares the interval multipliers of adaptive agent intervals between the nodes running agents, since any of
+   * them can acquire an agent's next cycle.
+   */
+  @Bean
+  @ConditionalOnProperty(
+    value = [
+      "sql.enabled",
+      "sql.scheduler.enabled",
+      "caching.adaptive-intervals.enabled"
+    ]
+  )
+  fun sqlAgentIntervalStore(
+    jooq: DSLContext,
+    @Value("\${sql.table-namespace:#{null}}") tableNamespace: String?
+  ): AgentIntervalStore {
+    return SqlAgentIntervalStore(jooq, tableNamespace)
+  }
 }
@@ -12,12 +12,19 @@ import com.netflix.spinnaker.cats.provider.Provider
 import com.netflix.spinnaker.cats.provider.ProviderRegistry
 import com.netflix.spinnaker.cats.sql.SqlProviderRegistry
 import com.netflix.spinnaker.cats.sql.cache.SpectatorSqlCacheMetrics
+import com.netflix.spinnaker.cats.sql.cache.SqlBodyEncoding
+import com.netflix.spinnaker.cats.sql.cache.SqlBodyHashStrategy
+import com.netflix.spinnaker.cats.sql.cache.SqlCacheGenerations
 import com.netflix.spinnaker.cats.sql.cache.SqlCacheMetrics
 import com.netflix.spinnaker.cats.sql.cache.SqlCleanupStaleOnDemandCachesAgent
 import com.netflix.spinnaker.cats.sql.cache.SqlNamedCacheFactory
 import com.netflix.spinnaker.cats.sql.cache.SqlNames
+import com.netflix.spinnaker.cats.sql.cache.SqlSchemaVersion
+import com.netflix.spinnaker.cats.sql.cache.SqlNearCache
 import com.netflix.spinnaker.cats.sql.cache.SqlTableMetricsAgent
 import com.netflix.spinnaker.cats.sql.cache.SqlUnknownAgentCleanupAgent
+import com.netflix.spinnaker.clouddriver.cache.AdaptiveAgentIntervalProvider
+import com.netflix.spinnaker.clouddriver.cache.AgentChangeTracker
 import com.netflix.spinnaker.clouddriver.cache.CustomSchedulableAgentIntervalProvider
 import com.netflix.spinnaker.clouddriver.cache.DiscoveryStatusNodeStatusProvider
 import com.netflix.spinnaker.clouddriver.sql.SqlAgent
@@ -51,7 +58,7 @@ const val coroutineThreadPrefix = "catsSql"
 @Configuration
 @ConditionalOnProperty("sql.cache.enabled")
 @Import(DefaultSqlConfiguration::class)
-@EnableConfigurationProperties(SqlAgentProperties::class, SqlConstraints::class)
+@EnableConfigurationProperties(SqlAgentProperties::class, SqlConstraints::class, SqlNearCacheProperties::class)
 @ComponentScan("com.netflix.spinnaker.cats.sql.controllers")
 class SqlCacheConfiguration {
 
@@ -88,6 +95,22 @@ class SqlCacheConfiguration {
    * sql.tableNamespace: Name spaces data tables, as well as the agent lock table if using the SqlAgentScheduler.
    * Table namespacing allows flipping to new/empty data tables within the same master if necessary to rebuild
    * the cache from scratch, such as after disabling caching agents for an account/region.
+   *
+   * sql.cache.body-encoding: Encoding used when writing resource bodies, either `json` (default) or `smile`.
+   * Bodies in either encoding are always readable, so this can be changed without rebuilding the cache.
+   * Smile bodies are written to the v2 tables, which are seeded from the v1 tables in the background the first time
+   * each type is used; reads are served from the v1 tables until then. Switch all instances together: v1 rows
+   * written by instances still using json after a type has been seeded are not carried over. Switching back to
+   * json returns to the v1 tables, which are not updated while smile is configured.
+   *
+   * sql.cache.body-hash: Hash used to detect changed bodies, either `sha256` (default) or `murmur3-128`.
+   * After a change, unchanged rows only have their stored hash rewritten on the next caching cycle.
+   *
+   * sql.cache.near-cache: When enabled, reads by id and by application are served from memory while
+   * their table's write generation is unchanged, see [SqlNearCacheProperties].
+   *
+   * When adaptive agent intervals are enabled, authoritative writes report how many of each agent's items
+   * changed to the [AgentChangeTracker].
    */
   @ObsoleteCoroutinesApi
   @Bean
@@ -98,9 +121,13 @@ class SqlCacheConfiguration {
     cacheMetrics: SqlCacheMetrics,
     dynamicConfigService: DynamicConfigService,
     sqlConstraints: SqlConstraints,
+    nearCacheProperties: SqlNearCacheProperties,
+    agentChangeTracker: ObjectProvider<AgentChangeTracker>,
     mapper: ObjectMapper,
     @Value("\${sql.cache.async-pool-size:0}") poolSize: Int,
-    @Value("\${sql.table-namespace:#{null}}") tableNamespace: String?
+    @Value("\${sql.table-namespace:#{null}}") tableNamespace: String?,
+    @Value("\${sql.cache.body-encoding:json}") bodyEncoding: String,
+    @Value("\${sql.cache.body-hash:sha256}") bodyHash: String
   ): NamedCacheFactory {
     if (tableNamespace != null && !tableNamespace.matches("""^\w+$""".toRegex())) {
       throw IllegalArgumentException("tableNamespace can only contain characters [a-z, A-Z, 0-9, _]")
@@ -123,6 +150,16 @@ class SqlCacheConfiguration {
       log.info("Configured coroutine context with newFixedThreadPoolContext of $poolSize threads")
     }
 
+    val nearCache = if (nearCacheProperties.enabled) {
+      SqlNearCache(
+        SqlCacheGenerations(jooq, clock, nearCacheProperties.maxStalenessMs),
+        nearCacheProperties.maximumWeight,
+        nearCacheProperties.expireAfterWriteMs
+      )
+    } else {
+      null
+    }
+
     return SqlNamedCacheFactory(
       jooq,
       mapper,
@@ -132,17 +169,28 @@ class SqlCacheConfiguration {
       tableNamespace,
       cacheMetrics,
       dynamicConfigService,
-      sqlConstraints
+      sqlConstraints,
+      SqlBodyEncoding.fromConfig(bodyEncoding),
+      SqlBodyHashStrategy.fromConfig(bodyHash),
+      nearCache,
+      agentChangeTracker.ifAvailable
     )
   }
 
   @Bean
-  fun agentIntervalProvider(sqlAgentProperties: SqlAgentProperties): AgentIntervalProvider {
-    return CustomSchedulableAgentIntervalProvider(
+  fun agentIntervalProvider(
+    sqlAgentProperties: SqlAgentProperties,
+    agentChangeTracker: ObjectProvider<AgentChangeTracker>,
+    registry: Registry
+  ): AgentIntervalProvider {
+    val intervalProvider = CustomSchedulableAgentIntervalProvider(
       Duration.ofSeconds(sqlAgentProperties.poll.intervalSeconds).toMillis(),
       Duration.ofSeconds(sqlAgentProperties.poll.errorIntervalSeconds).toMillis(),
       Duration.ofSeconds(sqlAgentProperties.poll.timeoutSeconds).toMillis()
     )
+    return agentChangeTracker.ifAvailable
+      ?.let { AdaptiveAgentIntervalProvider(intervalProvider, it, registry) }
+      ?: intervalProvider
   }
 
   @Bean
@@ -171,9 +219,19 @@ class SqlCacheConfiguration {
     jooq: DSLContext,
     registry: Registry,
     sqlConstraints: SqlConstraints,
-    @Value("\${sql.table-namespace:#{null}}") tableNamespace: String?
+    @Value("\${sql.table-namespace:#{null}}") tableNamespace: String?,
+    @Value("\${sql.cache.body-encoding:json}") bodyEncoding: String
   ): SqlUnknownAgentCleanupAgent =
-    SqlUnknownAgentCleanupAgent(providerRegistry, jooq, registry, SqlNames(tableNamespace, sqlConstraints))
+    SqlUnknownAgentCleanupAgent(
+      providerRegistry,
+      jooq,
+      registry,
+      SqlNames(
+        tableNamespace,
+        sqlConstraints,
+        SqlSchemaVersion.forEncoding(SqlBodyEncoding.fromConfig(bodyEncoding)).version
+      )
+    )
 
   @Bean
   @ConditionalOnExpression("\${sql.read-only:false} == false")
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.spinnaker.config
+
+import org.springframework.boot.context.properties.ConfigurationProperties
+
+@ConfigurationProperties("sql.cache.near-cache")
+class SqlNearCacheProperties {
+  var enabled: Boolean = false
+
+  /**
+   * Upper bound of the summed weight of entries, where each item weighs one plus its number of
+   * attributes and relationships
+   */
+  var maximumWeight: Long = 5_000_000
+
+  /**
+   * How long writes made by other nodes can go unnoticed, i.e. how often `cats_generations` is polled
+   */
+  var maxStalenessMs: Long = 5_000
+
+  /**
+   * Hard bound on the age of an entry, regardless of generations
+   */
+  var expireAfterWriteMs: Long = 300_000
+}
@@ -0,0 +1,58 @@
+package com.netflix.spinnaker.cats.sql
+
+import com.netflix.spinnaker.cats.sql.cache.SqlBodyEncoding
+import com.netflix.spinnaker.cats.sql.cache.SqlBodyHashStrategy
+import com.netflix.spinnaker.cats.sql.cache.SqlCacheMetrics
+import com.netflix.spinnaker.kork.dynamicconfig.DynamicConfigService
+import org.jooq.impl.DSL
+import spock.util.concurrent.PollingConditions
+
+class SqlCacheSmileEncodingSpec extends SqlCacheSpec {
+
+  def 'should serve reads from v1 tables until v2 tables are seeded in the background'() {
+    setup:
+    def dynamicConfigService = Mock(DynamicConfigService) {
+      getConfig(_ as Class, _ as String, _) >> 2
+    }
+    def jsonCache = createCache(
+      Mock(SqlCacheMetrics), dynamicConfigService, SqlBodyHashStrategy.SHA256, null, null, SqlBodyEncoding.JSON
+    )
+    def smileCache = createCache(Mock(SqlCacheMetrics), dynamicConfigService)
+    jsonCache.mergeAll('foo', 'agent', [createData('blerp', [a: 'b'])], true, true)
+
+    when:
+    (1..4).collect { Thread.start { smileCache.getAll('foo') } }*.join()
+    def retrieved = smileCache.getAll('foo')
+
+    then:
+    1 * dynamicConfigService.isEnabled('sql.cache.seed-from-previous-schema', true) >> true
+    retrieved*.id == ['blerp']
+    retrieved[0].attributes == [a: 'b']
+    new PollingConditions(timeout: 10).eventually {
+      assert tableExists(resourceTableName('foo'))
+      assert context.fetchCount(DSL.table(resourceTableName('foo'))) == 1
+    }
+
+    when:
+    smileCache.mergeAll('foo', 'other-agent', [createData('blorp', [c: 'd'])], true, true)
+
+    then:
+    smileCache.getAll('foo')*.id.sort() == ['blerp', 'blorp']
+  }
+
+  private boolean tableExists(String tableName) {
+    return context.fetchExists(
+      DSL.select(DSL.field("table_name"))
+        .from(DSL.table("information_schema.tables"))
+        .where(
+          DSL.field("table_schema").eq(DSL.field(DSL.sql("database()"))),
+          DSL.field("table_name").eq(tableName)
+        )
+    )
+  }
+
+  @Override
+  SqlBodyEncoding getBodyEncoding() {
+    return SqlBodyEncoding.SMILE
+  }
+}
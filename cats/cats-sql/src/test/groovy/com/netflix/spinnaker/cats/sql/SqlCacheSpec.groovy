@@ -4,8 +4,14 @@ import com.fasterxml.jackson.databind.ObjectMapper
 import com.netflix.spinnaker.cats.cache.Cache
 import com.netflix.spinnaker.cats.cache.RelationshipCacheFilter
 import com.netflix.spinnaker.cats.cache.WriteableCacheSpec
+import com.netflix.spinnaker.cats.cluster.AgentChangeListener
+import com.netflix.spinnaker.cats.sql.cache.SqlBodyEncoding
+import com.netflix.spinnaker.cats.sql.cache.SqlBodyHashStrategy
 import com.netflix.spinnaker.cats.sql.cache.SqlCache
+import com.netflix.spinnaker.cats.sql.cache.SqlCacheGenerations
 import com.netflix.spinnaker.cats.sql.cache.SqlCacheMetrics
+import com.netflix.spinnaker.cats.sql.cache.SqlNearCache
+import com.netflix.spinnaker.cats.sql.cache.SqlSchemaVersion
 import com.netflix.spinnaker.config.SqlConstraints
 import com.netflix.spinnaker.kork.dynamicconfig.DynamicConfigService
 import com.netflix.spinnaker.kork.sql.config.RetryProperties
@@ -67,6 +73,145 @@ class SqlCacheSpec extends WriteableCacheSpec {
     1 * ((SqlCache) cache).cacheMetrics.merge('test', 'foo', 1, 0, 0, 0, 1, 0, 0)
   }
 
+  def 'should skip reading hashes when the agent hash snapshot is current'() {
+    setup:
+    def metrics = Mock(SqlCacheMetrics)
+    def snapshotCache = createCache(metrics, Mock(DynamicConfigService) {
+      isEnabled('sql.cache.hash-snapshot', false) >> true
+      getConfig(Long.TYPE, 'sql.cache.hash-snapshot.max-age-ms', _) >> 3600000L
+      getConfig(_ as Class, _ as String, _) >> 2
+    })
+    def data = [createData('blerp', [a: 'b'])]
+
+    when:
+    snapshotCache.mergeAll('foo', 'agent', data, true, true)
+
+    then:
+    1 * metrics.hashDiff('test', 'foo', false, 0, 1, 0)
+
+    when:
+    snapshotCache.mergeAll('foo', 'agent', data, true, true)
+
+    then:
+    1 * metrics.hashDiff('test', 'foo', true, 1, 0, 0)
+    1 * metrics.merge('test', 'foo', 1, 0, 0, 0, 1, 0, 0)
+
+    when: 'rows are removed by another writer'
+    context.deleteFrom(DSL.table(resourceTableName('foo'))).execute()
+    snapshotCache.mergeAll('foo', 'agent', data, true, true)
+
+    then:
+    1 * metrics.hashDiff('test', 'foo', false, 0, 1, 0)
+  }
+
+  def 'should only rewrite hashes of unchanged bodies after switching hash strategy'() {
+    setup:
+    def dynamicConfigService = Mock(DynamicConfigService) {
+      getConfig(_ as Class, _ as String, _) >> 2
+    }
+    def sha256Metrics = Mock(SqlCacheMetrics)
+    def murmurMetrics = Mock(SqlCacheMetrics)
+    def sha256Cache = createCache(sha256Metrics, dynamicConfigService, SqlBodyHashStrategy.SHA256)
+    def murmurCache = createCache(murmurMetrics, dynamicConfigService, SqlBodyHashStrategy.MURMUR3_128)
+    def data = [createData('blerp', [a: 'b'])]
+
+    when:
+    sha256Cache.mergeAll('foo', 'agent', data, true, true)
+
+    then:
+    1 * sha256Metrics.hashDiff('test', 'foo', false, 0, 1, 0)
+    1 * sha256Metrics.bodyHash('test', 'foo', 'agent', 1, _)
+
+    when:
+    murmurCache.mergeAll('foo', 'agent', data, true, true)
+
+    then:
+    1 * murmurMetrics.hashDiff('test', 'foo', false, 0, 0, 1)
+    context.select(DSL.field('body_hash')).from(DSL.table(resourceTableName('foo'))).fetchOne(0, String).length() == 32
+
+    when:
+    murmurCache.mergeAll('foo', 'agent', data, true, true)
+
+    then:
+    1 * murmurMetrics.hashDiff('test', 'foo', false, 1, 0, 0)
+    murmurCache.get('foo', 'blerp').attributes == [a: 'b']
+  }
+
+  def 'should serve reads from the near cache until another node writes'() {
+    setup:
+    def dynamicConfigService = Mock(DynamicConfigService) {
+      getConfig(_ as Class, _ as String, _) >> 2
+    }
+    def clock = new Clock.FixedClock(Instant.EPOCH, ZoneId.of("UTC"))
+    def metrics = Mock(SqlCacheMetrics)
+    def reader = createCache(
+      metrics,
+      dynamicConfigService,
+      SqlBodyHashStrategy.SHA256,
+      new SqlNearCache(new SqlCacheGenerations(context, clock, 0), 1000, 60000)
+    )
+    def writer = createCache(
+      Mock(SqlCacheMetrics),
+      dynamicConfigService,
+      SqlBodyHashStrategy.SHA256,
+      new SqlNearCache(new SqlCacheGenerations(context, clock, 0), 1000, 60000)
+    )
+    writer.mergeAll('foo', 'agent', [createData('blerp', [a: 'b', nested: [c: ['d']]])], true, true)
+
+    when:
+    def loaded = reader.get('foo', 'blerp')
+    loaded.attributes.nested.c << 'mutated'
+
+    then:
+    1 * metrics.nearCache('test', 'foo', 0, 1)
+
+    when:
+    def cached = reader.get('foo', 'blerp')
+    cached.attributes.a = 'mutated'
+    cached.attributes.nested.c = 'mutated'
+    def again = reader.get('foo', 'blerp')
+
+    then:
+    2 * metrics.nearCache('test', 'foo', 1, 0)
+    again.attributes.a == 'b'
+    again.attributes.nested == [c: ['d']]
+
+    when:
+    writer.mergeAll('foo', 'agent', [createData('blerp', [a: 'c'])], true, true)
+    def updated = reader.get('foo', 'blerp')
+
+    then:
+    1 * metrics.nearCache('test', 'foo', 0, 1)
+    updated.attributes.a == 'c'
+  }
+
+  def 'reports changed and unchanged items of each agent'() {
+    given:
+    def dynamicConfigService = Mock(DynamicConfigService) {
+      getConfig(_ as Class, _ as String, _) >> 2
+    }
+    def listener = Mock(AgentChangeListener)
+    def cache = createCache(Mock(SqlCacheMetrics), dynamicConfigService, SqlBodyHashStrategy.SHA256, null, listener)
+
+    when:
+    cache.mergeAll('foo', 'agent', [createData('blerp'), createData('blorp')], true, true)
+
+    then:
+    1 * listener.itemsStored('agent', 'foo', 2, 0)
+
+    when:
+    cache.mergeAll('foo', 'agent', [createData('blerp', [a: 'changed'])], true, true)
+
+    then: 'blerp changed and blorp was removed'
+    1 * listener.itemsStored('agent', 'foo', 2, 0)
+
+    when:
+    cache.mergeAll('foo', 'agent', [createData('blerp', [a: 'changed'])], true, true)
+
+    then:
+    1 * listener.itemsStored('agent', 'foo', 0, 1)
+  }
+
   def 'all items are stored and retrieved when larger than sql chunk sizes'() {
     given:
     def data = (1..10).collect { createData("fnord-$it") }
@@ -100,10 +245,6 @@ class SqlCacheSpec extends WriteableCacheSpec {
 
   @Override
   Cache getSubject() {
-    def mapper = new ObjectMapper()
-    def clock = new Clock.FixedClock(Instant.EPOCH, ZoneId.of("UTC"))
-    def sqlRetryProperties = new SqlRetryProperties(new RetryProperties(1, 10), new RetryProperties(1, 10))
-
     def dynamicConfigService = Mock(DynamicConfigService) {
       getConfig(_ as Class, _ as String, _) >> 2
     }
@@ -112,6 +253,19 @@ class SqlCacheSpec extends WriteableCacheSpec {
     context = testDatabase.context
     dataSource = testDatabase.dataSource
 
+    return createCache(Mock(SqlCacheMetrics), dynamicConfigService)
+  }
+
+  protected SqlCache createCache(SqlCacheMetrics cacheMetrics,
+                                 DynamicConfigService dynamicConfigService,
+                                 SqlBodyHashStrategy bodyHashStrategy = SqlBodyHashStrategy.SHA256,
+                                 SqlNearCache nearCache = null,
+                                 AgentChangeListener agentChangeListener = null,
+                                 SqlBodyEncoding bodyEncoding = getBodyEncoding()) {
+    def mapper = new ObjectMapper()
+    def clock = new Clock.FixedClock(Instant.EPOCH, ZoneId.of("UTC"))
+    def sqlRetryProperties = new SqlRetryProperties(new RetryProperties(1, 10), new RetryProperties(1, 10))
+
     return new SqlCache(
       "test",
       context,
@@ -120,10 +274,22 @@ class SqlCacheSpec extends WriteableCacheSpec {
       clock,
       sqlRetryProperties,
       "test",
-      Mock(SqlCacheMetrics),
+      cacheMetrics,
       dynamicConfigService,
-      new SqlConstraints()
+      new SqlConstraints(),
+      bodyEncoding,
+      bodyHashStrategy,
+      nearCache,
+      agentChangeListener
     )
   }
 
+  SqlBodyEncoding getBodyEncoding() {
+    return SqlBodyEncoding.JSON
+  }
+
+  protected String resourceTableName(String type) {
+    return "cats_v${SqlSchemaVersion.forEncoding(bodyEncoding).version}_test_${type}"
+  }
+
 }
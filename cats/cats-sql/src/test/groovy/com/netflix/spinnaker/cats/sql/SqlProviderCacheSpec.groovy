@@ -9,6 +9,8 @@ import com.netflix.spinnaker.cats.cache.RelationshipCacheFilter
 import com.netflix.spinnaker.cats.cache.WriteableCache
 import com.netflix.spinnaker.cats.provider.ProviderCacheSpec
 import com.netflix.spinnaker.cats.sql.cache.SpectatorSqlCacheMetrics
+import com.netflix.spinnaker.cats.sql.cache.SqlBodyEncoding
+import com.netflix.spinnaker.cats.sql.cache.SqlBodyHashStrategy
 import com.netflix.spinnaker.cats.sql.cache.SqlCache
 import com.netflix.spinnaker.config.SqlConstraints
 import com.netflix.spinnaker.kork.dynamicconfig.DynamicConfigService
@@ -69,7 +71,11 @@ class SqlProviderCacheSpec extends ProviderCacheSpec {
       "test",
       sqlMetrics,
       dynamicConfigService,
-      new SqlConstraints()
+      new SqlConstraints(),
+      SqlBodyEncoding.JSON,
+      SqlBodyHashStrategy.SHA256,
+      null,
+      null
     )
 
     return new SqlProviderCache(backingStore)
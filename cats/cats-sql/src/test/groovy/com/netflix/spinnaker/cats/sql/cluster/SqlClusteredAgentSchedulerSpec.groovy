@@ -0,0 +1,106 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.cats.sql.cluster
+
+import com.google.common.util.concurrent.MoreExecutors
+import com.netflix.spectator.api.NoopRegistry
+import com.netflix.spinnaker.cats.agent.Agent
+import com.netflix.spinnaker.cats.agent.AgentExecution
+import com.netflix.spinnaker.cats.cluster.DefaultAgentIntervalProvider
+import com.netflix.spinnaker.cats.cluster.NodeIdentity
+import com.netflix.spinnaker.cats.cluster.NodeStatusProvider
+import com.netflix.spinnaker.clouddriver.cache.AdaptiveAgentIntervalProperties
+import com.netflix.spinnaker.clouddriver.cache.AdaptiveAgentIntervalProvider
+import com.netflix.spinnaker.clouddriver.cache.AgentChangeTracker
+import com.netflix.spinnaker.clouddriver.cache.AgentIntervalStore
+import com.netflix.spinnaker.clouddriver.cache.InMemoryAgentIntervalStore
+import com.netflix.spinnaker.kork.dynamicconfig.DynamicConfigService
+import com.netflix.spinnaker.kork.sql.test.SqlTestUtil
+import org.jooq.DSLContext
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.util.concurrent.ScheduledExecutorService
+
+import static org.jooq.impl.DSL.field
+import static org.jooq.impl.DSL.table
+
+class SqlClusteredAgentSchedulerSpec extends Specification {
+
+  SqlTestUtil.TestDatabase database = SqlTestUtil.initTcMysqlDatabase()
+  DSLContext jooq = database.context
+
+  def properties = new AdaptiveAgentIntervalProperties(enabled: true, minMultiplier: 0.5, maxMultiplier: 4, step: 2)
+  def agent = Stub(Agent) {
+    getAgentType() >> 'account/region/agent'
+  }
+
+  def cleanup() {
+    SqlTestUtil.cleanupDb(jooq)
+    database.dataSource.close()
+  }
+
+  @Unroll
+  def 'adapts the interval of an agent across the nodes running it when their multipliers are #description'() {
+    given:
+    def sharedStore = new SqlAgentIntervalStore(jooq)
+    def nodes = ['node1', 'node2'].collect { node(it, shared ? sharedStore : new InMemoryAgentIntervalStore()) }
+
+    when:
+    def lockDurations = (0..3).collect { cycle ->
+      nodes[cycle % 2].run()
+      def lock = jooq.select(field('lock_acquired', Long), field('lock_expiry', Long))
+        .from(table('cats_agent_locks'))
+        .where(field('agent_name').eq(agent.agentType))
+        .fetchOne()
+      // expire the lock, so that the other node acquires the next cycle
+      jooq.deleteFrom(table('cats_agent_locks')).execute()
+      (lock.value2() - lock.value1()).intdiv(1000)
+    }
+
+    then:
+    lockDurations == expectedSeconds
+
+    where:
+    shared || expectedSeconds      | description
+    true   || [120, 240, 240, 240] | 'shared'
+    false  || [120, 120, 240, 240] | 'kept by each node'
+  }
+
+  private SqlClusteredAgentScheduler node(String nodeId, AgentIntervalStore store) {
+    def tracker = new AgentChangeTracker(properties, store)
+    def scheduler = new SqlClusteredAgentScheduler(
+      jooq,
+      Stub(NodeIdentity) { getNodeIdentity() >> nodeId },
+      new AdaptiveAgentIntervalProvider(new DefaultAgentIntervalProvider(60000, 30000, 120000), tracker, new NoopRegistry()),
+      Stub(NodeStatusProvider) { isNodeEnabled() >> true },
+      Stub(DynamicConfigService) { getConfig(_ as Class, _ as String, _) >> { type, name, defaultValue -> defaultValue } },
+      '.*',
+      [],
+      null,
+      null,
+      MoreExecutors.newDirectExecutorService(),
+      Mock(ScheduledExecutorService)
+    )
+    // every cycle of the agent leaves its items unchanged
+    def execution = Stub(AgentExecution) {
+      executeAgent(agent) >> { tracker.itemsStored(agent.agentType, 'instances', 0, 100) }
+    }
+    scheduler.schedule(agent, execution, tracker)
+    return scheduler
+  }
+}
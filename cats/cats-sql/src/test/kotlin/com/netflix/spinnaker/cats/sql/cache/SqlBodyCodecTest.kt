@@ -0,0 +1,72 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.spinnaker.cats.sql.cache
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import com.netflix.spinnaker.cats.cache.DefaultCacheData
+import dev.minutest.junit.JUnit5Minutests
+import dev.minutest.rootContext
+import strikt.api.expectThat
+import strikt.assertions.isEqualTo
+import strikt.assertions.isLessThan
+
+class SqlBodyCodecTest : JUnit5Minutests {
+
+  fun tests() = rootContext<Fixture> {
+    fixture { Fixture() }
+
+    SqlBodyEncoding.values().forEach { encoding ->
+      test("round trips $encoding bodies") {
+        val decoded = SqlBodyCodec(mapper, encoding).decode(SqlBodyCodec(mapper, encoding).encode(cacheData))
+
+        expectThat(decoded.id).isEqualTo(cacheData.id)
+        expectThat(decoded.attributes).isEqualTo(cacheData.attributes)
+        expectThat(decoded.relationships).isEqualTo(cacheData.relationships)
+      }
+
+      test("reads bodies written as $encoding regardless of the configured encoding") {
+        val body = SqlBodyCodec(mapper, encoding).encode(cacheData)
+
+        SqlBodyEncoding.values().forEach {
+          expectThat(SqlBodyCodec(mapper, it).decode(body).id).isEqualTo(cacheData.id)
+        }
+      }
+    }
+
+    test("reads JSON text bodies") {
+      val body = mapper.writeValueAsString(cacheData)
+
+      expectThat(SqlBodyCodec(mapper, SqlBodyEncoding.SMILE).decode(body).id).isEqualTo(cacheData.id)
+    }
+
+    test("smile bodies are smaller than JSON bodies") {
+      val json = SqlBodyCodec(mapper, SqlBodyEncoding.JSON).encode(cacheData)
+      val smile = SqlBodyCodec(mapper, SqlBodyEncoding.SMILE).encode(cacheData)
+
+      expectThat(smile.size).isLessThan(json.size)
+    }
+  }
+
+  private inner class Fixture {
+    val mapper = ObjectMapper()
+
+    val cacheData = DefaultCacheData(
+      "aws:instances:prod:us-east-1:i-abcd1234",
+      (1..50).associate { "attribute$it" to mapOf("name" to "value$it", "enabled" to true, "count" to it) },
+      mapOf("serverGroups" to (1..20).map { "aws:serverGroups:myapp-prod-v$it:prod:us-east-1" })
+    )
+  }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.spinnaker.cats.sql.cache
+
+import dev.minutest.junit.JUnit5Minutests
+import dev.minutest.rootContext
+import java.security.MessageDigest
+import strikt.api.expectThat
+import strikt.api.expectThrows
+import strikt.assertions.isEqualTo
+import strikt.assertions.isFalse
+import strikt.assertions.isTrue
+
+class SqlBodyHashStrategyTest : JUnit5Minutests {
+
+  fun tests() = rootContext<Fixture> {
+    fixture { Fixture() }
+
+    test("sha256 hashes match previously stored hashes") {
+      val expected = MessageDigest.getInstance("SHA-256").digest(body).joinToString("") { "%02x".format(it) }
+
+      expectThat(SqlBodyHashStrategy.SHA256.hash(body)).isEqualTo(expected)
+    }
+
+    test("hashes fit the body_hash column") {
+      SqlBodyHashStrategy.values().forEach {
+        expectThat(it.hash(body).length <= 64).isTrue()
+      }
+    }
+
+    test("recognizes hashes of the same body written by another strategy") {
+      val sha256 = SqlBodyHashStrategy.SHA256.hash(body)
+
+      expectThat(SqlBodyHashStrategy.MURMUR3_128.isPreviousHashOf(sha256, body)).isTrue()
+      expectThat(SqlBodyHashStrategy.MURMUR3_128.isPreviousHashOf(sha256, "{}".toByteArray())).isFalse()
+      expectThat(SqlBodyHashStrategy.SHA256.isPreviousHashOf(sha256, body)).isFalse()
+    }
+
+    test("parses config values") {
+      expectThat(SqlBodyHashStrategy.fromConfig("sha256")).isEqualTo(SqlBodyHashStrategy.SHA256)
+      expectThat(SqlBodyHashStrategy.fromConfig("murmur3-128")).isEqualTo(SqlBodyHashStrategy.MURMUR3_128)
+      expectThrows<IllegalArgumentException> { SqlBodyHashStrategy.fromConfig("md5") }
+    }
+  }
+
+  private inner class Fixture {
+    val body = """{"id":"aws:instances:prod:us-east-1:i-abcd1234","attributes":{"name":"i-abcd1234"}}""".toByteArray()
+  }
+}
@@ -101,6 +101,18 @@ abstract class CacheSpec extends Specification {
         identifiers = ['blaTEST', 'TESTbla', 'blaTESTbla', 'blaPest', 'blaFEST']
     }
 
+    def 'streamAll behaviour'() {
+        setup:
+        def ids = ['this', 'is', 'not', 'a', 'test']
+        for (String id : ids) {
+            populateOne('foo', id)
+        }
+
+        expect:
+        cache.streamAll('foo').iterator().collect { it.id }.sort() == ids.sort()
+        cache.streamAll('bar').count() == 0
+    }
+
     def 'can getAll empty id collection'() {
         when:
         def results = cache.getAll('foo', [])
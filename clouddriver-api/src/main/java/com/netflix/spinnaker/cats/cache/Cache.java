@@ -21,6 +21,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Map;
+import java.util.stream.Stream;
 
 /** Cache provides view access to data keyed by type and identifier. */
 @Beta
@@ -98,6 +99,24 @@ public interface Cache {
 
   Collection<CacheData> getAll(String type, CacheFilter cacheFilter);
 
+  /**
+   * Streams all the items for the specified type.
+   *
+   * <p>Implementations backed by a remote store may fetch items in pages as the stream is consumed,
+   * so callers that transform or aggregate items should prefer this over {@link #getAll(String)} to
+   * avoid materializing every item at once.
+   *
+   * @param type the type for which to retrieve items
+   * @return a stream of all the items for the type
+   */
+  default Stream<CacheData> streamAll(String type) {
+    return streamAll(type, null);
+  }
+
+  default Stream<CacheData> streamAll(String type, CacheFilter cacheFilter) {
+    return getAll(type, cacheFilter).stream();
+  }
+
   /**
    * Retrieves the items for the specified type matching the provided identifiers
    *
@@ -141,6 +141,9 @@ class Keys implements KeyParser {
           stack: names.stack
         ]
 
+        break
+      case Namespace.CLUSTER_SUMMARIES.ns:
+        result << [application: parts[2].toLowerCase(), account: parts[3], region: parts[4]]
         break
       default:
         return null
@@ -219,4 +222,8 @@ class Keys implements KeyParser {
     String launchTemplateName, String account, String region) {
     "${ID}:${Namespace.LAUNCH_TEMPLATES}:${account}:${region}:${launchTemplateName}"
   }
+
+  static String getClusterSummaryKey(String application, String account, String region) {
+    "${ID}:${Namespace.CLUSTER_SUMMARIES}:${application.toLowerCase()}:${account}:${region}"
+  }
 }
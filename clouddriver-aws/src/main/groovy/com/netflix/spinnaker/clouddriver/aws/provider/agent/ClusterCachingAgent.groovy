@@ -36,6 +36,7 @@ import com.fasterxml.jackson.annotation.JsonProperty
 import com.fasterxml.jackson.core.type.TypeReference
 import com.fasterxml.jackson.databind.ObjectMapper
 import com.fasterxml.jackson.databind.SerializationFeature
+import com.google.common.util.concurrent.ThreadFactoryBuilder
 import com.netflix.frigga.Names
 import com.netflix.spectator.api.Registry
 import com.netflix.spinnaker.cats.agent.AccountAware
@@ -56,6 +57,12 @@ import com.netflix.spinnaker.clouddriver.cache.OnDemandType
 import org.slf4j.Logger
 import org.slf4j.LoggerFactory
 
+import java.util.concurrent.Callable
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.Future
+
 import static com.netflix.spinnaker.cats.agent.AgentDataType.Authority.*
 import static com.netflix.spinnaker.clouddriver.core.provider.agent.Namespace.*
 import com.netflix.spinnaker.cats.agent.CacheResult
@@ -68,10 +75,25 @@ class ClusterCachingAgent implements CachingAgent, OnDemandAgent, AccountAware,
 
   private static final TypeReference<Map<String, Object>> ATTRIBUTES = new TypeReference<Map<String, Object>>() {}
 
+  /**
+   * Version of the cluster summary records, readers ignore (and fall back to assembling the clusters
+   * from their server groups) summaries written with any other version.
+   */
+  static final int CLUSTER_SUMMARY_VERSION = 2
+
+  /**
+   * Runs the describe calls that don't depend on auto scaling groups while they are being paged through,
+   * shared by all agents as each one only has a handful of calls in flight while it is loading data.
+   */
+  private static final ExecutorService describeExecutor = Executors.newCachedThreadPool(
+    new ThreadFactoryBuilder().setNameFormat("${ClusterCachingAgent.simpleName}-describe-%d").setDaemon(true).build()
+  )
+
   static final Set<AgentDataType> types = Collections.unmodifiableSet([
     AUTHORITATIVE.forType(CLUSTERS.ns),
     AUTHORITATIVE.forType(SERVER_GROUPS.ns),
     AUTHORITATIVE.forType(APPLICATIONS.ns),
+    AUTHORITATIVE.forType(CLUSTER_SUMMARIES.ns),
     INFORMATIVE.forType(LOAD_BALANCERS.ns),
     INFORMATIVE.forType(TARGET_GROUPS.ns),
     INFORMATIVE.forType(LAUNCH_CONFIGS.ns),
@@ -134,7 +156,8 @@ class ClusterCachingAgent implements CachingAgent, OnDemandAgent, AccountAware,
   @Override
   Optional<Map<String, String>> getCacheKeyPatterns() {
     return [
-      (SERVER_GROUPS.ns): Keys.getServerGroupKey('*', '*', account.name, region)
+      (SERVER_GROUPS.ns): Keys.getServerGroupKey('*', '*', account.name, region),
+      (CLUSTER_SUMMARIES.ns): Keys.getClusterSummaryKey('*', account.name, region)
     ]
   }
 
@@ -218,7 +241,7 @@ class ClusterCachingAgent implements CachingAgent, OnDemandAgent, AccountAware,
     }
 
     def cacheResult = metricsSupport.transformData {
-      buildCacheResult(onDemandData.asgs, onDemandData.scalingPolicies, onDemandData.scheduledActions, onDemandData.subnetMap, [:], [])
+      buildCacheResult(onDemandData.asgs, onDemandData.scalingPolicies, onDemandData.scheduledActions, onDemandData.subnetMap, [:], [], false)
     }
     def cacheResultAsJson = objectMapper.writeValueAsString(cacheResult.cacheResults)
 
@@ -241,6 +264,11 @@ class ClusterCachingAgent implements CachingAgent, OnDemandAgent, AccountAware,
       }
     }
 
+    CacheData clusterSummary = updateClusterSummary(providerCache, serverGroupName, cacheResult)
+    if (clusterSummary) {
+      cacheResult.cacheResults[CLUSTER_SUMMARIES.ns] = [clusterSummary]
+    }
+
     Map<String, Collection<String>> evictions = onDemandData.asgs ? [:] : [
       (SERVER_GROUPS.ns): [
         Keys.getServerGroupKey(serverGroupName, account.name, region)
@@ -306,11 +334,19 @@ class ClusterCachingAgent implements CachingAgent, OnDemandAgent, AccountAware,
     new AutoScalingGroupsResults(start: start, asgs: asgs)
   }
 
-  private Map<String, List<Map>> loadScalingPolicies(AmazonClients clients) {
-    loadScalingPolicies(clients, null)
+  private Map<String, List<Map>> loadScalingPolicies(AmazonClients clients, String asgName) {
+    List<ScalingPolicy> scalingPolicies = describeScalingPolicies(clients, asgName)
+    def alarmNames = scalingPolicies.findResults { it.alarms.findResults { it.alarmName } }.flatten().unique()
+
+    Map<String, Map> alarms = [:]
+    if (alarmNames) {
+      alarms = loadAlarms(clients, alarmNames)
+    }
+
+    buildScalingPolicies(scalingPolicies, alarms)
   }
 
-  private Map<String, List<Map>> loadScalingPolicies(AmazonClients clients, String asgName) {
+  private List<ScalingPolicy> describeScalingPolicies(AmazonClients clients, String asgName) {
     log.debug("Describing scaling policies in ${agentType}")
 
     def request = new DescribePoliciesRequest()
@@ -327,16 +363,10 @@ class ClusterCachingAgent implements CachingAgent, OnDemandAgent, AccountAware,
         break
       }
     }
-    def alarmNames = []
-    if (asgName) {
-      alarmNames = scalingPolicies.findResults { it.alarms.findResults { it.alarmName } }.flatten().unique()
-    }
-
-    Map<String, Map> alarms = [:]
-    if (!asgName || alarmNames) {
-      alarms = loadAlarms(clients, alarmNames)
-    }
+    scalingPolicies
+  }
 
+  private Map<String, List<Map>> buildScalingPolicies(List<ScalingPolicy> scalingPolicies, Map<String, Map> alarms) {
     scalingPolicies
       .findResults { buildScalingPolicy(it, alarms) }
       .groupBy { it.autoScalingGroupName }
@@ -398,9 +428,31 @@ class ClusterCachingAgent implements CachingAgent, OnDemandAgent, AccountAware,
 
     def clients = new AmazonClients(amazonClientProvider, account, region, false)
 
-    def autoScalingGroupsResult = loadAutoScalingGroups(clients)
-    def scalingPolicies = loadScalingPolicies(clients)
-    def scheduledActions = loadScheduledActions(clients)
+    // auto scaling groups are paged through on this thread, as the edda last modified time of the response
+    // is tracked per thread, while the other calls don't depend on them and are made concurrently
+    Future<List<ScalingPolicy>> scalingPoliciesFuture = describeAsync("scalingPolicies") {
+      describeScalingPolicies(clients, null)
+    }
+    Future<Map<String, Map>> alarmsFuture = describeAsync("alarms") { loadAlarms(clients, []) }
+    Future<Map<String, List<Map>>> scheduledActionsFuture = describeAsync("scheduledActions") {
+      loadScheduledActions(clients)
+    }
+    Future<Map<String, String>> subnetMapFuture = describeAsync("subnets") { getSubnetToVpcIdMap(clients) }
+    List<Future> describes = [scalingPoliciesFuture, alarmsFuture, scheduledActionsFuture, subnetMapFuture]
+
+    AutoScalingGroupsResults autoScalingGroupsResult
+    Map<String, List<Map>> scalingPolicies
+    Map<String, List<Map>> scheduledActions
+    Map<String, String> subnetMap
+    try {
+      autoScalingGroupsResult = timeDescribe("autoScalingGroups") { loadAutoScalingGroups(clients) }
+      scalingPolicies = buildScalingPolicies(await(scalingPoliciesFuture), await(alarmsFuture))
+      scheduledActions = await(scheduledActionsFuture)
+      subnetMap = await(subnetMapFuture)
+    } finally {
+      // only has an effect if a describe failed, in which case the others are no longer needed
+      describes*.cancel(true)
+    }
 
     Long start = autoScalingGroupsResult.start
     List<AutoScalingGroup> asgs = autoScalingGroupsResult.asgs
@@ -435,7 +487,7 @@ class ClusterCachingAgent implements CachingAgent, OnDemandAgent, AccountAware,
       }
     }
 
-    CacheResult result = buildCacheResult(asgs, scalingPolicies, scheduledActions, getSubnetToVpcIdMap(clients), usableOnDemandCacheDatas.collectEntries { [it.id, it] }, evictableOnDemandCacheDatas*.id)
+    CacheResult result = buildCacheResult(asgs, scalingPolicies, scheduledActions, subnetMap, usableOnDemandCacheDatas.collectEntries { [it.id, it] }, evictableOnDemandCacheDatas*.id, true)
     recordDrift(start)
     def cacheResults = result.cacheResults
     log.debug("Caching ${cacheResults[APPLICATIONS.ns]?.size()} applications in ${agentType}")
@@ -446,6 +498,7 @@ class ClusterCachingAgent implements CachingAgent, OnDemandAgent, AccountAware,
     log.debug("Caching ${cacheResults[LAUNCH_CONFIGS.ns]?.size()} launch configs in ${agentType}")
     log.debug("Caching ${cacheResults[INSTANCES.ns]?.size()} instances in ${agentType}")
     log.debug("Caching ${cacheResults[LAUNCH_TEMPLATES.ns]?.size()} launch templates in ${agentType}")
+    log.debug("Caching ${cacheResults[CLUSTER_SUMMARIES.ns]?.size()} cluster summaries in ${agentType}")
     if (evictableOnDemandCacheDatas) {
       log.info("Evicting onDemand cache keys (${evictableOnDemandCacheDatas.collect { "${it.id}/${start - it.attributes.cacheTime}ms" }.join(", ")})")
     }
@@ -458,6 +511,26 @@ class ClusterCachingAgent implements CachingAgent, OnDemandAgent, AccountAware,
     result
   }
 
+  private <T> Future<T> describeAsync(String type, Closure<T> describe) {
+    describeExecutor.submit({ timeDescribe(type, describe) } as Callable<T>)
+  }
+
+  /**
+   * Records the time spent on all the pages of one type of describe call, tagged with that type.
+   */
+  private <T> T timeDescribe(String type, Closure<T> describe) {
+    def id = registry.createId("aws.clusterCache.describe", [account: account.name, region: region, type: type])
+    registry.timer(id).record(describe as Callable<T>)
+  }
+
+  private static <T> T await(Future<T> future) {
+    try {
+      future.get()
+    } catch (ExecutionException e) {
+      throw e.cause
+    }
+  }
+
   @Override
   Collection<Map<String, ?>> pendingOnDemandRequests(ProviderCache providerCache) {
     def keys = providerCache.filterIdentifiers(ON_DEMAND.ns, Keys.getServerGroupKey("*", "*", account.name, region))
@@ -491,7 +564,8 @@ class ClusterCachingAgent implements CachingAgent, OnDemandAgent, AccountAware,
                                        Map<String, List<Map>> scheduledActions,
                                        Map<String, String> subnetMap,
                                        Map<String, CacheData> onDemandCacheDataByAsg,
-                                       Collection<String> evictableOnDemandCacheDataIdentifiers) {
+                                       Collection<String> evictableOnDemandCacheDataIdentifiers,
+                                       boolean includeClusterSummaries) {
     Map<String, CacheData> applications = cache()
     Map<String, CacheData> clusters = cache()
     Map<String, CacheData> serverGroups = cache()
@@ -533,7 +607,7 @@ class ClusterCachingAgent implements CachingAgent, OnDemandAgent, AccountAware,
       }
     }
 
-    new DefaultCacheResult([
+    Map<String, Collection<CacheData>> cacheResults = [
       (APPLICATIONS.ns)  : applications.values(),
       (CLUSTERS.ns)      : clusters.values(),
       (SERVER_GROUPS.ns) : serverGroups.values(),
@@ -543,11 +617,159 @@ class ClusterCachingAgent implements CachingAgent, OnDemandAgent, AccountAware,
       (INSTANCES.ns)     : instances.values(),
       (LAUNCH_TEMPLATES.ns): launchTemplates.values(),
       (ON_DEMAND.ns)     : onDemandCacheDataByAsg.values()
-    ], [
+    ]
+    // summaries cover every server group of an application in this region, so they are only built from a
+    // complete caching cycle, an on demand refresh of a single server group updates the existing summary
+    if (includeClusterSummaries) {
+      cacheResults[CLUSTER_SUMMARIES.ns] = buildClusterSummaries(clusters.values(), serverGroups.values())
+    }
+
+    new DefaultCacheResult(cacheResults, [
       (ON_DEMAND.ns)     : evictableOnDemandCacheDataIdentifiers
     ])
   }
 
+  /**
+   * Materializes the clusters of each application in this region, with the server groups and the
+   * relationships needed to serve cluster summaries without resolving clusters and server groups.
+   *
+   * Instances, health, launch configs, launch templates and images are written by other caching agents
+   * and are still resolved when summaries are read.
+   */
+  private Collection<CacheData> buildClusterSummaries(Collection<CacheData> clusters,
+                                                      Collection<CacheData> serverGroups) {
+    Map<String, CacheData> summaries = cache()
+
+    for (CacheData serverGroup : serverGroups) {
+      String application = serverGroup.attributes.application
+      if (!application) {
+        continue
+      }
+      clusterSummary(summaries, application).attributes.serverGroups << [
+        id           : serverGroup.id,
+        attributes   : summaryAttributes(serverGroup.attributes),
+        relationships: [
+          (INSTANCES.ns)       : serverGroup.relationships[INSTANCES.ns] as List,
+          (LAUNCH_CONFIGS.ns)  : serverGroup.relationships[LAUNCH_CONFIGS.ns] as List,
+          (LAUNCH_TEMPLATES.ns): serverGroup.relationships[LAUNCH_TEMPLATES.ns] as List
+        ]
+      ]
+    }
+
+    for (CacheData cluster : clusters) {
+      String application = cluster.attributes.application
+      if (!application) {
+        continue
+      }
+      clusterSummary(summaries, application).attributes.clusters << [
+        id           : cluster.id,
+        relationships: [
+          (SERVER_GROUPS.ns) : cluster.relationships[SERVER_GROUPS.ns] as List,
+          (LOAD_BALANCERS.ns): cluster.relationships[LOAD_BALANCERS.ns] as List,
+          (TARGET_GROUPS.ns) : cluster.relationships[TARGET_GROUPS.ns] as List
+        ]
+      ]
+    }
+
+    summaries.values()
+  }
+
+  /**
+   * Replaces a refreshed server group in its application's cluster summary, or removes it if its ASG is gone,
+   * so the summary reflects an on demand refresh without waiting for the next caching cycle.
+   *
+   * Load balancers and target groups the refreshed server group no longer uses stay related to its cluster
+   * until the next cycle, as other server groups of the cluster may still use them.
+   *
+   * @return the updated summary, or null if the application has no summary in the current format
+   */
+  private CacheData updateClusterSummary(ProviderCache providerCache, String serverGroupName, CacheResult cacheResult) {
+    Names names = Names.parseName(serverGroupName)
+    String summaryKey = Keys.getClusterSummaryKey(names.app, account.name, region)
+    CacheData existing = providerCache.get(CLUSTER_SUMMARIES.ns, summaryKey)
+    if (existing == null || existing.attributes.version != CLUSTER_SUMMARY_VERSION) {
+      return null
+    }
+
+    String serverGroupKey = Keys.getServerGroupKey(serverGroupName, account.name, region)
+    CacheData refreshed = buildClusterSummaries(
+      cacheResult.cacheResults[CLUSTERS.ns] ?: [], cacheResult.cacheResults[SERVER_GROUPS.ns] ?: []
+    ).find { it.id == summaryKey }
+    List<Map> refreshedClusters = (refreshed?.attributes?.clusters ?: []) as List<Map>
+
+    List<Map> serverGroups = (existing.attributes.serverGroups as List<Map>).findAll { it.id != serverGroupKey }
+    serverGroups.addAll((refreshed?.attributes?.serverGroups ?: []) as List<Map>)
+
+    List<Map> clusters = (existing.attributes.clusters as List<Map>).findResults { Map cluster ->
+      Map refreshedCluster = refreshedClusters.find { it.id == cluster.id }
+      Map<String, Collection<String>> relationships = [:]
+      (cluster.relationships as Map<String, Collection<String>>).each { type, keys ->
+        relationships[type] = new LinkedHashSet<String>(keys ?: [])
+      }
+      relationships[SERVER_GROUPS.ns]?.remove(serverGroupKey)
+      (refreshedCluster?.relationships as Map<String, Collection<String>>)?.each { type, keys ->
+        relationships.get(type, new LinkedHashSet<String>()).addAll(keys ?: [])
+      }
+      if (!relationships[SERVER_GROUPS.ns]) {
+        return null
+      }
+      [id: cluster.id, relationships: relationships.collectEntries { type, keys -> [(type): keys as List] }]
+    }
+    clusters.addAll(refreshedClusters.findAll { refreshedCluster ->
+      !(existing.attributes.clusters as List<Map>).any { it.id == refreshedCluster.id }
+    })
+
+    new DefaultCacheData(
+      summaryKey,
+      existing.attributes + [clusters: clusters, serverGroups: serverGroups],
+      existing.relationships
+    )
+  }
+
+  /**
+   * Keeps the server group attributes cluster summaries are built from: name, location, capacity, disabled
+   * status, creation time, the instances behind instance counts and the references to launch settings, load
+   * balancers and target groups. Tags, scaling policies, scheduled actions and the rest of the ASG are left
+   * out, as they would be copied into every summary of the application.
+   */
+  private Map<String, Object> summaryAttributes(Map<String, Object> attributes) {
+    Map asg = attributes.asg as Map
+    // Instances are the AWS model objects until they are serialized
+    List<Map> instances = attributes.instances == null ? null : objectMapper.convertValue(attributes.instances, List)
+    [
+      name        : attributes.name,
+      region      : attributes.region,
+      zones       : attributes.zones,
+      vpcId       : attributes.vpcId,
+      instances   : instances?.collect {
+        it.subMap(["instanceId", "lifecycleState", "availabilityZone", "healthStatus"]).findAll { it.value != null }
+      },
+      asg         : asg == null ? null : asg.subMap([
+        "autoScalingGroupName", "minSize", "maxSize", "desiredCapacity", "createdTime", "launchConfigurationName",
+        "launchTemplate", "loadBalancerNames", "targetGroupNames"
+      ]) + [
+        instances         : (asg.instances as List<Map>)?.collect { [instanceId: it.instanceId] },
+        suspendedProcesses: (asg.suspendedProcesses as List<Map>)?.collect { [processName: it.processName] }
+      ]
+    ] as Map<String, Object>
+  }
+
+  private CacheData clusterSummary(Map<String, CacheData> summaries, String application) {
+    String key = Keys.getClusterSummaryKey(application, account.name, region)
+    if (!summaries.containsKey(key)) {
+      summaries[key].with {
+        attributes.version = CLUSTER_SUMMARY_VERSION
+        attributes.application = application
+        attributes.account = account.name
+        attributes.region = region
+        attributes.clusters = []
+        attributes.serverGroups = []
+        relationships[APPLICATIONS.ns].add(Keys.getApplicationKey(application))
+      }
+    }
+    summaries[key]
+  }
+
   private void cache(List<CacheData> data, Map<String, CacheData> cacheDataById) {
     data.each {
       def existingCacheData = cacheDataById[it.id]
@@ -587,6 +809,7 @@ class ClusterCachingAgent implements CachingAgent, OnDemandAgent, AccountAware,
       relationships[SERVER_GROUPS.ns].add(data.serverGroup)
       relationships[LOAD_BALANCERS.ns].addAll(data.loadBalancerNames)
       relationships[TARGET_GROUPS.ns].addAll(data.targetGroupKeys)
+      relationships[CLUSTER_SUMMARIES.ns].add(data.clusterSummary)
     }
   }
 
@@ -718,6 +941,7 @@ class ClusterCachingAgent implements CachingAgent, OnDemandAgent, AccountAware,
     final Names name
     final String appName
     final String cluster
+    final String clusterSummary
     final String serverGroup
     final String vpcId
     final String launchConfig
@@ -742,6 +966,7 @@ class ClusterCachingAgent implements CachingAgent, OnDemandAgent, AccountAware,
       name = Names.parseName(asg.autoScalingGroupName)
       appName = Keys.getApplicationKey(name.app)
       cluster = Keys.getClusterKey(name.cluster, name.app, account)
+      clusterSummary = Keys.getClusterSummaryKey(name.app, account, region)
       serverGroup = Keys.getServerGroupKey(asg.autoScalingGroupName, account, region)
       String vpcId = null
       if (asg.getVPCZoneIdentifier()) {
@@ -26,6 +26,7 @@ import com.netflix.spinnaker.clouddriver.aws.AmazonCloudProvider
 import com.netflix.spinnaker.clouddriver.aws.data.Keys
 import com.netflix.spinnaker.clouddriver.aws.model.*
 import com.netflix.spinnaker.clouddriver.aws.provider.AwsProvider
+import com.netflix.spinnaker.clouddriver.aws.provider.agent.ClusterCachingAgent
 import com.netflix.spinnaker.clouddriver.core.provider.agent.ExternalHealthProvider
 import com.netflix.spinnaker.clouddriver.model.ClusterProvider
 import com.netflix.spinnaker.clouddriver.model.ServerGroupProvider
@@ -255,14 +256,8 @@ class AmazonClusterProvider implements ClusterProvider<AmazonCluster>, ServerGro
         cluster.loadBalancers = clusterDataEntry.relationships[LOAD_BALANCERS.ns]?.findResults { loadBalancers.get(it) }
         cluster.targetGroups = clusterDataEntry.relationships[TARGET_GROUPS.ns]?.findResults { targetGroups.get(it) }
       } else {
-        cluster.loadBalancers = clusterDataEntry.relationships[LOAD_BALANCERS.ns]?.collect { loadBalancerKey ->
-          Map parts = Keys.parse(loadBalancerKey)
-          new AmazonLoadBalancer(name: parts.loadBalancer, account: parts.account, region: parts.region)
-        }
-        cluster.targetGroups = clusterDataEntry.relationships[TARGET_GROUPS.ns]?.collect { targetGroupKey ->
-          Map parts = Keys.parse(targetGroupKey)
-          new AmazonTargetGroup(name: parts.loadBalancer, account: parts.account, region: parts.region)
-        }
+        cluster.loadBalancers = clusterDataEntry.relationships[LOAD_BALANCERS.ns]?.collect { loadBalancerSummary(it) }
+        cluster.targetGroups = clusterDataEntry.relationships[TARGET_GROUPS.ns]?.collect { targetGroupSummary(it) }
       }
       cluster
     }
@@ -280,12 +275,91 @@ class AmazonClusterProvider implements ClusterProvider<AmazonCluster>, ServerGro
 
     if (includeDetails && cacheView.supportsGetAllByApplication()) {
       clusters = allClustersByApplication(applicationName)
+    } else if (!includeDetails) {
+      clusters = clusterSummaries(application) ?: translateClusters(resolveRelationshipData(application, CLUSTERS.ns), false)
     } else {
       clusters = translateClusters(resolveRelationshipData(application, CLUSTERS.ns), includeDetails)
     }
     mapResponse(clusters)
   }
 
+  /**
+   * Builds the clusters of an application from the summaries written by each region's cluster caching
+   * agent, rather than resolving its clusters and server groups one by one.
+   *
+   * Nothing else is read from the cache: server groups carry the instances listed on their ASG (in
+   * service ones, without health) and no launch settings, image or build info, which the expanded views
+   * resolve.
+   *
+   * @return null if any summary is missing, outdated or doesn't match the application's server groups
+   *         (e.g. after an on demand refresh), in which case the clusters are assembled from the cache
+   */
+  private Collection<AmazonCluster> clusterSummaries(CacheData application) {
+    Collection<String> summaryKeys = application.relationships[CLUSTER_SUMMARIES.ns]
+    if (!summaryKeys) {
+      return null
+    }
+
+    Collection<CacheData> summaries = cacheView.getAll(CLUSTER_SUMMARIES.ns, summaryKeys, RelationshipCacheFilter.none())
+    if (summaries.size() != (summaryKeys as Set).size() ||
+      summaries.any { it.attributes.version != ClusterCachingAgent.CLUSTER_SUMMARY_VERSION }) {
+      return null
+    }
+
+    Map<String, AmazonServerGroup> serverGroups = [:]
+    Map<String, Map<String, Set<String>>> clusterRelationships = [:]
+    summaries.each { summary ->
+      (summary.attributes.serverGroups as List<Map>).each {
+        AmazonServerGroup serverGroup = new AmazonServerGroup(it.attributes as Map)
+        serverGroup.instances = getPartialInstances(it.attributes.instances as List<Map>)
+        serverGroups[it.id as String] = serverGroup
+      }
+      (summary.attributes.clusters as List<Map>).each { cluster ->
+        // clusters spanning regions have a summary entry in each of them
+        Map<String, Set<String>> relationships = clusterRelationships.get(cluster.id as String, [:])
+        (cluster.relationships as Map<String, Collection<String>>).each { type, keys ->
+          relationships.get(type, new LinkedHashSet<String>()).addAll(keys ?: [])
+        }
+      }
+    }
+
+    if (serverGroups.keySet() != ((application.relationships[SERVER_GROUPS.ns] ?: []) as Set)) {
+      return null
+    }
+
+    clusterRelationships.collect { id, relationships ->
+      Map<String, String> clusterKey = Keys.parse(id)
+      new AmazonCluster(
+        accountName: clusterKey.account,
+        name: clusterKey.cluster,
+        serverGroups: relationships[SERVER_GROUPS.ns]?.findResults { serverGroups.get(it) },
+        loadBalancers: relationships[LOAD_BALANCERS.ns]?.collect { loadBalancerSummary(it) },
+        targetGroups: relationships[TARGET_GROUPS.ns]?.collect { targetGroupSummary(it) }
+      )
+    }
+  }
+
+  private static AmazonLoadBalancer loadBalancerSummary(String loadBalancerKey) {
+    Map<String, String> parts = Keys.parse(loadBalancerKey)
+    new AmazonLoadBalancer(name: parts.loadBalancer, account: parts.account, region: parts.region)
+  }
+
+  private static AmazonTargetGroup targetGroupSummary(String targetGroupKey) {
+    Map<String, String> parts = Keys.parse(targetGroupKey)
+    new AmazonTargetGroup(name: parts.loadBalancer, account: parts.account, region: parts.region)
+  }
+
+  /**
+   * Instances known only from the server group's ASG, used when none are related to it in the cache.
+   */
+  private static Set<AmazonInstance> getPartialInstances(List<Map> asgInstances) {
+    (asgInstances ?: []).findAll {
+      it.lifecycleState == LifecycleState.InService.name()
+    }.collect {
+      new AmazonInstance(((Map) it) + [name: it.instanceId])
+    } as Set
+  }
+
   private Map<String, AmazonServerGroup> translateServerGroups(
     Collection<CacheData> serverGroupData,
     Collection<CacheData> instanceData,
@@ -345,15 +419,7 @@ class AmazonClusterProvider implements ClusterProvider<AmazonCluster>, ServerGro
       if (includePartialInstances) {
         if (!serverGroup.instances && serverGroupEntry.attributes.instances) {
           // has no direct instance relationships but we can partially populate instances based on attributes.instances
-          def validStates = [
-            LifecycleState.InService.name()
-          ]
-
-          serverGroup.instances = (serverGroupEntry.attributes.instances as List<Map>).findAll {
-            validStates.contains(it.lifecycleState)
-          }.collect {
-            new AmazonInstance(((Map) it) + [name: it.instanceId])
-          }
+          serverGroup.instances = getPartialInstances(serverGroupEntry.attributes.instances as List<Map>)
         }
       }
 
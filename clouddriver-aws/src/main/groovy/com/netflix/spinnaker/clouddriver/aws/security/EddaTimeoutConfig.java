@@ -39,6 +39,7 @@ public class EddaTimeoutConfig {
   private final int socketTimeout;
   private final Set<String> disabledRegions;
   private boolean albEnabled;
+  private final boolean responseCacheEnabled;
 
   public EddaTimeoutConfig(
       long retryBase,
@@ -49,6 +50,28 @@ public class EddaTimeoutConfig {
       int socketTimeout,
       Collection<String> disabledRegions,
       boolean albEnabled) {
+    this(
+        retryBase,
+        backoffMillis,
+        maxAttempts,
+        connectTimeout,
+        connectionRequestTimeout,
+        socketTimeout,
+        disabledRegions,
+        albEnabled,
+        false);
+  }
+
+  public EddaTimeoutConfig(
+      long retryBase,
+      int backoffMillis,
+      int maxAttempts,
+      int connectTimeout,
+      int connectionRequestTimeout,
+      int socketTimeout,
+      Collection<String> disabledRegions,
+      boolean albEnabled,
+      boolean responseCacheEnabled) {
     this.retryBase = retryBase;
     this.backoffMillis = backoffMillis;
     this.maxAttempts = maxAttempts;
@@ -60,6 +83,7 @@ public class EddaTimeoutConfig {
             ? Collections.emptySet()
             : Collections.unmodifiableSet(new LinkedHashSet<>(disabledRegions));
     this.albEnabled = albEnabled;
+    this.responseCacheEnabled = responseCacheEnabled;
   }
 
   public long getRetryBase() {
@@ -94,6 +118,14 @@ public class EddaTimeoutConfig {
     return albEnabled;
   }
 
+  /**
+   * @return whether full collection responses are kept in memory, so that later requests for the
+   *     same collection are conditional and reuse them if not modified
+   */
+  public boolean getResponseCacheEnabled() {
+    return responseCacheEnabled;
+  }
+
   public static class Builder {
     private long retryBase;
     private int backoffMillis;
@@ -103,6 +135,7 @@ public class EddaTimeoutConfig {
     private int socketTimeout;
     private List<String> disabledRegions;
     private boolean albEnabled;
+    private boolean responseCacheEnabled;
 
     public Builder() {
       this.retryBase = EDDA_RETRY_BASE_MILLIS;
@@ -113,6 +146,7 @@ public class EddaTimeoutConfig {
       this.socketTimeout = EDDA_SOCKET_TIMEOUT_MILLIS;
       this.disabledRegions = null;
       this.albEnabled = false;
+      this.responseCacheEnabled = false;
     }
 
     public EddaTimeoutConfig build() {
@@ -124,7 +158,8 @@ public class EddaTimeoutConfig {
           connectionRequestTimeout,
           socketTimeout,
           disabledRegions,
-          albEnabled);
+          albEnabled,
+          responseCacheEnabled);
     }
 
     public long getRetryBase() {
@@ -190,5 +225,13 @@ public class EddaTimeoutConfig {
     public void setAlbEnabled(boolean albEnabled) {
       this.albEnabled = albEnabled;
     }
+
+    public boolean getResponseCacheEnabled() {
+      return responseCacheEnabled;
+    }
+
+    public void setResponseCacheEnabled(boolean responseCacheEnabled) {
+      this.responseCacheEnabled = responseCacheEnabled;
+    }
   }
 }
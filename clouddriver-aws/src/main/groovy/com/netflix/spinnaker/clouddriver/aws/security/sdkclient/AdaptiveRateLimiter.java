@@ -0,0 +1,124 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License")
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.clouddriver.aws.security.sdkclient;
+
+import com.google.common.base.Ticker;
+import com.google.common.util.concurrent.RateLimiter;
+import com.netflix.spectator.api.Counter;
+import com.netflix.spectator.api.Gauge;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A RateLimiter whose rate adapts to throttling (additive increase, multiplicative decrease).
+ *
+ * <p>Each successful call raises the rate by {@code 1 / rate} permits per second, which adds about
+ * one permit per second for every second spent calling at the current rate, up to {@code
+ * maxRate}. A throttled call halves the rate, down to {@code minRate}, at most once per {@code
+ * decreaseIntervalMillis} so that the calls that were already in flight when AWS started throttling
+ * don't divide it again.
+ */
+public class AdaptiveRateLimiter {
+  static final long DEFAULT_DECREASE_INTERVAL_MILLIS = 1000L;
+
+  private final RateLimiter rateLimiter;
+  private final double minRate;
+  private final double maxRate;
+  private final long decreaseIntervalNanos;
+  private final Ticker ticker;
+  private final Gauge rateGauge;
+  private final Counter throttleCounter;
+
+  private double rate;
+  private long lastDecreaseNanos;
+
+  public AdaptiveRateLimiter(
+      double initialRate,
+      double minRate,
+      double maxRate,
+      Gauge rateGauge,
+      Counter throttleCounter) {
+    this(
+        initialRate,
+        minRate,
+        maxRate,
+        DEFAULT_DECREASE_INTERVAL_MILLIS,
+        Ticker.systemTicker(),
+        rateGauge,
+        throttleCounter);
+  }
+
+  AdaptiveRateLimiter(
+      double initialRate,
+      double minRate,
+      double maxRate,
+      long decreaseIntervalMillis,
+      Ticker ticker,
+      Gauge rateGauge,
+      Counter throttleCounter) {
+    if (minRate <= 0 || minRate > initialRate || initialRate > maxRate) {
+      throw new IllegalArgumentException(
+          String.format(
+              "Expected 0 < minRate (%s) <= initialRate (%s) <= maxRate (%s)",
+              minRate, initialRate, maxRate));
+    }
+    this.rateLimiter = RateLimiter.create(initialRate);
+    this.minRate = minRate;
+    this.maxRate = maxRate;
+    this.decreaseIntervalNanos = TimeUnit.MILLISECONDS.toNanos(decreaseIntervalMillis);
+    this.ticker = ticker;
+    this.rateGauge = rateGauge;
+    this.throttleCounter = throttleCounter;
+    this.rate = initialRate;
+    this.lastDecreaseNanos = ticker.read() - decreaseIntervalNanos;
+    rateGauge.set(initialRate);
+  }
+
+  /**
+   * Blocks until a permit is available.
+   *
+   * @return the time spent waiting, in seconds
+   */
+  public double acquire() {
+    return rateLimiter.acquire();
+  }
+
+  /** @return the current rate, in permits per second */
+  public synchronized double getRate() {
+    return rate;
+  }
+
+  public synchronized void onSuccess() {
+    if (rate < maxRate) {
+      updateRate(Math.min(maxRate, rate + 1 / rate));
+    }
+  }
+
+  public synchronized void onThrottle() {
+    throttleCounter.increment();
+    long now = ticker.read();
+    if (now - lastDecreaseNanos >= decreaseIntervalNanos && rate > minRate) {
+      lastDecreaseNanos = now;
+      updateRate(Math.max(minRate, rate / 2));
+    }
+  }
+
+  private void updateRate(double newRate) {
+    rate = newRate;
+    rateLimiter.setRate(newRate);
+    rateGauge.set(newRate);
+  }
+}
@@ -45,7 +45,9 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.*;
 import java.util.concurrent.TimeUnit;
+import org.apache.http.Header;
 import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
 import org.apache.http.HttpResponse;
 import org.apache.http.HttpStatus;
 import org.apache.http.client.HttpClient;
@@ -70,6 +72,7 @@ public class AmazonClientInvocationHandler implements InvocationHandler {
   private final EddaTimeoutConfig eddaTimeoutConfig;
   private final Registry registry;
   private final Map<String, String> metricTags;
+  private final EddaResponseCache responseCache;
 
   public AmazonClientInvocationHandler(
       Object delegate,
@@ -80,6 +83,32 @@ public class AmazonClientInvocationHandler implements InvocationHandler {
       EddaTimeoutConfig eddaTimeoutConfig,
       Registry registry,
       Map<String, String> metricTags) {
+    this(
+        delegate,
+        serviceName,
+        edda,
+        httpClient,
+        objectMapper,
+        eddaTimeoutConfig,
+        registry,
+        metricTags,
+        null);
+  }
+
+  /**
+   * @param responseCache if not null, full collection requests are made conditional on the last
+   *     response cached for that collection, and reuse it when Edda reports it as not modified
+   */
+  public AmazonClientInvocationHandler(
+      Object delegate,
+      String serviceName,
+      String edda,
+      HttpClient httpClient,
+      ObjectMapper objectMapper,
+      EddaTimeoutConfig eddaTimeoutConfig,
+      Registry registry,
+      Map<String, String> metricTags,
+      EddaResponseCache responseCache) {
     this.edda = edda;
     this.httpClient = httpClient;
     this.objectMapper = objectMapper;
@@ -89,6 +118,7 @@ public class AmazonClientInvocationHandler implements InvocationHandler {
         eddaTimeoutConfig == null ? EddaTimeoutConfig.DEFAULT : eddaTimeoutConfig;
     this.registry = registry;
     this.metricTags = ImmutableMap.copyOf(metricTags);
+    this.responseCache = responseCache;
   }
 
   @Override
@@ -365,22 +395,45 @@ public class AmazonClientInvocationHandler implements InvocationHandler {
       final Id deserializeJsonTimer = registry.createId("edda.deserializeJson", metricTags);
       final Id resultSizeCounter = registry.createId("edda.resultSize", metricTags);
       if (ids.isEmpty()) {
-        HttpEntity entity = getHttpEntity(metricTags, object, null);
-        try {
-          final JavaType listMeta =
-              objectMapper
-                  .getTypeFactory()
-                  .constructParametrizedType(List.class, List.class, singleMeta);
-          final List<Metadata<T>> metadataResults =
+        final String url = getUrl(object, null);
+        final EddaResponseCache.Entry cached =
+            responseCache == null ? null : responseCache.get(url);
+        final HttpResponse response = getHttpResponse(metricTags, url, cached);
+        final Id responseCacheCounter = registry.createId("edda.responseCache", metricTags);
+        final JavaType listMeta =
+            objectMapper
+                .getTypeFactory()
+                .constructParametrizedType(List.class, List.class, singleMeta);
+        if (cached != null
+            && response.getStatusLine().getStatusCode() == HttpStatus.SC_NOT_MODIFIED) {
+          EntityUtils.consumeQuietly(response.getEntity());
+          registry.counter(responseCacheCounter.withTag("result", "hit")).increment();
+          mtime = cached.getMtime();
+          results.addAll(
               registry
-                  .timer(deserializeJsonTimer)
-                  .record(() -> objectMapper.readValue(entity.getContent(), listMeta));
+                  .timer(registry.createId("edda.copyCachedResults", metricTags))
+                  .record(cached::<T>getResults));
+        } else {
+          final List<Metadata<T>> metadataResults;
+          HttpEntity entity = response.getEntity();
+          try {
+            if (responseCache != null) {
+              registry.counter(responseCacheCounter.withTag("result", "miss")).increment();
+            }
+            metadataResults =
+                registry
+                    .timer(deserializeJsonTimer)
+                    .record(() -> objectMapper.readValue(entity.getContent(), listMeta));
+          } finally {
+            EntityUtils.consume(entity);
+          }
           for (Metadata<T> meta : metadataResults) {
             mtime = mtime == null ? meta.mtime : Math.min(mtime, meta.mtime);
             results.add(meta.data);
           }
-        } finally {
-          EntityUtils.consume(entity);
+          if (responseCache != null) {
+            cacheResponse(url, response, mtime, results);
+          }
         }
       } else {
         for (String id : ids) {
@@ -432,11 +485,48 @@ public class AmazonClientInvocationHandler implements InvocationHandler {
     }
   }
 
+  private void cacheResponse(String url, HttpResponse response, Long mtime, List<?> results) {
+    final String etag = getHeader(response, HttpHeaders.ETAG);
+    final String lastModifiedHeader = getHeader(response, HttpHeaders.LAST_MODIFIED);
+    if (etag == null && lastModifiedHeader == null) {
+      // nothing to make the next request conditional on
+      responseCache.remove(url);
+    } else {
+      responseCache.put(
+          url, new EddaResponseCache.Entry(etag, lastModifiedHeader, mtime, results));
+    }
+  }
+
+  private static String getHeader(HttpResponse response, String name) {
+    final Header header = response.getFirstHeader(name);
+    return header == null ? null : header.getValue();
+  }
+
+  private String getUrl(String objectName, String key) {
+    return edda + "/REST/v2/aws/" + objectName + (key == null ? ";_expand" : "/" + key) + ";_meta";
+  }
+
   private HttpEntity getHttpEntity(Map<String, String> metricTags, String objectName, String key)
       throws EddaException {
-    final String url =
-        edda + "/REST/v2/aws/" + objectName + (key == null ? ";_expand" : "/" + key) + ";_meta";
+    return getHttpResponse(metricTags, getUrl(objectName, key), null).getEntity();
+  }
+
+  /**
+   * @param cached if not null, the request is conditional on the validators of this response and a
+   *     304 (not modified) response is returned rather than treated as an error
+   */
+  private HttpResponse getHttpResponse(
+      Map<String, String> metricTags, String url, EddaResponseCache.Entry cached)
+      throws EddaException {
     final HttpGet get = new HttpGet(url);
+    if (cached != null) {
+      if (cached.getEtag() != null) {
+        get.setHeader(HttpHeaders.IF_NONE_MATCH, cached.getEtag());
+      }
+      if (cached.getLastModified() != null) {
+        get.setHeader(HttpHeaders.IF_MODIFIED_SINCE, cached.getLastModified());
+      }
+    }
     get.setConfig(
         RequestConfig.custom()
             .setConnectTimeout(eddaTimeoutConfig.getConnectTimeout())
@@ -465,7 +555,8 @@ public class AmazonClientInvocationHandler implements InvocationHandler {
             registry.timer(httpExecuteTime).record(() -> httpClient.execute(get));
         final int statusCode = response.getStatusLine().getStatusCode();
         entity = response.getEntity();
-        if (statusCode != HttpStatus.SC_OK) {
+        if (statusCode != HttpStatus.SC_OK
+            && !(cached != null && statusCode == HttpStatus.SC_NOT_MODIFIED)) {
           lastExceptionMessage =
               response.getProtocolVersion().toString()
                   + " "
@@ -480,7 +571,7 @@ public class AmazonClientInvocationHandler implements InvocationHandler {
           throw new HttpClientErrorException(
               org.springframework.http.HttpStatus.valueOf(statusCode), lastExceptionMessage);
         } else {
-          return entity;
+          return response;
         }
       } catch (Exception e) {
         lastExceptionMessage = e.getClass().getSimpleName() + ": " + e.getMessage();
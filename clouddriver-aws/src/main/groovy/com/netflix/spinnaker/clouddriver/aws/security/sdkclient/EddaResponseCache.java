@@ -0,0 +1,104 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License")
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.clouddriver.aws.security.sdkclient;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.util.List;
+
+/**
+ * Keeps the objects deserialized from the last response to each full collection request made to
+ * Edda (one url per account, region and collection), along with the validators Edda sent with it
+ * so that the next request for that collection can be made conditional.
+ *
+ * <p>Every caller that gets a not modified response gets its own deep copy of the objects, which is
+ * much cheaper than deserializing them again. The cache is bounded by an estimate of the heap the
+ * cached objects hold.
+ */
+public class EddaResponseCache {
+  private static final long DEFAULT_MAX_BYTES = 512L * 1024 * 1024;
+  private static final ModelCopier COPIER = new ModelCopier();
+
+  private final Cache<String, Entry> entries;
+
+  public EddaResponseCache() {
+    this(DEFAULT_MAX_BYTES);
+  }
+
+  /** @param maxBytes the estimated heap held by cached objects past which entries are evicted */
+  public EddaResponseCache(long maxBytes) {
+    this.entries =
+        CacheBuilder.newBuilder()
+            .maximumWeight(maxBytes)
+            .<String, Entry>weigher(
+                (url, entry) ->
+                    (int) Math.min(Integer.MAX_VALUE, COPIER.estimateSize(entry.results)))
+            .build();
+  }
+
+  public Entry get(String url) {
+    return entries.getIfPresent(url);
+  }
+
+  public void put(String url, Entry entry) {
+    entries.put(url, entry);
+  }
+
+  public void remove(String url) {
+    entries.invalidate(url);
+  }
+
+  public static class Entry {
+    private final String etag;
+    private final String lastModified;
+    private final Long mtime;
+    private final List<?> results;
+
+    /**
+     * @param mtime the oldest modification time of the objects, as reported by Edda
+     * @param results the objects of the response, of which the entry keeps its own copy, since the
+     *     caller may go on to modify them
+     */
+    public Entry(String etag, String lastModified, Long mtime, List<?> results) {
+      this.etag = etag;
+      this.lastModified = lastModified;
+      this.mtime = mtime;
+      this.results = COPIER.copy(results);
+    }
+
+    /** @return the ETag header of the cached response, if any */
+    public String getEtag() {
+      return etag;
+    }
+
+    /** @return the Last-Modified header of the cached response, if any */
+    public String getLastModified() {
+      return lastModified;
+    }
+
+    /** @return the oldest modification time of the cached objects */
+    public Long getMtime() {
+      return mtime;
+    }
+
+    /** @return a deep copy of the cached objects */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> getResults() {
+      return (List<T>) COPIER.copy(results);
+    }
+  }
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License")
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.clouddriver.aws.security.sdkclient;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Deep copies of the AWS model objects deserialized from Edda responses, made through their getters
+ * and setters.
+ *
+ * <p>Models, collections, maps and dates are copied. Everything else (strings, numbers, booleans,
+ * enums and any type without a public no-arg constructor) is immutable in these models and shared
+ * between copies, so a copy creates none of the strings a deserialization does.
+ */
+class ModelCopier {
+  private static final long REFERENCE_BYTES = 8;
+  private static final long OBJECT_BYTES = 16;
+  private static final long STRING_BYTES = 40;
+  private static final long COLLECTION_BYTES = 40;
+
+  private final ConcurrentMap<Class<?>, Model> models = new ConcurrentHashMap<>();
+
+  @SuppressWarnings("unchecked")
+  <T> T copy(T value) {
+    if (value == null || isImmutable(value)) {
+      return value;
+    }
+    if (value instanceof Date) {
+      return (T) new Date(((Date) value).getTime());
+    }
+    if (value instanceof Collection) {
+      Collection<?> collection = (Collection<?>) value;
+      List<Object> copy = new ArrayList<>(collection.size());
+      collection.forEach(element -> copy.add(copy(element)));
+      return (T) copy;
+    }
+    if (value instanceof Map) {
+      Map<?, ?> map = (Map<?, ?>) value;
+      Map<Object, Object> copy = new LinkedHashMap<>(map.size());
+      map.forEach((key, element) -> copy.put(key, copy(element)));
+      return (T) copy;
+    }
+
+    Model model = getModel(value.getClass());
+    if (model == null) {
+      return value;
+    }
+    try {
+      Object copy = model.constructor.newInstance();
+      for (Property property : model.properties) {
+        property.setter.invoke(copy, copy(property.getter.invoke(value)));
+      }
+      return (T) copy;
+    } catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
+      throw new IllegalStateException("Unable to copy " + value.getClass().getName(), e);
+    }
+  }
+
+  /**
+   * @return roughly how many bytes of heap a value holds, counting shared immutable values once per
+   *     reference to them
+   */
+  long estimateSize(Object value) {
+    if (value == null) {
+      return 0;
+    }
+    if (value instanceof CharSequence) {
+      return STRING_BYTES + ((CharSequence) value).length();
+    }
+    if (value instanceof Collection) {
+      long size = COLLECTION_BYTES;
+      for (Object element : (Collection<?>) value) {
+        size += REFERENCE_BYTES + estimateSize(element);
+      }
+      return size;
+    }
+    if (value instanceof Map) {
+      long size = COLLECTION_BYTES;
+      for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+        size += OBJECT_BYTES + estimateSize(entry.getKey()) + estimateSize(entry.getValue());
+      }
+      return size;
+    }
+
+    Model model = getModel(value.getClass());
+    if (model == null) {
+      return OBJECT_BYTES;
+    }
+    long size = OBJECT_BYTES;
+    for (Property property : model.properties) {
+      try {
+        size += REFERENCE_BYTES + estimateSize(property.getter.invoke(value));
+      } catch (IllegalAccessException | InvocationTargetException e) {
+        throw new IllegalStateException("Unable to size " + value.getClass().getName(), e);
+      }
+    }
+    return size;
+  }
+
+  private static boolean isImmutable(Object value) {
+    return value instanceof String
+        || value instanceof Number
+        || value instanceof Boolean
+        || value instanceof Character
+        || value instanceof Enum;
+  }
+
+  /** @return the properties of a model type, or null if its values aren't copied */
+  private Model getModel(Class<?> type) {
+    return models
+        .computeIfAbsent(
+            type,
+            t -> {
+              try {
+                return new Model(t.getConstructor(), findProperties(t));
+              } catch (NoSuchMethodException e) {
+                return Model.NONE;
+              }
+            })
+        .orNull();
+  }
+
+  /** Properties with a getter and a setter accepting what the getter returns. */
+  private static List<Property> findProperties(Class<?> type) {
+    Map<String, Property> properties = new LinkedHashMap<>();
+    for (Method getter : type.getMethods()) {
+      String name = propertyName(getter);
+      if (name == null || properties.containsKey(name)) {
+        continue;
+      }
+      for (Method setter : type.getMethods()) {
+        if (setter.getName().equals("set" + name)
+            && setter.getParameterCount() == 1
+            && !Modifier.isStatic(setter.getModifiers())
+            && setter.getParameterTypes()[0].isAssignableFrom(getter.getReturnType())) {
+          properties.put(name, new Property(getter, setter));
+          break;
+        }
+      }
+    }
+    return new ArrayList<>(properties.values());
+  }
+
+  private static String propertyName(Method method) {
+    if (method.getParameterCount() != 0
+        || Modifier.isStatic(method.getModifiers())
+        || method.getDeclaringClass() == Object.class) {
+      return null;
+    }
+    String name = method.getName();
+    if (name.startsWith("get") && name.length() > 3) {
+      return name.substring(3);
+    }
+    if (name.startsWith("is")
+        && name.length() > 2
+        && (method.getReturnType() == boolean.class || method.getReturnType() == Boolean.class)) {
+      return name.substring(2);
+    }
+    return null;
+  }
+
+  private static class Model {
+    private static final Model NONE = new Model(null, Collections.emptyList());
+
+    private final Constructor<?> constructor;
+    private final List<Property> properties;
+
+    private Model(Constructor<?> constructor, List<Property> properties) {
+      this.constructor = constructor;
+      this.properties = properties;
+    }
+
+    private Model orNull() {
+      return this == NONE ? null : this;
+    }
+  }
+
+  private static class Property {
+    private final Method getter;
+    private final Method setter;
+
+    private Property(Method getter, Method setter) {
+      this.getter = getter;
+      this.setter = setter;
+    }
+  }
+}
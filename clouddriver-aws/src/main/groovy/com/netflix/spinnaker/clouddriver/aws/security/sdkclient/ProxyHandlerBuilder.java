@@ -40,6 +40,7 @@ public class ProxyHandlerBuilder {
   private final EddaTemplater eddaTemplater;
   private final EddaTimeoutConfig eddaTimeoutConfig;
   private final Registry registry;
+  private final EddaResponseCache responseCache;
 
   public ProxyHandlerBuilder(
       AwsSdkClientSupplier awsSdkClientSupplier,
@@ -54,6 +55,10 @@ public class ProxyHandlerBuilder {
     this.eddaTemplater = requireNonNull(eddaTemplater);
     this.eddaTimeoutConfig = eddaTimeoutConfig;
     this.registry = requireNonNull(registry);
+    this.responseCache =
+        eddaTimeoutConfig != null && eddaTimeoutConfig.getResponseCacheEnabled()
+            ? new EddaResponseCache()
+            : null;
   }
 
   public <T extends AwsClientBuilder<T, U>, U> U getProxyHandler(
@@ -115,6 +120,7 @@ public class ProxyHandlerBuilder {
         objectMapper,
         eddaTimeoutConfig,
         registry,
-        baseTags);
+        baseTags,
+        responseCache);
   }
 }
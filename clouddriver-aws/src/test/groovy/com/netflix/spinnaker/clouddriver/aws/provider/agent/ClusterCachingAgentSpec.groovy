@@ -17,11 +17,40 @@
 
 package com.netflix.spinnaker.clouddriver.aws.provider.agent
 
+import com.amazonaws.services.autoscaling.AmazonAutoScaling
+import com.amazonaws.services.autoscaling.model.Alarm
 import com.amazonaws.services.autoscaling.model.AutoScalingGroup
+import com.amazonaws.services.autoscaling.model.DescribeAutoScalingGroupsRequest
+import com.amazonaws.services.autoscaling.model.DescribeAutoScalingGroupsResult
+import com.amazonaws.services.autoscaling.model.DescribePoliciesResult
+import com.amazonaws.services.autoscaling.model.DescribeScheduledActionsResult
+import com.amazonaws.services.autoscaling.model.Instance
+import com.amazonaws.services.autoscaling.model.ScalingPolicy
 import com.amazonaws.services.autoscaling.model.SuspendedProcess
+import com.amazonaws.services.autoscaling.model.TagDescription
+import com.amazonaws.services.cloudwatch.AmazonCloudWatch
+import com.amazonaws.services.cloudwatch.model.DescribeAlarmsResult
+import com.amazonaws.services.cloudwatch.model.MetricAlarm
+import com.amazonaws.services.ec2.AmazonEC2
+import com.amazonaws.services.ec2.model.DescribeSubnetsResult
+import com.fasterxml.jackson.databind.ObjectMapper
+import com.netflix.awsobjectmapper.AmazonObjectMapperConfigurer
+import com.netflix.spectator.api.DefaultRegistry
+import com.netflix.spectator.api.NoopRegistry
+import com.netflix.spinnaker.cats.provider.ProviderCache
+import com.netflix.spinnaker.clouddriver.aws.AmazonCloudProvider
+import com.netflix.spinnaker.clouddriver.aws.data.Keys
+import com.netflix.spinnaker.clouddriver.aws.model.AmazonServerGroup
+import com.netflix.spinnaker.clouddriver.aws.security.AmazonClientProvider
+import com.netflix.spinnaker.clouddriver.aws.security.EddaTimeoutConfig
+import com.netflix.spinnaker.clouddriver.aws.security.NetflixAmazonCredentials
 import spock.lang.Specification
 import spock.lang.Unroll
 
+import static com.netflix.spinnaker.clouddriver.core.provider.agent.Namespace.APPLICATIONS
+import static com.netflix.spinnaker.clouddriver.core.provider.agent.Namespace.CLUSTER_SUMMARIES
+import static com.netflix.spinnaker.clouddriver.core.provider.agent.Namespace.SERVER_GROUPS
+
 class ClusterCachingAgentSpec extends Specification {
   static int defaultMin = 1
   static int defaultMax = 1
@@ -86,6 +115,184 @@ class ClusterCachingAgentSpec extends Specification {
     e.message.startsWith("failed to resolve only one vpc")
   }
 
+  def "should summarize the clusters of each application only when caching every server group"() {
+    given:
+    def agent = new ClusterCachingAgent(
+      new AmazonCloudProvider(),
+      Stub(AmazonClientProvider),
+      Stub(NetflixAmazonCredentials) { getName() >> "test" },
+      "us-west-1",
+      new ObjectMapper(),
+      new NoopRegistry(),
+      new EddaTimeoutConfig.Builder().build()
+    )
+    def asgs = [
+      new AutoScalingGroup().withAutoScalingGroupName("app-main-v001").withLaunchConfigurationName("app-main-v001-1")
+        .withInstances(new Instance().withInstanceId("i-1").withLifecycleState("InService"))
+        .withSuspendedProcesses(new SuspendedProcess().withProcessName("AddToLoadBalancer").withSuspensionReason("disabled"))
+        .withTags(new TagDescription().withKey("owner").withValue("someone")),
+      new AutoScalingGroup().withAutoScalingGroupName("app-main-v002").withLaunchConfigurationName("app-main-v002-1"),
+      new AutoScalingGroup().withAutoScalingGroupName("other-v001").withLaunchConfigurationName("other-v001-1")
+    ]
+
+    when:
+    def result = agent.buildCacheResult(asgs, [:], [:], [:], [:], [], true)
+    def summary = result.cacheResults[CLUSTER_SUMMARIES.ns].find {
+      it.id == Keys.getClusterSummaryKey("app", "test", "us-west-1")
+    }
+
+    then:
+    result.cacheResults[CLUSTER_SUMMARIES.ns].size() == 2
+    summary.attributes.version == ClusterCachingAgent.CLUSTER_SUMMARY_VERSION
+    summary.attributes.clusters*.id == [Keys.getClusterKey("app-main", "app", "test")]
+    summary.attributes.clusters[0].relationships.serverGroups as Set == [
+      Keys.getServerGroupKey("app-main-v001", "test", "us-west-1"),
+      Keys.getServerGroupKey("app-main-v002", "test", "us-west-1")
+    ] as Set
+    summary.attributes.serverGroups*.id as Set == summary.attributes.clusters[0].relationships.serverGroups as Set
+    summary.attributes.serverGroups.find { it.attributes.name == "app-main-v001" }.relationships.instances == [
+      Keys.getInstanceKey("i-1", "test", "us-west-1")
+    ]
+
+    and: 'only the server group attributes summaries are built from are kept'
+    def serverGroup = summary.attributes.serverGroups.find { it.attributes.name == "app-main-v001" }
+    serverGroup.attributes.region == "us-west-1"
+    serverGroup.attributes.instances == [[instanceId: "i-1", lifecycleState: "InService"]]
+    serverGroup.attributes.asg.instances == [[instanceId: "i-1"]]
+    serverGroup.attributes.asg.suspendedProcesses == [[processName: "AddToLoadBalancer"]]
+    new AmazonServerGroup(serverGroup.attributes).isDisabled()
+    !serverGroup.attributes.containsKey("scalingPolicies")
+    !serverGroup.attributes.asg.containsKey("tags")
+    summary.relationships[APPLICATIONS.ns] as List == [Keys.getApplicationKey("app")]
+    result.cacheResults[APPLICATIONS.ns].find { it.id == Keys.getApplicationKey("app") }
+      .relationships[CLUSTER_SUMMARIES.ns] as List == [summary.id]
+
+    when:
+    result = agent.buildCacheResult(asgs.take(1), [:], [:], [:], [:], [], false)
+
+    then:
+    !result.cacheResults.containsKey(CLUSTER_SUMMARIES.ns)
+  }
+
+  def "should update the cluster summary of an application on demand refreshes of its server groups"() {
+    given:
+    def agent = new ClusterCachingAgent(
+      new AmazonCloudProvider(),
+      Stub(AmazonClientProvider),
+      Stub(NetflixAmazonCredentials) { getName() >> "test" },
+      "us-west-1",
+      new ObjectMapper(),
+      new NoopRegistry(),
+      new EddaTimeoutConfig.Builder().build()
+    )
+    def summaryKey = Keys.getClusterSummaryKey("app", "test", "us-west-1")
+    def mainKey = Keys.getClusterKey("app-main", "app", "test")
+    def summary = agent.buildCacheResult([
+      new AutoScalingGroup().withAutoScalingGroupName("app-main-v001").withMinSize(1),
+      new AutoScalingGroup().withAutoScalingGroupName("app-main-v002").withMinSize(1)
+    ], [:], [:], [:], [:], [], true).cacheResults[CLUSTER_SUMMARIES.ns].find { it.id == summaryKey }
+    def providerCache = Stub(ProviderCache) {
+      get(CLUSTER_SUMMARIES.ns, summaryKey) >> summary
+    }
+
+    when: 'a server group changes'
+    def refresh = agent.buildCacheResult([
+      new AutoScalingGroup().withAutoScalingGroupName("app-main-v002").withMinSize(3)
+    ], [:], [:], [:], [:], [], false)
+    def updated = agent.updateClusterSummary(providerCache, "app-main-v002", refresh)
+
+    then:
+    updated.attributes.version == ClusterCachingAgent.CLUSTER_SUMMARY_VERSION
+    updated.attributes.serverGroups.collectEntries { [(it.attributes.name): it.attributes.asg.minSize] } == [
+      "app-main-v001": 1, "app-main-v002": 3
+    ]
+    updated.attributes.clusters*.id == [mainKey]
+    updated.relationships == summary.relationships
+
+    when: 'a server group is created in a new cluster'
+    refresh = agent.buildCacheResult([
+      new AutoScalingGroup().withAutoScalingGroupName("app-canary-v000")
+    ], [:], [:], [:], [:], [], false)
+    updated = agent.updateClusterSummary(providerCache, "app-canary-v000", refresh)
+
+    then:
+    updated.attributes.serverGroups*.attributes*.name as Set == ["app-main-v001", "app-main-v002", "app-canary-v000"] as Set
+    updated.attributes.clusters*.id == [mainKey, Keys.getClusterKey("app-canary", "app", "test")]
+
+    when: 'a server group is deleted'
+    updated = agent.updateClusterSummary(
+      providerCache, "app-main-v001", agent.buildCacheResult([], [:], [:], [:], [:], [], false)
+    )
+
+    then:
+    updated.attributes.serverGroups*.attributes*.name == ["app-main-v002"]
+    updated.attributes.clusters[0].relationships.serverGroups == [
+      Keys.getServerGroupKey("app-main-v002", "test", "us-west-1")
+    ]
+
+    when: 'the application has no summary yet'
+    updated = agent.updateClusterSummary(Stub(ProviderCache), "app-main-v001", refresh)
+
+    then:
+    updated == null
+  }
+
+  def "should page through auto scaling groups while describing their policies, actions, alarms and subnets"() {
+    given:
+    def registry = new DefaultRegistry()
+    def autoScaling = Mock(AmazonAutoScaling)
+    def amazonCloudWatch = Mock(AmazonCloudWatch)
+    def amazonEC2 = Mock(AmazonEC2)
+    def amazonClientProvider = Stub(AmazonClientProvider) {
+      getAutoScaling(_, _, _) >> autoScaling
+      getAmazonCloudWatch(_, _, _) >> amazonCloudWatch
+      getAmazonEC2(_, _, _) >> amazonEC2
+    }
+    def agent = new ClusterCachingAgent(
+      new AmazonCloudProvider(),
+      amazonClientProvider,
+      Stub(NetflixAmazonCredentials) { getName() >> "test" },
+      "us-west-1",
+      AmazonObjectMapperConfigurer.createConfigured(),
+      registry,
+      new EddaTimeoutConfig.Builder().build()
+    )
+    def alarm = new MetricAlarm().withAlarmName("scale-up").withAlarmArn("arn:scale-up")
+
+    when:
+    def result = agent.loadData(Stub(ProviderCache))
+
+    then:
+    1 * autoScaling.describeAutoScalingGroups({ it.nextToken == null } as DescribeAutoScalingGroupsRequest) >>
+      new DescribeAutoScalingGroupsResult().withNextToken("page-2").withAutoScalingGroups(
+        new AutoScalingGroup().withAutoScalingGroupName("app-main-v001").withLaunchConfigurationName("app-main-v001-1")
+      )
+    1 * autoScaling.describeAutoScalingGroups({ it.nextToken == "page-2" } as DescribeAutoScalingGroupsRequest) >>
+      new DescribeAutoScalingGroupsResult().withAutoScalingGroups(
+        new AutoScalingGroup().withAutoScalingGroupName("app-main-v002").withLaunchConfigurationName("app-main-v002-1")
+      )
+    1 * autoScaling.describePolicies(_) >> new DescribePoliciesResult().withScalingPolicies(
+      new ScalingPolicy().withAutoScalingGroupName("app-main-v002").withPolicyName("scale-up").withAlarms(
+        new Alarm().withAlarmName("scale-up").withAlarmARN("arn:scale-up")
+      )
+    )
+    1 * autoScaling.describeScheduledActions(_) >> new DescribeScheduledActionsResult()
+    1 * amazonCloudWatch.describeAlarms(_) >> new DescribeAlarmsResult().withMetricAlarms(alarm)
+    1 * amazonEC2.describeSubnets(_) >> new DescribeSubnetsResult()
+
+    def serverGroups = result.cacheResults[SERVER_GROUPS.ns]
+    serverGroups*.attributes.name as Set == ["app-main-v001", "app-main-v002"] as Set
+    def scalingPolicies = serverGroups.find { it.attributes.name == "app-main-v002" }.attributes.scalingPolicies
+    scalingPolicies*.policyName == ["scale-up"]
+    scalingPolicies[0].alarms*.alarmName == ["scale-up"]
+
+    ["autoScalingGroups", "scalingPolicies", "scheduledActions", "alarms", "subnets"].every {
+      registry.timer(
+        registry.createId("aws.clusterCache.describe", [account: "test", region: "us-west-1", type: it])
+      ).count() == 1
+    }
+  }
+
   private SuspendedProcess sP(String processName) {
     return new SuspendedProcess().withProcessName(processName)
   }
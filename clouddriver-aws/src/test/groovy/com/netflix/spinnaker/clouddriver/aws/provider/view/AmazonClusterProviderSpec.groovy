@@ -25,13 +25,16 @@ import com.netflix.spinnaker.clouddriver.aws.AmazonCloudProvider
 import com.netflix.spinnaker.clouddriver.aws.data.Keys
 import com.netflix.spinnaker.clouddriver.aws.model.AmazonServerGroup
 import com.netflix.spinnaker.clouddriver.aws.provider.AwsProvider
+import com.netflix.spinnaker.clouddriver.aws.provider.agent.ClusterCachingAgent
 import org.junit.jupiter.api.BeforeEach
 import spock.lang.Specification
 import spock.lang.Subject
 import spock.lang.Unroll
 
 import static com.netflix.spinnaker.clouddriver.core.provider.agent.Namespace.APPLICATIONS
+import static com.netflix.spinnaker.clouddriver.core.provider.agent.Namespace.CLUSTER_SUMMARIES
 import static com.netflix.spinnaker.clouddriver.core.provider.agent.Namespace.CLUSTERS
+import static com.netflix.spinnaker.clouddriver.core.provider.agent.Namespace.HEALTH
 import static com.netflix.spinnaker.clouddriver.core.provider.agent.Namespace.IMAGES
 import static com.netflix.spinnaker.clouddriver.core.provider.agent.Namespace.LAUNCH_CONFIGS
 import static com.netflix.spinnaker.clouddriver.core.provider.agent.Namespace.LAUNCH_TEMPLATES
@@ -167,6 +170,63 @@ class AmazonClusterProviderSpec extends Specification {
     allServerGroups[0].image != null
   }
 
+  @Unroll
+  def "should serve cluster summaries from the materialized summaries when they are current"() {
+    given:
+    serverGroup.asg = [ launchConfigurationName: launchConfigName]
+    serverGroup.instances = [
+      [instanceId: "i-1", lifecycleState: "InService"],
+      [instanceId: "i-2", lifecycleState: "Terminating"]
+    ]
+    def launchConfiguration = new DefaultCacheData(
+      Keys.getLaunchConfigKey(launchConfigName, account, region), [ imageId: "ami-1"], [serverGroups: [serverGroupId]])
+    def summaryId = Keys.getClusterSummaryKey(app, account, region)
+    def summary = new DefaultCacheData(summaryId, [
+      version: summaryVersion,
+      clusters: [
+        [id: clusterId, relationships: [serverGroups: [serverGroupId], loadBalancers: [], targetGroups: []]]
+      ],
+      serverGroups: [
+        [id: serverGroupId, attributes: serverGroup, relationships: [launchConfigs: [launchConfiguration.id]]]
+      ]
+    ], [:])
+
+    and:
+    cacheView.get(APPLICATIONS.ns, Keys.getApplicationKey(app)) >> new DefaultCacheData(
+      Keys.getApplicationKey(app), [name: app], [
+        serverGroups: [serverGroupId] + otherServerGroups, clusters: [clusterId], clusterSummaries: [summaryId]
+      ]
+    )
+    cacheView.getAll(CLUSTER_SUMMARIES.ns, [summaryId], _) >> [summary]
+
+    when:
+    def result = provider.getClusterSummaries(app)
+
+    then:
+    clusterReads * cacheView.getAll(CLUSTERS.ns, *_) >> [
+      new DefaultCacheData(clusterId, clusterAttributes, [serverGroups: [serverGroupId]])
+    ]
+    clusterReads * cacheView.getAll(SERVER_GROUPS.ns, *_) >> [
+      new DefaultCacheData(serverGroupId, serverGroup, [launchConfigs: [launchConfiguration.id]])
+    ]
+    clusterReads * cacheView.getAll(LAUNCH_CONFIGS.ns, _ as Set) >> [launchConfiguration]
+    clusterReads * cacheView.getAll(LAUNCH_TEMPLATES.ns, *_)
+    clusterReads * cacheView.getAll(IMAGES.ns, *_)
+    clusterReads * cacheView.getAll(HEALTH.ns, *_)
+
+    def serverGroups = result[account]*.serverGroups.flatten() as List<AmazonServerGroup>
+    result[account]*.name == [clusterName]
+    serverGroups*.name == [serverGroupName]
+    serverGroups[0].instances*.name == ["i-1"]
+    serverGroups[0].launchConfig == (clusterReads ? launchConfiguration.attributes : null)
+
+    where:
+    summaryVersion                                  | otherServerGroups                                        || clusterReads
+    ClusterCachingAgent.CLUSTER_SUMMARY_VERSION     | []                                                       || 0
+    ClusterCachingAgent.CLUSTER_SUMMARY_VERSION     | ["aws:serverGroups:app-main:test:us-west-2:app-main-v001"] || 1
+    ClusterCachingAgent.CLUSTER_SUMMARY_VERSION + 1 | []                                                       || 1
+  }
+
   def "should resolve server group launch config"() {
     given:
     serverGroup.asg = [ launchConfigurationName: launchConfigName]
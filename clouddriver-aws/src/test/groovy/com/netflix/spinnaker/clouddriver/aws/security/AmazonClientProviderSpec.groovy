@@ -148,17 +148,62 @@ class AmazonClientProviderSpec extends Specification {
     1 * ec2.describeSecurityGroups()
   }
 
+  void "full collection requests reuse the last response when edda reports it as not modified"() {
+    setup:
+    def mockHttp = Mock(HttpClient)
+    def provider = new AmazonClientProvider.Builder()
+      .httpClient(mockHttp)
+      .eddaTimeoutConfig(new EddaTimeoutConfig.Builder(responseCacheEnabled: true).build())
+      .build()
+
+    when:
+    def first = provider.getAutoScaling(credentialsWithEdda, "us-east-1").describeAutoScalingGroups()
+
+    then:
+    1 * mockHttp.execute(_) >> { HttpGet get ->
+      assert get.getFirstHeader("If-None-Match") == null
+      getMockResponse(ARRAY_ASG_CONTENT, 200, '"v1"')
+    }
+
+    when:
+    first.autoScalingGroups[0].autoScalingGroupName = "modified-by-caller"
+    def second = provider.getAutoScaling(credentialsWithEdda, "us-east-1").describeAutoScalingGroups()
+
+    then:
+    1 * mockHttp.execute(_) >> { HttpGet get ->
+      assert get.getFirstHeader("If-None-Match").value == '"v1"'
+      getMockResponse(null, 304)
+    }
+    second.autoScalingGroups*.autoScalingGroupName == ["my-app-v000"]
+    !second.autoScalingGroups[0].is(first.autoScalingGroups[0])
+    provider.lastModified == MTIME
+
+    when:
+    def third = provider.getAutoScaling(credentialsWithEdda, "us-east-1").describeAutoScalingGroups()
+
+    then:
+    1 * mockHttp.execute(_) >> { HttpGet get ->
+      assert get.getFirstHeader("If-None-Match").value == '"v1"'
+      getMockResponse('[{"mtime": 1, "data": { "autoScalingGroupName": "my-app-v001" }}]', 200, '"v2"')
+    }
+    third.autoScalingGroups*.autoScalingGroupName == ["my-app-v001"]
+    provider.lastModified == 1L
+  }
+
   static def MTIME = 1446701217475L
   static def OBJECT_ASG_CONTENT = '{"mtime": ' + MTIME + ', "data": { "autoScalingGroupName": "my-app-v000" }}'
   static def ARRAY_ASG_CONTENT = "[$OBJECT_ASG_CONTENT]"
 
-  def getMockResponse(String content = ARRAY_ASG_CONTENT) {
+  def getMockResponse(String content = ARRAY_ASG_CONTENT, int statusCode = 200, String etag = null) {
     def mock = Mock(HttpResponse)
     def statusLine = Mock(StatusLine)
-    statusLine.getStatusCode() >> 200
+    statusLine.getStatusCode() >> statusCode
     mock.getStatusLine() >> statusLine
+    if (etag) {
+      mock.getFirstHeader("ETag") >> Stub(Header) { getValue() >> etag }
+    }
     def entity = Mock(HttpEntity)
-    entity.getContent() >> { new ByteArrayInputStream(content.bytes) }
+    entity.getContent() >> { new ByteArrayInputStream(content?.bytes ?: new byte[0]) }
     def header = Mock(Header)
     header.getValue() >> ContentType.APPLICATION_JSON.getMimeType()
     entity.getContentType() >> header
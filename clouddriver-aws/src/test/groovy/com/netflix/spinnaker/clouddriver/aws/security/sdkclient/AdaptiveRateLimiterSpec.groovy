@@ -0,0 +1,110 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License")
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.clouddriver.aws.security.sdkclient
+
+import com.amazonaws.AmazonServiceException
+import com.amazonaws.handlers.HandlerAfterAttemptContext
+import com.google.common.base.Ticker
+import com.netflix.spectator.api.DefaultRegistry
+import com.netflix.spectator.api.Registry
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class AdaptiveRateLimiterSpec extends Specification {
+
+  Registry registry = new DefaultRegistry()
+  long now = 0
+  Ticker ticker = new Ticker() {
+    @Override
+    long read() {
+      return now
+    }
+  }
+
+  AdaptiveRateLimiter limiter = new AdaptiveRateLimiter(
+    4.0d,
+    1.0d,
+    8.0d,
+    1000L,
+    ticker,
+    registry.gauge("rateLimit"),
+    registry.counter("throttles"))
+
+  void "should raise the rate on success up to the maximum"() {
+    when:
+    limiter.onSuccess()
+
+    then:
+    limiter.rate == 4.25d
+    registry.gauge("rateLimit").value() == 4.25d
+
+    when:
+    100.times { limiter.onSuccess() }
+
+    then:
+    limiter.rate == 8.0d
+  }
+
+  void "should halve the rate on throttling at most once per interval"() {
+    when:
+    limiter.onThrottle()
+    limiter.onThrottle()
+
+    then:
+    limiter.rate == 2.0d
+    registry.counter("throttles").count() == 2
+
+    when:
+    now += 1_000_000_000L
+    limiter.onThrottle()
+    now += 1_000_000_000L
+    limiter.onThrottle()
+
+    then:
+    limiter.rate == 1.0d
+    registry.counter("throttles").count() == 4
+    registry.gauge("rateLimit").value() == 1.0d
+  }
+
+  @Unroll
+  void "should report #description attempts to the rate limiter"() {
+    given:
+    def rateLimiter = Mock(AdaptiveRateLimiter)
+    def handler = new RateLimitingRequestHandler(registry.counter("delay"), rateLimiter)
+
+    when:
+    handler.afterAttempt(HandlerAfterAttemptContext.builder().withException(exception).build())
+
+    then:
+    successes * rateLimiter.onSuccess()
+    throttles * rateLimiter.onThrottle()
+
+    where:
+    description  | exception                                || successes | throttles
+    "successful" | null                                     || 1         | 0
+    "throttled"  | serviceException("RequestLimitExceeded") || 0         | 1
+    "throttled"  | serviceException("Throttling")           || 0         | 1
+    "failed"     | serviceException("ValidationError")      || 0         | 0
+  }
+
+  private static AmazonServiceException serviceException(String errorCode) {
+    def exception = new AmazonServiceException(errorCode)
+    exception.errorCode = errorCode
+    exception.statusCode = 400
+    return exception
+  }
+}
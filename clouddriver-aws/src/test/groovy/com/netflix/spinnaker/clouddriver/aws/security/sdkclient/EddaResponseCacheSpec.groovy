@@ -0,0 +1,55 @@
+package com.netflix.spinnaker.clouddriver.aws.security.sdkclient
+
+import com.amazonaws.services.autoscaling.model.AutoScalingGroup
+import com.amazonaws.services.autoscaling.model.Instance
+import com.amazonaws.services.autoscaling.model.TagDescription
+import spock.lang.Specification
+
+class EddaResponseCacheSpec extends Specification {
+
+  void "does not keep entries whose objects are estimated to exceed the maximum size"() {
+    setup:
+    def cache = new EddaResponseCache(1000)
+
+    when:
+    cache.put("small", new EddaResponseCache.Entry('"a"', null, 1L, [group("small", 1)]))
+    cache.put("large", new EddaResponseCache.Entry('"b"', null, 1L, (1..20).collect { group("large-$it", 10) }))
+
+    then:
+    cache.get("small") != null
+    cache.get("large") == null
+  }
+
+  void "every read of an entry gets its own deep copy of the objects"() {
+    setup:
+    def cache = new EddaResponseCache()
+    def groups = [group("my-app-v000", 2)]
+    cache.put("a", new EddaResponseCache.Entry('"a"', null, 1L, groups))
+
+    when:
+    groups[0].autoScalingGroupName = "modified-after-caching"
+    List<AutoScalingGroup> first = cache.get("a").results
+    first[0].instances[0].instanceId = "modified-by-caller"
+    first[0].instances.remove(1)
+    first[0].tags.clear()
+    first[0].createdTime.time = 0
+    List<AutoScalingGroup> second = cache.get("a").results
+
+    then:
+    second[0].autoScalingGroupName == "my-app-v000"
+    second[0].instances*.instanceId == ["i-0", "i-1"]
+    second[0].tags*.key == ["owner"]
+    second[0].createdTime == new Date(1000)
+    second[0].desiredCapacity == 2
+    !second[0].is(first[0])
+  }
+
+  private static AutoScalingGroup group(String name, int instances) {
+    return new AutoScalingGroup()
+      .withAutoScalingGroupName(name)
+      .withDesiredCapacity(instances)
+      .withCreatedTime(new Date(1000))
+      .withInstances((0..<instances).collect { new Instance().withInstanceId("i-$it") })
+      .withTags(new TagDescription().withKey("owner").withValue("me"))
+  }
+}
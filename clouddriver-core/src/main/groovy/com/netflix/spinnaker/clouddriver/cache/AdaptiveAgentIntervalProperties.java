@@ -0,0 +1,96 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.clouddriver.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Adapts the interval of caching agents to how often their data changes, see {@link
+ * AgentChangeTracker}. Only agents whose results are stored in a cache that reports changes (the
+ * sql cache) are adapted.
+ *
+ * <p>Multipliers are shared between nodes when agents are scheduled by the sql scheduler. Other
+ * clustered schedulers keep them on each node, so they only follow the cycles each node ran, and
+ * should only be used with adaptive intervals when a single node runs agents.
+ */
+@ConfigurationProperties("caching.adaptive-intervals")
+public class AdaptiveAgentIntervalProperties {
+  private boolean enabled = false;
+
+  /** Lower bound of the interval, as a multiple of the configured interval. */
+  private double minMultiplier = 0.5;
+
+  /** Upper bound of the interval, as a multiple of the configured interval. */
+  private double maxMultiplier = 4.0;
+
+  /** Factor the multiplier is scaled by after each quiet or busy cycle. */
+  private double step = 1.5;
+
+  /** Cycles changing at most this ratio of their items are quiet. */
+  private double quietChangeRatio = 0.01;
+
+  /** Cycles changing at least this ratio of their items are busy. */
+  private double busyChangeRatio = 0.25;
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public double getMinMultiplier() {
+    return minMultiplier;
+  }
+
+  public void setMinMultiplier(double minMultiplier) {
+    this.minMultiplier = minMultiplier;
+  }
+
+  public double getMaxMultiplier() {
+    return maxMultiplier;
+  }
+
+  public void setMaxMultiplier(double maxMultiplier) {
+    this.maxMultiplier = maxMultiplier;
+  }
+
+  public double getStep() {
+    return step;
+  }
+
+  public void setStep(double step) {
+    this.step = step;
+  }
+
+  public double getQuietChangeRatio() {
+    return quietChangeRatio;
+  }
+
+  public void setQuietChangeRatio(double quietChangeRatio) {
+    this.quietChangeRatio = quietChangeRatio;
+  }
+
+  public double getBusyChangeRatio() {
+    return busyChangeRatio;
+  }
+
+  public void setBusyChangeRatio(double busyChangeRatio) {
+    this.busyChangeRatio = busyChangeRatio;
+  }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.clouddriver.cache;
+
+import com.netflix.spectator.api.Id;
+import com.netflix.spectator.api.Registry;
+import com.netflix.spinnaker.cats.agent.Agent;
+import com.netflix.spinnaker.cats.cluster.AgentIntervalProvider;
+
+/**
+ * Scales the intervals of another provider by the multiplier {@link AgentChangeTracker} computed
+ * for each agent. Agents are never accelerated to run more often than their last cycle took to
+ * complete. Error intervals and timeouts are left as configured.
+ */
+public class AdaptiveAgentIntervalProvider implements AgentIntervalProvider {
+  private final AgentIntervalProvider delegate;
+  private final AgentChangeTracker tracker;
+  private final Registry registry;
+  private final Id effectiveIntervalId;
+
+  public AdaptiveAgentIntervalProvider(
+      AgentIntervalProvider delegate, AgentChangeTracker tracker, Registry registry) {
+    this.delegate = delegate;
+    this.tracker = tracker;
+    this.registry = registry;
+    this.effectiveIntervalId = registry.createId("cats.agent.effectiveInterval");
+  }
+
+  @Override
+  public Interval getInterval(Agent agent) {
+    Interval interval = delegate.getInterval(agent);
+    AgentIntervalStore.State state = tracker.getState(agent.getAgentType());
+
+    long effectiveInterval = Math.round(interval.getInterval() * state.getMultiplier());
+    if (state.getMultiplier() < 1) {
+      effectiveInterval =
+          Math.max(
+              effectiveInterval, Math.min(interval.getInterval(), state.getLastElapsedMs()));
+    }
+
+    registry
+        .gauge(effectiveIntervalId.withTag("agent", agent.getAgentType()))
+        .set(effectiveInterval);
+    return new Interval(effectiveInterval, interval.getErrorInterval(), interval.getTimeout());
+  }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.clouddriver.cache;
+
+import com.netflix.spinnaker.cats.agent.Agent;
+import com.netflix.spinnaker.cats.agent.ExecutionInstrumentation;
+import com.netflix.spinnaker.cats.cluster.AgentChangeListener;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks the ratio of changed items and the execution time of each agent's cycles.
+ *
+ * <p>Each agent has an interval multiplier, starting at 1. After a quiet cycle (few items changed)
+ * it grows by {@link AdaptiveAgentIntervalProperties#getStep()}, up to the maximum; after a busy
+ * cycle (many items changed) it shrinks by the same step, down to the minimum. Failed cycles reset
+ * it, and cycles without change reports leave it untouched.
+ *
+ * <p>A cycle is evaluated when it completes, from the changes reported while it ran, so that the
+ * interval read once the cycle completed already reflects it. Schedulers that store results after
+ * reporting an execution as completed (ClusteredSortAgentScheduler) have their reports discarded
+ * when the agent's next cycle starts, and keep the configured intervals.
+ *
+ * <p>Multipliers are kept in an {@link AgentIntervalStore}, which must be shared between nodes when
+ * an agent's cycles can run on any of them. Change reports only need to be seen by the node running
+ * the cycle, since that is the node storing its results.
+ */
+public class AgentChangeTracker implements AgentChangeListener, ExecutionInstrumentation {
+  private static final AgentIntervalStore.State INITIAL_STATE = new AgentIntervalStore.State(1.0, 0);
+
+  private final AdaptiveAgentIntervalProperties properties;
+  private final AgentIntervalStore store;
+  private final ConcurrentMap<String, Changes> changes = new ConcurrentHashMap<>();
+
+  public AgentChangeTracker(AdaptiveAgentIntervalProperties properties) {
+    this(properties, new InMemoryAgentIntervalStore());
+  }
+
+  public AgentChangeTracker(AdaptiveAgentIntervalProperties properties, AgentIntervalStore store) {
+    this.properties = properties;
+    this.store = store;
+  }
+
+  @Override
+  public void itemsStored(String agentType, String type, int itemsChanged, int itemsUnchanged) {
+    Changes agentChanges = changes.computeIfAbsent(agentType, t -> new Changes());
+    agentChanges.changed.addAndGet(itemsChanged);
+    agentChanges.unchanged.addAndGet(itemsUnchanged);
+  }
+
+  @Override
+  public void executionStarted(Agent agent) {
+    changes.remove(agent.getAgentType());
+  }
+
+  @Override
+  public void executionCompleted(Agent agent, long elapsedMs) {
+    Changes agentChanges = changes.remove(agent.getAgentType());
+    double multiplier = getState(agent.getAgentType()).getMultiplier();
+
+    long changed = agentChanges == null ? 0 : agentChanges.changed.get();
+    long total = agentChanges == null ? 0 : changed + agentChanges.unchanged.get();
+    if (total > 0) {
+      double changeRatio = (double) changed / total;
+      if (changeRatio <= properties.getQuietChangeRatio()) {
+        multiplier = Math.min(properties.getMaxMultiplier(), multiplier * properties.getStep());
+      } else if (changeRatio >= properties.getBusyChangeRatio()) {
+        multiplier = Math.max(properties.getMinMultiplier(), multiplier / properties.getStep());
+      }
+    }
+
+    store.put(agent.getAgentType(), new AgentIntervalStore.State(multiplier, elapsedMs));
+  }
+
+  @Override
+  public void executionFailed(Agent agent, Throwable cause) {
+    changes.remove(agent.getAgentType());
+    store.put(
+        agent.getAgentType(),
+        new AgentIntervalStore.State(1.0, getState(agent.getAgentType()).getLastElapsedMs()));
+  }
+
+  /** @return the multiplier and last execution time of an agent */
+  public AgentIntervalStore.State getState(String agentType) {
+    AgentIntervalStore.State state = store.get(agentType);
+    return state == null ? INITIAL_STATE : state;
+  }
+
+  private static class Changes {
+    private final AtomicLong changed = new AtomicLong();
+    private final AtomicLong unchanged = new AtomicLong();
+  }
+}
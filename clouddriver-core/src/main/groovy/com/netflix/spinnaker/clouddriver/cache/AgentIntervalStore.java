@@ -0,0 +1,52 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.clouddriver.cache;
+
+import javax.annotation.Nullable;
+
+/**
+ * Where {@link AgentChangeTracker} keeps the interval multiplier of each agent. Clustered
+ * schedulers run an agent's cycles on whichever node acquires it, so they need a store shared by
+ * every node for the multiplier to follow all of the agent's cycles.
+ */
+public interface AgentIntervalStore {
+  /** @return the state of an agent, or null if none was stored */
+  @Nullable
+  State get(String agentType);
+
+  void put(String agentType, State state);
+
+  class State {
+    private final double multiplier;
+    private final long lastElapsedMs;
+
+    public State(double multiplier, long lastElapsedMs) {
+      this.multiplier = multiplier;
+      this.lastElapsedMs = lastElapsedMs;
+    }
+
+    /** @return the factor to scale the configured interval of the agent by */
+    public double getMultiplier() {
+      return multiplier;
+    }
+
+    /** @return how long the last completed cycle of the agent took, or 0 if none completed */
+    public long getLastElapsedMs() {
+      return lastElapsedMs;
+    }
+  }
+}
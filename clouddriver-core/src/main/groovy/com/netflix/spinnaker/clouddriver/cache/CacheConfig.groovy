@@ -25,12 +25,14 @@ import com.netflix.spinnaker.cats.agent.DefaultAgentScheduler
 import com.netflix.spinnaker.cats.agent.ExecutionInstrumentation
 import com.netflix.spinnaker.cats.cache.Cache
 import com.netflix.spinnaker.cats.cache.NamedCacheFactory
+import com.netflix.spinnaker.cats.mem.CompactInMemoryCache
 import com.netflix.spinnaker.cats.mem.InMemoryNamedCacheFactory
 import com.netflix.spinnaker.cats.module.CatsModule
 import com.netflix.spinnaker.cats.provider.Provider
 import com.netflix.spinnaker.cats.provider.ProviderRegistry
 import com.netflix.spinnaker.clouddriver.search.SearchProvider
 import com.netflix.spinnaker.fiat.shared.FiatPermissionEvaluator
+import org.springframework.beans.factory.annotation.Value
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty
 import org.springframework.boot.context.properties.EnableConfigurationProperties
@@ -44,12 +46,12 @@ import java.util.concurrent.TimeUnit
 @ComponentScan([
   'com.netflix.spinnaker.clouddriver.cache',
 ])
-@EnableConfigurationProperties(CatsInMemorySearchProperties)
+@EnableConfigurationProperties([CatsInMemorySearchProperties, AdaptiveAgentIntervalProperties])
 class CacheConfig {
   @Bean
   @ConditionalOnMissingBean(NamedCacheFactory)
-  NamedCacheFactory namedCacheFactory() {
-    new InMemoryNamedCacheFactory()
+  NamedCacheFactory namedCacheFactory(@Value('${caching.in-memory.compact:false}') boolean compact) {
+    compact ? new InMemoryNamedCacheFactory({ new CompactInMemoryCache() }) : new InMemoryNamedCacheFactory()
   }
 
   @Bean
@@ -87,6 +89,16 @@ class CacheConfig {
     catsModule.providerRegistry
   }
 
+  @Bean
+  @ConditionalOnProperty('caching.adaptive-intervals.enabled')
+  AgentChangeTracker agentChangeTracker(AdaptiveAgentIntervalProperties adaptiveAgentIntervalProperties,
+                                        Optional<AgentIntervalStore> agentIntervalStore) {
+    new AgentChangeTracker(
+      adaptiveAgentIntervalProperties,
+      agentIntervalStore.orElseGet { new InMemoryAgentIntervalStore() }
+    )
+  }
+
   @Bean
   ExecutionInstrumentation loggingInstrumentation() {
     new LoggingInstrumentation()
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.clouddriver.cache;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Compression of cache values written to redis.
+ *
+ * <p>{@code codec} is one of {@code none}, {@code lz4} or {@code zstd}. Values are self-describing,
+ * so the codec can be changed, or compression disabled, without flushing the cache. Dictionaries
+ * must stay configured as long as values compressed with them may be read.
+ */
+@ConfigurationProperties("caching.compression")
+public class CatsCompressionProperties {
+  private String codec = "none";
+  private int level = 3;
+  private long thresholdBytesSize = 1024;
+
+  /** Thresholds overriding {@code thresholdBytesSize} by cache type. */
+  private Map<String, Long> thresholdBytesSizeByType = new HashMap<>();
+
+  /** Paths of zstd dictionaries by cache type. */
+  private Map<String, String> dictionaries = new HashMap<>();
+
+  public String getCodec() {
+    return codec;
+  }
+
+  public void setCodec(String codec) {
+    this.codec = codec;
+  }
+
+  public int getLevel() {
+    return level;
+  }
+
+  public void setLevel(int level) {
+    this.level = level;
+  }
+
+  public long getThresholdBytesSize() {
+    return thresholdBytesSize;
+  }
+
+  public void setThresholdBytesSize(long thresholdBytesSize) {
+    this.thresholdBytesSize = thresholdBytesSize;
+  }
+
+  public Map<String, Long> getThresholdBytesSizeByType() {
+    return thresholdBytesSizeByType;
+  }
+
+  public void setThresholdBytesSizeByType(Map<String, Long> thresholdBytesSizeByType) {
+    this.thresholdBytesSizeByType = thresholdBytesSizeByType;
+  }
+
+  public Map<String, String> getDictionaries() {
+    return dictionaries;
+  }
+
+  public void setDictionaries(Map<String, String> dictionaries) {
+    this.dictionaries = dictionaries;
+  }
+}
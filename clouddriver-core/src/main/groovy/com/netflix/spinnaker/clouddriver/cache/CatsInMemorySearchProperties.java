@@ -23,6 +23,12 @@ public class CatsInMemorySearchProperties {
   private boolean enabled = false;
   private int refreshIntervalSeconds = 30;
 
+  /**
+   * Number of trigram posting entries (about one per character of every indexed instance key) past
+   * which the instance index stops keeping them, and falls back to scanning every key on search.
+   */
+  private long maxTrigramPostings = 5_000_000;
+
   public boolean isEnabled() {
     return enabled;
   }
@@ -38,4 +44,12 @@ public class CatsInMemorySearchProperties {
   public void setRefreshIntervalSeconds(int refreshIntervalSeconds) {
     this.refreshIntervalSeconds = refreshIntervalSeconds;
   }
+
+  public long getMaxTrigramPostings() {
+    return maxTrigramPostings;
+  }
+
+  public void setMaxTrigramPostings(long maxTrigramPostings) {
+    this.maxTrigramPostings = maxTrigramPostings;
+  }
 }
@@ -18,6 +18,7 @@ package com.netflix.spinnaker.clouddriver.cache
 
 import com.google.common.util.concurrent.ThreadFactoryBuilder
 import com.netflix.spinnaker.cats.cache.Cache
+import com.netflix.spinnaker.cats.mem.KeyIndex
 import com.netflix.spinnaker.cats.provider.ProviderRegistry
 import com.netflix.spinnaker.clouddriver.search.SearchProvider
 import com.netflix.spinnaker.clouddriver.search.SearchResultSet
@@ -52,7 +53,12 @@ class CatsSearchProvider implements SearchProvider, Runnable {
 
 
 
-  private final AtomicReference<Map<String, Collection<String>>> cachedIdentifiersByType = new AtomicReference(
+  /**
+   * Indexes of cached identifiers by type, only instances for now. {@link #run()} periodically lists every
+   * identifier of the type and applies the difference to its index; other types are searched through their
+   * provider caches.
+   */
+  private final AtomicReference<Map<String, KeyIndex>> cachedIdentifiersByType = new AtomicReference(
     [:]
   )
 
@@ -130,18 +136,42 @@ class CatsSearchProvider implements SearchProvider, Runnable {
           if (provider.parseKey(key))
             return key?.toLowerCase()
         }
-      }.flatten()
+      }.flatten() as Set<String>
 
       if (instanceIdentifiers) {
-        cachedIdentifiersByType.set(["instances": instanceIdentifiers])
+        updateIndex("instances", instanceIdentifiers)
       }
 
-      log.info("Refreshed Cached Identifiers (found ${instanceIdentifiers.size()} instances)")
+      log.info(
+        "Refreshed Cached Identifiers (found ${instanceIdentifiers.size()} instances, " +
+          "${cachedIdentifiersByType.get().get("instances")?.postingsSize ?: 0} trigram postings)"
+      )
     } catch (Exception e) {
       log.error("Unable to refresh cached identifiers (instances)", e)
     }
   }
 
+  /**
+   * Applies the difference between the indexed identifiers of a type and its current identifiers.
+   *
+   * A type's first index is built before it is published. Later updates are applied in place, so a search
+   * running concurrently may see some of the update but not the rest: identifiers that are removed may still be
+   * returned, and identifiers that are added may be missing. Identifiers present before and after the update are
+   * always returned.
+   */
+  private void updateIndex(String type, Set<String> identifiers) {
+    KeyIndex index = cachedIdentifiersByType.get().get(type)
+    if (index == null) {
+      index = new KeyIndex(catsInMemorySearchProperties.maxTrigramPostings)
+      identifiers.each { index.add(it) }
+      cachedIdentifiersByType.set(cachedIdentifiersByType.get() + [(type): index])
+      return
+    }
+
+    index.keys().findAll { !identifiers.contains(it) }.each { index.remove(it) }
+    identifiers.each { index.add(it) }
+  }
+
   @Override
   String getPlatform() {
     return "aws" //TODO(cfieber) - need a better story around this
@@ -292,8 +322,7 @@ class CatsSearchProvider implements SearchProvider, Runnable {
          * This is not 100% consistent with doing `*:${cache}:*${normalizedWord}*` in redis _but_ for instances it
          * should be sufficient.
          */
-        def identifiersForCache = cached.get(cache)
-        identifiers = identifiersForCache.findAll { it.contains(normalizedWord) }
+        identifiers = cached.get(cache).filter("*${escapeGlob(normalizedWord)}*", { true })
       } else {
         List<SearchableProvider> validProviders = providers.findAll { it.supportsSearch(cache, filters) }
         identifiers = new HashSet<>()
@@ -311,12 +340,28 @@ class CatsSearchProvider implements SearchProvider, Runnable {
         .findAll(filtersMatch)
     }.flatten()
 
-    matches.sort { String a, String b ->
-      def aKey = a.toLowerCase().substring(a.indexOf(':'))
-      def bKey = b.toLowerCase().substring(b.indexOf(':'))
-      def indexA = aKey.indexOf(q)
-      def indexB = bKey.indexOf(q)
-      return indexA == indexB ? aKey <=> bKey : indexA - indexB
+    // Rank by match position, computing each sort key once rather than on every comparison
+    matches.collect { new RankedMatch(it, q) }.sort().collect { it.key }
+  }
+
+  private static String escapeGlob(String value) {
+    return value.replaceAll(/([*?\[\]\\])/, '\\\\$1')
+  }
+
+  private static class RankedMatch implements Comparable<RankedMatch> {
+    final String key
+    final String sortKey
+    final int position
+
+    RankedMatch(String key, String q) {
+      this.key = key
+      this.sortKey = key.toLowerCase().substring(key.indexOf(':'))
+      this.position = sortKey.indexOf(q)
+    }
+
+    @Override
+    int compareTo(RankedMatch other) {
+      return position == other.position ? sortKey <=> other.sortKey : position - other.position
     }
   }
 
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.clouddriver.cache;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/** Keeps agent interval multipliers on this node only, for schedulers that run on a single node. */
+public class InMemoryAgentIntervalStore implements AgentIntervalStore {
+  private final ConcurrentMap<String, State> states = new ConcurrentHashMap<>();
+
+  @Override
+  public State get(String agentType) {
+    return states.get(agentType);
+  }
+
+  @Override
+  public void put(String agentType, State state) {
+    states.put(agentType, state);
+  }
+}
@@ -17,6 +17,9 @@ package com.netflix.spinnaker.clouddriver.cache
 
 import com.fasterxml.jackson.databind.ObjectMapper
 import com.netflix.spinnaker.cats.cache.NamedCacheFactory
+import com.netflix.spinnaker.cats.compression.CompressionCodec
+import com.netflix.spinnaker.cats.compression.CompressionStrategy
+import com.netflix.spinnaker.cats.compression.FramedCompression
 import com.netflix.spinnaker.cats.redis.cache.RedisCache.CacheMetrics
 import com.netflix.spinnaker.cats.redis.cache.RedisCacheOptions
 import com.netflix.spinnaker.cats.redis.cache.RedisNamedCacheFactory
@@ -29,9 +32,12 @@ import org.springframework.context.annotation.Bean
 import org.springframework.context.annotation.Configuration
 import redis.clients.jedis.JedisPool
 
+import java.nio.file.Files
+import java.nio.file.Paths
+
 @Configuration
 @ConditionalOnExpression("\${redis.enabled:true} && \${redis.cache.enabled:true}")
-@EnableConfigurationProperties(RedisConfigurationProperties)
+@EnableConfigurationProperties([RedisConfigurationProperties, CatsCompressionProperties])
 class JedisCacheConfig {
 
   @Bean
@@ -39,12 +45,33 @@ class JedisCacheConfig {
     new JedisClientDelegate(jedisPool)
   }
 
+  @Bean
+  CompressionStrategy cacheCompressionStrategy(CatsCompressionProperties properties) {
+    Map<String, byte[]> dictionaries = properties.dictionaries.collectEntries { type, path ->
+      [(type): Files.readAllBytes(Paths.get(path))]
+    }
+
+    if (properties.codec.equalsIgnoreCase("none")) {
+      // Nothing is compressed, but values compressed before compression was disabled are still read
+      return new FramedCompression(CompressionCodec.LZ4, properties.level, Long.MAX_VALUE, [:], dictionaries)
+    }
+
+    return new FramedCompression(
+      CompressionCodec.fromConfig(properties.codec),
+      properties.level,
+      properties.thresholdBytesSize,
+      properties.thresholdBytesSizeByType,
+      dictionaries
+    )
+  }
+
   @Bean
   NamedCacheFactory cacheFactory(
     RedisClientDelegate redisClientDelegate,
     ObjectMapper objectMapper,
     RedisCacheOptions redisCacheOptions,
-    CacheMetrics cacheMetrics) {
-    new RedisNamedCacheFactory(redisClientDelegate, objectMapper, redisCacheOptions, cacheMetrics)
+    CacheMetrics cacheMetrics,
+    CompressionStrategy cacheCompressionStrategy) {
+    new RedisNamedCacheFactory(redisClientDelegate, objectMapper, redisCacheOptions, cacheMetrics, cacheCompressionStrategy)
   }
 }
@@ -54,12 +54,15 @@ class RedisCacheConfig {
   }
 
   @Bean
-  AgentIntervalProvider agentIntervalProvider(RedisConfigurationProperties redisConfigurationProperties) {
-    new CustomSchedulableAgentIntervalProvider(
+  AgentIntervalProvider agentIntervalProvider(RedisConfigurationProperties redisConfigurationProperties,
+                                              Optional<AgentChangeTracker> agentChangeTracker,
+                                              Registry registry) {
+    AgentIntervalProvider intervalProvider = new CustomSchedulableAgentIntervalProvider(
       TimeUnit.SECONDS.toMillis(redisConfigurationProperties.poll.intervalSeconds),
       TimeUnit.SECONDS.toMillis(redisConfigurationProperties.poll.errorIntervalSeconds),
       TimeUnit.SECONDS.toMillis(redisConfigurationProperties.poll.timeoutSeconds)
     )
+    agentChangeTracker.map { new AdaptiveAgentIntervalProvider(intervalProvider, it, registry) }.orElse(intervalProvider)
   }
 
   @Bean
@@ -40,6 +40,7 @@ import com.netflix.spinnaker.kork.web.context.RequestContextProvider
 import com.netflix.spinnaker.kork.web.exceptions.ExceptionMessageDecorator
 import com.netflix.spinnaker.kork.web.exceptions.ExceptionSummaryService
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean
+import org.springframework.boot.context.properties.EnableConfigurationProperties
 import org.springframework.context.ApplicationContext
 import org.springframework.context.annotation.Bean
 import org.springframework.context.annotation.ComponentScan
@@ -47,6 +48,7 @@ import org.springframework.context.annotation.Configuration
 
 @Configuration
 @ComponentScan("com.netflix.spinnaker.clouddriver.orchestration.sagas")
+@EnableConfigurationProperties(OrchestrationExecutorConfigurationProperties)
 class DeployConfiguration {
   @Bean
   @ConditionalOnMissingBean(TaskRepository)
@@ -70,7 +72,8 @@ class DeployConfiguration {
     ObjectMapper objectMapper,
     ExceptionClassifier exceptionClassifier,
     RequestContextProvider contextProvider,
-    ExceptionSummaryService exceptionSummaryService
+    ExceptionSummaryService exceptionSummaryService,
+    OrchestrationExecutorConfigurationProperties executorProperties
   ) {
     new DefaultOrchestrationProcessor(
       taskRepository,
@@ -80,7 +83,8 @@ class DeployConfiguration {
       objectMapper,
       exceptionClassifier,
       contextProvider,
-      exceptionSummaryService
+      exceptionSummaryService,
+      executorProperties
     )
   }
 
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.spinnaker.clouddriver.config;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties("orchestration.executor")
+@Data
+public class OrchestrationExecutorConfigurationProperties {
+
+  public enum Mode {
+    /** Every orchestration starts on its own thread as soon as it is submitted. */
+    UNBOUNDED,
+
+    /**
+     * Orchestrations run on at most {@link #maxThreads} threads, with up to {@link #maxQueueSize}
+     * more waiting for one. Any more are rejected.
+     */
+    BOUNDED
+  }
+
+  private Mode mode = Mode.UNBOUNDED;
+
+  private int maxThreads = 100;
+
+  private int maxQueueSize = 500;
+
+  /**
+   * How many orchestrations may run at once against any one cloud provider and account, in {@link
+   * Mode#BOUNDED} mode. Zero or less means no limit.
+   */
+  private int maxConcurrentPerAccount = 0;
+
+  /** Overrides of {@link #maxConcurrentPerAccount}, by account name. */
+  private Map<String, Integer> accountLimits = new HashMap<>();
+
+  /**
+   * Orchestrations whose operations all have one of these in their class name are started ahead of
+   * any other waiting orchestration, in {@link Mode#BOUNDED} mode.
+   */
+  private List<String> priorityOperations = Arrays.asList("Enable", "Disable", "Resize");
+
+  public int getAccountLimit(String account) {
+    Integer limit = account == null ? null : accountLimits.get(account);
+    return limit == null ? maxConcurrentPerAccount : limit;
+  }
+}
@@ -25,6 +25,7 @@ public class ServiceLimitConfiguration {
   public static final String POLL_INTERVAL_MILLIS = "agentPollIntervalMs";
   public static final String POLL_TIMEOUT_MILLIS = "agentPollTimeoutMs";
   public static final String API_RATE_LIMIT = "rateLimit";
+  public static final String API_MAX_RATE_LIMIT = "maxRateLimit";
 
   private final ServiceLimits defaults;
   private final Map<String, ServiceLimits> cloudProviderOverrides;
@@ -20,6 +20,7 @@ import static java.lang.String.format;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.Iterables;
 import com.netflix.spinnaker.clouddriver.core.ClouddriverHostname;
 import com.netflix.spinnaker.clouddriver.data.task.DefaultTaskStatus;
 import com.netflix.spinnaker.clouddriver.data.task.SagaId;
@@ -40,12 +41,14 @@ import net.jodah.failsafe.RetryPolicy;
 import net.jodah.failsafe.function.CheckedConsumer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import redis.clients.jedis.Response;
 import redis.clients.jedis.exceptions.JedisException;
 
 public class RedisTaskRepository implements TaskRepository {
   private static final Logger log = LoggerFactory.getLogger(RedisTaskRepository.class);
 
   private static final String RUNNING_TASK_KEY = "kato:tasks";
+  private static final String OWNER_RUNNING_TASK_KEY_PREFIX = "kato:tasks:owner:";
   private static final String TASK_KEY_MAP = "kato:taskmap";
   private static final TypeReference<Map<String, String>> HISTORY_TYPE =
       new TypeReference<Map<String, String>>() {};
@@ -53,6 +56,7 @@ public class RedisTaskRepository implements TaskRepository {
       new TypeReference<Set<SagaId>>() {};
 
   private static final int TASK_TTL = (int) TimeUnit.HOURS.toSeconds(12);
+  private static final int TASK_BATCH_SIZE = 500;
 
   private static final RetryPolicy REDIS_RETRY_POLICY =
       new RetryPolicy()
@@ -122,23 +126,31 @@ public class RedisTaskRepository implements TaskRepository {
                       return client.hgetAll("task:" + id);
                     }),
             format("Getting task ID %s", id));
-    boolean oldTask =
-        redisClientDelegatePrevious.isPresent() && (taskMap == null || taskMap.isEmpty());
-    if (oldTask) {
-      try {
-        taskMap =
-            redisClientDelegatePrevious
-                .get()
-                .withCommandsClient(
-                    client -> {
-                      return client.hgetAll("task:" + id);
-                    });
-      } catch (Exception e) {
-        // Failed to hit old redis, let's not blow up on that
-        return null;
-      }
+    if (redisClientDelegatePrevious.isPresent() && (taskMap == null || taskMap.isEmpty())) {
+      return getFromPrevious(id);
     }
-    if (taskMap.containsKey("id") && taskMap.containsKey("startTimeMs")) {
+    return toTask(taskMap, false);
+  }
+
+  private Task getFromPrevious(String id) {
+    Map<String, String> taskMap;
+    try {
+      taskMap =
+          redisClientDelegatePrevious
+              .get()
+              .withCommandsClient(
+                  client -> {
+                    return client.hgetAll("task:" + id);
+                  });
+    } catch (Exception e) {
+      // Failed to hit old redis, let's not blow up on that
+      return null;
+    }
+    return toTask(taskMap, true);
+  }
+
+  private Task toTask(Map<String, String> taskMap, boolean oldTask) {
+    if (taskMap != null && taskMap.containsKey("id") && taskMap.containsKey("startTimeMs")) {
       Set<SagaId> sagaIds;
       if (taskMap.containsKey("sagaIds")) {
         try {
@@ -197,24 +209,73 @@ public class RedisTaskRepository implements TaskRepository {
 
   @Override
   public List<Task> list() {
-    return retry(
-        () ->
-            redisClientDelegate.withCommandsClient(
-                client -> {
-                  return client.smembers(RUNNING_TASK_KEY).stream()
-                      .map(this::get)
-                      .collect(Collectors.toList());
-                }),
-        "Getting all running tasks");
+    Set<String> taskIds =
+        retry(
+            () ->
+                redisClientDelegate.withCommandsClient(
+                    client -> {
+                      return client.smembers(RUNNING_TASK_KEY);
+                    }),
+            "Getting all running tasks");
+    return getAll(taskIds);
   }
 
   @Override
   public List<Task> listByThisInstance() {
-    return list().stream()
+    String ownerKey = getOwnerRunningTaskKey(ClouddriverHostname.ID);
+    Set<String> taskIds =
+        retry(
+            () ->
+                redisClientDelegate.withCommandsClient(
+                    client -> {
+                      return client.smembers(ownerKey);
+                    }),
+            "Getting running tasks of this instance");
+    return getAll(taskIds).stream()
         .filter(t -> ClouddriverHostname.ID.equals(t.getOwnerId()))
         .collect(Collectors.toList());
   }
 
+  /**
+   * Gets tasks by pipelining their reads in batches of {@link #TASK_BATCH_SIZE}, rather than with
+   * a round trip per task. Tasks missing from redis are looked up in the previous redis one by one.
+   */
+  private List<Task> getAll(Collection<String> ids) {
+    if (!redisClientDelegate.supportsMultiKeyPipelines()) {
+      return ids.stream().map(this::get).filter(Objects::nonNull).collect(Collectors.toList());
+    }
+
+    List<Task> tasks = new ArrayList<>(ids.size());
+    for (List<String> batch : Iterables.partition(ids, TASK_BATCH_SIZE)) {
+      List<Map<String, String>> taskMaps =
+          retry(
+              () -> {
+                List<Response<Map<String, String>>> responses = new ArrayList<>(batch.size());
+                redisClientDelegate.withMultiKeyPipeline(
+                    pipeline -> {
+                      for (String id : batch) {
+                        responses.add(pipeline.hgetAll("task:" + id));
+                      }
+                      pipeline.sync();
+                    });
+                return responses.stream().map(Response::get).collect(Collectors.toList());
+              },
+              format("Getting %d tasks", batch.size()));
+
+      for (int i = 0; i < batch.size(); i++) {
+        Map<String, String> taskMap = taskMaps.get(i);
+        Task task =
+            redisClientDelegatePrevious.isPresent() && (taskMap == null || taskMap.isEmpty())
+                ? getFromPrevious(batch.get(i))
+                : toTask(taskMap, false);
+        if (task != null) {
+          tasks.add(task);
+        }
+      }
+    }
+    return tasks;
+  }
+
   public void set(String id, JedisTask task) {
     String taskId = "task:" + task.getId();
     Map<String, String> data = new HashMap<>();
@@ -233,6 +294,11 @@ public class RedisTaskRepository implements TaskRepository {
                   client.hmset(taskId, data);
                   client.expire(taskId, TASK_TTL);
                   client.sadd(RUNNING_TASK_KEY, id);
+                  if (task.getOwnerId() != null) {
+                    String ownerKey = getOwnerRunningTaskKey(task.getOwnerId());
+                    client.sadd(ownerKey, id);
+                    client.expire(ownerKey, TASK_TTL);
+                  }
                 }),
         format("Writing task %s", id));
   }
@@ -260,6 +326,9 @@ public class RedisTaskRepository implements TaskRepository {
                   client.expire(historyId, TASK_TTL);
                   if (status.isCompleted()) {
                     client.srem(RUNNING_TASK_KEY, task.getId());
+                    if (task.getOwnerId() != null) {
+                      client.srem(getOwnerRunningTaskKey(task.getOwnerId()), task.getId());
+                    }
                   }
                 }),
         format("Adding status history to task %s: %s", task.getId(), status));
@@ -370,6 +439,10 @@ public class RedisTaskRepository implements TaskRepository {
     return TASK_KEY_MAP + ":" + clientRequestId;
   }
 
+  private String getOwnerRunningTaskKey(String ownerId) {
+    return OWNER_RUNNING_TASK_KEY_PREFIX + ownerId;
+  }
+
   private RedisClientDelegate clientForTask(JedisTask task) {
     if (task.getPreviousRedis() && redisClientDelegatePrevious.isPresent()) {
       return redisClientDelegatePrevious.get();
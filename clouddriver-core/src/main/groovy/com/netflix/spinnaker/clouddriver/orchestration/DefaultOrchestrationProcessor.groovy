@@ -19,6 +19,7 @@ package com.netflix.spinnaker.clouddriver.orchestration
 import com.fasterxml.jackson.databind.ObjectMapper
 import com.google.common.util.concurrent.ThreadFactoryBuilder
 import com.netflix.spectator.api.Registry
+import com.netflix.spinnaker.clouddriver.config.OrchestrationExecutorConfigurationProperties
 import com.netflix.spinnaker.clouddriver.data.task.Task
 import com.netflix.spinnaker.clouddriver.data.task.TaskRepository
 import com.netflix.spinnaker.clouddriver.event.exceptions.DuplicateEventAggregateException
@@ -35,7 +36,10 @@ import org.slf4j.MDC
 import org.springframework.context.ApplicationContext
 
 import javax.annotation.Nonnull
+import javax.annotation.Nullable
+import java.util.concurrent.BlockingQueue
 import java.util.concurrent.ExecutorService
+import java.util.concurrent.LinkedBlockingQueue
 import java.util.concurrent.SynchronousQueue
 import java.util.concurrent.ThreadPoolExecutor
 import java.util.concurrent.TimeUnit
@@ -47,16 +51,12 @@ import static com.netflix.spinnaker.security.AuthenticatedRequest.propagate
 class DefaultOrchestrationProcessor implements OrchestrationProcessor {
   private static final String TASK_PHASE = "ORCHESTRATION"
 
-  protected ExecutorService executorService = new ThreadPoolExecutor(0, Integer.MAX_VALUE,
-    60L, TimeUnit.SECONDS,
-    new SynchronousQueue<Runnable>(),
-    new ThreadFactoryBuilder().setNameFormat(DefaultOrchestrationProcessor.class.getSimpleName() + "-%d").build()) {
-    @Override
-    protected void afterExecute(Runnable r, Throwable t) {
-      clearRequestContext()
-      super.afterExecute(r, t)
-    }
-  }
+  protected ExecutorService executorService = newExecutorService(0, Integer.MAX_VALUE, new SynchronousQueue<Runnable>())
+
+  /**
+   * Schedules orchestrations onto {@link #executorService} in bounded mode, null otherwise.
+   */
+  private final OrchestrationExecutor orchestrationExecutor
 
   private final TaskRepository taskRepository
   private final ApplicationContext applicationContext
@@ -66,6 +66,7 @@ class DefaultOrchestrationProcessor implements OrchestrationProcessor {
   private final ExceptionClassifier exceptionClassifier
   private final RequestContextProvider contextProvider
   private final ExceptionSummaryService exceptionSummaryService
+  private final OrchestrationExecutorConfigurationProperties executorProperties
 
   DefaultOrchestrationProcessor(
     TaskRepository taskRepository,
@@ -76,6 +77,30 @@ class DefaultOrchestrationProcessor implements OrchestrationProcessor {
     ExceptionClassifier exceptionClassifier,
     RequestContextProvider contextProvider,
     ExceptionSummaryService exceptionSummaryService
+  ) {
+    this(
+      taskRepository,
+      applicationContext,
+      registry,
+      operationEventHandlers,
+      objectMapper,
+      exceptionClassifier,
+      contextProvider,
+      exceptionSummaryService,
+      new OrchestrationExecutorConfigurationProperties()
+    )
+  }
+
+  DefaultOrchestrationProcessor(
+    TaskRepository taskRepository,
+    ApplicationContext applicationContext,
+    Registry registry,
+    Optional<Collection<OperationEventHandler>> operationEventHandlers,
+    ObjectMapper objectMapper,
+    ExceptionClassifier exceptionClassifier,
+    RequestContextProvider contextProvider,
+    ExceptionSummaryService exceptionSummaryService,
+    OrchestrationExecutorConfigurationProperties executorProperties
   ) {
     this.taskRepository = taskRepository
     this.applicationContext = applicationContext
@@ -85,20 +110,49 @@ class DefaultOrchestrationProcessor implements OrchestrationProcessor {
     this.exceptionClassifier = exceptionClassifier
     this.contextProvider = contextProvider
     this.exceptionSummaryService = exceptionSummaryService
+    this.executorProperties = executorProperties
+
+    if (executorProperties.mode == OrchestrationExecutorConfigurationProperties.Mode.BOUNDED) {
+      executorService = newExecutorService(
+        executorProperties.maxThreads, executorProperties.maxThreads, new LinkedBlockingQueue<Runnable>()
+      )
+      orchestrationExecutor = new OrchestrationExecutor(executorService, registry, executorProperties)
+    } else {
+      orchestrationExecutor = null
+    }
   }
 
   @Override
   Task process(List<AtomicOperation> atomicOperations, String clientRequestId) {
+    return process(null, null, atomicOperations, clientRequestId)
+  }
+
+  @Override
+  Task process(@Nullable String cloudProvider,
+               @Nullable String account,
+               List<AtomicOperation> atomicOperations,
+               String clientRequestId) {
 
     def orchestrationsId = registry.createId('orchestrations')
     def atomicOperationId = registry.createId('operations')
     def tasksId = registry.createId('tasks')
 
+    // Reserve room for the orchestration before creating its task, so that a rejected orchestration leaves no task
+    // behind that would prevent it from running when it is retried.
+    def reservation = orchestrationExecutor?.reserve(cloudProvider, account, isPriority(atomicOperations))
+
     // Get the task (either an existing one, or a new one). If the task already exists, `shouldExecute` will be false
     // if the task is in a failed state and the failure is not retryable.
-    def result = getTask(clientRequestId)
+    GetTaskResult result
+    try {
+      result = getTask(clientRequestId)
+    } catch (Exception e) {
+      reservation?.release()
+      throw e
+    }
     def task = result.task
     if (!result.shouldExecute) {
+      reservation?.release()
       return task
     }
 
@@ -186,11 +240,37 @@ class DefaultOrchestrationProcessor implements OrchestrationProcessor {
     }
 
     def timedCallable = TimedCallable.forCallable(registry, orchestrationsId, propagate(operationClosure, true))
-    executorService.submit(timedCallable)
+    if (reservation) {
+      reservation.submit(timedCallable)
+    } else {
+      executorService.submit(timedCallable)
+    }
 
     task
   }
 
+  /**
+   * Orchestrations made only of short operations (enable, disable, resize...) go ahead of the others.
+   */
+  private boolean isPriority(List<AtomicOperation> atomicOperations) {
+    return !atomicOperations.isEmpty() && atomicOperations.every { atomicOperation ->
+      executorProperties.priorityOperations.any { atomicOperation.class.simpleName.contains(it) }
+    }
+  }
+
+  private ExecutorService newExecutorService(int corePoolSize, int maximumPoolSize, BlockingQueue<Runnable> workQueue) {
+    return new ThreadPoolExecutor(corePoolSize, maximumPoolSize,
+      60L, TimeUnit.SECONDS,
+      workQueue,
+      new ThreadFactoryBuilder().setNameFormat(DefaultOrchestrationProcessor.class.getSimpleName() + "-%d").build()) {
+      @Override
+      protected void afterExecute(Runnable r, Throwable t) {
+        clearRequestContext()
+        super.afterExecute(r, t)
+      }
+    }
+  }
+
   void autowire(obj) {
     applicationContext.autowireCapableBeanFactory.autowireBean obj
   }
@@ -0,0 +1,236 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.spinnaker.clouddriver.orchestration;
+
+import static java.lang.String.format;
+
+import com.netflix.spectator.api.Id;
+import com.netflix.spectator.api.Registry;
+import com.netflix.spinnaker.clouddriver.config.OrchestrationExecutorConfigurationProperties;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs orchestrations on a bounded number of threads.
+ *
+ * <p>Orchestrations that can't start right away wait in one of two lanes, and the priority lane is
+ * always served first. An orchestration also waits while its cloud provider and account already
+ * have as many orchestrations running as they are allowed. Once the threads and the waiting lanes
+ * are all full, new orchestrations are rejected with an {@link OrchestrationSaturatedException}.
+ *
+ * <p>Callers take a {@link Reservation} before creating the orchestration's task, so that a task
+ * is never created for an orchestration that can't be accepted.
+ */
+public class OrchestrationExecutor {
+  private static final Logger log = LoggerFactory.getLogger(OrchestrationExecutor.class);
+
+  private final ExecutorService executorService;
+  private final Registry registry;
+  private final OrchestrationExecutorConfigurationProperties properties;
+
+  private final Id waitTimeId;
+  private final Id rejectedId;
+
+  private final Deque<Job> priorityLane = new ArrayDeque<>();
+  private final Deque<Job> lane = new ArrayDeque<>();
+  private final Map<String, Integer> runningByAccount = new HashMap<>();
+  private int running;
+  private int reserved;
+
+  public OrchestrationExecutor(
+      ExecutorService executorService,
+      Registry registry,
+      OrchestrationExecutorConfigurationProperties properties) {
+    this.executorService = executorService;
+    this.registry = registry;
+    this.properties = properties;
+
+    this.waitTimeId = registry.createId("orchestrations.executor.waitTime");
+    this.rejectedId = registry.createId("orchestrations.executor.rejected");
+
+    Id queuedId = registry.createId("orchestrations.executor.queued");
+    registry.gauge(queuedId.withTag("lane", "priority"), this, it -> it.queued(true));
+    registry.gauge(queuedId.withTag("lane", "default"), this, it -> it.queued(false));
+    registry.gauge(registry.createId("orchestrations.executor.running"), this, it -> it.running());
+  }
+
+  /**
+   * Reserves room for an orchestration, which must then be either submitted or released.
+   *
+   * @throws OrchestrationSaturatedException if all threads are busy and the lanes are full
+   */
+  public synchronized Reservation reserve(
+      @Nullable String cloudProvider, @Nullable String account, boolean priority) {
+    int capacity = properties.getMaxThreads() + properties.getMaxQueueSize();
+    if (running + reserved + priorityLane.size() + lane.size() >= capacity) {
+      registry.counter(rejectedId.withTag("lane", laneName(priority))).increment();
+      throw new OrchestrationSaturatedException(
+          format(
+              "Too many orchestrations in progress (%d), retry later",
+              running + reserved + priorityLane.size() + lane.size()));
+    }
+    reserved++;
+    return new Reservation(cloudProvider, account, priority);
+  }
+
+  private synchronized void submit(Job job) {
+    reserved--;
+    (job.priority ? priorityLane : lane).add(job);
+    dispatch();
+  }
+
+  private synchronized void release() {
+    reserved--;
+  }
+
+  private synchronized void finished(Job job) {
+    stopped(job);
+    dispatch();
+  }
+
+  private void stopped(Job job) {
+    running--;
+    if (job.accountKey != null) {
+      runningByAccount.computeIfPresent(
+          job.accountKey, (key, count) -> count > 1 ? count - 1 : null);
+    }
+  }
+
+  private void dispatch() {
+    while (running < properties.getMaxThreads()) {
+      Job job = next(priorityLane);
+      if (job == null) {
+        job = next(lane);
+      }
+      if (job == null) {
+        return;
+      }
+
+      running++;
+      if (job.accountKey != null) {
+        runningByAccount.merge(job.accountKey, 1, Integer::sum);
+      }
+      registry
+          .timer(waitTimeId.withTag("lane", laneName(job.priority)))
+          .record(System.nanoTime() - job.submittedNanos, TimeUnit.NANOSECONDS);
+
+      Job started = job;
+      try {
+        executorService.submit(
+            () -> {
+              try {
+                return started.callable.call();
+              } finally {
+                finished(started);
+              }
+            });
+      } catch (RuntimeException e) {
+        // the job may belong to another caller than the one dispatching it, so rather than failing
+        // anyone it goes back to the head of its lane, to be retried on the next submit or finish
+        log.warn("Unable to start an orchestration, leaving it queued", e);
+        stopped(started);
+        (started.priority ? priorityLane : lane).addFirst(started);
+        return;
+      }
+    }
+  }
+
+  /** Removes and returns the first job of the lane whose account isn't at its limit, if any. */
+  @Nullable
+  private Job next(Deque<Job> jobs) {
+    Iterator<Job> iterator = jobs.iterator();
+    while (iterator.hasNext()) {
+      Job job = iterator.next();
+      if (job.accountKey == null
+          || job.accountLimit <= 0
+          || runningByAccount.getOrDefault(job.accountKey, 0) < job.accountLimit) {
+        iterator.remove();
+        return job;
+      }
+    }
+    return null;
+  }
+
+  private synchronized int queued(boolean priority) {
+    return (priority ? priorityLane : lane).size();
+  }
+
+  private synchronized int running() {
+    return running;
+  }
+
+  private static String laneName(boolean priority) {
+    return priority ? "priority" : "default";
+  }
+
+  /** Room for one orchestration, taken with {@link #reserve}. */
+  public class Reservation {
+    private final String accountKey;
+    private final int accountLimit;
+    private final boolean priority;
+    private boolean done;
+
+    private Reservation(
+        @Nullable String cloudProvider, @Nullable String account, boolean priority) {
+      this.accountKey = account == null ? null : cloudProvider + "/" + account;
+      this.accountLimit = properties.getAccountLimit(account);
+      this.priority = priority;
+    }
+
+    /** Runs the orchestration once a thread is available and its account is under its limit. */
+    public void submit(Callable<?> callable) {
+      checkNotDone();
+      OrchestrationExecutor.this.submit(new Job(accountKey, accountLimit, priority, callable));
+    }
+
+    /** Gives the reserved room back, for an orchestration that won't be submitted. */
+    public void release() {
+      checkNotDone();
+      OrchestrationExecutor.this.release();
+    }
+
+    private void checkNotDone() {
+      if (done) {
+        throw new IllegalStateException("Reservation was already submitted or released");
+      }
+      done = true;
+    }
+  }
+
+  private static class Job {
+    private final String accountKey;
+    private final int accountLimit;
+    private final boolean priority;
+    private final Callable<?> callable;
+    private final long submittedNanos = System.nanoTime();
+
+    private Job(String accountKey, int accountLimit, boolean priority, Callable<?> callable) {
+      this.accountKey = accountKey;
+      this.accountLimit = accountLimit;
+      this.priority = priority;
+      this.callable = callable;
+    }
+  }
+}
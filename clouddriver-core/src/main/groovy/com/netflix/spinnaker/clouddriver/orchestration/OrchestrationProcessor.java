@@ -15,6 +15,7 @@ package com.netflix.spinnaker.clouddriver.orchestration;
 
 import com.netflix.spinnaker.clouddriver.data.task.Task;
 import java.util.List;
+import javax.annotation.Nullable;
 
 /**
  * Implementations of this interface should perform orchestration of operations in a workflow. Often
@@ -28,4 +29,19 @@ public interface OrchestrationProcessor {
    * @return a list of results
    */
   Task process(List<AtomicOperation> atomicOperations, String key);
+
+  /**
+   * Same as {@link #process(List, String)}, for operations against a known cloud provider and
+   * account, which implementations may use to schedule them.
+   *
+   * @param key a unique key, used to de-dupe orchestration requests
+   * @return a list of results
+   */
+  default Task process(
+      @Nullable String cloudProvider,
+      @Nullable String account,
+      List<AtomicOperation> atomicOperations,
+      String key) {
+    return process(atomicOperations, key);
+  }
 }
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.clouddriver.cache
+
+import com.netflix.spectator.api.DefaultRegistry
+import com.netflix.spinnaker.cats.agent.Agent
+import com.netflix.spinnaker.cats.cluster.DefaultAgentIntervalProvider
+import spock.lang.Specification
+import spock.lang.Subject
+
+class AdaptiveAgentIntervalProviderSpec extends Specification {
+
+  def registry = new DefaultRegistry()
+  def properties = new AdaptiveAgentIntervalProperties(minMultiplier: 0.5, maxMultiplier: 4, step: 2)
+  def tracker = new AgentChangeTracker(properties)
+  def agent = Stub(Agent) {
+    getAgentType() >> 'account/region/agent'
+  }
+
+  @Subject
+  def provider = new AdaptiveAgentIntervalProvider(new DefaultAgentIntervalProvider(60000, 30000, 120000), tracker, registry)
+
+  def 'backs off quiet agents up to the ceiling'() {
+    when:
+    cycles.times { cycle(0, 100, 1000) }
+    def interval = provider.getInterval(agent)
+
+    then:
+    interval.interval == expectedInterval
+    interval.errorInterval == 30000
+    interval.timeout == 120000
+    registry.gauge(registry.createId('cats.agent.effectiveInterval', 'agent', 'account/region/agent')).value() == expectedInterval
+
+    where:
+    cycles || expectedInterval
+    0      || 60000
+    1      || 120000
+    2      || 240000
+    5      || 240000
+  }
+
+  def 'accelerates churning agents, but never beyond their execution time'() {
+    when:
+    cycle(50, 50, elapsedMs)
+    cycle(50, 50, elapsedMs)
+
+    then:
+    provider.getInterval(agent).interval == expectedInterval
+
+    where:
+    elapsedMs || expectedInterval
+    1000      || 30000
+    45000     || 45000
+    90000     || 60000
+  }
+
+  def 'leaves agents alone when no changes are reported or after failures'() {
+    when:
+    cycle(0, 0, 1000)
+
+    then:
+    provider.getInterval(agent).interval == 60000
+
+    when:
+    cycle(0, 100, 1000)
+    cycle(0, 100, 1000)
+    tracker.executionFailed(agent, new RuntimeException())
+
+    then:
+    provider.getInterval(agent).interval == 60000
+  }
+
+  def 'applies a cycle as soon as it completes'() {
+    when:
+    tracker.executionStarted(agent)
+    tracker.itemsStored(agent.agentType, 'instances', 0, 100)
+    tracker.executionCompleted(agent, 1000)
+
+    then:
+    provider.getInterval(agent).interval == 120000
+  }
+
+  def 'discards changes stored after a cycle completed'() {
+    when:
+    tracker.executionStarted(agent)
+    tracker.executionCompleted(agent, 1000)
+    tracker.itemsStored(agent.agentType, 'instances', 0, 100)
+    tracker.executionStarted(agent)
+    tracker.executionCompleted(agent, 1000)
+
+    then:
+    provider.getInterval(agent).interval == 60000
+  }
+
+  def 'shares multipliers between nodes through their store'() {
+    given:
+    def store = new InMemoryAgentIntervalStore()
+    def node1 = new AgentChangeTracker(properties, store)
+    def node2 = new AgentChangeTracker(properties, store)
+
+    when:
+    [node1, node2].each { node ->
+      node.executionStarted(agent)
+      node.itemsStored(agent.agentType, 'instances', 0, 100)
+      node.executionCompleted(agent, 1000)
+    }
+
+    then:
+    node1.getState(agent.agentType).multiplier == 4
+    node2.getState(agent.agentType).multiplier == 4
+  }
+
+  private void cycle(int itemsChanged, int itemsUnchanged, long elapsedMs) {
+    tracker.executionStarted(agent)
+    if (itemsChanged + itemsUnchanged > 0) {
+      tracker.itemsStored(agent.agentType, 'instances', itemsChanged, itemsUnchanged)
+    }
+    tracker.executionCompleted(agent, elapsedMs)
+  }
+}
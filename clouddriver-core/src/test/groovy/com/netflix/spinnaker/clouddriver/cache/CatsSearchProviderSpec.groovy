@@ -70,11 +70,53 @@ class CatsSearchProviderSpec extends Specification {
     catsSearchProvider.run()
 
     then:
-    catsSearchProvider.cachedIdentifiersByType.get() == [
-      "instances": instanceIdentifiers.collect { it.toLowerCase() }
+    catsSearchProvider.cachedIdentifiersByType.get().keySet() == ["instances"] as Set
+    catsSearchProvider.cachedIdentifiersByType.get().instances.keys() == instanceIdentifiers.collect { it.toLowerCase() } as Set
+  }
+
+  def "should incrementally update and search indexed instance identifiers"() {
+    given:
+    def identifiers = instanceIdentifiers
+    cache.getIdentifiers("instances") >> { return identifiers }
+
+    when:
+    catsSearchProvider.run()
+    identifiers = instanceIdentifiers.findAll { !it.endsWith("1234") } + ["aws:instances:prod:us-east-1:i-12345"]
+    catsSearchProvider.run()
+
+    then:
+    catsSearchProvider.cachedIdentifiersByType.get().instances.keys().size() == 5
+    catsSearchProvider.findMatches("i-123", ["instances"], [:]) == ["aws:instances:prod:us-east-1:i-12345"]
+    catsSearchProvider.findMatches("us-west-2:i-", ["instances"], [:]) == [
+      "aws:instances:prod:us-west-2:i-3456",
+      "aws:instances:prod:us-west-2:i-5678",
+      "aws:instances:prod:us-west-2:i-7890",
+      "aws:instances:prod:us-west-2:i-9012"
     ]
   }
 
+  def "should keep one trigram posting per distinct trigram of every instance key, up to their maximum size"() {
+    given:
+    cache.getIdentifiers("instances") >> { return instanceIdentifiers }
+    catsInMemorySearchProperties.maxTrigramPostings = maxTrigramPostings
+
+    when:
+    catsSearchProvider.run()
+
+    then:
+    catsSearchProvider.cachedIdentifiersByType.get().instances.postingsSize == postingsSize
+    catsSearchProvider.findMatches("i-56", ["instances"], [:]) == ["aws:instances:prod:us-west-2:i-5678"]
+
+    where:
+    maxTrigramPostings || postingsSize
+    5_000_000          || instanceIdentifiers.sum { trigrams(it.toLowerCase()).size() }
+    100                || 0
+  }
+
+  private static Set<String> trigrams(String key) {
+    return (0..key.length() - 3).collect { key.substring(it, it + 3) } as Set
+  }
+
   def "should handle unparseable instance identifiers"() {
     when:
     providers.clear()
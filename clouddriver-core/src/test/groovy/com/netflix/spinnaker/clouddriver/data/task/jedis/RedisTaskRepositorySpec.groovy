@@ -15,7 +15,9 @@
  */
 package com.netflix.spinnaker.clouddriver.data.task.jedis
 
-
+import com.netflix.spinnaker.clouddriver.core.ClouddriverHostname
+import com.netflix.spinnaker.clouddriver.data.task.DefaultTaskStatus
+import com.netflix.spinnaker.clouddriver.data.task.TaskState
 import com.netflix.spinnaker.kork.jedis.EmbeddedRedis
 import com.netflix.spinnaker.kork.jedis.JedisClientDelegate
 import redis.clients.jedis.Jedis
@@ -76,4 +78,27 @@ class RedisTaskRepositorySpec extends Specification {
     embeddedRedis1.destroy()
     embeddedRedis2.destroy()
   }
+
+  void "lists running tasks in batches and indexes them by owner"() {
+    given:
+    def tasks = (1..1200).collect { taskRepository.create("starting", "task $it") }
+    def otherTask = new JedisTask("other", System.currentTimeMillis(), taskRepository, "other-owner", "other", [] as Set, false)
+    taskRepository.set(otherTask.id, otherTask)
+    taskRepository.addToHistory(DefaultTaskStatus.create("starting", "other", TaskState.STARTED), otherTask)
+    tasks.take(100)*.complete()
+
+    when:
+    def running = taskRepository.list()
+    def runningByThisInstance = taskRepository.listByThisInstance()
+
+    then:
+    running*.id as Set == (tasks.drop(100)*.id + "other") as Set
+    runningByThisInstance*.id as Set == tasks.drop(100)*.id as Set
+    jedisPool.resource.withCloseable {
+      ((Jedis) it).smembers("kato:tasks:owner:" + ClouddriverHostname.ID)
+    } == tasks.drop(100)*.id as Set
+    jedisPool.resource.withCloseable {
+      ((Jedis) it).ttl("kato:tasks:owner:" + ClouddriverHostname.ID)
+    } > 0
+  }
 }
@@ -19,6 +19,7 @@ package com.netflix.spinnaker.clouddriver.orchestration
 import com.fasterxml.jackson.databind.ObjectMapper
 import com.netflix.spectator.api.NoopRegistry
 import com.netflix.spinnaker.clouddriver.config.ExceptionClassifierConfigurationProperties
+import com.netflix.spinnaker.clouddriver.config.OrchestrationExecutorConfigurationProperties
 import com.netflix.spinnaker.clouddriver.data.task.DefaultTask
 import com.netflix.spinnaker.clouddriver.data.task.SagaId
 import com.netflix.spinnaker.clouddriver.data.task.TaskRepository
@@ -35,6 +36,7 @@ import spock.lang.Specification
 import spock.lang.Subject
 import spock.lang.Unroll
 
+import java.util.concurrent.CountDownLatch
 import java.util.concurrent.TimeUnit
 
 class DefaultOrchestrationProcessorSpec extends Specification {
@@ -175,6 +177,43 @@ class DefaultOrchestrationProcessorSpec extends Specification {
     !context.getUser().isPresent()
   }
 
+  void "rejects orchestrations without creating their task when the bounded executor is full"() {
+    given:
+    def latch = new CountDownLatch(1)
+    processor = new DefaultOrchestrationProcessor(
+      taskRepository,
+      applicationContext,
+      new NoopRegistry(),
+      Optional.empty(),
+      new ObjectMapper(),
+      new ExceptionClassifier(new ExceptionClassifierConfigurationProperties(), dynamicConfigService),
+      contextProvider,
+      exceptionSummaryService,
+      new OrchestrationExecutorConfigurationProperties(
+        mode: OrchestrationExecutorConfigurationProperties.Mode.BOUNDED,
+        maxThreads: 1,
+        maxQueueSize: 0
+      )
+    )
+    def atomicOperation = Stub(AtomicOperation) {
+      operate(_) >> { latch.await(5, TimeUnit.SECONDS) }
+    }
+
+    when:
+    processor.process([atomicOperation], taskKey)
+    processor.process([atomicOperation], "other")
+
+    then:
+    1 * taskRepository.create(_, _, taskKey) >> new DefaultTask("1")
+    0 * taskRepository.create(_, _, "other")
+    thrown(OrchestrationSaturatedException)
+
+    cleanup:
+    latch.countDown()
+    processor.executorService.shutdown()
+    processor.executorService.awaitTermination(5, TimeUnit.SECONDS)
+  }
+
   private void submitAndWait(AtomicOperation atomicOp) {
     processor.process([atomicOp], taskKey)
     processor.executorService.shutdown()
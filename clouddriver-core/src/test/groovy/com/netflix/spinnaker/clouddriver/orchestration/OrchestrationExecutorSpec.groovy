@@ -0,0 +1,146 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.netflix.spinnaker.clouddriver.orchestration
+
+import com.netflix.spectator.api.DefaultRegistry
+import com.netflix.spinnaker.clouddriver.config.OrchestrationExecutorConfigurationProperties
+import spock.lang.Specification
+
+import java.util.concurrent.BlockingQueue
+import java.util.concurrent.Callable
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.LinkedBlockingQueue
+import java.util.concurrent.RejectedExecutionException
+import java.util.concurrent.TimeUnit
+
+class OrchestrationExecutorSpec extends Specification {
+
+  ExecutorService executorService = Executors.newCachedThreadPool()
+  BlockingQueue<String> started = new LinkedBlockingQueue<>()
+  CountDownLatch latch = new CountDownLatch(1)
+
+  def cleanup() {
+    latch.countDown()
+    executorService.shutdownNow()
+  }
+
+  void "should start priority orchestrations first and reject orchestrations once full"() {
+    given:
+    def executor = executor(new OrchestrationExecutorConfigurationProperties(maxThreads: 1, maxQueueSize: 2))
+
+    when:
+    executor.reserve("aws", "test", false).submit(orchestration("running", latch))
+    executor.reserve("aws", "test", false).submit(orchestration("deploy"))
+    executor.reserve("aws", "test", true).submit(orchestration("resize"))
+
+    then:
+    started.poll(5, TimeUnit.SECONDS) == "running"
+
+    when:
+    executor.reserve("aws", "test", true)
+
+    then:
+    thrown(OrchestrationSaturatedException)
+
+    when:
+    latch.countDown()
+
+    then:
+    started.poll(5, TimeUnit.SECONDS) == "resize"
+    started.poll(5, TimeUnit.SECONDS) == "deploy"
+  }
+
+  void "should hold orchestrations while their account is at its limit"() {
+    given:
+    def executor = executor(new OrchestrationExecutorConfigurationProperties(maxThreads: 2, maxConcurrentPerAccount: 1))
+
+    when:
+    executor.reserve("aws", "prod", false).submit(orchestration("prod-1", latch))
+    executor.reserve("aws", "prod", false).submit(orchestration("prod-2"))
+    executor.reserve("aws", "test", false).submit(orchestration("test-1"))
+
+    then:
+    started.poll(5, TimeUnit.SECONDS) == "prod-1"
+    started.poll(5, TimeUnit.SECONDS) == "test-1"
+    started.poll(100, TimeUnit.MILLISECONDS) == null
+
+    when:
+    latch.countDown()
+
+    then:
+    started.poll(5, TimeUnit.SECONDS) == "prod-2"
+  }
+
+  void "should give released reservations back"() {
+    given:
+    def executor = executor(new OrchestrationExecutorConfigurationProperties(maxThreads: 1, maxQueueSize: 0))
+
+    when:
+    executor.reserve("aws", "test", false).release()
+    executor.reserve("aws", "test", false).submit(orchestration("running"))
+
+    then:
+    started.poll(5, TimeUnit.SECONDS) == "running"
+  }
+
+  void "should keep an orchestration queued until the executor service accepts it"() {
+    given:
+    def rejections = 1
+    def rejectingExecutorService = Stub(ExecutorService) {
+      submit(_ as Callable) >> { Callable callable ->
+        if (rejections-- > 0) {
+          throw new RejectedExecutionException()
+        }
+        executorService.submit(callable)
+      }
+    }
+    def executor = new OrchestrationExecutor(
+      rejectingExecutorService,
+      new DefaultRegistry(),
+      new OrchestrationExecutorConfigurationProperties(maxThreads: 1, maxQueueSize: 1))
+
+    when:
+    executor.reserve("aws", "test", false).submit(orchestration("rejected"))
+
+    then:
+    notThrown(RejectedExecutionException)
+    started.poll(100, TimeUnit.MILLISECONDS) == null
+
+    when:
+    executor.reserve("aws", "test", false).submit(orchestration("next"))
+
+    then:
+    started.poll(5, TimeUnit.SECONDS) == "rejected"
+    started.poll(5, TimeUnit.SECONDS) == "next"
+  }
+
+
+
+  private OrchestrationExecutor executor(OrchestrationExecutorConfigurationProperties properties) {
+    return new OrchestrationExecutor(executorService, new DefaultRegistry(), properties)
+  }
+
+  private Callable<String> orchestration(String name, CountDownLatch latch = null) {
+    return {
+      started.add(name)
+      latch?.await(5, TimeUnit.SECONDS)
+      name
+    } as Callable<String>
+  }
+}
@@ -39,6 +39,19 @@ interface EventRepository {
    */
   fun save(aggregateType: String, aggregateId: String, originatingVersion: Long, newEvents: List<SpinnakerEvent>)
 
+  /**
+   * Save events to many [Aggregate]s at once. Each aggregate may only be appended to once per call.
+   *
+   * Implementations should save either all of [appends] or none of them, rejecting the whole call if any of the
+   * aggregates is not at its expected version. The default implementation saves each aggregate in turn, so
+   * aggregates that come before a rejected one are still saved.
+   *
+   * @param appends The events to save, by aggregate
+   */
+  fun saveAll(appends: List<AggregateEvents>) {
+    appends.forEach { save(it.aggregateType, it.aggregateId, it.originatingVersion, it.events) }
+  }
+
   /**
    * List all events for a given [Aggregate].
    *
@@ -69,6 +82,21 @@ interface EventRepository {
     val perPage: Int = 100
   )
 
+  /**
+   * Events to be saved to an [Aggregate] with [saveAll].
+   *
+   * @param aggregateType The aggregate collection name
+   * @param aggregateId The unique identifier of the event aggregate within the [aggregateType]
+   * @param originatingVersion The aggregate version that originated the [events]
+   * @param events A list of events to be saved
+   */
+  class AggregateEvents(
+    val aggregateType: String,
+    val aggregateId: String,
+    val originatingVersion: Long,
+    val events: List<SpinnakerEvent>
+  )
+
   /**
    * @param aggregates The collection of [Aggregate]s returned
    * @param nextPageToken The next page token
@@ -143,15 +143,63 @@ public class KubernetesCacheDataConverter {
   }
 
   public static KubernetesManifest getManifest(CacheData cacheData) {
-    return mapper.convertValue(cacheData.getAttributes().get("manifest"), KubernetesManifest.class);
+    return convertToManifest(cacheData.getAttributes().get("manifest"));
+  }
+
+  /**
+   * Returns the kind of the resource cached in {@code cacheData}, read from its kind attribute so
+   * that the manifest doesn't need to be converted.
+   */
+  public static KubernetesKind getKind(CacheData cacheData) {
+    Object kind = cacheData.getAttributes().get("kind");
+    if (kind instanceof KubernetesKind) {
+      return (KubernetesKind) kind;
+    }
+    if (kind instanceof String) {
+      return KubernetesKind.fromString((String) kind);
+    }
+    return getManifest(cacheData).getKind();
   }
 
   public static Moniker getMoniker(CacheData cacheData) {
     return mapper.convertValue(cacheData.getAttributes().get("moniker"), Moniker.class);
   }
 
+  /**
+   * Converts a cached manifest to a {@link KubernetesManifest}. Cached manifests are already trees
+   * of maps, lists and scalars, so they are deep-copied directly instead of being serialized and
+   * parsed back by Jackson; the result is the same, and callers still get their own copy.
+   */
   public static KubernetesManifest convertToManifest(Object o) {
-    return mapper.convertValue(o, KubernetesManifest.class);
+    if (!(o instanceof Map)) {
+      return mapper.convertValue(o, KubernetesManifest.class);
+    }
+    KubernetesManifest manifest = new KubernetesManifest();
+    ((Map<?, ?>) o).forEach((key, value) -> manifest.put(String.valueOf(key), copyJson(value)));
+    return manifest;
+  }
+
+  private static Object copyJson(Object value) {
+    if (value == null
+        || value instanceof String
+        || value instanceof Boolean
+        || value instanceof Integer
+        || value instanceof Long
+        || value instanceof Double) {
+      return value;
+    }
+    if (value instanceof Map) {
+      Map<String, Object> copy = new LinkedHashMap<>();
+      ((Map<?, ?>) value).forEach((k, v) -> copy.put(String.valueOf(k), copyJson(v)));
+      return copy;
+    }
+    if (value instanceof List) {
+      List<Object> copy = new ArrayList<>(((List<?>) value).size());
+      ((List<?>) value).forEach(v -> copy.add(copyJson(v)));
+      return copy;
+    }
+    // Let Jackson map anything else (e.g. other number types) the way it always has
+    return mapper.convertValue(value, Object.class);
   }
 
   public static <T> T getResource(Object manifest, Class<T> clazz) {
@@ -18,9 +18,12 @@
 package com.netflix.spinnaker.clouddriver.kubernetes.caching.agent;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.base.Strings;
+import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSetMultimap;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import com.netflix.spectator.api.Registry;
 import com.netflix.spinnaker.cats.agent.AccountAware;
 import com.netflix.spinnaker.cats.agent.AgentIntervalAware;
@@ -39,18 +42,31 @@ import com.netflix.spinnaker.clouddriver.kubernetes.description.manifest.Kuberne
 import com.netflix.spinnaker.clouddriver.kubernetes.description.manifest.KubernetesManifest;
 import com.netflix.spinnaker.clouddriver.kubernetes.description.manifest.KubernetesManifestAnnotater;
 import com.netflix.spinnaker.clouddriver.kubernetes.op.job.KubectlJobExecutor;
+import com.netflix.spinnaker.clouddriver.kubernetes.op.job.KubernetesApiClient;
 import com.netflix.spinnaker.clouddriver.kubernetes.security.KubernetesCredentials;
 import com.netflix.spinnaker.clouddriver.kubernetes.security.KubernetesNamedAccountCredentials;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import lombok.Getter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -58,6 +74,7 @@ import org.slf4j.LoggerFactory;
 public abstract class KubernetesCachingAgent
     implements AgentIntervalAware, CachingAgent, AccountAware {
   private static final Logger log = LoggerFactory.getLogger(KubernetesCachingAgent.class);
+  private static final Duration WATCH_IDLE_TIMEOUT = Duration.ofMinutes(10);
 
   @Getter @Nonnull protected final String accountName;
   protected final Registry registry;
@@ -72,6 +89,8 @@ public abstract class KubernetesCachingAgent
 
   @Getter protected final Long agentInterval;
 
+  private final Map<String, KubernetesResourceWatcher> watchers = new ConcurrentHashMap<>();
+
   protected KubernetesCachingAgent(
       KubernetesNamedAccountCredentials namedAccountCredentials,
       ObjectMapper objectMapper,
@@ -97,28 +116,135 @@ public abstract class KubernetesCachingAgent
 
   protected abstract List<KubernetesKind> primaryKinds();
 
-  private ImmutableList<KubernetesManifest> loadResources(
-      @Nonnull Iterable<KubernetesKind> kubernetesKinds, Optional<String> optionalNamespace) {
+  private void loadResources(
+      @Nonnull Iterable<KubernetesKind> kubernetesKinds,
+      Optional<String> optionalNamespace,
+      Consumer<KubernetesManifest> consumer) {
     String namespace = optionalNamespace.orElse(null);
-    return credentials.list(ImmutableList.copyOf(kubernetesKinds), namespace);
+    ImmutableList<KubernetesKind> kinds = ImmutableList.copyOf(kubernetesKinds);
+    if (credentials.isCacheWithWatch() && !kinds.isEmpty()) {
+      kinds = loadWatchedResources(kinds, namespace, consumer);
+      if (kinds.isEmpty()) {
+        return;
+      }
+    }
+    credentials.list(kinds, namespace, consumer);
   }
 
-  @Nonnull
-  private ImmutableList<KubernetesManifest> loadNamespaceScopedResources(
-      @Nonnull Iterable<KubernetesKind> kubernetesKinds) {
-    return getNamespaces().parallelStream()
-        .map(n -> loadResources(kubernetesKinds, Optional.of(n)))
-        .flatMap(Collection::stream)
-        .collect(ImmutableList.toImmutableList());
+  /**
+   * Reads resources from the snapshots maintained by watches, starting the watches that aren't
+   * running yet.
+   *
+   * <p>Watches only make reading incremental. The cache result is still built from every resource
+   * and is authoritative, since relationships and evictions are derived from the full set of
+   * resources. Each watch holds a thread for as long as it runs, so an account runs at most {@code
+   * cacheWatchLimit} of them and reads the remaining kinds and namespaces through kubectl.
+   *
+   * @return the kinds that couldn't be read from a watch, either because it isn't synced yet (e.g.
+   *     on the first cycle) or because the account reached its limit of watches
+   */
+  private ImmutableList<KubernetesKind> loadWatchedResources(
+      ImmutableList<KubernetesKind> kinds,
+      @Nullable String namespace,
+      Consumer<KubernetesManifest> consumer) {
+    Optional<KubernetesApiClient> client = credentials.getApiClient();
+    if (!client.isPresent()) {
+      return kinds;
+    }
+
+    ImmutableList.Builder<KubernetesKind> unwatched = ImmutableList.builder();
+    for (KubernetesKind kind : kinds) {
+      Optional<ImmutableList<KubernetesManifest>> snapshot =
+          watcher(client.get(), kind, namespace).flatMap(KubernetesResourceWatcher::snapshot);
+      if (snapshot.isPresent()) {
+        snapshot.get().forEach(consumer);
+      } else {
+        unwatched.add(kind);
+      }
+    }
+    return unwatched.build();
   }
 
-  @Nonnull
-  private ImmutableList<KubernetesManifest> loadClusterScopedResources(
-      @Nonnull Iterable<KubernetesKind> kubernetesKinds) {
+  /** @return the watcher of a kind and namespace, or empty if the account has too many of them */
+  private Optional<KubernetesResourceWatcher> watcher(
+      KubernetesApiClient client, KubernetesKind kind, @Nullable String namespace) {
+    Semaphore permits = credentials.getCacheWatchPermits();
+    return Optional.ofNullable(
+        watchers.compute(
+            kind + "/" + Strings.nullToEmpty(namespace),
+            (key, existing) -> {
+              if (existing != null && existing.isRunning()) {
+                return existing;
+              }
+              if (!permits.tryAcquire()) {
+                return null;
+              }
+              KubernetesResourceWatcher watcher =
+                  new KubernetesResourceWatcher(
+                      client,
+                      kind,
+                      namespace,
+                      accountName,
+                      registry,
+                      Clock.systemUTC(),
+                      WATCH_IDLE_TIMEOUT);
+              watcher.start(permits::release);
+              return watcher;
+            }));
+  }
+
+  /**
+   * Lists the namespaces of this agent concurrently, on an executor shared by all the caching
+   * agents of the account so that the load on its API server stays bounded.
+   */
+  private void loadNamespaceScopedResources(
+      @Nonnull Iterable<KubernetesKind> kubernetesKinds, Consumer<KubernetesManifest> consumer) {
+    ExecutorService executor = credentials.getNamespaceExecutor();
+    List<Future<?>> loads =
+        getNamespaces().stream()
+            .map(n -> executor.submit(() -> loadNamespace(kubernetesKinds, n, consumer)))
+            .collect(Collectors.toList());
+    try {
+      for (Future<?> load : loads) {
+        load.get();
+      }
+    } catch (ExecutionException e) {
+      Throwables.throwIfUnchecked(e.getCause());
+      throw new UncheckedExecutionException(e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while loading namespaces", e);
+    } finally {
+      // Don't start loading the remaining namespaces once one has failed
+      loads.forEach(load -> load.cancel(false));
+    }
+  }
+
+  private void loadNamespace(
+      @Nonnull Iterable<KubernetesKind> kubernetesKinds,
+      String namespace,
+      Consumer<KubernetesManifest> consumer) {
+    long startTime = registry.clock().monotonicTime();
+    boolean success = false;
+    try {
+      loadResources(kubernetesKinds, Optional.of(namespace), consumer);
+      success = true;
+    } finally {
+      registry
+          .timer(
+              registry
+                  .createId("kubernetes.cache.namespace")
+                  .withTag("account", accountName)
+                  .withTag("namespace", namespace)
+                  .withTag("success", Boolean.toString(success)))
+          .record(registry.clock().monotonicTime() - startTime, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  private void loadClusterScopedResources(
+      @Nonnull Iterable<KubernetesKind> kubernetesKinds, Consumer<KubernetesManifest> consumer) {
     if (handleClusterScopedResources()) {
-      return loadResources(kubernetesKinds, Optional.empty());
-    } else {
-      return ImmutableList.of();
+      loadResources(kubernetesKinds, Optional.empty(), consumer);
     }
   }
 
@@ -129,42 +255,27 @@ public abstract class KubernetesCachingAgent
                 k -> credentials.getKindProperties(k).getResourceScope(), Function.identity()));
   }
 
+  /**
+   * Lists the primary resources of this agent grouped by kind. Manifests are grouped as they are
+   * read, and those beyond the caching policy limit of their kind are dropped right away rather
+   * than once every namespace has been listed.
+   */
   protected Map<KubernetesKind, List<KubernetesManifest>> loadPrimaryResourceList() {
     ImmutableSetMultimap<ResourceScope, KubernetesKind> kindsByScope = primaryKindsByScope();
+    PrimaryResourceCollector collector =
+        new PrimaryResourceCollector(credentials.getCachingPolicies());
 
-    Map<KubernetesKind, List<KubernetesManifest>> result =
-        Stream.concat(
-                loadClusterScopedResources(
-                    kindsByScope.get(KubernetesKindProperties.ResourceScope.CLUSTER))
-                    .stream(),
-                loadNamespaceScopedResources(
-                    kindsByScope.get(KubernetesKindProperties.ResourceScope.NAMESPACE))
-                    .stream())
-            .collect(Collectors.groupingBy(KubernetesManifest::getKind));
-
-    for (KubernetesCachingPolicy policy : credentials.getCachingPolicies()) {
-      KubernetesKind policyKind = KubernetesKind.fromString(policy.getKubernetesKind());
-      if (!result.containsKey(policyKind)) {
-        continue;
-      }
-
-      List<KubernetesManifest> entries = result.get(policyKind);
-      if (entries == null) {
-        continue;
-      }
-
-      if (entries.size() > policy.getMaxEntriesPerAgent()) {
-        log.warn(
-            "{}: Pruning {} entries from kind {}",
-            getAgentType(),
-            entries.size() - policy.getMaxEntriesPerAgent(),
-            policyKind);
-        entries = entries.subList(0, policy.getMaxEntriesPerAgent());
-        result.put(policyKind, entries);
-      }
-    }
+    loadClusterScopedResources(
+        kindsByScope.get(KubernetesKindProperties.ResourceScope.CLUSTER), collector);
+    loadNamespaceScopedResources(
+        kindsByScope.get(KubernetesKindProperties.ResourceScope.NAMESPACE), collector);
 
-    return result;
+    collector
+        .getPruned()
+        .forEach(
+            (kind, count) ->
+                log.warn("{}: Pruning {} entries from kind {}", getAgentType(), count, kind));
+    return collector.getResources();
   }
 
   /**
@@ -278,4 +389,67 @@ public abstract class KubernetesCachingAgent
     return String.format(
         "%s/%s[%d/%d]", accountName, this.getClass().getSimpleName(), agentIndex + 1, agentCount);
   }
+
+  /**
+   * Groups manifests by kind as they are listed, possibly from several namespaces at once, keeping
+   * at most the number of entries allowed by the caching policy of each kind.
+   *
+   * <p>Namespaces are listed in parallel, so manifests arrive in no particular order. Limited kinds
+   * keep the first entries by namespace and name, which are the same on every run whatever the
+   * arrival order; at most the limit plus one entry is held for them at any time.
+   */
+  private static class PrimaryResourceCollector implements Consumer<KubernetesManifest> {
+    private static final Comparator<KubernetesManifest> PRUNE_ORDER =
+        Comparator.comparing((KubernetesManifest m) -> Strings.nullToEmpty(m.getNamespace()))
+            .thenComparing(m -> Strings.nullToEmpty(m.getName()));
+
+    private final Map<KubernetesKind, Integer> maxEntries = new HashMap<>();
+    private final Map<KubernetesKind, List<KubernetesManifest>> resources = new HashMap<>();
+    private final Map<KubernetesKind, PriorityQueue<KubernetesManifest>> limitedResources =
+        new HashMap<>();
+    private final Map<KubernetesKind, Integer> pruned = new HashMap<>();
+
+    PrimaryResourceCollector(List<KubernetesCachingPolicy> policies) {
+      for (KubernetesCachingPolicy policy : policies) {
+        maxEntries.merge(
+            KubernetesKind.fromString(policy.getKubernetesKind()),
+            policy.getMaxEntriesPerAgent(),
+            Math::min);
+      }
+    }
+
+    @Override
+    public synchronized void accept(KubernetesManifest manifest) {
+      KubernetesKind kind = manifest.getKind();
+      Integer max = maxEntries.get(kind);
+      if (max == null) {
+        resources.computeIfAbsent(kind, k -> new ArrayList<>()).add(manifest);
+        return;
+      }
+
+      // Ordered last-first, so that the entry to prune is at the head
+      PriorityQueue<KubernetesManifest> entries =
+          limitedResources.computeIfAbsent(kind, k -> new PriorityQueue<>(PRUNE_ORDER.reversed()));
+      entries.add(manifest);
+      if (entries.size() > max) {
+        entries.poll();
+        pruned.merge(kind, 1, Integer::sum);
+      }
+    }
+
+    synchronized Map<KubernetesKind, List<KubernetesManifest>> getResources() {
+      Map<KubernetesKind, List<KubernetesManifest>> result = new HashMap<>(resources);
+      limitedResources.forEach(
+          (kind, entries) -> {
+            List<KubernetesManifest> sorted = new ArrayList<>(entries);
+            sorted.sort(PRUNE_ORDER);
+            result.put(kind, sorted);
+          });
+      return result;
+    }
+
+    synchronized Map<KubernetesKind, Integer> getPruned() {
+      return pruned;
+    }
+  }
 }
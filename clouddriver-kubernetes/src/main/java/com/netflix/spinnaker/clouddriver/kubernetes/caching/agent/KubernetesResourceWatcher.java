@@ -0,0 +1,288 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.netflix.spinnaker.clouddriver.kubernetes.caching.agent;
+
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
+import com.netflix.spectator.api.Id;
+import com.netflix.spectator.api.Registry;
+import com.netflix.spinnaker.clouddriver.kubernetes.description.manifest.KubernetesKind;
+import com.netflix.spinnaker.clouddriver.kubernetes.description.manifest.KubernetesManifest;
+import com.netflix.spinnaker.clouddriver.kubernetes.op.job.KubernetesApiClient;
+import com.netflix.spinnaker.clouddriver.kubernetes.op.job.KubernetesApiClient.ResourceExpiredException;
+import com.netflix.spinnaker.clouddriver.kubernetes.op.job.KubernetesApiClient.ResourceList;
+import com.netflix.spinnaker.clouddriver.kubernetes.op.job.KubernetesApiClient.UnauthorizedException;
+import com.netflix.spinnaker.clouddriver.kubernetes.op.job.KubernetesApiClient.Watch;
+import com.netflix.spinnaker.clouddriver.kubernetes.op.job.KubernetesApiClient.WatchEvent;
+import java.io.Closeable;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps an up-to-date snapshot of the resources of one kind in one namespace (or of one
+ * cluster-scoped kind), by listing them once and then applying the changes streamed by a watch
+ * from the listed resource version.
+ *
+ * <p>The resources are listed again whenever the API server no longer has the history to resume
+ * the watch (HTTP 410 Gone), and after any other failure. Consecutive failures, such as credentials
+ * the API server keeps rejecting, back off exponentially up to {@link #MAX_ERROR_BACKOFF}. While a
+ * list is pending, {@link #snapshot()} is empty so that callers fall back to reading through
+ * kubectl.
+ *
+ * <p>The watcher stops by itself once its snapshot hasn't been read for {@code idleTimeout}, which
+ * happens when its caching agent is no longer scheduled on this instance.
+ */
+class KubernetesResourceWatcher implements Closeable {
+  private static final Logger log = LoggerFactory.getLogger(KubernetesResourceWatcher.class);
+  private static final int WATCH_TIMEOUT_SECONDS = 300;
+  private static final Duration ERROR_BACKOFF = Duration.ofSeconds(5);
+  private static final Duration MAX_ERROR_BACKOFF = Duration.ofMinutes(5);
+
+  private final KubernetesApiClient client;
+  private final KubernetesKind kind;
+  @Nullable private final String namespace;
+  private final String accountName;
+  private final Registry registry;
+  private final Clock clock;
+  private final Duration idleTimeout;
+  private final Duration initialBackoff;
+  private final Thread thread;
+  private final CountDownLatch closed = new CountDownLatch(1);
+  private Runnable onStop = () -> {};
+
+  private final Map<String, KubernetesManifest> resources = new ConcurrentHashMap<>();
+  private volatile boolean synced = false;
+  private volatile boolean running = true;
+  private volatile long lastReadMillis;
+  @Nullable private volatile Watch currentWatch;
+  @Nullable private String resourceVersion;
+  private Duration backoff;
+
+  KubernetesResourceWatcher(
+      KubernetesApiClient client,
+      KubernetesKind kind,
+      @Nullable String namespace,
+      String accountName,
+      Registry registry,
+      Clock clock,
+      Duration idleTimeout) {
+    this(client, kind, namespace, accountName, registry, clock, idleTimeout, ERROR_BACKOFF);
+  }
+
+  /** @param initialBackoff how long to wait after a first failure, doubled on each one after it */
+  KubernetesResourceWatcher(
+      KubernetesApiClient client,
+      KubernetesKind kind,
+      @Nullable String namespace,
+      String accountName,
+      Registry registry,
+      Clock clock,
+      Duration idleTimeout,
+      Duration initialBackoff) {
+    this.client = client;
+    this.kind = kind;
+    this.namespace = namespace;
+    this.accountName = accountName;
+    this.registry = registry;
+    this.clock = clock;
+    this.idleTimeout = idleTimeout;
+    this.initialBackoff = initialBackoff;
+    this.backoff = initialBackoff;
+    this.lastReadMillis = clock.millis();
+    this.thread =
+        new Thread(
+            this::run,
+            String.format(
+                "KubernetesResourceWatcher-%s-%s-%s",
+                accountName, kind, Strings.isNullOrEmpty(namespace) ? "cluster" : namespace));
+    this.thread.setDaemon(true);
+  }
+
+  void start() {
+    thread.start();
+  }
+
+  /** Starts the watcher, running {@code onStop} on its thread once it stopped. */
+  void start(Runnable onStop) {
+    this.onStop = onStop;
+    thread.start();
+  }
+
+  /** @return false once the watcher stopped, either closed or idle */
+  boolean isRunning() {
+    return running;
+  }
+
+  /**
+   * @return the current resources, or empty while they are being listed or if the last attempt to
+   *     watch them failed
+   */
+  Optional<ImmutableList<KubernetesManifest>> snapshot() {
+    lastReadMillis = clock.millis();
+    if (!synced) {
+      return Optional.empty();
+    }
+    return Optional.of(ImmutableList.copyOf(resources.values()));
+  }
+
+  @Override
+  public void close() {
+    running = false;
+    closed.countDown();
+    Watch watch = currentWatch;
+    if (watch != null) {
+      watch.close();
+    }
+  }
+
+  private void run() {
+    while (running) {
+      if (clock.millis() - lastReadMillis > idleTimeout.toMillis()) {
+        log.info("Stopping idle watch of {} in account {}", describe(), accountName);
+        running = false;
+        break;
+      }
+
+      try {
+        if (resourceVersion == null) {
+          relist();
+        }
+        watch();
+      } catch (ResourceExpiredException e) {
+        log.debug("Resource version of {} expired, listing again", describe());
+        synced = false;
+        resourceVersion = null;
+      } catch (RuntimeException e) {
+        if (!running) {
+          break;
+        }
+        if (e instanceof UnauthorizedException) {
+          // Repeats until the account's credentials are fixed, so the stack trace adds nothing
+          log.warn(
+              "Credentials of account {} were rejected while watching {}, retrying in {}s: {}",
+              accountName,
+              describe(),
+              backoff.getSeconds(),
+              e.getMessage());
+        } else {
+          log.warn(
+              "Failed to watch {} in account {}, retrying in {}s",
+              describe(),
+              accountName,
+              backoff.getSeconds(),
+              e);
+        }
+        registry.counter(id("kubernetes.watch.failures")).increment();
+        synced = false;
+        resourceVersion = null;
+        sleep(backoff);
+        backoff = backoff.multipliedBy(2);
+        if (backoff.compareTo(MAX_ERROR_BACKOFF) > 0) {
+          backoff = MAX_ERROR_BACKOFF;
+        }
+      }
+    }
+    synced = false;
+    resources.clear();
+    onStop.run();
+  }
+
+  private void relist() {
+    synced = false;
+    registry.counter(id("kubernetes.watch.lists")).increment();
+    ResourceList list = client.list(kind, namespace);
+
+    Map<String, KubernetesManifest> listed = new HashMap<>();
+    list.getItems().forEach(m -> listed.put(key(m), m));
+    resources.keySet().retainAll(listed.keySet());
+    resources.putAll(listed);
+    resourceVersion = list.getResourceVersion();
+    synced = true;
+    backoff = initialBackoff;
+  }
+
+  private void watch() {
+    try (Watch watch = client.watch(kind, namespace, resourceVersion, WATCH_TIMEOUT_SECONDS)) {
+      currentWatch = watch;
+      if (!running) {
+        return;
+      }
+
+      WatchEvent event;
+      while (running && (event = watch.next()) != null) {
+        apply(event);
+      }
+    } finally {
+      currentWatch = null;
+    }
+  }
+
+  private void apply(WatchEvent event) {
+    KubernetesManifest manifest = event.getObject();
+    switch (event.getType()) {
+      case ADDED:
+      case MODIFIED:
+        resources.put(key(manifest), manifest);
+        break;
+      case DELETED:
+        resources.remove(key(manifest));
+        break;
+      default:
+        break;
+    }
+
+    String version = manifest.getResourceVersion();
+    if (!Strings.isNullOrEmpty(version)) {
+      resourceVersion = version;
+    }
+    registry
+        .counter(id("kubernetes.watch.events").withTag("type", event.getType().toString()))
+        .increment();
+  }
+
+  private static String key(KubernetesManifest manifest) {
+    return manifest.getNamespace() + "/" + manifest.getName();
+  }
+
+  private Id id(String name) {
+    return registry.createId(name).withTag("account", accountName).withTag("kind", kind.toString());
+  }
+
+  private String describe() {
+    return Strings.isNullOrEmpty(namespace) ? kind.toString() : kind + " in " + namespace;
+  }
+
+  /** Waits for {@code duration}, or until the watcher is closed. */
+  private void sleep(Duration duration) {
+    try {
+      closed.await(duration.toMillis(), TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      running = false;
+    }
+  }
+}
@@ -26,6 +26,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableMultimap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Multimaps;
 import com.netflix.spinnaker.cats.cache.Cache;
@@ -41,7 +42,9 @@ import com.netflix.spinnaker.clouddriver.kubernetes.description.manifest.Kuberne
 import com.netflix.spinnaker.clouddriver.kubernetes.op.handler.KubernetesHandler;
 import com.netflix.spinnaker.kork.annotations.NonnullByDefault;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
@@ -153,6 +156,30 @@ class KubernetesCacheUtils {
     return result.build();
   }
 
+  /**
+   * Gets the data for all relationships of several Spinnaker kinds for a collection of CacheData
+   * items, grouped by kind. This loads one hop of a view's relationship graph: each relationship
+   * type is fetched once for all items and kinds, with its keys deduplicated, so the number of
+   * calls to the cache depends neither on the number of items nor on how many kinds share a type.
+   */
+  ImmutableMap<SpinnakerKind, ImmutableMultimap<String, CacheData>> getRelationships(
+      Collection<CacheData> cacheData, Collection<SpinnakerKind> spinnakerKinds) {
+    Map<String, Multimap<String, CacheData>> byType = new HashMap<>();
+    ImmutableMap.Builder<SpinnakerKind, ImmutableMultimap<String, CacheData>> result =
+        ImmutableMap.builder();
+    for (SpinnakerKind spinnakerKind : ImmutableSet.copyOf(spinnakerKinds)) {
+      ImmutableListMultimap.Builder<String, CacheData> relationships =
+          ImmutableListMultimap.builder();
+      relationshipTypes(spinnakerKind)
+          .forEach(
+              type ->
+                  relationships.putAll(
+                      byType.computeIfAbsent(type, t -> getRelationships(cacheData, t))));
+      result.put(spinnakerKind, relationships.build());
+    }
+    return result.build();
+  }
+
   /** Gets the data for all relationships of a given type for a collection of CacheData items. */
   private Multimap<String, CacheData> getRelationships(
       Collection<CacheData> cacheData, String type) {
@@ -160,11 +187,11 @@ class KubernetesCacheUtils {
 
     // Prefetch the cache data for all relationships. This is to avoid making a separate call
     // the cache for each of the source items.
-    // Note that relKeys.values() is not deduplicated; we'll defer to the cache implementation
-    // to decide whether it's worth deduplicating before fetching data. In the event that we
-    // do get back duplicates, we'll just keep the first for each key.
+    // Source items often share relationships (e.g. server groups behind the same load balancer),
+    // so deduplicate the keys rather than have the cache fetch the same entry several times. In
+    // the event that we do get back duplicates, we'll just keep the first for each key.
     ImmutableMap<String, CacheData> relData =
-        cache.getAll(type, relKeys.values()).stream()
+        cache.getAll(type, ImmutableSet.copyOf(relKeys.values())).stream()
             .collect(toImmutableMap(CacheData::getId, cd -> cd, (cd1, cd2) -> cd1));
 
     // Note that the filterValues here is important to handle race conditions where a relationship
@@ -210,10 +237,7 @@ class KubernetesCacheUtils {
   KubernetesHandler getHandler(KubernetesCacheData cacheData) {
     Keys.InfrastructureCacheKey key =
         (Keys.InfrastructureCacheKey) Keys.parseKey(cacheData.primaryData().getId()).get();
-    // TODO(ezimanyi): The kind is also stored directly on the cache data; get it from there instead
-    // of reading it from the manifest.
-    KubernetesKind kind =
-        KubernetesCacheDataConverter.getManifest(cacheData.primaryData()).getKind();
+    KubernetesKind kind = KubernetesCacheDataConverter.getKind(cacheData.primaryData());
     return resourcePropertyResolver
         .getResourcePropertyRegistry(key.getAccount())
         .get(kind)
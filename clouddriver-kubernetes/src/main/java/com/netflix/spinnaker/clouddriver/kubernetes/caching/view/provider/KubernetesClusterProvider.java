@@ -17,6 +17,7 @@
 
 package com.netflix.spinnaker.clouddriver.kubernetes.caching.view.provider;
 
+import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.collect.ImmutableMap.toImmutableMap;
 import static com.google.common.collect.ImmutableSet.toImmutableSet;
 import static com.netflix.spinnaker.clouddriver.kubernetes.caching.Keys.LogicalKind.APPLICATIONS;
@@ -40,6 +41,7 @@ import com.netflix.spinnaker.clouddriver.kubernetes.caching.view.model.Kubernete
 import com.netflix.spinnaker.clouddriver.kubernetes.caching.view.model.KubernetesLoadBalancer;
 import com.netflix.spinnaker.clouddriver.kubernetes.caching.view.model.KubernetesServerGroup;
 import com.netflix.spinnaker.clouddriver.kubernetes.caching.view.provider.data.KubernetesServerGroupCacheData;
+import com.netflix.spinnaker.clouddriver.kubernetes.description.SpinnakerKind;
 import com.netflix.spinnaker.clouddriver.kubernetes.op.handler.KubernetesHandler;
 import com.netflix.spinnaker.clouddriver.kubernetes.op.handler.ServerGroupHandler;
 import com.netflix.spinnaker.clouddriver.model.ClusterProvider;
@@ -158,15 +160,33 @@ public class KubernetesClusterProvider implements ClusterProvider<KubernetesClus
     ImmutableMultimap<String, CacheData> clusterToServerGroups =
         cacheUtils.getRelationships(clusterData, SERVER_GROUPS);
 
+    // Load the instances and load balancers of the server groups of all clusters at once, so that
+    // the number of calls to the cache doesn't grow with the number of clusters.
+    ImmutableList<CacheData> allServerGroupData =
+        clusterToServerGroups.values().stream()
+            .filter(cacheUtils.distinctById())
+            .collect(toImmutableList());
+    ImmutableMap<SpinnakerKind, ImmutableMultimap<String, CacheData>> serverGroupRelationships =
+        cacheUtils.getRelationships(
+            allServerGroupData, ImmutableList.of(INSTANCES, LOAD_BALANCERS));
+    ImmutableMap<String, KubernetesServerGroup> allServerGroups =
+        loadServerGroups(allServerGroupData, serverGroupRelationships.get(INSTANCES));
+    ImmutableMultimap<String, CacheData> serverGroupToLoadBalancers =
+        serverGroupRelationships.get(LOAD_BALANCERS);
+
     return clusterData.stream()
         .map(
             clusterDatum -> {
               ImmutableCollection<CacheData> clusterServerGroups =
                   clusterToServerGroups.get(clusterDatum.getId());
               ImmutableMap<String, KubernetesServerGroup> serverGroups =
-                  loadServerGroups(clusterServerGroups);
+                  clusterServerGroups.stream()
+                      .map(CacheData::getId)
+                      .distinct()
+                      .collect(toImmutableMap(id -> id, allServerGroups::get));
               List<KubernetesLoadBalancer> loadBalancers =
-                  cacheUtils.getRelationships(clusterServerGroups, LOAD_BALANCERS).values().stream()
+                  clusterServerGroups.stream()
+                      .flatMap(sg -> serverGroupToLoadBalancers.get(sg.getId()).stream())
                       .filter(cacheUtils.distinctById())
                       .map(
                           cd ->
@@ -187,9 +207,14 @@ public class KubernetesClusterProvider implements ClusterProvider<KubernetesClus
   }
 
   private ImmutableMap<String, KubernetesServerGroup> loadServerGroups(
-      ImmutableCollection<CacheData> serverGroupData) {
-    ImmutableMultimap<String, CacheData> serverGroupToInstances =
-        cacheUtils.getRelationships(serverGroupData, INSTANCES);
+      Collection<CacheData> serverGroupData) {
+    return loadServerGroups(
+        serverGroupData, cacheUtils.getRelationships(serverGroupData, INSTANCES));
+  }
+
+  private ImmutableMap<String, KubernetesServerGroup> loadServerGroups(
+      Collection<CacheData> serverGroupData,
+      ImmutableMultimap<String, CacheData> serverGroupToInstances) {
     return serverGroupData.stream()
         .collect(
             toImmutableMap(
@@ -26,6 +26,8 @@ import lombok.Data;
 @Data
 public class KubernetesConfigurationProperties {
   private static final int DEFAULT_CACHE_THREADS = 1;
+  private static final int DEFAULT_CACHE_NAMESPACE_CONCURRENCY = 4;
+  private static final int DEFAULT_CACHE_WATCH_LIMIT = 100;
   private List<ManagedAccount> accounts = new ArrayList<>();
 
   @Data
@@ -44,6 +46,7 @@ public class KubernetesConfigurationProperties {
     private List<String> namespaces = new ArrayList<>();
     private List<String> omitNamespaces = new ArrayList<>();
     private int cacheThreads = DEFAULT_CACHE_THREADS;
+    private int cacheNamespaceConcurrency = DEFAULT_CACHE_NAMESPACE_CONCURRENCY;
     private List<String> requiredGroupMembership = new ArrayList<>();
     private Permissions.Builder permissions = new Permissions.Builder();
     private String namingStrategy = "kubernetesAnnotations";
@@ -56,6 +59,9 @@ public class KubernetesConfigurationProperties {
     private List<String> omitKinds = new ArrayList<>();
     private boolean onlySpinnakerManaged = false;
     private Long cacheIntervalSeconds;
+    private boolean cacheWithWatch = false;
+    private int cacheWatchLimit = DEFAULT_CACHE_WATCH_LIMIT;
+    private boolean readWithApiClient = false;
 
     public void validate() {
       if (Strings.isNullOrEmpty(name)) {
@@ -30,6 +30,7 @@ import com.netflix.spinnaker.clouddriver.jobs.local.ReaderConsumer;
 import com.netflix.spinnaker.clouddriver.kubernetes.description.JsonPatch;
 import com.netflix.spinnaker.clouddriver.kubernetes.description.KubernetesPatchOptions;
 import com.netflix.spinnaker.clouddriver.kubernetes.description.KubernetesPodMetric;
+import com.netflix.spinnaker.clouddriver.kubernetes.description.manifest.KubernetesApiGroup;
 import com.netflix.spinnaker.clouddriver.kubernetes.description.manifest.KubernetesKind;
 import com.netflix.spinnaker.clouddriver.kubernetes.description.manifest.KubernetesManifest;
 import com.netflix.spinnaker.clouddriver.kubernetes.security.KubernetesCredentials;
@@ -40,6 +41,8 @@ import java.io.ByteArrayInputStream;
 import java.io.EOFException;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -55,6 +58,8 @@ import org.springframework.stereotype.Component;
 public class KubectlJobExecutor {
   private static final Logger log = LoggerFactory.getLogger(KubectlJobExecutor.class);
   private static final String NOT_FOUND_STRING = "(NotFound)";
+  private static final KubernetesKind POD_METRICS =
+      KubernetesKind.from("PodMetrics", KubernetesApiGroup.fromString("metrics.k8s.io"));
   private final JobExecutor jobExecutor;
   private final String executable;
   private final String oAuthExecutable;
@@ -345,6 +350,11 @@ public class KubectlJobExecutor {
   @Nullable
   public KubernetesManifest get(
       KubernetesCredentials credentials, KubernetesKind kind, String namespace, String name) {
+    Optional<KubernetesApiClient> apiClient = credentials.getReadApiClient();
+    if (apiClient.isPresent()) {
+      return apiClient.get().get(kind, namespace, name);
+    }
+
     List<String> command = kubectlNamespacedGet(credentials, ImmutableList.of(kind), namespace);
     command.add(name);
 
@@ -369,13 +379,20 @@ public class KubectlJobExecutor {
   @Nonnull
   public ImmutableList<KubernetesManifest> eventsFor(
       KubernetesCredentials credentials, KubernetesKind kind, String namespace, String name) {
+    String fieldSelector =
+        String.format(
+            "involvedObject.name=%s,involvedObject.kind=%s",
+            name, StringUtils.capitalize(kind.toString()));
+
+    Optional<KubernetesApiClient> apiClient = credentials.getReadApiClient();
+    if (apiClient.isPresent()) {
+      return apiClient.get().list(KubernetesKind.EVENT, namespace, null, fieldSelector).getItems();
+    }
+
     List<String> command =
         kubectlNamespacedGet(credentials, ImmutableList.of(KubernetesKind.EVENT), namespace);
     command.add("--field-selector");
-    command.add(
-        String.format(
-            "involvedObject.name=%s,involvedObject.kind=%s",
-            name, StringUtils.capitalize(kind.toString())));
+    command.add(fieldSelector);
 
     JobResult<ImmutableList<KubernetesManifest>> status =
         jobExecutor.runJob(new JobRequest(command), parseManifestList());
@@ -398,23 +415,57 @@ public class KubectlJobExecutor {
       List<KubernetesKind> kinds,
       String namespace,
       KubernetesSelectorList selectors) {
+    ImmutableList.Builder<KubernetesManifest> result = ImmutableList.builder();
+    list(credentials, kinds, namespace, selectors, result::add);
+    return result.build();
+  }
+
+  /**
+   * Lists resources, passing each manifest to {@code consumer} as soon as it is read rather than
+   * collecting them, so that callers only hold on to the manifests they keep. If listing fails,
+   * {@code consumer} may already have been passed some of the manifests.
+   *
+   * @return the number of manifests passed to {@code consumer}
+   */
+  public int list(
+      KubernetesCredentials credentials,
+      List<KubernetesKind> kinds,
+      String namespace,
+      KubernetesSelectorList selectors,
+      Consumer<KubernetesManifest> consumer) {
+    Optional<KubernetesApiClient> apiClient = credentials.getReadApiClient();
+    if (apiClient.isPresent()) {
+      String labelSelector = selectors.isNotEmpty() ? selectors.toString() : null;
+      AtomicInteger count = new AtomicInteger();
+      for (KubernetesKind kind : kinds) {
+        apiClient
+            .get()
+            .list(
+                kind,
+                namespace,
+                labelSelector,
+                null,
+                m -> {
+                  count.incrementAndGet();
+                  consumer.accept(m);
+                });
+      }
+      return count.get();
+    }
+
     List<String> command = kubectlNamespacedGet(credentials, kinds, namespace);
     if (selectors.isNotEmpty()) {
       command.add("-l=" + selectors.toString());
     }
 
-    JobResult<ImmutableList<KubernetesManifest>> status =
-        jobExecutor.runJob(new JobRequest(command), parseManifestList());
+    JobResult<Integer> status =
+        jobExecutor.runJob(new JobRequest(command), streamManifestList(consumer));
 
     if (status.getResult() != JobResult.Result.SUCCESS) {
       throw new KubectlException(
           "Failed to read " + kinds + " from " + namespace + ": " + status.getError());
     }
 
-    if (status.getError().contains("No resources found")) {
-      return ImmutableList.of();
-    }
-
     return status.getOutput();
   }
 
@@ -605,6 +656,11 @@ public class KubectlJobExecutor {
 
   public ImmutableList<KubernetesPodMetric> topPod(
       KubernetesCredentials credentials, String namespace, @Nonnull String pod) {
+    Optional<KubernetesApiClient> apiClient = credentials.getReadApiClient();
+    if (apiClient.isPresent()) {
+      return topPod(credentials, apiClient.get(), namespace, pod);
+    }
+
     List<String> command = kubectlNamespacedAuthPrefix(credentials, namespace);
     command.add("top");
     command.add("po");
@@ -626,8 +682,35 @@ public class KubectlJobExecutor {
       throw new KubectlException("Could not read metrics: " + status.getError());
     }
 
-    ImmutableSetMultimap<String, KubernetesPodMetric.ContainerMetric> metrics =
-        MetricParser.parseMetrics(status.getOutput());
+    return toPodMetrics(namespace, MetricParser.parseMetrics(status.getOutput()));
+  }
+
+  private ImmutableList<KubernetesPodMetric> topPod(
+      KubernetesCredentials credentials,
+      KubernetesApiClient apiClient,
+      String namespace,
+      String pod) {
+    if (!apiClient.serves(POD_METRICS)) {
+      log.warn(
+          "Error fetching metrics for account {}: the metrics API is not available",
+          credentials.getAccountName());
+      return ImmutableList.of();
+    }
+
+    List<KubernetesManifest> podMetrics;
+    if (pod.isEmpty()) {
+      podMetrics = apiClient.list(POD_METRICS, namespace).getItems();
+    } else {
+      podMetrics =
+          Optional.ofNullable(apiClient.get(POD_METRICS, namespace, pod))
+              .map(ImmutableList::of)
+              .orElseGet(ImmutableList::of);
+    }
+    return toPodMetrics(namespace, MetricParser.parsePodMetrics(podMetrics));
+  }
+
+  private static ImmutableList<KubernetesPodMetric> toPodMetrics(
+      String namespace, ImmutableSetMultimap<String, KubernetesPodMetric.ContainerMetric> metrics) {
     return metrics.asMap().entrySet().stream()
         .map(
             podMetrics ->
@@ -704,21 +787,33 @@ public class KubectlJobExecutor {
   }
 
   private ReaderConsumer<ImmutableList<KubernetesManifest>> parseManifestList() {
+    return (@WillClose BufferedReader r) -> {
+      ImmutableList.Builder<KubernetesManifest> manifestList = new ImmutableList.Builder<>();
+      streamManifestList(manifestList::add).consume(r);
+      return manifestList.build();
+    };
+  }
+
+  /**
+   * Reads the items of a kubectl list one at a time, passing each to {@code consumer} before
+   * reading the next one.
+   */
+  private ReaderConsumer<Integer> streamManifestList(Consumer<KubernetesManifest> consumer) {
     return (@WillClose BufferedReader r) -> {
       try (JsonReader reader = new JsonReader(r)) {
         try {
           reader.beginObject();
         } catch (EOFException e) {
-          // If the stream we're parsing is empty, just return an empty list
-          return ImmutableList.of();
+          // If the stream we're parsing is empty, there are no manifests to pass on
+          return 0;
         }
-        ImmutableList.Builder<KubernetesManifest> manifestList = new ImmutableList.Builder<>();
+        int count = 0;
         while (reader.hasNext()) {
           if (reader.nextName().equals("items")) {
             reader.beginArray();
             while (reader.hasNext()) {
-              KubernetesManifest manifest = gson.fromJson(reader, KubernetesManifest.class);
-              manifestList.add(manifest);
+              consumer.accept(gson.fromJson(reader, KubernetesManifest.class));
+              count++;
             }
             reader.endArray();
           } else {
@@ -726,7 +821,7 @@ public class KubectlJobExecutor {
           }
         }
         reader.endObject();
-        return manifestList.build();
+        return count;
       } catch (IllegalStateException | JsonSyntaxException e) {
         // An IllegalStageException is thrown when we call beginObject, nextName(), etc. and the
         // next token is not what we are asserting it to be. A JsonSyntaxException is thrown when
@@ -0,0 +1,697 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.netflix.spinnaker.clouddriver.kubernetes.op.job;
+
+import com.google.common.base.Strings;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.gson.Gson;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.annotations.SerializedName;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.netflix.spinnaker.clouddriver.kubernetes.description.manifest.KubernetesApiGroup;
+import com.netflix.spinnaker.clouddriver.kubernetes.description.manifest.KubernetesKind;
+import com.netflix.spinnaker.clouddriver.kubernetes.description.manifest.KubernetesManifest;
+import com.netflix.spinnaker.clouddriver.kubernetes.op.job.KubectlJobExecutor.KubectlException;
+import com.netflix.spinnaker.clouddriver.kubernetes.op.job.KubectlJobExecutor.KubectlNotFoundException;
+import com.netflix.spinnaker.clouddriver.kubernetes.security.KubernetesCredentials;
+import io.kubernetes.client.openapi.ApiClient;
+import io.kubernetes.client.openapi.auth.ApiKeyAuth;
+import io.kubernetes.client.openapi.auth.Authentication;
+import io.kubernetes.client.util.ClientBuilder;
+import io.kubernetes.client.util.KubeConfig;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import lombok.Value;
+import okhttp3.Call;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/**
+ * Reads resources directly from the Kubernetes API server of an account, without going through
+ * kubectl.
+ *
+ * <p>Connections are pooled for the lifetime of the client. Kinds are mapped to their REST paths
+ * through API discovery, which is refreshed every {@link #DISCOVERY_EXPIRY_SECONDS} so that newly
+ * registered custom resources are picked up.
+ *
+ * <p>Credentials are resolved again whenever the API server rejects them, as the tokens of exec
+ * plugins, auth providers and projected service account tokens expire. Requests rejected with the
+ * previous credentials are retried once with the new ones.
+ */
+public class KubernetesApiClient {
+  private static final int DISCOVERY_EXPIRY_SECONDS = 300;
+  private static final int LIST_PAGE_SIZE = 500;
+  private static final int HTTP_UNAUTHORIZED = 401;
+  private static final int HTTP_NOT_FOUND = 404;
+  private static final int HTTP_GONE = 410;
+  private static final String DEFAULT_NAMESPACE = "default";
+  private static final Path SERVICE_ACCOUNT_NAMESPACE =
+      Paths.get("/var/run/secrets/kubernetes.io/serviceaccount/namespace");
+
+  private final OkHttpClient httpClient;
+  private final OkHttpClient watchClient;
+  private final HttpUrl baseUrl;
+  private final Supplier<String> authorizationResolver;
+  @Nullable private volatile String authorization;
+  private final String defaultNamespace;
+  private final Gson gson = new Gson();
+  private final Supplier<ImmutableMap<KubernetesKind, ApiResource>> apiResources =
+      Suppliers.memoizeWithExpiration(
+          this::discoverApiResources, DISCOVERY_EXPIRY_SECONDS, TimeUnit.SECONDS);
+
+  /**
+   * @param authorization the Authorization header of requests, or null if they aren't
+   *     authenticated, which is never resolved again
+   * @param defaultNamespace the namespace of namespaced kinds read without a namespace, as kubectl
+   *     does with the namespace of its context
+   */
+  public KubernetesApiClient(
+      OkHttpClient httpClient,
+      String basePath,
+      @Nullable String authorization,
+      @Nullable String defaultNamespace) {
+    this(httpClient, basePath, authorization, () -> authorization, defaultNamespace);
+  }
+
+  /**
+   * @param authorization the Authorization header of requests, or null if they aren't
+   *     authenticated
+   * @param authorizationResolver resolves the Authorization header again once the API server
+   *     rejected the current one
+   * @param defaultNamespace the namespace of namespaced kinds read without a namespace, as kubectl
+   *     does with the namespace of its context
+   */
+  public KubernetesApiClient(
+      OkHttpClient httpClient,
+      String basePath,
+      @Nullable String authorization,
+      Supplier<String> authorizationResolver,
+      @Nullable String defaultNamespace) {
+    this.httpClient = httpClient;
+    this.watchClient = httpClient.newBuilder().readTimeout(0, TimeUnit.MILLISECONDS).build();
+    this.baseUrl = HttpUrl.get(basePath);
+    this.authorization = authorization;
+    this.authorizationResolver = authorizationResolver;
+    this.defaultNamespace =
+        Strings.isNullOrEmpty(defaultNamespace) ? DEFAULT_NAMESPACE : defaultNamespace;
+  }
+
+  /**
+   * Builds a client authenticating the same way kubectl does for these credentials: in-cluster for
+   * service accounts, and otherwise through the configured kubeconfig file and context.
+   *
+   * @throws IOException if the kubeconfig can't be read
+   * @throws IllegalArgumentException if the credentials authenticate through an OAuth service
+   *     account, which is only supported by kubectl
+   */
+  public static KubernetesApiClient create(KubernetesCredentials credentials) throws IOException {
+    if (!Strings.isNullOrEmpty(credentials.getOAuthServiceAccount())) {
+      throw new IllegalArgumentException(
+          "Account "
+              + credentials.getAccountName()
+              + " authenticates with an OAuth service account, which is only supported by kubectl");
+    }
+
+    Connection connection = connect(credentials);
+    ApiClient apiClient = connection.getApiClient();
+    OkHttpClient httpClient = apiClient.getHttpClient();
+    if (credentials.getKubectlRequestTimeoutSeconds() != null) {
+      httpClient =
+          httpClient
+              .newBuilder()
+              .readTimeout(credentials.getKubectlRequestTimeoutSeconds(), TimeUnit.SECONDS)
+              .build();
+    }
+
+    return new KubernetesApiClient(
+        httpClient,
+        apiClient.getBasePath(),
+        authorization(apiClient),
+        () -> {
+          // Building the client runs exec plugins and refreshes auth provider tokens again
+          try {
+            return authorization(connect(credentials).getApiClient());
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+        },
+        connection.getDefaultNamespace());
+  }
+
+  private static Connection connect(KubernetesCredentials credentials) throws IOException {
+    if (credentials.isServiceAccount()) {
+      String defaultNamespace = null;
+      if (Files.exists(SERVICE_ACCOUNT_NAMESPACE)) {
+        byte[] namespace = Files.readAllBytes(SERVICE_ACCOUNT_NAMESPACE);
+        defaultNamespace = new String(namespace, StandardCharsets.UTF_8).trim();
+      }
+      return new Connection(ClientBuilder.cluster().build(), defaultNamespace);
+    }
+
+    if (!Strings.isNullOrEmpty(credentials.getKubeconfigFile())) {
+      Path kubeconfigFile = Paths.get(credentials.getKubeconfigFile());
+      try (Reader reader = Files.newBufferedReader(kubeconfigFile)) {
+        KubeConfig kubeConfig = KubeConfig.loadKubeConfig(reader);
+        kubeConfig.setFile(kubeconfigFile.toFile());
+        if (!Strings.isNullOrEmpty(credentials.getContext())) {
+          kubeConfig.setContext(credentials.getContext());
+        }
+        return new Connection(
+            ClientBuilder.kubeconfig(kubeConfig).build(), kubeConfig.getNamespace());
+      }
+    }
+
+    return new Connection(ClientBuilder.standard().build(), null);
+  }
+
+  @Nullable
+  private static String authorization(ApiClient apiClient) {
+    Authentication authentication = apiClient.getAuthentication("BearerToken");
+    if (!(authentication instanceof ApiKeyAuth)) {
+      return null;
+    }
+    ApiKeyAuth apiKeyAuth = (ApiKeyAuth) authentication;
+    if (Strings.isNullOrEmpty(apiKeyAuth.getApiKey())) {
+      return null;
+    }
+    if (Strings.isNullOrEmpty(apiKeyAuth.getApiKeyPrefix())) {
+      return apiKeyAuth.getApiKey();
+    }
+    return apiKeyAuth.getApiKeyPrefix() + " " + apiKeyAuth.getApiKey();
+  }
+
+  /**
+   * @param namespace the namespace of the resource, or null for cluster-scoped kinds
+   * @return the resource, or null if it doesn't exist
+   */
+  @Nullable
+  public KubernetesManifest get(KubernetesKind kind, @Nullable String namespace, String name) {
+    ApiResource resource = resolve(kind);
+    HttpUrl url =
+        resource.url(baseUrl, namespace(resource, namespace)).addPathSegment(name).build();
+    try (Response response = execute(httpClient, url)) {
+      return resource.complete(parse(response.body(), KubernetesManifest.class));
+    } catch (KubectlNotFoundException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Lists all the resources of a kind, following pagination.
+   *
+   * @param namespace the namespace to list, or null for cluster-scoped kinds
+   * @throws ResourceExpiredException if the list could not be completed from a consistent snapshot
+   */
+  @Nonnull
+  public ResourceList list(KubernetesKind kind, @Nullable String namespace) {
+    return list(kind, namespace, null, null);
+  }
+
+  /**
+   * Lists the resources of a kind matching selectors, following pagination.
+   *
+   * @param namespace the namespace to list, or null for cluster-scoped kinds
+   * @param labelSelector a label selector in the same syntax as kubectl's, or null
+   * @param fieldSelector a field selector in the same syntax as kubectl's, or null
+   * @throws ResourceExpiredException if the list could not be completed from a consistent snapshot
+   */
+  @Nonnull
+  public ResourceList list(
+      KubernetesKind kind,
+      @Nullable String namespace,
+      @Nullable String labelSelector,
+      @Nullable String fieldSelector) {
+    ImmutableList.Builder<KubernetesManifest> items = ImmutableList.builder();
+    String resourceVersion = list(kind, namespace, labelSelector, fieldSelector, items::add);
+    return new ResourceList(items.build(), resourceVersion);
+  }
+
+  /**
+   * Lists the resources of a kind matching selectors, following pagination, passing each resource
+   * to {@code consumer} as it is read so that callers don't need to hold the whole list.
+   *
+   * @param namespace the namespace to list, or null for cluster-scoped kinds
+   * @param labelSelector a label selector in the same syntax as kubectl's, or null
+   * @param fieldSelector a field selector in the same syntax as kubectl's, or null
+   * @return the resource version of the list
+   * @throws ResourceExpiredException if the list could not be completed from a consistent snapshot
+   */
+  @Nonnull
+  public String list(
+      KubernetesKind kind,
+      @Nullable String namespace,
+      @Nullable String labelSelector,
+      @Nullable String fieldSelector,
+      Consumer<KubernetesManifest> consumer) {
+    ApiResource resource = resolve(kind);
+    String resourceVersion = null;
+    String continueToken = null;
+
+    do {
+      HttpUrl.Builder url = resource.url(baseUrl, namespace(resource, namespace));
+      url.addQueryParameter("limit", Integer.toString(LIST_PAGE_SIZE));
+      if (!Strings.isNullOrEmpty(labelSelector)) {
+        url.addQueryParameter("labelSelector", labelSelector);
+      }
+      if (!Strings.isNullOrEmpty(fieldSelector)) {
+        url.addQueryParameter("fieldSelector", fieldSelector);
+      }
+      if (continueToken != null) {
+        url.addQueryParameter("continue", continueToken);
+      }
+
+      try (Response response = execute(httpClient, url.build())) {
+        ListPage page = parseListPage(resource, response.body(), consumer);
+        if (resourceVersion == null) {
+          resourceVersion = page.getResourceVersion();
+        }
+        continueToken = Strings.emptyToNull(page.getContinueToken());
+      }
+    } while (continueToken != null);
+
+    return Strings.nullToEmpty(resourceVersion);
+  }
+
+  /**
+   * Opens a watch on the resources of a kind, starting after {@code resourceVersion}. The request
+   * is only sent on the first call to {@link Watch#next()}, so the watch can be closed from another
+   * thread at any point.
+   *
+   * @param namespace the namespace to watch, or null for cluster-scoped kinds
+   * @param timeoutSeconds how long the API server should keep the watch open
+   */
+  @Nonnull
+  public Watch watch(
+      KubernetesKind kind, @Nullable String namespace, String resourceVersion, int timeoutSeconds) {
+    ApiResource resource = resolve(kind);
+    HttpUrl url =
+        resource
+            .url(baseUrl, namespace(resource, namespace))
+            .addQueryParameter("watch", "true")
+            .addQueryParameter("resourceVersion", resourceVersion)
+            .addQueryParameter("allowWatchBookmarks", "true")
+            .addQueryParameter("timeoutSeconds", Integer.toString(timeoutSeconds))
+            .build();
+    String authorization = this.authorization;
+    return new Watch(resource, watchClient.newCall(request(url, authorization)), authorization);
+  }
+
+  /** @return whether the API server serves this kind, e.g. pod metrics */
+  public boolean serves(KubernetesKind kind) {
+    return apiResources.get().containsKey(kind);
+  }
+
+  @Nullable
+  private String namespace(ApiResource resource, @Nullable String namespace) {
+    if (!resource.isNamespaced()) {
+      return null;
+    }
+    return Strings.isNullOrEmpty(namespace) ? defaultNamespace : namespace;
+  }
+
+  private ApiResource resolve(KubernetesKind kind) {
+    return Optional.ofNullable(apiResources.get().get(kind))
+        .orElseThrow(
+            () -> new KubectlException("Kind " + kind + " is not served by the API server"));
+  }
+
+  private static Request request(HttpUrl url, @Nullable String authorization) {
+    Request.Builder request = new Request.Builder().url(url).get();
+    if (authorization != null) {
+      request.header("Authorization", authorization);
+    }
+    return request.build();
+  }
+
+  private Response execute(OkHttpClient client, HttpUrl url) {
+    String authorization = this.authorization;
+    try {
+      return execute(client.newCall(request(url, authorization)));
+    } catch (UnauthorizedException e) {
+      if (!resolveAuthorization(authorization)) {
+        throw e;
+      }
+      return execute(client.newCall(request(url, this.authorization)));
+    }
+  }
+
+  /**
+   * Resolves the Authorization header again once the API server rejected {@code rejected}, unless
+   * a concurrent request already did.
+   *
+   * @return whether the header changed since {@code rejected}, so that requests are worth retrying
+   */
+  private synchronized boolean resolveAuthorization(@Nullable String rejected) {
+    if (Objects.equals(authorization, rejected)) {
+      try {
+        authorization = authorizationResolver.get();
+      } catch (RuntimeException e) {
+        throw new KubectlException("Failed to resolve credentials: " + e.getMessage(), e);
+      }
+    }
+    return !Objects.equals(authorization, rejected);
+  }
+
+  private static Response execute(Call call) {
+    Response response;
+    try {
+      response = call.execute();
+    } catch (IOException e) {
+      throw new KubectlException(
+          "Failed to read " + call.request().url() + ": " + e.getMessage(), e);
+    }
+
+    if (response.isSuccessful()) {
+      return response;
+    }
+
+    try (Response failed = response) {
+      String message = "Failed to read " + call.request().url() + ": HTTP " + failed.code();
+      if (failed.code() == HTTP_UNAUTHORIZED) {
+        throw new UnauthorizedException(message);
+      }
+      if (failed.code() == HTTP_NOT_FOUND) {
+        throw new KubectlNotFoundException(message);
+      }
+      if (failed.code() == HTTP_GONE) {
+        throw new ResourceExpiredException(message);
+      }
+      throw new KubectlException(message);
+    }
+  }
+
+  /**
+   * Maps every kind served by the API server to its preferred group version. Native kinds served
+   * by several groups (e.g. deployments in apps and extensions) resolve to the first group listed,
+   * which is how the API server orders its preferred groups.
+   */
+  private ImmutableMap<KubernetesKind, ApiResource> discoverApiResources() {
+    Map<KubernetesKind, ApiResource> resources = new HashMap<>();
+    addApiResources(resources, "", "v1", baseUrl.newBuilder().addPathSegments("api/v1").build());
+
+    ApiGroupList groups;
+    HttpUrl groupsUrl = baseUrl.newBuilder().addPathSegment("apis").build();
+    try (Response response = execute(httpClient, groupsUrl)) {
+      groups = parse(response.body(), ApiGroupList.class);
+    }
+    for (ApiGroup group : groups.groups) {
+      if (group.preferredVersion == null) {
+        continue;
+      }
+      String groupVersion = group.preferredVersion.groupVersion;
+      String version = groupVersion.substring(groupVersion.indexOf('/') + 1);
+      addApiResources(
+          resources,
+          group.name,
+          version,
+          baseUrl.newBuilder().addPathSegment("apis").addPathSegments(groupVersion).build());
+    }
+
+    return ImmutableMap.copyOf(resources);
+  }
+
+  private void addApiResources(
+      Map<KubernetesKind, ApiResource> resources, String group, String version, HttpUrl url) {
+    ApiResourceList resourceList;
+    try (Response response = execute(httpClient, url)) {
+      resourceList = parse(response.body(), ApiResourceList.class);
+    }
+    for (ApiResourceListEntry entry : resourceList.resources) {
+      // Subresources such as pods/log share the kind of their parent
+      if (entry.name.contains("/")) {
+        continue;
+      }
+      KubernetesKind kind = KubernetesKind.from(entry.kind, KubernetesApiGroup.fromString(group));
+      resources.putIfAbsent(
+          kind, new ApiResource(group, version, entry.name, entry.kind, entry.namespaced));
+    }
+  }
+
+  private <T> T parse(ResponseBody body, Class<T> type) {
+    try {
+      return gson.fromJson(body.charStream(), type);
+    } catch (JsonSyntaxException e) {
+      throw new KubectlException("Failed to parse API server response: " + e.getMessage(), e);
+    }
+  }
+
+  private ListPage parseListPage(
+      ApiResource resource, ResponseBody body, Consumer<KubernetesManifest> consumer) {
+    ListMeta metadata = null;
+    try (JsonReader reader = new JsonReader(body.charStream())) {
+      reader.beginObject();
+      while (reader.hasNext()) {
+        switch (reader.nextName()) {
+          case "metadata":
+            metadata = gson.fromJson(reader, ListMeta.class);
+            break;
+          case "items":
+            if (reader.peek() == JsonToken.NULL) {
+              reader.nextNull();
+              break;
+            }
+            reader.beginArray();
+            while (reader.hasNext()) {
+              consumer.accept(resource.complete(gson.fromJson(reader, KubernetesManifest.class)));
+            }
+            reader.endArray();
+            break;
+          default:
+            reader.skipValue();
+        }
+      }
+      reader.endObject();
+    } catch (IOException | IllegalStateException | JsonSyntaxException e) {
+      throw new KubectlException("Failed to parse API server response: " + e.getMessage(), e);
+    }
+
+    return new ListPage(
+        metadata == null ? null : metadata.resourceVersion,
+        metadata == null ? null : metadata._continue);
+  }
+
+  /** A watch stream of resource changes, read one event at a time. */
+  public class Watch implements Closeable {
+    private final ApiResource resource;
+    private final Call call;
+    @Nullable private final String authorization;
+    @Nullable private Response response;
+    @Nullable private JsonReader reader;
+
+    private Watch(ApiResource resource, Call call, @Nullable String authorization) {
+      this.resource = resource;
+      this.call = call;
+      this.authorization = authorization;
+    }
+
+    /**
+     * Blocks until the next event is received.
+     *
+     * @return the next event, or null once the API server ended the watch
+     * @throws ResourceExpiredException if the watched resource version is too old
+     * @throws UnauthorizedException if the API server rejected the credentials of the watch, which
+     *     are resolved again for the next one
+     */
+    @Nullable
+    public WatchEvent next() {
+      try {
+        if (reader == null) {
+          try {
+            response = execute(call);
+          } catch (UnauthorizedException e) {
+            resolveAuthorization(authorization);
+            throw e;
+          }
+          reader = new JsonReader(response.body().charStream());
+          reader.setLenient(true);
+        }
+        if (reader.peek() == JsonToken.END_DOCUMENT) {
+          return null;
+        }
+        RawWatchEvent event = gson.fromJson(reader, RawWatchEvent.class);
+        if (event == null) {
+          return null;
+        }
+        if (event.type == null) {
+          // An event type this client doesn't know about
+          return next();
+        }
+        if (event.type == WatchEvent.Type.ERROR) {
+          Object code = event.object == null ? null : event.object.get("code");
+          String message = "Watch of " + call.request().url() + " failed: " + event.object;
+          if (code instanceof Number && ((Number) code).intValue() == HTTP_GONE) {
+            throw new ResourceExpiredException(message);
+          }
+          throw new KubectlException(message);
+        }
+        return new WatchEvent(event.type, resource.complete(event.object));
+      } catch (IOException | IllegalStateException | JsonSyntaxException e) {
+        if (call.isCanceled()) {
+          return null;
+        }
+        throw new KubectlException("Failed to read watch of " + call.request().url(), e);
+      }
+    }
+
+    @Override
+    public void close() {
+      call.cancel();
+      if (response != null) {
+        response.close();
+      }
+    }
+  }
+
+  @Value
+  public static class ResourceList {
+    private final ImmutableList<KubernetesManifest> items;
+    private final String resourceVersion;
+  }
+
+  @Value
+  public static class WatchEvent {
+    public enum Type {
+      ADDED,
+      MODIFIED,
+      DELETED,
+      BOOKMARK,
+      ERROR
+    }
+
+    private final Type type;
+    private final KubernetesManifest object;
+  }
+
+  /**
+   * Thrown when the API server no longer has the history needed to serve a resource version, in
+   * which case the caller has to list again.
+   */
+  public static class ResourceExpiredException extends KubectlException {
+    public ResourceExpiredException(String message) {
+      super(message);
+    }
+  }
+
+  /** Thrown when the API server rejects the credentials of a request. */
+  public static class UnauthorizedException extends KubectlException {
+    public UnauthorizedException(String message) {
+      super(message);
+    }
+  }
+
+  @Value
+  private static class Connection {
+    private final ApiClient apiClient;
+    @Nullable private final String defaultNamespace;
+  }
+
+  @Value
+  private static class ApiResource {
+    private final String group;
+    private final String version;
+    private final String plural;
+    private final String kind;
+    private final boolean namespaced;
+
+    HttpUrl.Builder url(HttpUrl baseUrl, @Nullable String namespace) {
+      HttpUrl.Builder url = baseUrl.newBuilder();
+      if (group.isEmpty()) {
+        url.addPathSegment("api").addPathSegment(version);
+      } else {
+        url.addPathSegment("apis").addPathSegment(group).addPathSegment(version);
+      }
+      if (namespace != null) {
+        url.addPathSegment("namespaces").addPathSegment(namespace);
+      }
+      return url.addPathSegment(plural);
+    }
+
+    /** The API server omits the kind and api version of the items of a list. */
+    KubernetesManifest complete(KubernetesManifest manifest) {
+      if (manifest != null) {
+        manifest.putIfAbsent("kind", kind);
+        manifest.putIfAbsent("apiVersion", group.isEmpty() ? version : group + "/" + version);
+      }
+      return manifest;
+    }
+  }
+
+  @Value
+  private static class ListPage {
+    @Nullable private final String resourceVersion;
+    @Nullable private final String continueToken;
+  }
+
+  private static class ListMeta {
+    String resourceVersion;
+
+    @SerializedName("continue")
+    String _continue;
+  }
+
+  private static class RawWatchEvent {
+    WatchEvent.Type type;
+    KubernetesManifest object;
+  }
+
+  private static class ApiGroupList {
+    List<ApiGroup> groups = new ArrayList<>();
+  }
+
+  private static class ApiGroup {
+    String name;
+    GroupVersion preferredVersion;
+  }
+
+  private static class GroupVersion {
+    String groupVersion;
+  }
+
+  private static class ApiResourceList {
+    List<ApiResourceListEntry> resources = new ArrayList<>();
+  }
+
+  private static class ApiResourceListEntry {
+    String name;
+    String kind;
+    boolean namespaced;
+  }
+}
@@ -23,12 +23,17 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSetMultimap;
 import com.google.common.collect.Streams;
 import com.netflix.spinnaker.clouddriver.kubernetes.description.KubernetesPodMetric.ContainerMetric;
+import com.netflix.spinnaker.clouddriver.kubernetes.description.manifest.KubernetesManifest;
 import com.netflix.spinnaker.kork.annotations.NonnullByDefault;
+import io.kubernetes.client.custom.Quantity;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.regex.Pattern;
+import javax.annotation.Nullable;
 import lombok.Getter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -36,6 +41,9 @@ import org.slf4j.LoggerFactory;
 @NonnullByDefault
 final class MetricParser {
   private static final Splitter lineSplitter = Splitter.on('\n').trimResults().omitEmptyStrings();
+  private static final String CPU_HEADER = "CPU(cores)";
+  private static final String MEMORY_HEADER = "MEMORY(bytes)";
+  private static final BigDecimal MEBIBYTE = BigDecimal.valueOf(1024 * 1024);
 
   /**
    * Given the output of a kubectl top command, parses the metrics returning a MetricLine for each
@@ -67,6 +75,62 @@ final class MetricParser {
                 MetricParser.MetricLine::getPod, MetricParser.MetricLine::toContainerMetric));
   }
 
+  /**
+   * Given pod metrics read from the metrics API, returns the same metrics kubectl top would print:
+   * CPU in millicores and memory in mebibytes, both rounded the way kubectl rounds them.
+   *
+   * @param podMetrics PodMetrics resources of the metrics.k8s.io API group
+   * @return The metrics of each container, keyed by pod name
+   */
+  static ImmutableSetMultimap<String, ContainerMetric> parsePodMetrics(
+      List<KubernetesManifest> podMetrics) {
+    ImmutableSetMultimap.Builder<String, ContainerMetric> result = ImmutableSetMultimap.builder();
+    for (KubernetesManifest podMetric : podMetrics) {
+      Object containers = podMetric.get("containers");
+      if (!(containers instanceof List)) {
+        continue;
+      }
+      for (Object container : (List<?>) containers) {
+        if (!(container instanceof Map)) {
+          continue;
+        }
+        Map<?, ?> containerMap = (Map<?, ?>) container;
+        Object usage = containerMap.get("usage");
+        if (!(usage instanceof Map)) {
+          continue;
+        }
+        Map<?, ?> usageMap = (Map<?, ?>) usage;
+        ImmutableMap.Builder<String, String> metrics = ImmutableMap.builder();
+        quantity(usageMap.get("cpu")).ifPresent(cpu -> metrics.put(CPU_HEADER, formatCpu(cpu)));
+        quantity(usageMap.get("memory"))
+            .ifPresent(memory -> metrics.put(MEMORY_HEADER, formatMemory(memory)));
+        result.put(
+            podMetric.getName(),
+            new ContainerMetric(String.valueOf(containerMap.get("name")), metrics.build()));
+      }
+    }
+    return result.build();
+  }
+
+  private static Optional<BigDecimal> quantity(@Nullable Object value) {
+    if (value == null) {
+      return Optional.empty();
+    }
+    try {
+      return Optional.of(Quantity.fromString(value.toString()).getNumber());
+    } catch (RuntimeException e) {
+      return Optional.empty();
+    }
+  }
+
+  private static String formatCpu(BigDecimal cores) {
+    return cores.movePointRight(3).setScale(0, RoundingMode.CEILING) + "m";
+  }
+
+  private static String formatMemory(BigDecimal bytes) {
+    return bytes.setScale(0, RoundingMode.CEILING).divide(MEBIBYTE, RoundingMode.FLOOR) + "Mi";
+  }
+
   private static final class LineParser {
     private static final Logger log = LoggerFactory.getLogger(LineParser.class);
     private static final Splitter columnSplitter =
@@ -31,6 +31,7 @@ import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.netflix.spectator.api.Clock;
 import com.netflix.spectator.api.Registry;
 import com.netflix.spinnaker.clouddriver.kubernetes.caching.agent.KubernetesCacheDataConverter;
@@ -53,13 +54,20 @@ import com.netflix.spinnaker.clouddriver.kubernetes.names.KubernetesNamerRegistr
 import com.netflix.spinnaker.clouddriver.kubernetes.op.job.KubectlJobExecutor;
 import com.netflix.spinnaker.clouddriver.kubernetes.op.job.KubectlJobExecutor.KubectlException;
 import com.netflix.spinnaker.clouddriver.kubernetes.op.job.KubectlJobExecutor.KubectlNotFoundException;
+import com.netflix.spinnaker.clouddriver.kubernetes.op.job.KubernetesApiClient;
 import com.netflix.spinnaker.kork.configserver.ConfigFileService;
 import com.netflix.spinnaker.moniker.Namer;
 import io.kubernetes.client.openapi.models.V1DeleteOptions;
 import io.kubernetes.client.openapi.models.V1beta1CustomResourceDefinition;
+import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
@@ -121,6 +129,25 @@ public class KubernetesCredentials {
 
   @Include @Getter private final boolean debug;
 
+  @Include @Getter private final boolean cacheWithWatch;
+
+  /**
+   * Permits for the watches of this account, shared by its caching agents. Each watch holds a
+   * thread and a connection to the API server for as long as it runs, so kinds and namespaces
+   * beyond the limit are read through kubectl instead.
+   */
+  @JsonIgnore @Getter private final Semaphore cacheWatchPermits;
+
+  @Include @Getter private final boolean readWithApiClient;
+
+  @Nullable private volatile KubernetesApiClient apiClient;
+
+  /**
+   * Lists namespaces for the caching agents of this account, which all share it so that the number
+   * of concurrent list calls against the API server stays bounded however many agents there are.
+   */
+  @JsonIgnore @Getter private final ExecutorService namespaceExecutor;
+
   @Getter private final ResourcePropertyRegistry resourcePropertyRegistry;
   private final KubernetesKindRegistry kindRegistry;
   @Getter private final KubernetesSpinnakerKindMap kubernetesSpinnakerKindMap;
@@ -192,6 +219,11 @@ public class KubernetesCredentials {
     this.metrics = managedAccount.isMetrics();
 
     this.debug = managedAccount.isDebug();
+    this.cacheWithWatch = managedAccount.isCacheWithWatch();
+    this.cacheWatchPermits = new Semaphore(Math.max(0, managedAccount.getCacheWatchLimit()));
+    this.readWithApiClient = managedAccount.isReadWithApiClient();
+    this.namespaceExecutor =
+        namespaceExecutor(accountName, managedAccount.getCacheNamespaceConcurrency());
     this.namer = manifestNamer;
   }
 
@@ -365,6 +397,62 @@ public class KubernetesCredentials {
     return kindMap;
   }
 
+  private static ExecutorService namespaceExecutor(String accountName, int concurrency) {
+    int threads = Math.max(1, concurrency);
+    ThreadPoolExecutor executor =
+        new ThreadPoolExecutor(
+            threads,
+            threads,
+            1,
+            TimeUnit.MINUTES,
+            new LinkedBlockingQueue<>(),
+            new ThreadFactoryBuilder()
+                .setNameFormat(
+                    "KubernetesNamespaceLoader-" + accountName.replace("%", "%%") + "-%d")
+                .setDaemon(true)
+                .build());
+    // Idle threads exit, so that accounts whose agents aren't scheduled here don't hold threads
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
+  /**
+   * Returns a client reading directly from this account's API server, or empty if one can't be
+   * built for this account (in which case callers should go through kubectl). Failures to build the
+   * client are not remembered, so that fixing the account's kubeconfig doesn't need a restart.
+   */
+  @JsonIgnore
+  public Optional<KubernetesApiClient> getApiClient() {
+    KubernetesApiClient client = apiClient;
+    if (client == null) {
+      synchronized (this) {
+        client = apiClient;
+        if (client == null) {
+          try {
+            client = KubernetesApiClient.create(this);
+            apiClient = client;
+          } catch (IOException | RuntimeException e) {
+            log.warn(
+                "Unable to build an API client for account {}, falling back to kubectl: {}",
+                accountName,
+                e.getMessage());
+            return Optional.empty();
+          }
+        }
+      }
+    }
+    return Optional.of(client);
+  }
+
+  /**
+   * Returns the client reads (get, list, events and pod metrics) should go through instead of
+   * kubectl, if this account is configured to read through the API server.
+   */
+  @JsonIgnore
+  public Optional<KubernetesApiClient> getReadApiClient() {
+    return readWithApiClient ? getApiClient() : Optional.empty();
+  }
+
   public ImmutableList<LinkedDockerRegistryConfiguration> getDockerRegistries() {
     return ImmutableList.of();
   }
@@ -419,6 +507,22 @@ public class KubernetesCredentials {
     }
   }
 
+  /**
+   * Lists resources like {@link #list(List, String)}, passing each manifest to {@code consumer} as
+   * it is read instead of returning them all at once.
+   */
+  public void list(
+      List<KubernetesKind> kinds, String namespace, Consumer<KubernetesManifest> consumer) {
+    if (kinds.isEmpty()) {
+      return;
+    }
+    runAndRecordMetrics(
+        "list",
+        kinds,
+        namespace,
+        () -> jobExecutor.list(this, kinds, namespace, new KubernetesSelectorList(), consumer));
+  }
+
   /** Deprecated in favor of {@link KubernetesCredentials#eventsFor(KubernetesCoordinates)}. */
   @Deprecated
   @Nonnull
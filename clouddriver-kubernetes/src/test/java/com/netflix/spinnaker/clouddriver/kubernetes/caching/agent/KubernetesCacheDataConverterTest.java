@@ -18,11 +18,17 @@ package com.netflix.spinnaker.clouddriver.kubernetes.caching.agent;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableMap;
+import com.netflix.spinnaker.cats.cache.CacheData;
+import com.netflix.spinnaker.cats.cache.DefaultCacheData;
 import com.netflix.spinnaker.clouddriver.kubernetes.caching.Keys;
+import com.netflix.spinnaker.clouddriver.kubernetes.description.manifest.KubernetesKind;
 import com.netflix.spinnaker.clouddriver.kubernetes.description.manifest.KubernetesManifest;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Map;
 import java.util.Set;
 import org.junit.jupiter.api.Test;
 import org.junit.platform.runner.JUnitPlatform;
@@ -46,4 +52,55 @@ public class KubernetesCacheDataConverterTest {
           .ifPresent(key -> assertThat(key.getGroup()).isEqualTo("Owner.group"));
     }
   }
+
+  @Test
+  public void convertToManifestMatchesJackson() throws IOException {
+    ObjectMapper objectMapper = new ObjectMapper();
+    try (InputStream stream = KubernetesManifest.class.getResourceAsStream("owned-manifest.json")) {
+      Map<String, Object> cached =
+          objectMapper.readValue(stream, new TypeReference<Map<String, Object>>() {});
+
+      KubernetesManifest manifest = KubernetesCacheDataConverter.convertToManifest(cached);
+
+      assertThat(manifest)
+          .isEqualTo(objectMapper.convertValue(cached, KubernetesManifest.class))
+          .isNotSameAs(cached);
+      assertThat(manifest.getKind()).isEqualTo(KubernetesKind.REPLICA_SET);
+      assertThat(manifest.getOwnerReferences()).hasSize(1);
+    }
+  }
+
+  @Test
+  public void convertToManifestCopiesNestedValues() throws IOException {
+    try (InputStream stream = KubernetesManifest.class.getResourceAsStream("owned-manifest.json")) {
+      KubernetesManifest cached = new ObjectMapper().readValue(stream, KubernetesManifest.class);
+
+      KubernetesManifest manifest = KubernetesCacheDataConverter.convertToManifest(cached);
+      manifest.setName("renamed");
+
+      assertThat(cached.getName()).isEqualTo("test-rs-7f4557b6b");
+    }
+  }
+
+  @Test
+  public void getKindReadsTheKindAttribute() {
+    Map<String, Object> attributes =
+        ImmutableMap.of("kind", KubernetesKind.REPLICA_SET.toString());
+    CacheData cacheData = new DefaultCacheData("id", attributes, ImmutableMap.of());
+
+    assertThat(KubernetesCacheDataConverter.getKind(cacheData))
+        .isEqualTo(KubernetesKind.REPLICA_SET);
+  }
+
+  @Test
+  public void getKindFallsBackToTheManifest() throws IOException {
+    try (InputStream stream = KubernetesManifest.class.getResourceAsStream("owned-manifest.json")) {
+      KubernetesManifest manifest = new ObjectMapper().readValue(stream, KubernetesManifest.class);
+      CacheData cacheData =
+          new DefaultCacheData("id", ImmutableMap.of("manifest", manifest), ImmutableMap.of());
+
+      assertThat(KubernetesCacheDataConverter.getKind(cacheData))
+          .isEqualTo(KubernetesKind.REPLICA_SET);
+    }
+  }
 }
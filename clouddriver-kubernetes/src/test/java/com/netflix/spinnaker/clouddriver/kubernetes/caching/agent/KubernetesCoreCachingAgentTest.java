@@ -21,6 +21,7 @@ import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.netflix.spinnaker.cats.agent.AgentDataType.Authority.AUTHORITATIVE;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -31,7 +32,10 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSetMultimap;
+import com.netflix.spectator.api.DefaultRegistry;
+import com.netflix.spectator.api.Id;
 import com.netflix.spectator.api.NoopRegistry;
+import com.netflix.spectator.api.Registry;
 import com.netflix.spinnaker.cats.agent.AgentDataType;
 import com.netflix.spinnaker.cats.agent.CacheResult;
 import com.netflix.spinnaker.cats.cache.CacheData;
@@ -40,6 +44,7 @@ import com.netflix.spinnaker.cats.mem.InMemoryCache;
 import com.netflix.spinnaker.cats.provider.DefaultProviderCache;
 import com.netflix.spinnaker.cats.provider.ProviderCache;
 import com.netflix.spinnaker.clouddriver.kubernetes.caching.Keys;
+import com.netflix.spinnaker.clouddriver.kubernetes.config.KubernetesCachingPolicy;
 import com.netflix.spinnaker.clouddriver.kubernetes.config.KubernetesConfigurationProperties;
 import com.netflix.spinnaker.clouddriver.kubernetes.description.GlobalResourcePropertyRegistry;
 import com.netflix.spinnaker.clouddriver.kubernetes.description.KubernetesCoordinates;
@@ -47,13 +52,19 @@ import com.netflix.spinnaker.clouddriver.kubernetes.description.ResourceProperty
 import com.netflix.spinnaker.clouddriver.kubernetes.description.manifest.*;
 import com.netflix.spinnaker.clouddriver.kubernetes.names.KubernetesManifestNamer;
 import com.netflix.spinnaker.clouddriver.kubernetes.op.handler.KubernetesUnregisteredCustomResourceHandler;
+import com.netflix.spinnaker.clouddriver.kubernetes.op.job.FakeKubernetesApiServer;
 import com.netflix.spinnaker.clouddriver.kubernetes.security.KubernetesCredentials;
 import com.netflix.spinnaker.clouddriver.kubernetes.security.KubernetesNamedAccountCredentials;
 import com.netflix.spinnaker.moniker.Namer;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
 import java.util.stream.IntStream;
 import lombok.Value;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 import org.junit.platform.runner.JUnitPlatform;
@@ -68,6 +79,8 @@ final class KubernetesCoreCachingAgentTest {
   private static final String DEPLOYMENT_NAME = "my-deployment";
   private static final String STORAGE_CLASS_NAME = "my-storage-class";
 
+  private static final ExecutorService NAMESPACE_EXECUTOR = Executors.newFixedThreadPool(2);
+
   private static final String DEPLOYMENT_KIND = KubernetesKind.DEPLOYMENT.toString();
   private static final String STORAGE_CLASS_KIND = KubernetesKind.STORAGE_CLASS.toString();
 
@@ -96,12 +109,16 @@ final class KubernetesCoreCachingAgentTest {
 
   /** A test Deployment manifest */
   private static KubernetesManifest deploymentManifest() {
+    return deploymentManifest(NAMESPACE1, DEPLOYMENT_NAME);
+  }
+
+  private static KubernetesManifest deploymentManifest(String namespace, String name) {
     KubernetesManifest deployment = new KubernetesManifest();
     deployment.put("metadata", new HashMap<>());
-    deployment.setNamespace(NAMESPACE1);
+    deployment.setNamespace(namespace);
     deployment.setKind(KubernetesKind.DEPLOYMENT);
     deployment.setApiVersion(KubernetesApiVersion.APPS_V1);
-    deployment.setName(DEPLOYMENT_NAME);
+    deployment.setName(name);
     return deployment;
   }
 
@@ -153,7 +170,17 @@ final class KubernetesCoreCachingAgentTest {
                   }
                   return result.build();
                 });
+    doAnswer(
+            invocation -> {
+              credentials
+                  .list((List<KubernetesKind>) invocation.getArgument(0), invocation.getArgument(1))
+                  .forEach(invocation.<Consumer<KubernetesManifest>>getArgument(2));
+              return null;
+            })
+        .when(credentials)
+        .list(any(List.class), any(), any(Consumer.class));
     when(credentials.getNamer()).thenReturn(NAMER);
+    when(credentials.getNamespaceExecutor()).thenReturn(NAMESPACE_EXECUTOR);
     return credentials;
   }
 
@@ -161,11 +188,15 @@ final class KubernetesCoreCachingAgentTest {
    * Returns a KubernetesNamedAccountCredentials that contains a mock KubernetesCredentials object
    */
   private static KubernetesNamedAccountCredentials getNamedAccountCredentials() {
+    return getNamedAccountCredentials(mockKubernetesCredentials());
+  }
+
+  private static KubernetesNamedAccountCredentials getNamedAccountCredentials(
+      KubernetesCredentials mockCredentials) {
     KubernetesConfigurationProperties.ManagedAccount managedAccount =
         new KubernetesConfigurationProperties.ManagedAccount();
     managedAccount.setName(ACCOUNT);
 
-    KubernetesCredentials mockCredentials = mockKubernetesCredentials();
     KubernetesCredentials.Factory credentialFactory = mock(KubernetesCredentials.Factory.class);
     when(credentialFactory.build(managedAccount)).thenReturn(mockCredentials);
     return new KubernetesNamedAccountCredentials(managedAccount, credentialFactory);
@@ -256,6 +287,86 @@ final class KubernetesCoreCachingAgentTest {
         .containsExactly(STORAGE_CLASS_NAME);
   }
 
+  @Test
+  public void loadDataRecordsTheTimeSpentOnEachNamespace() {
+    Registry registry = new DefaultRegistry();
+    KubernetesCoreCachingAgent cachingAgent =
+        new KubernetesCoreCachingAgent(
+            getNamedAccountCredentials(), objectMapper, registry, 0, 1, 10L);
+
+    cachingAgent.loadData(new DefaultProviderCache(new InMemoryCache()));
+
+    for (String namespace : ImmutableList.of(NAMESPACE1, NAMESPACE2)) {
+      Id id =
+          registry
+              .createId("kubernetes.cache.namespace")
+              .withTag("account", ACCOUNT)
+              .withTag("namespace", namespace)
+              .withTag("success", "true");
+      assertThat(registry.timer(id).count()).isEqualTo(1);
+    }
+  }
+
+  @Test
+  public void loadDataPrunesTheSameEntriesWhateverTheListingOrder() {
+    KubernetesCredentials credentials = mockKubernetesCredentials();
+    KubernetesCachingPolicy policy = new KubernetesCachingPolicy();
+    policy.setKubernetesKind(DEPLOYMENT_KIND);
+    policy.setMaxEntriesPerAgent(1);
+    when(credentials.getCachingPolicies()).thenReturn(ImmutableList.of(policy));
+    doAnswer(
+            invocation -> {
+              List<KubernetesKind> kinds = invocation.getArgument(0);
+              String namespace = invocation.getArgument(1);
+              Consumer<KubernetesManifest> consumer = invocation.getArgument(2);
+              if (kinds.contains(KubernetesKind.DEPLOYMENT) && namespace != null) {
+                // Listed after the entry that should be kept
+                consumer.accept(deploymentManifest(namespace, "my-deployment-b"));
+                consumer.accept(deploymentManifest(namespace, "my-deployment-a"));
+              }
+              return null;
+            })
+        .when(credentials)
+        .list(any(List.class), any(), any(Consumer.class));
+
+    LoadDataResult loadDataResult =
+        processLoadData(
+            createCachingAgents(getNamedAccountCredentials(credentials), 1), ImmutableMap.of());
+
+    assertThat(loadDataResult.getResults().get(DEPLOYMENT_KIND))
+        .extracting(CacheData::getId)
+        .containsExactly(
+            Keys.InfrastructureCacheKey.createKey(
+                KubernetesKind.DEPLOYMENT, ACCOUNT, NAMESPACE1, "my-deployment-a"));
+  }
+
+  @Test
+  public void loadDataReadsKindsWithoutASyncedWatchThroughKubectl() throws IOException {
+    KubernetesCredentials credentials = mockKubernetesCredentials();
+    Semaphore watchPermits = new Semaphore(1);
+    when(credentials.isCacheWithWatch()).thenReturn(true);
+    when(credentials.getCacheWatchPermits()).thenReturn(watchPermits);
+
+    try (FakeKubernetesApiServer server = new FakeKubernetesApiServer()) {
+      when(credentials.getApiClient()).thenReturn(Optional.of(server.client()));
+
+      LoadDataResult loadDataResult =
+          processLoadData(
+              createCachingAgents(getNamedAccountCredentials(credentials), 1), ImmutableMap.of());
+
+      // The account's only watch isn't synced yet, and no other watch is started
+      assertThat(watchPermits.availablePermits()).isZero();
+      assertThat(loadDataResult.getResults().get(DEPLOYMENT_KIND))
+          .extracting(CacheData::getId)
+          .containsExactly(
+              Keys.InfrastructureCacheKey.createKey(
+                  KubernetesKind.DEPLOYMENT, ACCOUNT, NAMESPACE1, DEPLOYMENT_NAME));
+      assertThat(loadDataResult.getResults().get(STORAGE_CLASS_KIND))
+          .extracting(storageClass -> storageClass.getAttributes().get("name"))
+          .containsExactly(STORAGE_CLASS_NAME);
+    }
+  }
+
   /**
    * Given an on-demand cache request, constructs a set of caching agents and sends the on-demand
    * request to those agents, returning a collection of all non-null results of handing those
@@ -0,0 +1,212 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.netflix.spinnaker.clouddriver.kubernetes.caching.agent;
+
+import static com.netflix.spinnaker.clouddriver.kubernetes.op.job.FakeKubernetesApiServer.expired;
+import static com.netflix.spinnaker.clouddriver.kubernetes.op.job.FakeKubernetesApiServer.pod;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.netflix.spectator.api.NoopRegistry;
+import com.netflix.spinnaker.clouddriver.kubernetes.description.manifest.KubernetesKind;
+import com.netflix.spinnaker.clouddriver.kubernetes.description.manifest.KubernetesManifest;
+import com.netflix.spinnaker.clouddriver.kubernetes.op.job.FakeKubernetesApiServer;
+import com.netflix.spinnaker.clouddriver.kubernetes.op.job.FakeKubernetesApiServer.Response;
+import com.netflix.spinnaker.clouddriver.kubernetes.op.job.KubernetesApiClient;
+import java.io.IOException;
+import java.net.URI;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.platform.runner.JUnitPlatform;
+import org.junit.runner.RunWith;
+
+@RunWith(JUnitPlatform.class)
+final class KubernetesResourceWatcherTest {
+  private static final String ACCOUNT = "my-account";
+  private static final String NAMESPACE = "test-namespace";
+  private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+  private FakeKubernetesApiServer server;
+  private KubernetesResourceWatcher watcher;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    server = new FakeKubernetesApiServer();
+    watcher = watcher(server.client(), Duration.ofSeconds(5));
+  }
+
+  private static KubernetesResourceWatcher watcher(
+      KubernetesApiClient client, Duration initialBackoff) {
+    return new KubernetesResourceWatcher(
+        client,
+        KubernetesKind.POD,
+        NAMESPACE,
+        ACCOUNT,
+        new NoopRegistry(),
+        Clock.systemUTC(),
+        Duration.ofMinutes(10),
+        initialBackoff);
+  }
+
+  @AfterEach
+  void tearDown() {
+    watcher.close();
+    server.close();
+  }
+
+  @Test
+  void snapshotIsEmptyUntilListed() {
+    // No list response is queued, so the initial list never completes
+    watcher.start();
+
+    assertThat(watcher.snapshot()).isEmpty();
+  }
+
+  @Test
+  void appliesWatchEventsToTheListedResources() throws InterruptedException {
+    server.enqueueList(Response.podList("10", null, pod("pod-a", "8"), pod("pod-b", "9")));
+    server.enqueueWatch(
+        Response.watch(
+            false,
+            "ADDED",
+            pod("pod-c", "11"),
+            "MODIFIED",
+            pod("pod-b", "12"),
+            "DELETED",
+            pod("pod-a", "13")));
+    watcher.start();
+
+    awaitSnapshot("pod-b", "pod-c");
+    awaitWatchFrom("13");
+    assertThat(watchedResourceVersions()).startsWith("10", "13");
+    assertThat(listCount()).isEqualTo(1);
+  }
+
+  @Test
+  void relistsWhenTheResourceVersionExpired() throws InterruptedException {
+    server.enqueueList(Response.podList("10", null, pod("pod-a", "8"), pod("pod-b", "9")));
+    server.enqueueWatch(Response.watch(false, "ERROR", expired()));
+    server.enqueueList(Response.podList("20", null, pod("pod-c", "19")));
+    watcher.start();
+
+    awaitSnapshot("pod-c");
+    awaitWatchFrom("20");
+    assertThat(watchedResourceVersions()).startsWith("10", "20");
+    assertThat(listCount()).isEqualTo(2);
+  }
+
+  @Test
+  void relistsWhenTheWatchIsRejectedAsGone() throws InterruptedException {
+    server.enqueueList(Response.podList("10", null, pod("pod-a", "8")));
+    server.enqueueWatch(Response.status(410));
+    server.enqueueList(Response.podList("20", null, pod("pod-a", "8"), pod("pod-d", "18")));
+    watcher.start();
+
+    awaitSnapshot("pod-a", "pod-d");
+    assertThat(listCount()).isEqualTo(2);
+  }
+
+  @Test
+  void snapshotIsEmptyWhileRelistingAfterGone() throws InterruptedException {
+    server.enqueueList(Response.podList("10", null, pod("pod-a", "8")));
+    server.enqueueWatch(Response.status(410));
+    // No second list response is queued, so the relist never completes
+    watcher.start();
+
+    long deadline = System.currentTimeMillis() + TIMEOUT.toMillis();
+    while (System.currentTimeMillis() < deadline && listCount() < 2) {
+      Thread.sleep(10);
+    }
+
+    assertThat(listCount()).isEqualTo(2);
+    assertThat(watcher.snapshot()).isEmpty();
+  }
+
+  @Test
+  void backsOffExponentiallyWhileCredentialsAreRejected() throws InterruptedException {
+    server.setToken("rotated-token");
+    watcher = watcher(server.client(), Duration.ofMillis(100));
+    watcher.start();
+
+    Thread.sleep(1000);
+
+    // Attempts 100ms, 200ms and 400ms apart, where a fixed backoff would have made ten
+    assertThat(server.getRequests().size()).isBetween(3, 5);
+    assertThat(watcher.snapshot()).isEmpty();
+    assertThat(watcher.isRunning()).isTrue();
+  }
+
+  @Test
+  void syncsOnceTheRotatedTokenIsResolved() throws InterruptedException {
+    server.setToken("rotated-token");
+    server.enqueueList(Response.podList("10", null, pod("pod-a", "8")));
+    watcher = watcher(server.client(() -> "Bearer rotated-token"), Duration.ofMillis(100));
+    watcher.start();
+
+    awaitSnapshot("pod-a");
+    assertThat(listCount()).isEqualTo(1);
+  }
+
+  private void awaitSnapshot(String... names) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + TIMEOUT.toMillis();
+    Set<String> expected = ImmutableList.copyOf(names).stream().collect(Collectors.toSet());
+    Set<String> actual = null;
+    while (System.currentTimeMillis() < deadline) {
+      Optional<ImmutableList<KubernetesManifest>> snapshot = watcher.snapshot();
+      if (snapshot.isPresent()) {
+        actual =
+            snapshot.get().stream().map(KubernetesManifest::getName).collect(Collectors.toSet());
+        if (actual.equals(expected)) {
+          return;
+        }
+      }
+      Thread.sleep(10);
+    }
+    assertThat(actual).isEqualTo(expected);
+  }
+
+  private void awaitWatchFrom(String resourceVersion) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + TIMEOUT.toMillis();
+    while (System.currentTimeMillis() < deadline
+        && !watchedResourceVersions().contains(resourceVersion)) {
+      Thread.sleep(10);
+    }
+  }
+
+  private ImmutableList<String> watchedResourceVersions() {
+    return server.getRequests().stream()
+        .map(URI::getQuery)
+        .filter(q -> q != null && q.contains("watch=true"))
+        .map(q -> q.replaceAll(".*resourceVersion=([^&]*).*", "$1"))
+        .collect(ImmutableList.toImmutableList());
+  }
+
+  private long listCount() {
+    return server.getRequests().stream()
+        .filter(uri -> uri.getPath().endsWith("/pods"))
+        .map(URI::getQuery)
+        .filter(q -> q != null && !q.contains("watch=true"))
+        .count();
+  }
+}
@@ -22,8 +22,13 @@ import static com.google.common.collect.ImmutableMap.toImmutableMap;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -33,6 +38,7 @@ import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSetMultimap;
 import com.netflix.spectator.api.NoopRegistry;
 import com.netflix.spectator.api.Registry;
+import com.netflix.spinnaker.cats.cache.Cache;
 import com.netflix.spinnaker.cats.mem.InMemoryNamedCacheFactory;
 import com.netflix.spinnaker.cats.provider.DefaultProviderRegistry;
 import com.netflix.spinnaker.cats.provider.ProviderRegistry;
@@ -83,6 +89,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Consumer;
 import org.assertj.core.api.SoftAssertions;
 import org.assertj.core.api.junit.jupiter.SoftAssertionsExtension;
 import org.junit.jupiter.api.BeforeAll;
@@ -193,6 +200,21 @@ final class KubernetesDataProviderIntegrationTest {
     assertBackendCluster(softly, clusterLookup.get("replicaSet backend"), true);
   }
 
+  @Test
+  void getClustersFetchesEachRelationshipTypeOnce(SoftAssertions softly) {
+    Cache cache = spy(providerRegistry.getProviderCache(kubernetesProvider.getProviderName()));
+    KubernetesClusterProvider provider =
+        new KubernetesClusterProvider(new KubernetesCacheUtils(cache, kindMap, accountResolver));
+
+    Set<KubernetesCluster> clusters = provider.getClusters().get(ACCOUNT_NAME);
+
+    assertThat(clusters).hasSize(2);
+    for (KubernetesKind kind :
+        ImmutableList.of(KubernetesKind.REPLICA_SET, KubernetesKind.POD, KubernetesKind.SERVICE)) {
+      verify(cache, times(1)).getAll(eq(kind.toString()), anyCollection());
+    }
+  }
+
   @Test
   void getClustersForApplication(SoftAssertions softly) {
     Map<String, Set<KubernetesCluster>> results = clusterProvider.getClusterDetails("backendapp");
@@ -591,6 +613,23 @@ final class KubernetesDataProviderIntegrationTest {
                                 KubernetesDataProviderIntegrationTest.class, file))
                     .filter(m -> invocation.getArgument(1, List.class).contains(m.getKind()))
                     .collect(toImmutableList()));
+    when(jobExecutor.list(
+            any(KubernetesCredentials.class),
+            anyList(),
+            any(String.class),
+            any(KubernetesSelectorList.class),
+            any(Consumer.class)))
+        .thenAnswer(
+            invocation -> {
+              ImmutableList<KubernetesManifest> manifests =
+                  jobExecutor.list(
+                      invocation.getArgument(0),
+                      invocation.getArgument(1),
+                      invocation.getArgument(2),
+                      invocation.getArgument(3));
+              manifests.forEach(invocation.<Consumer<KubernetesManifest>>getArgument(4));
+              return manifests.size();
+            });
     return jobExecutor;
   }
 
@@ -0,0 +1,277 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.netflix.spinnaker.clouddriver.kubernetes.op.job;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.gson.Gson;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Supplier;
+import okhttp3.OkHttpClient;
+
+/**
+ * A minimal Kubernetes API server serving pods (core group), deployments (apps group) and pod
+ * metrics (metrics.k8s.io group), whose get, list and watch responses are scripted by tests.
+ */
+public class FakeKubernetesApiServer implements AutoCloseable {
+  private static final Gson gson = new Gson();
+
+  private final HttpServer server;
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+  private final CountDownLatch closed = new CountDownLatch(1);
+  private final BlockingQueue<Response> lists = new LinkedBlockingQueue<>();
+  private final BlockingQueue<Response> watches = new LinkedBlockingQueue<>();
+  private final List<URI> requests = Collections.synchronizedList(new ArrayList<>());
+  private volatile String token = "test-token";
+
+  public FakeKubernetesApiServer() throws IOException {
+    server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    server.setExecutor(executor);
+    server.createContext("/", this::handle);
+    server.start();
+  }
+
+  public KubernetesApiClient client() {
+    return new KubernetesApiClient(
+        new OkHttpClient(),
+        "http://127.0.0.1:" + server.getAddress().getPort(),
+        "Bearer test-token",
+        null);
+  }
+
+  /** A client sending the initial token, then whatever {@code authorizationResolver} resolves. */
+  public KubernetesApiClient client(Supplier<String> authorizationResolver) {
+    return new KubernetesApiClient(
+        new OkHttpClient(),
+        "http://127.0.0.1:" + server.getAddress().getPort(),
+        "Bearer test-token",
+        authorizationResolver,
+        null);
+  }
+
+  /** Rejects requests that don't carry {@code token} from now on, as when a token expires. */
+  public void setToken(String token) {
+    this.token = token;
+  }
+
+  /** Queues the response to the next get or list request. */
+  public void enqueueList(Response response) {
+    lists.add(response);
+  }
+
+  /** Queues the response to the next watch request. */
+  public void enqueueWatch(Response response) {
+    watches.add(response);
+  }
+
+  /** @return the requests received so far, in order */
+  public ImmutableList<URI> getRequests() {
+    synchronized (requests) {
+      return ImmutableList.copyOf(requests);
+    }
+  }
+
+  @Override
+  public void close() {
+    closed.countDown();
+    server.stop(0);
+    executor.shutdownNow();
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    URI uri = exchange.getRequestURI();
+    requests.add(uri);
+
+    if (!("Bearer " + token).equals(exchange.getRequestHeaders().getFirst("Authorization"))) {
+      respond(exchange, Response.status(401));
+      return;
+    }
+
+    switch (uri.getPath()) {
+      case "/api/v1":
+        respond(
+            exchange,
+            Response.json(
+                ImmutableMap.of(
+                    "groupVersion",
+                    "v1",
+                    "resources",
+                    ImmutableList.of(resource("pods", "Pod"), resource("pods/log", "Pod")))));
+        return;
+      case "/apis":
+        respond(
+            exchange,
+            Response.json(
+                ImmutableMap.of(
+                    "groups",
+                    ImmutableList.of(
+                        group("apps", "apps/v1"),
+                        group("metrics.k8s.io", "metrics.k8s.io/v1beta1")))));
+        return;
+      case "/apis/apps/v1":
+        respond(
+            exchange,
+            Response.json(
+                ImmutableMap.of(
+                    "groupVersion",
+                    "apps/v1",
+                    "resources",
+                    ImmutableList.of(resource("deployments", "Deployment")))));
+        return;
+      case "/apis/metrics.k8s.io/v1beta1":
+        respond(
+            exchange,
+            Response.json(
+                ImmutableMap.of(
+                    "groupVersion",
+                    "metrics.k8s.io/v1beta1",
+                    "resources",
+                    ImmutableList.of(resource("pods", "PodMetrics")))));
+        return;
+      default:
+        BlockingQueue<Response> queue =
+            uri.getQuery() != null && uri.getQuery().contains("watch=true") ? watches : lists;
+        Response response = queue.poll();
+        respond(exchange, response == null ? Response.hang() : response);
+    }
+  }
+
+  private static Map<String, Object> group(String name, String groupVersion) {
+    return ImmutableMap.of(
+        "name", name, "preferredVersion", ImmutableMap.of("groupVersion", groupVersion));
+  }
+
+  private static Map<String, Object> resource(String name, String kind) {
+    return ImmutableMap.of("name", name, "kind", kind, "namespaced", true);
+  }
+
+  private void respond(HttpExchange exchange, Response response) throws IOException {
+    if (response.status != 200) {
+      exchange.sendResponseHeaders(response.status, -1);
+      exchange.close();
+      return;
+    }
+
+    exchange.getResponseHeaders().add("Content-Type", "application/json");
+    exchange.sendResponseHeaders(200, 0);
+    try (OutputStream body = exchange.getResponseBody()) {
+      for (String chunk : response.chunks) {
+        body.write(chunk.getBytes(StandardCharsets.UTF_8));
+        body.flush();
+      }
+      if (response.hang) {
+        closed.await();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  public static class Response {
+    private final int status;
+    private final List<String> chunks;
+    private final boolean hang;
+
+    private Response(int status, List<String> chunks, boolean hang) {
+      this.status = status;
+      this.chunks = chunks;
+      this.hang = hang;
+    }
+
+    public static Response status(int status) {
+      return new Response(status, ImmutableList.of(), false);
+    }
+
+    public static Response json(Object body) {
+      return new Response(200, ImmutableList.of(gson.toJson(body)), false);
+    }
+
+    /** A list of pods at {@code resourceVersion}, optionally followed by another page. */
+    @SafeVarargs
+    public static Response podList(
+        String resourceVersion, String continueToken, Map<String, Object>... pods) {
+      ImmutableMap.Builder<String, Object> metadata = ImmutableMap.builder();
+      metadata.put("resourceVersion", resourceVersion);
+      if (continueToken != null) {
+        metadata.put("continue", continueToken);
+      }
+      return json(
+          ImmutableMap.of(
+              "kind",
+              "PodList",
+              "apiVersion",
+              "v1",
+              "metadata",
+              metadata.build(),
+              "items",
+              ImmutableList.copyOf(pods)));
+    }
+
+    /** A watch stream of events, each a {type, object} pair, that stays open if {@code hang}. */
+    public static Response watch(boolean hang, Object... events) {
+      ImmutableList.Builder<String> chunks = ImmutableList.builder();
+      for (int i = 0; i + 1 < events.length; i += 2) {
+        chunks.add(gson.toJson(ImmutableMap.of("type", events[i], "object", events[i + 1])) + "\n");
+      }
+      return new Response(200, chunks.build(), hang);
+    }
+
+    /** A watch stream that stays open without sending anything. */
+    public static Response hang() {
+      return new Response(200, ImmutableList.of(), true);
+    }
+  }
+
+  /** A pod as listed by the API server, without kind and api version. */
+  public static Map<String, Object> pod(String name, String resourceVersion) {
+    return ImmutableMap.of(
+        "metadata",
+        ImmutableMap.of(
+            "name", name, "namespace", "test-namespace", "resourceVersion", resourceVersion));
+  }
+
+  /** The status sent in an ERROR watch event once a resource version is too old. */
+  public static Map<String, Object> expired() {
+    return ImmutableMap.of(
+        "kind",
+        "Status",
+        "apiVersion",
+        "v1",
+        "status",
+        "Failure",
+        "reason",
+        "Expired",
+        "code",
+        410);
+  }
+}
@@ -17,9 +17,12 @@
 
 package com.netflix.spinnaker.clouddriver.kubernetes.op.job;
 
+import static com.netflix.spinnaker.clouddriver.kubernetes.op.job.FakeKubernetesApiServer.pod;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.google.common.collect.ImmutableList;
@@ -30,12 +33,21 @@ import com.netflix.spinnaker.clouddriver.jobs.JobExecutor;
 import com.netflix.spinnaker.clouddriver.jobs.JobRequest;
 import com.netflix.spinnaker.clouddriver.jobs.JobResult;
 import com.netflix.spinnaker.clouddriver.jobs.JobResult.Result;
+import com.netflix.spinnaker.clouddriver.jobs.local.ReaderConsumer;
 import com.netflix.spinnaker.clouddriver.kubernetes.description.KubernetesPodMetric;
 import com.netflix.spinnaker.clouddriver.kubernetes.description.KubernetesPodMetric.ContainerMetric;
+import com.netflix.spinnaker.clouddriver.kubernetes.description.manifest.KubernetesKind;
+import com.netflix.spinnaker.clouddriver.kubernetes.description.manifest.KubernetesManifest;
 import com.netflix.spinnaker.clouddriver.kubernetes.security.KubernetesCredentials;
+import com.netflix.spinnaker.clouddriver.kubernetes.security.KubernetesSelectorList;
+import java.io.BufferedReader;
+import java.io.Reader;
+import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.util.Collection;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import org.junit.jupiter.api.Test;
 import org.junit.platform.runner.JUnitPlatform;
 import org.junit.runner.RunWith;
@@ -116,10 +128,159 @@ final class KubectlJobExecutorTest {
     }
   }
 
+  @Test
+  void listReadsThroughTheApiClient() throws Exception {
+    JobExecutor jobExecutor = mock(JobExecutor.class);
+    try (FakeKubernetesApiServer server = new FakeKubernetesApiServer()) {
+      server.enqueueList(FakeKubernetesApiServer.Response.podList("10", null, pod("pod-a", "8")));
+      KubernetesCredentials credentials = mockKubernetesCredentials();
+      when(credentials.getReadApiClient()).thenReturn(Optional.of(server.client()));
+
+      KubectlJobExecutor kubectlJobExecutor =
+          new KubectlJobExecutor(jobExecutor, "kubectl", "oauth2l");
+      ImmutableList<KubernetesManifest> manifests =
+          kubectlJobExecutor.list(
+              credentials,
+              ImmutableList.of(KubernetesKind.POD),
+              NAMESPACE,
+              new KubernetesSelectorList());
+
+      assertThat(manifests).extracting(KubernetesManifest::getName).containsExactly("pod-a");
+    }
+    verify(jobExecutor, never()).runJob(any(JobRequest.class));
+    verify(jobExecutor, never()).runJob(any(JobRequest.class), any());
+  }
+
+  @Test
+  void topPodReadsTheMetricsApi() throws Exception {
+    JobExecutor jobExecutor = mock(JobExecutor.class);
+    try (FakeKubernetesApiServer server = new FakeKubernetesApiServer()) {
+      server.enqueueList(
+          FakeKubernetesApiServer.Response.json(
+              ImmutableMap.of(
+                  "items",
+                  ImmutableList.of(
+                      ImmutableMap.of(
+                          "metadata",
+                          ImmutableMap.of("name", "my-pod", "namespace", NAMESPACE),
+                          "containers",
+                          ImmutableList.of(
+                              ImmutableMap.of(
+                                  "name",
+                                  "istio-proxy",
+                                  "usage",
+                                  ImmutableMap.of("cpu", "2500000n", "memory", "29360128"))))))));
+      KubernetesCredentials credentials = mockKubernetesCredentials();
+      when(credentials.getReadApiClient()).thenReturn(Optional.of(server.client()));
+
+      KubectlJobExecutor kubectlJobExecutor =
+          new KubectlJobExecutor(jobExecutor, "kubectl", "oauth2l");
+      Collection<KubernetesPodMetric> podMetrics =
+          kubectlJobExecutor.topPod(credentials, NAMESPACE, "");
+
+      assertThat(podMetrics)
+          .containsExactly(
+              KubernetesPodMetric.builder()
+                  .podName("my-pod")
+                  .namespace(NAMESPACE)
+                  .containerMetrics(
+                      ImmutableList.of(
+                          new ContainerMetric(
+                              "istio-proxy",
+                              ImmutableMap.of("CPU(cores)", "3m", "MEMORY(bytes)", "28Mi"))))
+                  .build());
+      assertThat(server.getRequests())
+          .extracting(URI::getPath)
+          .contains("/apis/metrics.k8s.io/v1beta1/namespaces/test-namespace/pods");
+    }
+  }
+
+  @Test
+  void listPassesManifestsOnBeforeTheOutputIsFullyRead() {
+    int podCount = 50_000;
+    SyntheticPodList output = new SyntheticPodList(podCount);
+    JobExecutor jobExecutor = mock(JobExecutor.class);
+    when(jobExecutor.runJob(any(JobRequest.class), any()))
+        .thenAnswer(
+            invocation -> {
+              ReaderConsumer<?> readerConsumer = invocation.getArgument(1);
+              return JobResult.builder()
+                  .result(Result.SUCCESS)
+                  .output(readerConsumer.consume(new BufferedReader(output)))
+                  .error("")
+                  .build();
+            });
+
+    KubectlJobExecutor kubectlJobExecutor =
+        new KubectlJobExecutor(jobExecutor, "kubectl", "oauth2l");
+    AtomicInteger consumed = new AtomicInteger();
+    AtomicLong readBeforeFirstManifest = new AtomicLong();
+    int listed =
+        kubectlJobExecutor.list(
+            mockKubernetesCredentials(),
+            ImmutableList.of(KubernetesKind.POD),
+            NAMESPACE,
+            new KubernetesSelectorList(),
+            manifest -> {
+              if (consumed.getAndIncrement() == 0) {
+                readBeforeFirstManifest.set(output.getCharsRead());
+              }
+            });
+
+    assertThat(listed).isEqualTo(podCount);
+    assertThat(consumed.get()).isEqualTo(podCount);
+    // Only the buffered start of the output has been read when the first manifest is passed on
+    assertThat(readBeforeFirstManifest.get()).isLessThan(output.getCharsRead() / 100);
+  }
+
   /** Returns a mock KubernetesCredentials object */
   private static KubernetesCredentials mockKubernetesCredentials() {
     KubernetesCredentials credentials = mock(KubernetesCredentials.class);
     when(credentials.getKubectlExecutable()).thenReturn("");
     return credentials;
   }
+
+  /** The output of listing {@code count} pods, generated as it is read. */
+  private static class SyntheticPodList extends Reader {
+    private final int count;
+    private int next = 0;
+    private String chunk = "{\"apiVersion\":\"v1\",\"kind\":\"List\",\"items\":[";
+    private int position = 0;
+    private long charsRead = 0;
+
+    SyntheticPodList(int count) {
+      this.count = count;
+    }
+
+    long getCharsRead() {
+      return charsRead;
+    }
+
+    @Override
+    public int read(char[] buffer, int offset, int length) {
+      if (position == chunk.length()) {
+        if (next > count) {
+          return -1;
+        }
+        chunk = next == count ? "]}" : (next == 0 ? "" : ",") + pod(next);
+        next++;
+        position = 0;
+      }
+      int read = Math.min(length, chunk.length() - position);
+      chunk.getChars(position, position + read, buffer, offset);
+      position += read;
+      charsRead += read;
+      return read;
+    }
+
+    @Override
+    public void close() {}
+
+    private static String pod(int index) {
+      return String.format(
+          "{\"apiVersion\":\"v1\",\"kind\":\"Pod\",\"metadata\":"
+              + "{\"name\":\"pod-%d\",\"namespace\":\"%s\"}}",
+          index, NAMESPACE);
+    }
+  }
 }
@@ -0,0 +1,233 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+
+package com.netflix.spinnaker.clouddriver.kubernetes.op.job;
+
+import static com.netflix.spinnaker.clouddriver.kubernetes.op.job.FakeKubernetesApiServer.expired;
+import static com.netflix.spinnaker.clouddriver.kubernetes.op.job.FakeKubernetesApiServer.pod;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.netflix.spinnaker.clouddriver.kubernetes.description.manifest.KubernetesKind;
+import com.netflix.spinnaker.clouddriver.kubernetes.description.manifest.KubernetesManifest;
+import com.netflix.spinnaker.clouddriver.kubernetes.op.job.FakeKubernetesApiServer.Response;
+import com.netflix.spinnaker.clouddriver.kubernetes.op.job.KubectlJobExecutor.KubectlException;
+import com.netflix.spinnaker.clouddriver.kubernetes.op.job.KubernetesApiClient.ResourceExpiredException;
+import com.netflix.spinnaker.clouddriver.kubernetes.op.job.KubernetesApiClient.ResourceList;
+import com.netflix.spinnaker.clouddriver.kubernetes.op.job.KubernetesApiClient.UnauthorizedException;
+import com.netflix.spinnaker.clouddriver.kubernetes.op.job.KubernetesApiClient.Watch;
+import com.netflix.spinnaker.clouddriver.kubernetes.op.job.KubernetesApiClient.WatchEvent;
+import java.io.IOException;
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.platform.runner.JUnitPlatform;
+import org.junit.runner.RunWith;
+
+@RunWith(JUnitPlatform.class)
+final class KubernetesApiClientTest {
+  private static final String NAMESPACE = "test-namespace";
+
+  private FakeKubernetesApiServer server;
+  private KubernetesApiClient client;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    server = new FakeKubernetesApiServer();
+    client = server.client();
+  }
+
+  @AfterEach
+  void tearDown() {
+    server.close();
+  }
+
+  @Test
+  void listFollowsPagination() {
+    server.enqueueList(Response.podList("10", "next-page", pod("pod-a", "8")));
+    server.enqueueList(Response.podList("10", null, pod("pod-b", "9")));
+
+    ResourceList list = client.list(KubernetesKind.POD, NAMESPACE);
+
+    assertThat(list.getResourceVersion()).isEqualTo("10");
+    assertThat(list.getItems())
+        .extracting(KubernetesManifest::getName)
+        .containsExactly("pod-a", "pod-b");
+    assertThat(server.getRequests())
+        .filteredOn(uri -> uri.getPath().equals("/api/v1/namespaces/test-namespace/pods"))
+        .extracting(URI::getQuery)
+        .containsExactly("limit=500", "limit=500&continue=next-page");
+  }
+
+  @Test
+  void listedItemsHaveKindAndApiVersion() {
+    server.enqueueList(Response.podList("10", null, pod("pod-a", "8")));
+
+    KubernetesManifest manifest = client.list(KubernetesKind.POD, NAMESPACE).getItems().get(0);
+
+    assertThat(manifest.getKind()).isEqualTo(KubernetesKind.POD);
+    assertThat(manifest.getApiVersion().toString()).isEqualTo("v1");
+  }
+
+  @Test
+  void listUsesGroupPathsForGroupKinds() {
+    server.enqueueList(Response.podList("10", null));
+
+    client.list(KubernetesKind.DEPLOYMENT, NAMESPACE);
+
+    assertThat(server.getRequests())
+        .extracting(URI::getPath)
+        .contains("/apis/apps/v1/namespaces/test-namespace/deployments");
+  }
+
+  @Test
+  void listPassesSelectors() {
+    server.enqueueList(Response.podList("10", null));
+
+    client.list(KubernetesKind.POD, NAMESPACE, "app=web", "status.phase=Running");
+
+    assertThat(server.getRequests())
+        .extracting(URI::getQuery)
+        .contains("limit=500&labelSelector=app=web&fieldSelector=status.phase=Running");
+  }
+
+  @Test
+  void listUsesTheDefaultNamespaceForNamespacedKinds() {
+    server.enqueueList(Response.podList("10", null));
+
+    client.list(KubernetesKind.POD, null);
+
+    assertThat(server.getRequests())
+        .extracting(URI::getPath)
+        .contains("/api/v1/namespaces/default/pods");
+  }
+
+  @Test
+  void getReadsOneResource() {
+    server.enqueueList(Response.json(pod("pod-a", "8")));
+
+    KubernetesManifest manifest = client.get(KubernetesKind.POD, NAMESPACE, "pod-a");
+
+    assertThat(manifest.getName()).isEqualTo("pod-a");
+    assertThat(manifest.getKind()).isEqualTo(KubernetesKind.POD);
+    assertThat(server.getRequests())
+        .extracting(URI::getPath)
+        .contains("/api/v1/namespaces/test-namespace/pods/pod-a");
+  }
+
+  @Test
+  void getReturnsNullWhenNotFound() {
+    server.enqueueList(Response.status(404));
+
+    assertThat(client.get(KubernetesKind.POD, NAMESPACE, "pod-a")).isNull();
+  }
+
+  @Test
+  void listFailsForKindsNotServed() {
+    assertThatThrownBy(() -> client.list(KubernetesKind.STATEFUL_SET, NAMESPACE))
+        .isInstanceOf(KubectlException.class)
+        .hasMessageContaining("statefulSet");
+  }
+
+  @Test
+  void listFailsWhenTheContinueTokenExpired() {
+    server.enqueueList(Response.status(410));
+
+    assertThatThrownBy(() -> client.list(KubernetesKind.POD, NAMESPACE))
+        .isInstanceOf(ResourceExpiredException.class);
+  }
+
+  @Test
+  void watchReadsEventsUntilTheStreamEnds() {
+    server.enqueueWatch(
+        Response.watch(false, "ADDED", pod("pod-a", "11"), "DELETED", pod("pod-b", "12")));
+
+    try (Watch watch = client.watch(KubernetesKind.POD, NAMESPACE, "10", 60)) {
+      WatchEvent added = watch.next();
+      assertThat(added.getType()).isEqualTo(WatchEvent.Type.ADDED);
+      assertThat(added.getObject().getName()).isEqualTo("pod-a");
+
+      WatchEvent deleted = watch.next();
+      assertThat(deleted.getType()).isEqualTo(WatchEvent.Type.DELETED);
+      assertThat(deleted.getObject().getName()).isEqualTo("pod-b");
+
+      assertThat(watch.next()).isNull();
+    }
+
+    assertThat(server.getRequests())
+        .extracting(URI::getQuery)
+        .contains("watch=true&resourceVersion=10&allowWatchBookmarks=true&timeoutSeconds=60");
+  }
+
+  @Test
+  void watchFailsWhenTheResourceVersionExpired() {
+    server.enqueueWatch(Response.watch(false, "ERROR", expired()));
+
+    try (Watch watch = client.watch(KubernetesKind.POD, NAMESPACE, "10", 60)) {
+      assertThatThrownBy(watch::next).isInstanceOf(ResourceExpiredException.class);
+    }
+  }
+
+  @Test
+  void listResolvesCredentialsAgainOnceTheTokenRotated() {
+    AtomicInteger resolutions = new AtomicInteger();
+    KubernetesApiClient rotatingClient =
+        server.client(
+            () -> {
+              resolutions.incrementAndGet();
+              return "Bearer rotated-token";
+            });
+    server.enqueueList(Response.podList("10", null, pod("pod-a", "9")));
+    assertThat(rotatingClient.list(KubernetesKind.POD, NAMESPACE).getResourceVersion())
+        .isEqualTo("10");
+    assertThat(resolutions).hasValue(0);
+
+    server.setToken("rotated-token");
+    server.enqueueList(Response.podList("11", null, pod("pod-a", "9")));
+
+    assertThat(rotatingClient.list(KubernetesKind.POD, NAMESPACE).getResourceVersion())
+        .isEqualTo("11");
+    assertThat(resolutions).hasValue(1);
+  }
+
+  @Test
+  void listFailsWhenTheResolvedCredentialsAreStillRejected() {
+    assertThat(client.serves(KubernetesKind.POD)).isTrue();
+    server.setToken("rotated-token");
+
+    assertThatThrownBy(() -> client.list(KubernetesKind.POD, NAMESPACE))
+        .isInstanceOf(UnauthorizedException.class);
+  }
+
+  @Test
+  void watchResolvesCredentialsAgainForTheNextWatchOnceTheTokenRotated() {
+    KubernetesApiClient rotatingClient = server.client(() -> "Bearer rotated-token");
+    assertThat(rotatingClient.serves(KubernetesKind.POD)).isTrue();
+    server.setToken("rotated-token");
+
+    try (Watch watch = rotatingClient.watch(KubernetesKind.POD, NAMESPACE, "10", 60)) {
+      assertThatThrownBy(watch::next).isInstanceOf(UnauthorizedException.class);
+    }
+
+    server.enqueueWatch(Response.watch(false, "ADDED", pod("pod-a", "11")));
+    try (Watch watch = rotatingClient.watch(KubernetesKind.POD, NAMESPACE, "10", 60)) {
+      assertThat(watch.next().getObject().getName()).isEqualTo("pod-a");
+    }
+  }
+}
@@ -17,6 +17,7 @@ package com.netflix.spinnaker.clouddriver.saga.persistence
 
 import com.netflix.spinnaker.clouddriver.event.Aggregate
 import com.netflix.spinnaker.clouddriver.event.persistence.EventRepository
+import com.netflix.spinnaker.clouddriver.event.persistence.EventRepository.AggregateEvents
 import com.netflix.spinnaker.clouddriver.event.persistence.EventRepository.ListAggregatesCriteria
 import com.netflix.spinnaker.clouddriver.saga.SagaEvent
 import com.netflix.spinnaker.clouddriver.saga.SagaSaved
@@ -77,11 +78,23 @@ class DefaultSagaRepository(
   }
 
   override fun save(saga: Saga, additionalEvents: List<SagaEvent>) {
+    val events = getEventsToSave(saga, additionalEvents)
+    eventRepository.save(saga.name, saga.id, saga.getVersion(), events)
+  }
+
+  override fun saveAll(sagas: List<Saga>) {
+    eventRepository.saveAll(
+      sagas.map { AggregateEvents(it.name, it.id, it.getVersion(), getEventsToSave(it, listOf())) }
+    )
+  }
+
+  private fun getEventsToSave(saga: Saga, additionalEvents: List<SagaEvent>): List<SagaEvent> {
     val events: MutableList<SagaEvent> = saga.getPendingEvents().toMutableList()
     if (additionalEvents.isNotEmpty()) {
       events.addAll(additionalEvents)
     }
     events.add(SagaSaved(saga.getSequence()))
-    eventRepository.save(saga.name, saga.id, saga.getVersion(), events)
+    return events
   }
+
 }
@@ -47,6 +47,13 @@ interface SagaRepository {
    */
   fun save(saga: Saga, additionalEvents: List<SagaEvent> = listOf())
 
+  /**
+   * Save the pending events of many [Saga]s, each as a [SagaSaved] event. Each Saga may only be listed once.
+   */
+  fun saveAll(sagas: List<Saga>) {
+    sagas.forEach { save(it) }
+  }
+
   /**
    * @param running Whether or not running [Saga]s should be returned. If undefined, running state will
    *                not be considered
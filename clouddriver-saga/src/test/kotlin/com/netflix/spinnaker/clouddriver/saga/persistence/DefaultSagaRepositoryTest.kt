@@ -0,0 +1,71 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.spinnaker.clouddriver.saga.persistence
+
+import com.netflix.spectator.api.NoopRegistry
+import com.netflix.spinnaker.clouddriver.event.config.MemoryEventRepositoryConfigProperties
+import com.netflix.spinnaker.clouddriver.event.persistence.InMemoryEventRepository
+import com.netflix.spinnaker.clouddriver.saga.models.Saga
+import dev.minutest.junit.JUnit5Minutests
+import dev.minutest.rootContext
+import io.mockk.mockk
+import strikt.api.expectThat
+import strikt.assertions.containsExactly
+import strikt.assertions.isEqualTo
+import strikt.assertions.isNotNull
+
+class DefaultSagaRepositoryTest : JUnit5Minutests {
+
+  fun tests() = rootContext<Fixture> {
+    fixture {
+      Fixture()
+    }
+
+    test("sagas can be saved together") {
+      saveLogs(1)
+      val sagas = listOf(subject.get("test", "1")!!, Saga("test", "2"))
+      sagas.forEach { it.log("together") }
+
+      subject.saveAll(sagas)
+
+      expectThat(subject.get("test", "1"))
+        .isNotNull()
+        .get { getLogs() }
+        .containsExactly("0-0", "0-1", "0-2", "0-3", "together")
+      expectThat(subject.get("test", "2"))
+        .isNotNull()
+        .and {
+          get { getLogs() }.containsExactly("together")
+          get { getVersion() }.isEqualTo(1)
+        }
+    }
+  }
+
+  private inner class Fixture {
+    val eventRepository =
+      InMemoryEventRepository(MemoryEventRepositoryConfigProperties(), mockk(relaxed = true), NoopRegistry())
+
+    val subject = DefaultSagaRepository(eventRepository)
+
+    fun saveLogs(saves: Int) {
+      repeat(saves) { save ->
+        val saga = subject.get("test", "1") ?: Saga("test", "1")
+        repeat(4) { saga.log("$save-$it") }
+        subject.save(saga)
+      }
+    }
+  }
+}
@@ -16,6 +16,7 @@
 package com.netflix.spinnaker.clouddriver.sql
 
 import com.fasterxml.jackson.databind.ObjectMapper
+import com.netflix.spectator.api.Registry
 import com.netflix.spinnaker.clouddriver.core.ClouddriverHostname
 import com.netflix.spinnaker.clouddriver.data.task.DefaultTaskStatus
 import com.netflix.spinnaker.clouddriver.data.task.Task
@@ -23,6 +24,8 @@ import com.netflix.spinnaker.clouddriver.data.task.TaskRepository
 import com.netflix.spinnaker.clouddriver.data.task.TaskState
 import com.netflix.spinnaker.clouddriver.data.task.TaskState.FAILED
 import com.netflix.spinnaker.clouddriver.data.task.TaskState.STARTED
+import com.netflix.spinnaker.clouddriver.sql.SqlTaskStatusBuffer.BufferedStatus
+import com.netflix.spinnaker.config.SqlTaskStatusBufferProperties
 import com.netflix.spinnaker.kork.sql.routing.withPool
 import de.huxhorn.sulky.ulid.ULID
 import java.time.Clock
@@ -35,17 +38,37 @@ import org.jooq.impl.DSL.field
 import org.jooq.impl.DSL.sql
 import org.slf4j.LoggerFactory
 
-class SqlTaskRepository(
+class SqlTaskRepository @JvmOverloads constructor(
   private val jooq: DSLContext,
   private val mapper: ObjectMapper,
   private val clock: Clock,
-  private val poolName: String
+  private val poolName: String,
+  registry: Registry? = null,
+  statusBufferProperties: SqlTaskStatusBufferProperties? = null
 ) : TaskRepository {
 
   private val log = LoggerFactory.getLogger(javaClass)
 
+  /**
+   * Coalesces status updates into batched inserts when enabled. State changes are never buffered: they flush the
+   * task's buffered updates first, as do reads of a single task.
+   */
+  private val statusBuffer: SqlTaskStatusBuffer? =
+    if (registry != null && statusBufferProperties != null && statusBufferProperties.enabled) {
+      SqlTaskStatusBuffer(registry, statusBufferProperties, ::addBufferedToHistory)
+    } else {
+      null
+    }
+
   init {
-    log.info("Using ${javaClass.simpleName} with pool $poolName")
+    log.info("Using ${javaClass.simpleName} with pool $poolName (status buffer enabled: ${statusBuffer != null})")
+  }
+
+  /**
+   * Writes any buffered status updates.
+   */
+  fun close() {
+    statusBuffer?.close()
   }
 
   override fun create(phase: String, status: String): Task {
@@ -163,6 +186,11 @@ class SqlTaskRepository(
 
   internal fun updateCurrentStatus(task: Task, phase: String, status: String) {
     val historyId = ulid.nextULID()
+    if (statusBuffer != null) {
+      statusBuffer.add(task.id, BufferedStatus(historyId, clock.millis(), phase, status.take(MAX_STATUS_LENGTH)))
+      return
+    }
+
     withPool(poolName) {
       jooq.transactional { ctx ->
         val state = selectLatestState(ctx, task.id)
@@ -181,7 +209,25 @@ class SqlTaskRepository(
       .execute()
   }
 
+  /**
+   * Writes buffered status updates in a single insert, with the task's latest state.
+   */
+  private fun addBufferedToHistory(taskId: String, statuses: List<BufferedStatus>) {
+    withPool(poolName) {
+      jooq.transactional { ctx ->
+        val state = (selectLatestState(ctx, taskId)?.state ?: STARTED).toString()
+        var insert = ctx.insertInto(taskStatesTable, taskStatesFields)
+        statuses.forEach {
+          insert = insert.values(listOf(it.id, taskId, it.createdAt, state, it.phase, it.status))
+        }
+        insert.execute()
+      }
+    }
+  }
+
   internal fun updateState(task: Task, state: TaskState) {
+    statusBuffer?.flush(task.id)
+
     val historyId = ulid.nextULID()
     withPool(poolName) {
       jooq.transactional { ctx ->
@@ -193,6 +239,7 @@ class SqlTaskRepository(
   }
 
   internal fun retrieveInternal(taskId: String): Task? {
+    statusBuffer?.flush(taskId)
     return retrieveInternal(field("id").eq(taskId), field("task_id").eq(taskId)).firstOrNull()
   }
 
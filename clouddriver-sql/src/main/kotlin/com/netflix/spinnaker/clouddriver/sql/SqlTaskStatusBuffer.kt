@@ -0,0 +1,130 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.spinnaker.clouddriver.sql
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder
+import com.netflix.spectator.api.Registry
+import com.netflix.spinnaker.config.SqlTaskStatusBufferProperties
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+import org.slf4j.LoggerFactory
+
+/**
+ * Buffers task status updates per task, handing them to [writer] in batches every
+ * [SqlTaskStatusBufferProperties.flushIntervalMs], once a task has
+ * [SqlTaskStatusBufferProperties.maxBatchSize] of them, or whenever [flush] is called for the task.
+ *
+ * A task's updates are written in the order they were added, and never by two flushes at once.
+ */
+internal class SqlTaskStatusBuffer(
+  private val registry: Registry,
+  private val properties: SqlTaskStatusBufferProperties,
+  private val writer: (taskId: String, statuses: List<BufferedStatus>) -> Unit
+) {
+
+  private val log = LoggerFactory.getLogger(javaClass)
+
+  private val batchSizeId = registry.createId("sql.taskRepository.statusBuffer.batchSize")
+  private val flushTimingId = registry.createId("sql.taskRepository.statusBuffer.flushTiming")
+  private val flushErrorsId = registry.createId("sql.taskRepository.statusBuffer.flushErrors")
+
+  private val buffers = ConcurrentHashMap<String, TaskBuffer>()
+  private val executor = Executors.newSingleThreadScheduledExecutor(
+    ThreadFactoryBuilder()
+      .setNameFormat(SqlTaskStatusBuffer::class.java.simpleName + "-%d")
+      .setDaemon(true)
+      .build()
+  )
+
+  init {
+    executor.scheduleWithFixedDelay(
+      { flushAll() },
+      properties.flushIntervalMs,
+      properties.flushIntervalMs,
+      TimeUnit.MILLISECONDS
+    )
+  }
+
+  fun add(taskId: String, status: BufferedStatus) {
+    while (true) {
+      val buffer = buffers.computeIfAbsent(taskId) { TaskBuffer() }
+      synchronized(buffer) {
+        // A flush may have retired this buffer between getting and locking it
+        if (!buffer.retired) {
+          buffer.statuses.add(status)
+          if (buffer.statuses.size >= properties.maxBatchSize) {
+            flush(taskId, buffer)
+          }
+          return
+        }
+      }
+    }
+  }
+
+  /**
+   * Writes the buffered updates of [taskId], if any, before returning.
+   */
+  fun flush(taskId: String) {
+    buffers[taskId]?.let { flush(taskId, it) }
+  }
+
+  fun flushAll() {
+    buffers.forEach { (taskId, buffer) ->
+      try {
+        flush(taskId, buffer)
+      } catch (e: Exception) {
+        registry.counter(flushErrorsId).increment()
+        log.error("Failed to write buffered status updates of task {}, will retry", taskId, e)
+      }
+    }
+  }
+
+  /**
+   * Stops flushing on an interval, then writes everything that is still buffered.
+   */
+  fun close() {
+    executor.shutdown()
+    flushAll()
+  }
+
+  private fun flush(taskId: String, buffer: TaskBuffer) {
+    synchronized(buffer) {
+      if (buffer.statuses.isNotEmpty()) {
+        val statuses = buffer.statuses.toList()
+        registry.timer(flushTimingId).record {
+          writer(taskId, statuses)
+        }
+        registry.distributionSummary(batchSizeId).record(statuses.size.toLong())
+        buffer.statuses.clear()
+      }
+      buffers.remove(taskId, buffer)
+      buffer.retired = true
+    }
+  }
+
+  private class TaskBuffer {
+    val statuses = mutableListOf<BufferedStatus>()
+    var retired = false
+  }
+
+  internal data class BufferedStatus(
+    val id: String,
+    val createdAt: Long,
+    val phase: String,
+    val status: String
+  )
+}
@@ -24,6 +24,7 @@ import com.netflix.spinnaker.clouddriver.event.SpinnakerEvent
 import com.netflix.spinnaker.clouddriver.event.exceptions.AggregateChangeRejectedException
 import com.netflix.spinnaker.clouddriver.event.exceptions.DuplicateEventAggregateException
 import com.netflix.spinnaker.clouddriver.event.persistence.EventRepository
+import com.netflix.spinnaker.clouddriver.event.persistence.EventRepository.AggregateEvents
 import com.netflix.spinnaker.clouddriver.event.persistence.EventRepository.ListAggregatesCriteria
 import com.netflix.spinnaker.clouddriver.sql.transactional
 import com.netflix.spinnaker.config.ConnectionPools
@@ -37,6 +38,7 @@ import org.jooq.DSLContext
 import org.jooq.impl.DSL.currentTimestamp
 import org.jooq.impl.DSL.field
 import org.jooq.impl.DSL.max
+import org.jooq.impl.DSL.or
 import org.jooq.impl.DSL.table
 import org.slf4j.LoggerFactory
 import org.springframework.context.ApplicationEventPublisher
@@ -90,7 +92,10 @@ class SqlEventRepository(
                 .columns(initialAggregate.keys)
                 .values(initialAggregate.values)
                 .execute()
-            } catch (e: SQLIntegrityConstraintViolationException) {
+            } catch (e: Exception) {
+              if (!e.isDuplicateKey()) {
+                throw e
+              }
               // In the event that two requests are made at the same time to create a new aggregate (via two diff
               // clouddriver instances), catch the exception and bubble it up as a duplicate exception so that it
               // may be processed in an idempotent way, rather than causing an error.
@@ -174,6 +179,162 @@ class SqlEventRepository(
     newEvents.forEach { applicationEventPublisher.publishEvent(it) }
   }
 
+  /**
+   * Saves all [appends] in a single transaction, using a fixed number of statements regardless of how many
+   * aggregates there are: one to read and check the versions of all aggregates, one to create the missing ones,
+   * one to read their last event sequences, one to insert all events and one to bump all versions.
+   */
+  override fun saveAll(appends: List<AggregateEvents>) {
+    if (appends.isEmpty()) {
+      return
+    }
+    require(appends.distinctBy { it.key }.size == appends.size) {
+      "Events can only be appended to each aggregate once per batch"
+    }
+
+    log.debug(
+      "Saving events to ${appends.size} aggregates: " +
+        "[${appends.joinToString { "${it.aggregateType}/${it.aggregateId}@${it.originatingVersion}" }}]"
+    )
+
+    val aggregatesCondition = or(appends.map { it.condition() })
+
+    try {
+      withPool(POOL_NAME) {
+        jooq.transactional { ctx ->
+          val versions = ctx.getVersions(aggregatesCondition)
+          appends.forEach {
+            val version = versions[it.key] ?: -1L
+            // Aggregates that don't exist yet are expected to be at version 0, they'll be created just below.
+            if (version != it.originatingVersion && !(version == -1L && it.originatingVersion == 0L)) {
+              throw AggregateChangeRejectedException(version, it.originatingVersion)
+            }
+          }
+
+          val newAggregates = appends.filterNot { versions.containsKey(it.key) }
+          if (newAggregates.isNotEmpty()) {
+            try {
+              ctx.insertInto(AGGREGATES_TABLE)
+                .columns(field("aggregate_type"), field("aggregate_id"), field("token"), field("version"))
+                .let { insertValuesStep ->
+                  var step = insertValuesStep
+                  newAggregates.forEach {
+                    step = step.values(listOf(it.aggregateType, it.aggregateId, ulid.nextULID(), 0))
+                  }
+                  step
+                }
+                .execute()
+            } catch (e: Exception) {
+              if (!e.isDuplicateKey()) {
+                throw e
+              }
+              // See save: another process created one of these aggregates at the same time.
+              throw DuplicateEventAggregateException(e)
+            }
+          }
+
+          val lastSequences = ctx
+            .select(field("aggregate_type"), field("aggregate_id"), max(field("sequence", Long::class.java)))
+            .from(EVENTS_TABLE)
+            .where(aggregatesCondition)
+            .groupBy(field("aggregate_type"), field("aggregate_id"))
+            .fetch()
+            .associate {
+              Pair(it.get(0, String::class.java), it.get(1, String::class.java)) to it.get(2, Long::class.java)
+            }
+
+          if (appends.any { it.events.isNotEmpty() }) {
+            ctx.insertInto(EVENTS_TABLE)
+              .columns(
+                field("id"),
+                field("aggregate_type"),
+                field("aggregate_id"),
+                field("sequence"),
+                field("originating_version"),
+                field("timestamp"),
+                field("metadata"),
+                field("data")
+              )
+              .let { insertValuesStep ->
+                var step = insertValuesStep
+                appends.forEach { append ->
+                  var nextSequence: Long? = lastSequences[append.key] ?: 0L
+                  append.events.forEach {
+                    nextSequence = it.initialize(
+                      append.aggregateType,
+                      append.aggregateId,
+                      append.originatingVersion,
+                      nextSequence
+                    )
+                    step = step.values(it.toSqlValues(objectMapper))
+                  }
+                }
+                step
+              }
+              .execute()
+          }
+
+          // Only bump aggregates that are still at their expected version, in case another process saved to one
+          // of them since the versions were read.
+          val updated = ctx.update(AGGREGATES_TABLE)
+            .set(field("version"), field("version", Long::class.java).add(1))
+            .set(field("last_change_timestamp"), currentTimestamp())
+            .where(or(appends.map { it.condition().and(field("version").eq(it.originatingVersion)) }))
+            .execute()
+
+          if (updated != appends.size) {
+            val latestVersions = ctx.getVersions(aggregatesCondition)
+            val rejected = appends.first { latestVersions[it.key] != it.originatingVersion }
+            throw AggregateChangeRejectedException(latestVersions[rejected.key] ?: -1L, rejected.originatingVersion)
+          }
+        }
+      }
+    } catch (e: AggregateChangeRejectedException) {
+      recordErrors(appends, e)
+      throw e
+    } catch (e: Exception) {
+      recordErrors(appends, e)
+      throw SqlEventSystemException("Failed saving new events", e)
+    }
+
+    appends.forEach {
+      registry.counter(eventCountId.withTags("aggregateType", it.aggregateType)).increment(it.events.size.toLong())
+    }
+
+    appends.forEach { append -> append.events.forEach { applicationEventPublisher.publishEvent(it) } }
+  }
+
+  /**
+   * Integrity violations reach us wrapped by jOOQ, or by Spring when its exception translator is configured.
+   */
+  private fun Throwable.isDuplicateKey(): Boolean =
+    generateSequence(this) { it.cause }.any { it is SQLIntegrityConstraintViolationException }
+
+  private fun recordErrors(appends: List<AggregateEvents>, e: Exception) {
+    appends.map { it.aggregateType }.distinct().forEach { aggregateType ->
+      registry.counter(
+        eventErrorCountId
+          .withTags("aggregateType", aggregateType, "exception", e.javaClass.simpleName)
+      )
+        .increment()
+    }
+  }
+
+  private val AggregateEvents.key: Pair<String, String>
+    get() = Pair(aggregateType, aggregateId)
+
+  private fun AggregateEvents.condition(): Condition =
+    field("aggregate_type").eq(aggregateType).and(field("aggregate_id").eq(aggregateId))
+
+  private fun DSLContext.getVersions(condition: Condition): Map<Pair<String, String>, Long> =
+    select(field("aggregate_type"), field("aggregate_id"), field("version"))
+      .from(AGGREGATES_TABLE)
+      .where(condition)
+      .fetch()
+      .associate {
+        Pair(it.get(0, String::class.java), it.get(1, String::class.java)) to it.get(2, Long::class.java)
+      }
+
   /**
    * Initialize the [SpinnakerEvent] lateinit properties (recursively, if necessary).
    *
@@ -45,7 +45,11 @@ import org.springframework.context.annotation.Import
 @Configuration
 @ConditionalOnProperty("sql.enabled")
 @Import(DefaultSqlConfiguration::class)
-@EnableConfigurationProperties(SqlTaskCleanupAgentProperties::class, SqlEventCleanupAgentConfigProperties::class)
+@EnableConfigurationProperties(
+  SqlTaskCleanupAgentProperties::class,
+  SqlEventCleanupAgentConfigProperties::class,
+  SqlTaskStatusBufferProperties::class
+)
 class SqlConfiguration {
 
   @Bean
@@ -53,9 +57,11 @@ class SqlConfiguration {
   fun sqlTaskRepository(
     jooq: DSLContext,
     clock: Clock,
-    objectMapper: ObjectMapper
+    objectMapper: ObjectMapper,
+    registry: Registry,
+    statusBufferProperties: SqlTaskStatusBufferProperties
   ): TaskRepository =
-    SqlTaskRepository(jooq, objectMapper, clock, ConnectionPools.TASKS.value)
+    SqlTaskRepository(jooq, objectMapper, clock, ConnectionPools.TASKS.value, registry, statusBufferProperties)
 
   @Bean
   @ConditionalOnProperty("sql.task-repository.enabled", "sql.task-repository.secondary.enabled")
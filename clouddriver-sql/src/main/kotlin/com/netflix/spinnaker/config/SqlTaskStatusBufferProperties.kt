@@ -0,0 +1,33 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.spinnaker.config
+
+import org.springframework.boot.context.properties.ConfigurationProperties
+
+@ConfigurationProperties("sql.task-repository.status-buffer")
+class SqlTaskStatusBufferProperties {
+  /**
+   * When enabled, task status updates are written in batches on [flushIntervalMs], rather than
+   * one transaction per update.
+   */
+  var enabled: Boolean = false
+  var flushIntervalMs: Long = 250
+
+  /**
+   * A task's buffered updates are flushed by the caller once there are this many of them.
+   */
+  var maxBatchSize: Int = 100
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.spinnaker.clouddriver.sql;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.netflix.spectator.api.NoopRegistry;
+import com.netflix.spinnaker.clouddriver.core.test.TaskRepositoryTck;
+import com.netflix.spinnaker.clouddriver.data.task.TaskRepository;
+import com.netflix.spinnaker.config.ConnectionPools;
+import com.netflix.spinnaker.config.SqlTaskStatusBufferProperties;
+import com.netflix.spinnaker.kork.sql.test.SqlTestUtil;
+import java.time.Clock;
+import org.junit.After;
+
+/** Runs the task repository TCK with status updates going through the status buffer. */
+public class BufferedSqlTaskRepositoryTest extends TaskRepositoryTck {
+
+  private SqlTestUtil.TestDatabase database;
+  private SqlTaskRepository repository;
+
+  @Override
+  protected TaskRepository createTaskRepository() {
+    database = SqlTestUtil.initTcMysqlDatabase();
+
+    SqlTaskStatusBufferProperties properties = new SqlTaskStatusBufferProperties();
+    properties.setEnabled(true);
+    properties.setFlushIntervalMs(60_000);
+
+    repository =
+        new SqlTaskRepository(
+            database.context,
+            new ObjectMapper(),
+            Clock.systemDefaultZone(),
+            ConnectionPools.TASKS.getValue(),
+            new NoopRegistry(),
+            properties);
+    return repository;
+  }
+
+  @After
+  public void cleanup() {
+    if (repository != null) {
+      repository.close();
+    }
+    if (database != null) {
+      SqlTestUtil.cleanupDb(database.context);
+    }
+  }
+}
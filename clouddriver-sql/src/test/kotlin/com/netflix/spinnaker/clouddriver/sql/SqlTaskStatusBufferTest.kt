@@ -0,0 +1,95 @@
+/*
+ * Copyright 2020 Netflix, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.netflix.spinnaker.clouddriver.sql
+
+import com.netflix.spectator.api.DefaultRegistry
+import com.netflix.spinnaker.clouddriver.sql.SqlTaskStatusBuffer.BufferedStatus
+import com.netflix.spinnaker.config.SqlTaskStatusBufferProperties
+import dev.minutest.junit.JUnit5Minutests
+import dev.minutest.rootContext
+import strikt.api.expectThat
+import strikt.api.expectThrows
+import strikt.assertions.containsExactly
+import strikt.assertions.isEmpty
+import strikt.assertions.isEqualTo
+
+class SqlTaskStatusBufferTest : JUnit5Minutests {
+
+  fun tests() = rootContext<Fixture> {
+    fixture {
+      Fixture()
+    }
+
+    after {
+      subject.close()
+    }
+
+    test("writes each task's updates in order when flushed") {
+      subject.add("a", status("a1"))
+      subject.add("b", status("b1"))
+      subject.add("a", status("a2"))
+
+      subject.flush("a")
+
+      expectThat(writes).containsExactly("a" to listOf("a1", "a2"))
+
+      subject.flushAll()
+
+      expectThat(writes).containsExactly("a" to listOf("a1", "a2"), "b" to listOf("b1"))
+      expectThat(registry.distributionSummary("sql.taskRepository.statusBuffer.batchSize").totalAmount())
+        .isEqualTo(3L)
+    }
+
+    test("writes a task's updates once it has a full batch") {
+      (1..5).forEach { subject.add("a", status("a$it")) }
+
+      expectThat(writes).containsExactly("a" to listOf("a1", "a2", "a3", "a4"))
+    }
+
+    test("keeps updates that failed to be written") {
+      failWrites = true
+      subject.add("a", status("a1"))
+
+      expectThrows<IllegalStateException> { subject.flush("a") }
+      expectThat(writes).isEmpty()
+
+      failWrites = false
+      subject.add("a", status("a2"))
+      subject.flushAll()
+
+      expectThat(writes).containsExactly("a" to listOf("a1", "a2"))
+    }
+  }
+
+  private inner class Fixture {
+    val registry = DefaultRegistry()
+    val writes = mutableListOf<Pair<String, List<String>>>()
+    var failWrites = false
+
+    val subject = SqlTaskStatusBuffer(
+      registry,
+      SqlTaskStatusBufferProperties().apply {
+        flushIntervalMs = 60_000
+        maxBatchSize = 4
+      }
+    ) { taskId, statuses ->
+      check(!failWrites) { "Failed to write" }
+      writes.add(taskId to statuses.map { it.status })
+    }
+
+    fun status(status: String) = BufferedStatus(status, 0, "TEST", status)
+  }
+}
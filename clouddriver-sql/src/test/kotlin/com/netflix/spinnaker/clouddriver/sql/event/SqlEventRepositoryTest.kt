@@ -21,6 +21,8 @@ import com.fasterxml.jackson.module.kotlin.KotlinModule
 import com.netflix.spectator.api.NoopRegistry
 import com.netflix.spinnaker.clouddriver.event.AbstractSpinnakerEvent
 import com.netflix.spinnaker.clouddriver.event.exceptions.AggregateChangeRejectedException
+import com.netflix.spinnaker.clouddriver.event.exceptions.DuplicateEventAggregateException
+import com.netflix.spinnaker.clouddriver.event.persistence.EventRepository.AggregateEvents
 import com.netflix.spinnaker.clouddriver.event.persistence.EventRepository.ListAggregatesCriteria
 import com.netflix.spinnaker.clouddriver.event.persistence.EventRepository.ListAggregatesResult
 import com.netflix.spinnaker.kork.sql.test.SqlTestUtil
@@ -29,6 +31,13 @@ import dev.minutest.junit.JUnit5Minutests
 import dev.minutest.rootContext
 import io.mockk.every
 import io.mockk.mockk
+import org.jooq.ExecuteContext
+import org.jooq.Insert
+import org.jooq.impl.DSL
+import org.jooq.impl.DSL.field
+import org.jooq.impl.DSL.table
+import org.jooq.impl.DefaultExecuteListener
+import org.jooq.impl.DefaultExecuteListenerProvider
 import org.springframework.context.ApplicationEventPublisher
 import org.testcontainers.shaded.com.fasterxml.jackson.annotation.JsonTypeName
 import strikt.api.expect
@@ -37,6 +46,7 @@ import strikt.api.expectThrows
 import strikt.assertions.containsExactly
 import strikt.assertions.hasSize
 import strikt.assertions.isA
+import strikt.assertions.isEmpty
 import strikt.assertions.isEqualTo
 import strikt.assertions.isNotEmpty
 import strikt.assertions.isNotNull
@@ -102,6 +112,120 @@ class SqlEventRepositoryTest : JUnit5Minutests {
           .containsExactly(1, 2, 3, 4)
       }
 
+      test("events can be listed after a sequence") {
+        subject.save("agg", "1", 0, listOf(MyEvent("1"), MyEvent("2")))
+        subject.save("agg", "1", 1, listOf(MyEvent("3"), MyEvent("4")))
+
+        expectThat(subject.list("agg", "1", 2))
+          .get { map { (it as MyEvent).value } }
+          .containsExactly("3", "4")
+      }
+
+      context("saving many aggregates at once") {
+        test("events are saved to each aggregate") {
+          subject.save("agg", "1", 0, listOf(MyEvent("1")))
+
+          subject.saveAll(
+            listOf(
+              AggregateEvents("agg", "1", 1, listOf(MyEvent("2"), MyEvent("3"))),
+              AggregateEvents("agg", "2", 0, listOf(MyEvent("a")))
+            )
+          )
+
+          expect {
+            that(subject.list("agg", "1"))
+              .get { map { (it as MyEvent).value to it.getMetadata().sequence } }
+              .containsExactly("1" to 1L, "2" to 2L, "3" to 3L)
+            that(subject.list("agg", "2"))
+              .get { map { (it as MyEvent).value to it.getMetadata().sequence } }
+              .containsExactly("a" to 1L)
+            that(subject.listAggregates(ListAggregatesCriteria()).aggregates)
+              .get { associate { it.id to it.version } }
+              .isEqualTo(mapOf("1" to 2L, "2" to 1L))
+          }
+        }
+
+        test("a stale aggregate rejects the whole batch") {
+          subject.save("agg", "1", 0, listOf(MyEvent("1")))
+
+          expectThrows<AggregateChangeRejectedException> {
+            subject.saveAll(
+              listOf(
+                AggregateEvents("agg", "2", 0, listOf(MyEvent("a"))),
+                AggregateEvents("agg", "1", 0, listOf(MyEvent("2")))
+              )
+            )
+          }
+
+          expect {
+            that(subject.list("agg", "1")).hasSize(1)
+            that(subject.list("agg", "2")).isEmpty()
+            that(subject.listAggregates(ListAggregatesCriteria()).aggregates).hasSize(1)
+          }
+        }
+
+        test("an aggregate can only be appended to once per batch") {
+          expectThrows<IllegalArgumentException> {
+            subject.saveAll(
+              listOf(
+                AggregateEvents("agg", "1", 0, listOf(MyEvent("1"))),
+                AggregateEvents("agg", "1", 1, listOf(MyEvent("2")))
+              )
+            )
+          }
+        }
+
+        test("an aggregate created by another process fails a batch like it fails a single save") {
+          val saveFailure = runCatching {
+            racingSubject.save("agg", "1", 0, listOf(MyEvent("1")))
+          }.exceptionOrNull()
+          val saveAllFailure = runCatching {
+            racingSubject.saveAll(
+              listOf(
+                AggregateEvents("agg", "2", 0, listOf(MyEvent("a"))),
+                AggregateEvents("agg", "3", 0, listOf(MyEvent("b")))
+              )
+            )
+          }.exceptionOrNull()
+
+          expect {
+            that(saveFailure).isA<SqlEventSystemException>()
+              .get { cause }.isA<DuplicateEventAggregateException>()
+            that(saveAllFailure).isA<SqlEventSystemException>()
+              .get { cause }.isA<DuplicateEventAggregateException>()
+            that(subject.list("agg", "2")).isEmpty()
+            that(subject.list("agg", "3")).isEmpty()
+          }
+        }
+
+        test("saving in batches is the same as saving each aggregate") {
+          val aggregateCount = 120
+          val eventsPerAggregate = 3
+          val batchSize = 50
+          fun events(id: Int) = (1..eventsPerAggregate).map { MyEvent("$id-$it") }
+
+          (1..aggregateCount).forEach { subject.save("single", "$it", 0, events(it)) }
+          (1..aggregateCount).chunked(batchSize).forEach { ids ->
+            subject.saveAll(ids.map { AggregateEvents("batched", "$it", 0, events(it)) })
+          }
+
+          fun versions(type: String) =
+            subject.listAggregates(ListAggregatesCriteria(aggregateType = type, perPage = 1000))
+              .aggregates
+              .associate { it.id to it.version }
+          fun values(type: String, id: Int) = subject.list(type, "$id").map { (it as MyEvent).value }
+          fun sequences(type: String, id: Int) = subject.list(type, "$id").map { it.getMetadata().sequence }
+
+          expectThat(versions("batched"))
+            .hasSize(aggregateCount)
+            .isEqualTo(versions("single"))
+          (1..aggregateCount).forEach { id ->
+            expectThat(values("batched", id)).isEqualTo(values("single", id))
+            expectThat(sequences("batched", id)).isEqualTo(sequences("single", id))
+          }
+        }
+      }
+
       context("listing aggregates") {
         fun Fixture.setupAggregates() {
           subject.save("foo", "1", 0, listOf(MyEvent("hi foo")))
@@ -200,13 +324,43 @@ class SqlEventRepositoryTest : JUnit5Minutests {
     val serviceVersion: ServiceVersion = mockk(relaxed = true)
     val applicationEventPublisher: ApplicationEventPublisher = mockk(relaxed = true)
 
+    val objectMapper = ObjectMapper().apply {
+      registerModules(KotlinModule(), JavaTimeModule())
+      registerSubtypes(MyEvent::class.java)
+    }
+
     val subject = SqlEventRepository(
       jooq = database.context,
       serviceVersion = serviceVersion,
-      objectMapper = ObjectMapper().apply {
-        registerModules(KotlinModule(), JavaTimeModule())
-        registerSubtypes(MyEvent::class.java)
-      },
+      objectMapper = objectMapper,
+      applicationEventPublisher = applicationEventPublisher,
+      registry = NoopRegistry()
+    )
+
+    /**
+     * Every aggregate this repository creates is created by another process first, between the moment the
+     * repository found it missing and the moment it inserts it.
+     */
+    val racingSubject = SqlEventRepository(
+      jooq = DSL.using(
+        database.context.configuration().derive(
+          DefaultExecuteListenerProvider(
+            object : DefaultExecuteListener() {
+              override fun executeStart(ctx: ExecuteContext) {
+                if (ctx.query() is Insert<*> && ctx.sql()?.contains("event_aggregates") == true) {
+                  val (aggregateType, aggregateId) = ctx.query()!!.bindValues
+                  database.context.insertInto(table("event_aggregates"))
+                    .columns(field("aggregate_type"), field("aggregate_id"), field("token"), field("version"))
+                    .values(aggregateType, aggregateId, "other-process", 0)
+                    .execute()
+                }
+              }
+            }
+          )
+        )
+      ),
+      serviceVersion = serviceVersion,
+      objectMapper = objectMapper,
       applicationEventPublisher = applicationEventPublisher,
       registry = NoopRegistry()
     )
@@ -68,7 +68,7 @@ class OperationsController {
     @RequestParam(value = "clientRequestId", required = false) String clientRequestId,
     @RequestBody List<Map<String, Map>> requestBody) {
     List<AtomicOperation> atomicOperations = operationsService.collectAtomicOperations(requestBody)
-    return start(atomicOperations, clientRequestId)
+    return start(null, requestBody, atomicOperations, clientRequestId)
   }
 
   /**
@@ -81,7 +81,7 @@ class OperationsController {
     @RequestParam(value = "clientRequestId", required = false) String clientRequestId,
     @RequestBody Map requestBody) {
     List<AtomicOperation> atomicOperations = operationsService.collectAtomicOperations([[(name): requestBody]])
-    return start(atomicOperations, clientRequestId)
+    return start(null, [[(name): requestBody]], atomicOperations, clientRequestId)
   }
 
   @PostMapping("/{cloudProvider}/ops")
@@ -90,7 +90,7 @@ class OperationsController {
     @RequestParam(value = "clientRequestId", required = false) String clientRequestId,
     @RequestBody List<Map<String, Map>> requestBody) {
     List<AtomicOperation> atomicOperations = operationsService.collectAtomicOperations(cloudProvider, requestBody)
-    return start(atomicOperations, clientRequestId)
+    return start(cloudProvider, requestBody, atomicOperations, clientRequestId)
   }
 
   @PostMapping("/{cloudProvider}/ops/{name}")
@@ -100,7 +100,7 @@ class OperationsController {
     @RequestParam(value = "clientRequestId", required = false) String clientRequestId,
     @RequestBody Map requestBody) {
     List<AtomicOperation> atomicOperations = operationsService.collectAtomicOperations(cloudProvider, [[(name): requestBody]])
-    return start(atomicOperations, clientRequestId)
+    return start(cloudProvider, [[(name): requestBody]], atomicOperations, clientRequestId)
   }
 
   @GetMapping("/task/{id}")
@@ -170,6 +170,25 @@ class OperationsController {
     return new StartOperationResult(task.getId());
   }
 
+  /**
+   * Starts the operations with the cloud provider and account of the first description that names them, so that the
+   * orchestration processor can schedule them per account.
+   */
+  private StartOperationResult start(@Nullable String cloudProvider,
+                                     @Nonnull List<Map<String, Map>> requestBody,
+                                     @Nonnull List<AtomicOperation> atomicOperations,
+                                     @Nullable String id) {
+    List<Map> descriptions = requestBody.collectMany { it.values() as List<Map> }
+    String account = descriptions.findResult { (it.credentials ?: it.accountName ?: it.account)?.toString() }
+    Task task =
+      orchestrationProcessor.process(
+        cloudProvider ?: descriptions.findResult { it.cloudProvider?.toString() },
+        account,
+        atomicOperations,
+        Optional.ofNullable(id).orElse(UUID.randomUUID().toString()));
+    return new StartOperationResult(task.getId());
+  }
+
   static class StartOperationResult {
     @JsonProperty private final String id
 